@@ -0,0 +1,178 @@
+package sheikah;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Classe EngineBenchmark - mesure JMH d'un aller-retour complet GameEngine.interpretCommand
+ * pour chaque verbe du jeu "le mystère des ruines Sheikah", sur le chemin où la commande réussit
+ * (plus un refus courant, "ingerer-refus", et une commande inconnue).
+ *
+ * Chaque cas prépare un moteur (commandes de préparation, non mesurées) puis mesure un cycle :
+ * la commande du verbe, suivie si besoin des commandes qui remettent le jeu dans l'état de départ
+ * du cycle (poser ce qu'on a pris, refermer ce qu'on a ouvert, "charger-partie" après ingérer ou test).
+ * Le temps affiché est celui du cycle entier ; le cas "charger-partie" donne le coût de la remise en état
+ * quand un cycle l'utilise. Quand le joueur approche de la limite de déplacements, la partie est remise
+ * dans son état d'après la préparation (sauvegarde en mémoire), ce qui n'arrive qu'une fois toutes les
+ * dizaines de cycles. "quitter" termine la partie : il a sa propre mesure (QuitBenchmark).
+ *
+ * Les moteurs sont en mode debug, comme pendant un "test", pour que "alea" et "stats" fassent leur travail.
+ * Les affichages partent dans une NullOutput, les sauvegardes dans un dossier temporaire effacé à la fin,
+ * et le moteur mesuré part dans le Blackhole de JMH après chaque cycle.
+ * Le cas "test" lit court.txt dans le dossier courant : les mesures se lancent depuis le dossier du jeu.
+ *
+ * @author  Benoît de Keyn
+ * @version 2026.02.04
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 3 )
+@State( Scope.Thread )
+public class EngineBenchmark
+{
+    /** Le nombre de déplacements gardés en réserve avant la limite (plus que n'en fait un cycle). */
+    private static final int MOVE_MARGIN = 20;
+
+    /**
+     * Les cas mesurés : nom -> { préparation, cycle }, commandes séparées par des ';'.
+     */
+    private static final Map<String, String[]> CASES = Map.ofEntries(
+        Map.entry( "aller",          new String[] { "", "aller est;aller ouest" } ),
+        Map.entry( "retour",         new String[] { "aller est", "retour;aller est" } ),
+        Map.entry( "aide",           new String[] { "", "aide" } ),
+        Map.entry( "respirer",       new String[] { "", "respirer" } ),
+        Map.entry( "regarder",       new String[] { "", "regarder" } ),
+        Map.entry( "prendre",        new String[] { "", "prendre torche;poser torche" } ),
+        Map.entry( "poser",          new String[] { "prendre torche", "poser torche;prendre torche" } ),
+        Map.entry( "inventaire",     new String[] { "prendre torche", "inventaire" } ),
+        Map.entry( "ingerer",        new String[] { "aller ouest;aller nord;aller sud;prendre fiole;sauver banc",
+                                                    "ingérer fiole;charger-partie banc" } ),
+        Map.entry( "ingerer-refus",  new String[] { "prendre torche", "ingérer torche" } ),
+        Map.entry( "charger",        new String[] { "aller est;aller ouest;aller haut;prendre téléporteur", "charger" } ),
+        Map.entry( "declencher",     new String[] { "aller est;aller ouest;aller haut;prendre téléporteur;charger",
+                                                    "déclencher;charger" } ),
+        Map.entry( "deverrouiller",  new String[] { "aller est;aller ouest;aller haut;aller haut;prendre clé;aller bas;aller sud",
+                                                    "déverrouiller nord;verrouiller nord" } ),
+        Map.entry( "verrouiller",    new String[] { "aller est;aller ouest;aller haut;aller haut;prendre clé;aller bas;aller sud;déverrouiller nord",
+                                                    "verrouiller nord;déverrouiller nord" } ),
+        Map.entry( "sauver",         new String[] { "prendre torche", "sauver banc" } ),
+        Map.entry( "charger-partie", new String[] { "prendre torche;sauver banc", "charger-partie banc" } ),
+        Map.entry( "itineraire",     new String[] { "", "itinéraire arbre" } ),
+        Map.entry( "test",           new String[] { "sauver banc", "test court;charger-partie banc" } ),
+        Map.entry( "alea",           new String[] { "", "alea zone_nord" } ),
+        Map.entry( "stats",          new String[] { "", "stats" } ),
+        Map.entry( "inconnue",       new String[] { "", "sauter partout" } )
+    );
+
+    /** Le cas mesuré (rempli par JMH : le champ ne doit être ni privé ni final). */
+    @Param( { "aller", "retour", "aide", "respirer", "regarder", "prendre", "poser", "inventaire",
+              "ingerer", "ingerer-refus", "charger", "declencher", "deverrouiller", "verrouiller",
+              "sauver", "charger-partie", "itineraire", "test", "alea", "stats", "inconnue" } )
+    String aCase;
+
+    /** Le dossier temporaire des sauvegardes. */
+    private Path aSavesFolder;
+
+    /** Le moteur mesuré. */
+    private GameEngine aEngine;
+
+    /** Les commandes du cycle mesuré. */
+    private String[] aCycle;
+
+    /** L'état de la partie après la préparation (sauvegarde binaire). */
+    private byte[] aStart;
+
+    /**
+     * Prépare le moteur du cas mesuré.
+     *
+     * @throws IOException si le dossier des sauvegardes ne peut pas être créé
+     */
+    @Setup( Level.Trial )
+    public void setUp() throws IOException
+    {
+        String[] vCase = CASES.get( this.aCase );
+        if ( vCase == null ) {
+            throw new IllegalArgumentException( "Cas inconnu : " + this.aCase );
+        }
+        if ( this.aCase.equals( "test" ) && ! Files.exists( Path.of( "court.txt" ) ) ) {
+            throw new IllegalStateException( "court.txt introuvable : lancer les mesures depuis le dossier du jeu." );
+        }
+        this.aSavesFolder = Files.createTempDirectory( "sheikah-banc" );
+        this.aEngine = newEngine( this.aSavesFolder );
+        if ( ! vCase[0].isEmpty() ) {
+            for ( String vLine : vCase[0].split( ";" ) ) {
+                this.aEngine.interpretCommand( vLine );
+            }
+        }
+        this.aCycle = vCase[1].split( ";" );
+        ByteBuffer vStart = this.aEngine.saveSnapshot();
+        this.aStart = new byte[ vStart.remaining() ];
+        vStart.get( this.aStart );
+    } // setUp()
+
+    /**
+     * Efface le dossier des sauvegardes.
+     *
+     * @throws IOException si le dossier ne peut pas être effacé
+     */
+    @TearDown( Level.Trial )
+    public void tearDown() throws IOException
+    {
+        ScriptRunner.deleteFolder( this.aSavesFolder );
+    } // tearDown()
+
+    /**
+     * Mesure un cycle du cas choisi.
+     *
+     * @param pBlackhole le Blackhole de JMH
+     * @throws IOException si la partie ne peut pas être remise dans son état de départ
+     */
+    @Benchmark
+    public void interpretCommand( final Blackhole pBlackhole ) throws IOException
+    {
+        GameEngine vEngine = this.aEngine;
+        for ( String vLine : this.aCycle ) {
+            vEngine.interpretCommand( vLine );
+        }
+        if ( vEngine.getMovesCount() > vEngine.getMaxMoves() - MOVE_MARGIN ) {
+            vEngine.restoreSnapshot( ByteBuffer.wrap( this.aStart ) );
+        }
+        pBlackhole.consume( vEngine );
+    } // interpretCommand(*)
+
+    /**
+     * Crée un moteur sans affichage, prêt à jouer, en mode debug.
+     *
+     * @param pSavesFolder le dossier des sauvegardes (null pour les interdire)
+     * @return un nouveau moteur relié à une NullOutput
+     */
+    static GameEngine newEngine( final Path pSavesFolder )
+    {
+        GameEngine vEngine = new GameEngine();
+        vEngine.setSavesFolder( pSavesFolder );
+        vEngine.setDebugMode( true );
+        vEngine.setPlayer( new Player( "Benchmark" ) );
+        vEngine.setGUI( new NullOutput() );
+        return vEngine;
+    } // newEngine(*)
+} // EngineBenchmark
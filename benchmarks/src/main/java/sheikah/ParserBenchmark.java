@@ -0,0 +1,148 @@
+package sheikah;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Classe ParserBenchmark - mesure JMH de l'analyse des commandes du jeu "le mystère des ruines Sheikah" :
+ * Parser.getCommand (avec une nouvelle commande par ligne, ou en réutilisant la même),
+ * CommandWords.isCommand/isDirection et Command.isDirection.
+ * Chaque mesure passe sur toutes les lignes (ou tous les mots) d'un jeu varié ; le temps affiché
+ * est celui d'une ligne (ou d'un mot), et chaque résultat part dans le Blackhole de JMH.
+ *
+ * @author  Benoît de Keyn
+ * @version 2026.02.04
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 3 )
+@State( Scope.Thread )
+public class ParserBenchmark
+{
+    /** Le nombre de lignes de PARSER_LINES (constante, pour @OperationsPerInvocation). */
+    private static final int LINE_COUNT = 7;
+
+    /** Lignes de commande utilisées pour mesurer le parseur seul. */
+    private static final String[] PARSER_LINES = {
+        "aller nord", "prendre téléporteur", "regarder", "déverrouiller ouest", "sauter partout", "",
+        "  aller\tbas  encore"
+    };
+
+    /** Le nombre de mots de WORDS (constante, pour @OperationsPerInvocation). */
+    private static final int WORD_COUNT = 8;
+
+    /** Mots utilisés pour mesurer CommandWords et Command. */
+    private static final String[] WORDS = {
+        "aller", "déverrouiller", "alea", "inv", "nord", "bas", "o", "nullepart"
+    };
+
+    /** Le parseur mesuré. */
+    private Parser aParser;
+
+    /** La commande réutilisée d'une ligne à l'autre. */
+    private Command aReused;
+
+    /** Le vocabulaire mesuré. */
+    private CommandWords aWords;
+
+    /** La commande utilisée pour Command.isDirection. */
+    private Command aCommand;
+
+    /**
+     * Prépare le parseur et le vocabulaire.
+     */
+    @Setup
+    public void setUp()
+    {
+        if ( PARSER_LINES.length != LINE_COUNT || WORDS.length != WORD_COUNT ) {
+            throw new IllegalStateException( "LINE_COUNT et WORD_COUNT ne correspondent plus aux tableaux." );
+        }
+        this.aParser = new Parser();
+        this.aReused = new Command( null, null );
+        this.aWords = new CommandWords();
+        this.aCommand = new Command( CommandWord.ALLER, "nord" );
+    } // setUp()
+
+    /**
+     * Mesure Parser.getCommand, avec une nouvelle commande par ligne.
+     *
+     * @param pBlackhole le Blackhole de JMH
+     */
+    @Benchmark
+    @OperationsPerInvocation( LINE_COUNT )
+    public void getCommand( final Blackhole pBlackhole )
+    {
+        for ( String vLine : PARSER_LINES ) {
+            pBlackhole.consume( this.aParser.getCommand( vLine ) );
+        }
+    } // getCommand(*)
+
+    /**
+     * Mesure Parser.getCommand en réutilisant la même commande.
+     *
+     * @param pBlackhole le Blackhole de JMH
+     */
+    @Benchmark
+    @OperationsPerInvocation( LINE_COUNT )
+    public void getCommandReused( final Blackhole pBlackhole )
+    {
+        for ( String vLine : PARSER_LINES ) {
+            pBlackhole.consume( this.aParser.getCommand( vLine, this.aReused ) );
+        }
+    } // getCommandReused(*)
+
+    /**
+     * Mesure CommandWords.isCommand.
+     *
+     * @param pBlackhole le Blackhole de JMH
+     */
+    @Benchmark
+    @OperationsPerInvocation( WORD_COUNT )
+    public void isCommand( final Blackhole pBlackhole )
+    {
+        for ( String vWord : WORDS ) {
+            pBlackhole.consume( this.aWords.isCommand( vWord ) );
+        }
+    } // isCommand(*)
+
+    /**
+     * Mesure CommandWords.isDirection.
+     *
+     * @param pBlackhole le Blackhole de JMH
+     */
+    @Benchmark
+    @OperationsPerInvocation( WORD_COUNT )
+    public void isDirection( final Blackhole pBlackhole )
+    {
+        for ( String vWord : WORDS ) {
+            pBlackhole.consume( this.aWords.isDirection( vWord ) );
+        }
+    } // isDirection(*)
+
+    /**
+     * Mesure Command.isDirection.
+     *
+     * @param pBlackhole le Blackhole de JMH
+     */
+    @Benchmark
+    @OperationsPerInvocation( WORD_COUNT )
+    public void commandIsDirection( final Blackhole pBlackhole )
+    {
+        for ( String vWord : WORDS ) {
+            pBlackhole.consume( this.aCommand.isDirection( vWord ) );
+        }
+    } // commandIsDirection(*)
+} // ParserBenchmark
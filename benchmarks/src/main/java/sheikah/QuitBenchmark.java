@@ -0,0 +1,57 @@
+package sheikah;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Classe QuitBenchmark - mesure JMH de la commande "quitter" du jeu "le mystère des ruines Sheikah".
+ * "quitter" termine la partie : chaque appel a donc sa propre partie neuve, créée hors mesure.
+ * JMH chronomètre alors chaque appel séparément ; la mesure reste fiable parce que "quitter"
+ * dure bien plus longtemps que la lecture de l'horloge.
+ *
+ * @author  Benoît de Keyn
+ * @version 2026.02.04
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 3 )
+@State( Scope.Thread )
+public class QuitBenchmark
+{
+    /** La partie de l'appel suivant. */
+    private GameEngine aEngine;
+
+    /**
+     * Crée la partie de l'appel suivant.
+     */
+    @Setup( Level.Invocation )
+    public void setUp()
+    {
+        this.aEngine = EngineBenchmark.newEngine( null );
+    } // setUp()
+
+    /**
+     * Mesure "quitter".
+     *
+     * @param pBlackhole le Blackhole de JMH
+     */
+    @Benchmark
+    public void quitter( final Blackhole pBlackhole )
+    {
+        this.aEngine.interpretCommand( "quitter" );
+        pBlackhole.consume( this.aEngine );
+    } // quitter(*)
+} // QuitBenchmark
@@ -2,44 +2,32 @@
  * Classe Beamer - représente un téléporteur dans le jeu "le mystère des ruines Sheikah".
  * Un Beamer permet au joueur de le charger dans une pièce A,
  * puis de le déclencher depuis une pièce B pour s'y téléporter immédiatement.
+ * Le téléporteur fait partie du monde partagé : la salle dans laquelle il est chargé
+ * est gardée dans le WorldState de chaque partie (voir WorldState.charge et WorldState.trigger).
  *
  * @author  Benoît de Keyn
  * @version 2026.01.13
  */
 public class Beamer extends Item
 {
-    /** La salle où le Beamer a été chargé. */
-    private Room aChargedRoom;
-
     /**
      * Constructeur par défaut du téléporteur.
      */
     public Beamer()
     {
-        super("téléporteur", "Un téléporteur portable", 1.0);
-        this.aChargedRoom = null;
+        this("téléporteur", "Un téléporteur portable", 1.0);
     } // constructeur
 
     /**
-     * Charge le Beamer avec la salle courante du joueur.
-     *
-     * @param pCurrentRoom la salle courante du joueur
-     */
-    public void charge(final Room pCurrentRoom)
-    {
-        this.aChargedRoom = pCurrentRoom;
-    } // charge(*)
-
-    /**
-     * Déclenche le Beamer pour téléporter le joueur à la salle chargée.
+     * Crée un téléporteur décrit dans un fichier de monde.
      *
-     * @return la salle chargée si le Beamer est chargé, sinon null
+     * @param pName le nom court du téléporteur
+     * @param pDescription la description du téléporteur
+     * @param pWeight le poids du téléporteur en kilogrammes
      */
-    public Room trigger()
+    public Beamer( final String pName, final String pDescription, final double pWeight )
     {
-        Room vRoomToReturn = this.aChargedRoom;
-        this.aChargedRoom = null; // décharge le Beamer après utilisation
-        return vRoomToReturn;
-    } // trigger()
+        super(pName, pDescription, pWeight);
+    } // Beamer(*,*,*)
 
 } // Beamer
@@ -1,6 +1,7 @@
 /** 
  * Classe Command - représente une commande saisie par l'utilisateur dans le jeu "le mystère des ruines Sheikah".
  * Une commande est composée d'un mot principal et éventuellement d'un second mot.
+ * Un même objet Command peut être réutilisé par le parseur d'une commande à l'autre (voir set).
  *
  * @author  Benoît de Keyn
  * @version 2026.01.15
@@ -8,8 +9,11 @@
 
 public class Command
 {
-    /** Le mot principal de la commande. */
-    private String aCommandWord;
+    /** Le vocabulaire partagé par toutes les commandes (il ne change jamais). */
+    private static final CommandWords WORDS = new CommandWords();
+
+    /** Le mot principal de la commande (null si la commande est inconnue). */
+    private CommandWord aCommandWord;
     
     /** Le second mot de la commande (peut être null). */
     private String aSecondWord ;
@@ -17,21 +21,33 @@ public class Command
     /**
      * Crée une nouvelle commande avec un mot principal et éventuellement un second mot.
      *
-     * @param pCommandWord le mot principal de la commande (ex: "aller", "aide", "quitter")
+     * @param pCommandWord le mot principal de la commande (ex: ALLER, AIDE, QUITTER), ou null si inconnue
      * @param pSecondWord le second mot de la commande, ou null si absent
      */
-    public Command(final String pCommandWord, final String pSecondWord)
+    public Command(final CommandWord pCommandWord, final String pSecondWord)
     {
         this.aCommandWord = pCommandWord;
         this.aSecondWord = pSecondWord;        
     } // Constructeur
     
+    /**
+     * Remplace le contenu de la commande, pour réutiliser le même objet sans en créer un nouveau.
+     *
+     * @param pCommandWord le mot principal de la commande, ou null si la commande est inconnue
+     * @param pSecondWord le second mot de la commande, ou null si absent
+     */
+    public void set(final CommandWord pCommandWord, final String pSecondWord)
+    {
+        this.aCommandWord = pCommandWord;
+        this.aSecondWord = pSecondWord;
+    } // set(*,*)
+
     /**
      * Renvoie le mot principal de la commande.
      *
      * @return le mot de commande, ou null si la commande est inconnue
      */
-    public String getCommandWord()
+    public CommandWord getCommandWord()
     {
         return this.aCommandWord;
     } // getCommandWord
@@ -74,8 +90,7 @@ public class Command
      */
     public boolean isDirection( final String pString )
     {
-        CommandWords vCommandWords = new CommandWords();
-        return vCommandWords.isDirection( pString );
+        return WORDS.isDirection( pString );
     } // isDirection(*)
     
     
@@ -0,0 +1,334 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Classe CommandMetrics - les mesures des commandes interprétées par les moteurs du jeu
+ * "le mystère des ruines Sheikah" : nombre d'appels de chaque commande, erreurs
+ * (commande inconnue, direction invalide, porte verrouillée) et histogramme des temps d'exécution,
+ * dont on tire la médiane (p50) et les centiles p99 et p999.
+ * Une seule instance, partagée par toutes les parties de la machine virtuelle (sessions du serveur
+ * comprises). Chaque mesure est un LongAdder : l'enregistrer ne prend aucun verrou, et quand plusieurs
+ * threads comptent la même case en même temps, le LongAdder répartit leurs ajouts entre plusieurs cellules,
+ * additionnées seulement à la lecture, au lieu de les faire attendre sur un seul compteur.
+ * Chaque histogramme compte les temps dans des cases de largeur croissante : 8 cases par puissance
+ * de deux (moins de 12,5 % d'erreur sur un centile), de la nanoseconde à environ 18 minutes.
+ * Les mesures sont affichées par la commande de debug "stats", et publiées par JMX
+ * (ruines_sheikah:type=CommandMetrics) quand le serveur appelle registerMBean.
+ *
+ * @author  Benoît de Keyn
+ * @version 2026.02.04
+ */
+public class CommandMetrics implements CommandMetricsMBean
+{
+    /** Les erreurs comptées. */
+    public enum ErrorKind
+    {
+        /** Commande qui n'existe pas. */
+        UNKNOWN_COMMAND( "commande inconnue" ),
+        /** Direction qui n'existe pas. */
+        INVALID_DIRECTION( "direction invalide" ),
+        /** Déplacement refusé par une porte verrouillée. */
+        LOCKED_DOOR( "porte verrouillée" );
+
+        /** Le libellé de l'erreur dans le bilan. */
+        private final String aLabel;
+
+        /**
+         * Crée une erreur.
+         *
+         * @param pLabel le libellé de l'erreur dans le bilan
+         */
+        ErrorKind( final String pLabel )
+        {
+            this.aLabel = pLabel;
+        } // ErrorKind(*)
+
+        /**
+         * Renvoie le libellé de l'erreur.
+         *
+         * @return le libellé, tel qu'affiché dans le bilan
+         */
+        public String getLabel()
+        {
+            return this.aLabel;
+        } // getLabel()
+    } // ErrorKind
+
+    /** Le nom JMX des mesures. */
+    public static final String OBJECT_NAME = "ruines_sheikah:type=CommandMetrics";
+
+    /** Le nom donné aux commandes inconnues dans le bilan. */
+    public static final String UNKNOWN_WORD = "inconnue";
+
+    /** Les commandes, par numéro d'ordre. */
+    private static final CommandWord[] WORDS = CommandWord.values();
+
+    /** Le nombre de lignes de mesures : une par commande, plus une pour les commandes inconnues. */
+    private static final int VERBS = WORDS.length + 1;
+
+    /** Le nombre de bits de la position dans une puissance de deux. */
+    private static final int SUB_BITS = 3;
+
+    /** Le nombre de cases par puissance de deux. */
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    /** La plus grande puissance de deux mesurée (2^40 ns, environ 18 minutes). */
+    private static final int MAX_EXPONENT = 40;
+
+    /** Le nombre de cases d'un histogramme. */
+    private static final int BUCKETS = ( MAX_EXPONENT - SUB_BITS + 2 ) * SUB_BUCKETS;
+
+    /** Les mesures de toute la machine virtuelle. */
+    private static final CommandMetrics DEFAULT = new CommandMetrics();
+
+    /** Indique si les mesures par défaut ont été publiées par JMX. */
+    private static final AtomicBoolean REGISTERED = new AtomicBoolean( false );
+
+    /** Le nombre d'appels de chaque commande. */
+    private final LongAdder[] aCounts;
+
+    /** Le temps total d'exécution de chaque commande, en nanosecondes. */
+    private final LongAdder[] aNanos;
+
+    /** Les histogrammes des temps d'exécution, les uns à la suite des autres (BUCKETS cases par commande). */
+    private final LongAdder[] aHistograms;
+
+    /** Le nombre de chaque erreur. */
+    private final LongAdder[] aErrors;
+
+    /**
+     * Crée des mesures à zéro.
+     */
+    public CommandMetrics()
+    {
+        this.aCounts = newAdders( VERBS );
+        this.aNanos = newAdders( VERBS );
+        this.aHistograms = newAdders( VERBS * BUCKETS );
+        this.aErrors = newAdders( ErrorKind.values().length );
+    } // CommandMetrics()
+
+    /**
+     * Renvoie les mesures partagées par toutes les parties de la machine virtuelle.
+     *
+     * @return les mesures par défaut
+     */
+    public static CommandMetrics getDefault()
+    {
+        return DEFAULT;
+    } // getDefault()
+
+    /**
+     * Publie les mesures par défaut par JMX (une seule fois, les appels suivants ne font rien).
+     * Si la publication échoue, le jeu continue et les mesures restent visibles avec "stats".
+     */
+    public static void registerMBean()
+    {
+        if ( ! REGISTERED.compareAndSet( false, true ) ) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean( DEFAULT, new ObjectName( OBJECT_NAME ) );
+        }
+        catch ( final JMException pJME ) {
+            System.err.println( "Mesures des commandes non publiées par JMX : " + pJME.getMessage() );
+        }
+    } // registerMBean()
+
+    /**
+     * Enregistre l'exécution d'une commande.
+     *
+     * @param pWord la commande (null pour une commande inconnue)
+     * @param pNanos son temps d'exécution en nanosecondes
+     */
+    public void record( final CommandWord pWord, final long pNanos )
+    {
+        int vVerb = pWord == null ? WORDS.length : pWord.ordinal();
+        this.aCounts[vVerb].increment();
+        this.aNanos[vVerb].add( pNanos );
+        this.aHistograms[ vVerb * BUCKETS + bucket( pNanos ) ].increment();
+    } // record(*,*)
+
+    /**
+     * Enregistre une erreur.
+     *
+     * @param pError l'erreur
+     */
+    public void recordError( final ErrorKind pError )
+    {
+        this.aErrors[ pError.ordinal() ].increment();
+    } // recordError(*)
+
+    @Override public long getCommandCount()
+    {
+        long vTotal = 0;
+        for ( int vVerb = 0; vVerb < VERBS; vVerb++ ) {
+            vTotal += this.aCounts[vVerb].sum();
+        }
+        return vTotal;
+    } // getCommandCount()
+
+    @Override public long getUnknownCommandCount()
+    {
+        return this.aErrors[ ErrorKind.UNKNOWN_COMMAND.ordinal() ].sum();
+    } // getUnknownCommandCount()
+
+    @Override public long getInvalidDirectionCount()
+    {
+        return this.aErrors[ ErrorKind.INVALID_DIRECTION.ordinal() ].sum();
+    } // getInvalidDirectionCount()
+
+    @Override public long getLockedDoorCount()
+    {
+        return this.aErrors[ ErrorKind.LOCKED_DOOR.ordinal() ].sum();
+    } // getLockedDoorCount()
+
+    @Override public long getCount( final String pWord )
+    {
+        int vVerb = verb( pWord );
+        return vVerb < 0 ? -1 : this.aCounts[vVerb].sum();
+    } // getCount(*)
+
+    @Override public double getPercentileMicros( final String pWord, final double pPercentile )
+    {
+        int vVerb = verb( pWord );
+        if ( vVerb < 0 ) {
+            return -1;
+        }
+        long vNanos = this.percentile( vVerb, pPercentile );
+        return vNanos < 0 ? -1 : vNanos / 1e3;
+    } // getPercentileMicros(*,*)
+
+    @Override public String getReport()
+    {
+        StringBuilder vReport = new StringBuilder();
+        vReport.append( String.format( "%-16s %10s %12s %10s %10s %10s\n",
+            "commande", "appels", "moyenne µs", "p50 µs", "p99 µs", "p999 µs" ) );
+        for ( int vVerb = 0; vVerb < VERBS; vVerb++ ) {
+            long vCount = this.aCounts[vVerb].sum();
+            if ( vCount == 0 ) {
+                continue;
+            }
+            vReport.append( String.format( "%-16s %10d %12.1f %10.1f %10.1f %10.1f\n",
+                vVerb < WORDS.length ? WORDS[vVerb].getWord() : UNKNOWN_WORD, vCount,
+                this.aNanos[vVerb].sum() / 1e3 / vCount,
+                this.percentile( vVerb, 50 ) / 1e3, this.percentile( vVerb, 99 ) / 1e3,
+                this.percentile( vVerb, 99.9 ) / 1e3 ) );
+        }
+        vReport.append( "erreurs :" );
+        for ( ErrorKind vError : ErrorKind.values() ) {
+            vReport.append( ' ' ).append( vError.aLabel ).append( '=' ).append( this.aErrors[ vError.ordinal() ].sum() );
+        }
+        return vReport.toString();
+    } // getReport()
+
+    @Override public void reset()
+    {
+        for ( LongAdder[] vAdders : new LongAdder[][] { this.aHistograms, this.aCounts, this.aNanos, this.aErrors } ) {
+            for ( LongAdder vAdder : vAdders ) {
+                vAdder.reset();
+            }
+        }
+    } // reset()
+
+    /**
+     * Calcule un centile du temps d'exécution d'une commande à partir de son histogramme.
+     * Les cases sont lues une par une pendant que d'autres threads enregistrent : le résultat
+     * est celui d'un instant très proche, ce qui suffit pour une mesure.
+     *
+     * @param pVerb la ligne de la commande
+     * @param pPercentile le centile voulu, entre 0 et 100
+     * @return la borne haute de la case du centile, en nanosecondes, ou -1 si la commande n'a jamais été appelée
+     */
+    private long percentile( final int pVerb, final double pPercentile )
+    {
+        int vBase = pVerb * BUCKETS;
+        long vTotal = 0;
+        for ( int vB = 0; vB < BUCKETS; vB++ ) {
+            vTotal += this.aHistograms[ vBase + vB ].sum();
+        }
+        if ( vTotal == 0 ) {
+            return -1;
+        }
+        long vRank = Math.max( 1, (long) Math.ceil( vTotal * Math.min( 100.0, Math.max( 0.0, pPercentile ) ) / 100.0 ) );
+        long vSeen = 0;
+        for ( int vB = 0; vB < BUCKETS; vB++ ) {
+            vSeen += this.aHistograms[ vBase + vB ].sum();
+            if ( vSeen >= vRank ) {
+                return upperBound( vB );
+            }
+        }
+        return upperBound( BUCKETS - 1 );
+    } // percentile(*,*)
+
+    /**
+     * Crée des compteurs à zéro.
+     *
+     * @param pCount le nombre de compteurs
+     * @return les compteurs
+     */
+    private static LongAdder[] newAdders( final int pCount )
+    {
+        LongAdder[] vAdders = new LongAdder[ pCount ];
+        for ( int vI = 0; vI < pCount; vI++ ) {
+            vAdders[vI] = new LongAdder();
+        }
+        return vAdders;
+    } // newAdders(*)
+
+    /**
+     * Renvoie la case d'histogramme d'un temps d'exécution.
+     *
+     * @param pNanos le temps en nanosecondes
+     * @return le numéro de la case
+     */
+    private static int bucket( final long pNanos )
+    {
+        if ( pNanos < SUB_BUCKETS ) {
+            return (int) Math.max( 0, pNanos );
+        }
+        int vExponent = 63 - Long.numberOfLeadingZeros( pNanos );
+        if ( vExponent > MAX_EXPONENT ) {
+            return BUCKETS - 1;
+        }
+        int vSub = (int) ( pNanos >>> ( vExponent - SUB_BITS ) ) & ( SUB_BUCKETS - 1 );
+        return ( vExponent - SUB_BITS + 1 ) * SUB_BUCKETS + vSub;
+    } // bucket(*)
+
+    /**
+     * Renvoie le plus grand temps compté dans une case d'histogramme.
+     *
+     * @param pBucket le numéro de la case
+     * @return le temps en nanosecondes
+     */
+    private static long upperBound( final int pBucket )
+    {
+        if ( pBucket < SUB_BUCKETS ) {
+            return pBucket;
+        }
+        int vShift = pBucket / SUB_BUCKETS - 1;
+        long vLow = (long) ( SUB_BUCKETS + pBucket % SUB_BUCKETS ) << vShift;
+        return vLow + ( 1L << vShift ) - 1;
+    } // upperBound(*)
+
+    /**
+     * Renvoie la ligne de mesures d'une commande.
+     *
+     * @param pWord le mot principal de la commande, ou UNKNOWN_WORD
+     * @return la ligne, ou -1 si la commande n'existe pas
+     */
+    private static int verb( final String pWord )
+    {
+        if ( UNKNOWN_WORD.equals( pWord ) ) {
+            return WORDS.length;
+        }
+        for ( CommandWord vWord : WORDS ) {
+            if ( vWord.getWord().equals( pWord ) ) {
+                return vWord.ordinal();
+            }
+        }
+        return -1;
+    } // verb(*)
+} // CommandMetrics
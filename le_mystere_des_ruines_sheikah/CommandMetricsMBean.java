@@ -0,0 +1,66 @@
+/**
+ * Interface CommandMetricsMBean - les mesures des commandes du jeu "le mystère des ruines Sheikah"
+ * telles qu'elles sont publiées par JMX (jconsole, VisualVM, ...), voir CommandMetrics.
+ *
+ * @author  Benoît de Keyn
+ * @version 2026.02.04
+ */
+public interface CommandMetricsMBean
+{
+    /**
+     * Renvoie le nombre total de commandes interprétées.
+     *
+     * @return le nombre de commandes
+     */
+    long getCommandCount();
+
+    /**
+     * Renvoie le nombre de commandes inconnues.
+     *
+     * @return le nombre de commandes inconnues
+     */
+    long getUnknownCommandCount();
+
+    /**
+     * Renvoie le nombre de directions invalides (aller, déverrouiller, verrouiller).
+     *
+     * @return le nombre de directions invalides
+     */
+    long getInvalidDirectionCount();
+
+    /**
+     * Renvoie le nombre de déplacements refusés par une porte verrouillée.
+     *
+     * @return le nombre de portes verrouillées rencontrées
+     */
+    long getLockedDoorCount();
+
+    /**
+     * Renvoie le bilan de toutes les commandes (appels, temps moyen, p50, p99, p999).
+     *
+     * @return le bilan, sur plusieurs lignes
+     */
+    String getReport();
+
+    /**
+     * Renvoie le nombre d'appels d'une commande.
+     *
+     * @param pWord le mot principal de la commande ("inconnue" pour les commandes inconnues)
+     * @return le nombre d'appels, ou -1 si la commande n'existe pas
+     */
+    long getCount( String pWord );
+
+    /**
+     * Renvoie un centile du temps d'exécution d'une commande.
+     *
+     * @param pWord le mot principal de la commande ("inconnue" pour les commandes inconnues)
+     * @param pPercentile le centile voulu, entre 0 et 100 (ex : 99.9)
+     * @return le temps en microsecondes, ou -1 si la commande n'existe pas ou n'a jamais été appelée
+     */
+    double getPercentileMicros( String pWord, double pPercentile );
+
+    /**
+     * Remet toutes les mesures à zéro.
+     */
+    void reset();
+} // CommandMetricsMBean
@@ -0,0 +1,119 @@
+/**
+ * Enumération CommandWord - les mots de commande du jeu "le mystère des ruines Sheikah".
+ * Chaque commande a un mot principal, d'éventuels alias, et peut être réservée au debug
+ * (utilisable seulement dans un fichier de test). Les commandes peuvent aussi être abrégées
+ * tant que l'abréviation ne désigne qu'une seule commande (ex : "prend" pour "prendre"),
+ * sauf celles qu'une faute de frappe ne doit pas déclencher (quitter, test, charger-partie) :
+ * elles ne sont reconnues qu'en entier, pour que "q" ne termine pas la partie par accident.
+ *
+ * @author  Benoît de Keyn
+ * @version 2026.02.04
+ */
+public enum CommandWord
+{
+    ALLER( "aller", true, false, true ),
+    RETOUR( "retour", false, false, true ),
+    AIDE( "aide", false, false, true, "?" ),
+    QUITTER( "quitter", false, false, false ),
+    REGARDER( "regarder", false, false, true ),
+    RESPIRER( "respirer", false, false, true ),
+    TEST( "test", false, false, false ),
+    PRENDRE( "prendre", false, false, true ),
+    POSER( "poser", false, false, true ),
+    INVENTAIRE( "inventaire", false, false, true, "i" ),
+    INGERER( "ingérer", false, false, true ),
+    CHARGER( "charger", false, false, true ),
+    DECLENCHER( "déclencher", false, false, true ),
+    DEVERROUILLER( "déverrouiller", true, false, true ),
+    VERROUILLER( "verrouiller", true, false, true ),
+    SAUVER( "sauver", false, false, true ),
+    CHARGER_PARTIE( "charger-partie", false, false, false ),
+    ITINERAIRE( "itinéraire", false, false, true ),
+    ALEA( "alea", false, true, true ),
+    STATS( "stats", false, true, true ),
+    CHRONO( "chrono", false, true, true );
+
+    /** Le mot principal de la commande, tel qu'affiché dans l'aide. */
+    private final String aWord;
+
+    /** Indique si le second mot de la commande est une direction. */
+    private final boolean aTakesDirection;
+
+    /** Indique si la commande est réservée au debug. */
+    private final boolean aIsDebug;
+
+    /** Indique si la commande peut être abrégée. */
+    private final boolean aIsAbbreviable;
+
+    /** Les autres mots acceptés pour cette commande. */
+    private final String[] aAliases;
+
+    /**
+     * Crée un mot de commande.
+     *
+     * @param pWord le mot principal
+     * @param pTakesDirection true si le second mot est une direction
+     * @param pIsDebug true si la commande est réservée au debug
+     * @param pIsAbbreviable false si la commande (et ses alias) ne doit être reconnue qu'en entier
+     * @param pAliases les autres mots acceptés
+     */
+    CommandWord( final String pWord, final boolean pTakesDirection, final boolean pIsDebug,
+                 final boolean pIsAbbreviable, final String... pAliases )
+    {
+        this.aWord = pWord;
+        this.aTakesDirection = pTakesDirection;
+        this.aIsDebug = pIsDebug;
+        this.aIsAbbreviable = pIsAbbreviable;
+        this.aAliases = pAliases;
+    } // CommandWord(*,*,*,*,*)
+
+    /**
+     * Renvoie le mot principal de la commande.
+     *
+     * @return le mot principal
+     */
+    public String getWord()
+    {
+        return this.aWord;
+    } // getWord()
+
+    /**
+     * Indique si le second mot de la commande est une direction.
+     *
+     * @return true si la commande attend une direction, false sinon
+     */
+    public boolean takesDirection()
+    {
+        return this.aTakesDirection;
+    } // takesDirection()
+
+    /**
+     * Indique si la commande est réservée au debug.
+     *
+     * @return true pour une commande de debug, false sinon
+     */
+    public boolean isDebug()
+    {
+        return this.aIsDebug;
+    } // isDebug()
+
+    /**
+     * Indique si la commande peut être abrégée.
+     *
+     * @return true si une abréviation sans ambiguïté est acceptée, false si la commande doit être écrite en entier
+     */
+    public boolean isAbbreviable()
+    {
+        return this.aIsAbbreviable;
+    } // isAbbreviable()
+
+    /**
+     * Renvoie les autres mots acceptés pour cette commande.
+     *
+     * @return une copie du tableau des alias
+     */
+    public String[] getAliases()
+    {
+        return this.aAliases.clone();
+    } // getAliases()
+} // CommandWord
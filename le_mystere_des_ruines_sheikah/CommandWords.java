@@ -1,54 +1,33 @@
+import java.nio.ByteBuffer;
+
 /**
  * Classe CommandWords - contient la liste des mots de commande valides pour le jeu "le mystère des ruines Sheikah".
- * Cette classe permet de vérifier si une commande ou une direction est valide.
+ * Cette classe permet de vérifier si une commande ou une direction est valide,
+ * et de retrouver le mot correspondant directement dans un tampon de caractères ou d'octets,
+ * sans créer de nouvelle chaîne.
+ * Les commandes (CommandWord) et les directions (Direction) sont compilées au démarrage dans
+ * des arbres de préfixes (Vocabulary) : les alias et les abréviations sans ambiguïté sont acceptés
+ * ("n" pour nord, "inv" pour inventaire, "prend" pour prendre, ...).
  *
  * @author  Michael Kolling, David J. Barnes, D. Bureau, Benoît de Keyn
- * @version 2026.01.10
+ * @version 2026.01.25
  */
 
 public class CommandWords
 {
-    /** Liste des mots de commande valides reconnus par le jeu. */
-    private final String[] aValidCommands = {
-        "aller", 
-        "retour",
-        "aide", 
-        "quitter", 
-        "regarder",
-        "respirer",
-        "test",
-        "prendre",
-        "poser",
-        "inventaire",
-        "ingérer",
-        "charger",
-        "déclencher",
-        "déverrouiller",
-        "verrouiller"
-    };
-
-    /** Liste des commandes de debug reconnues par le jeu. */
-    private final String[] aDebugCommands = {
-        "alea"
-    };
+    /** Le vocabulaire des commandes (valides et debug), avec leurs alias. */
+    private static final Vocabulary<CommandWord> COMMANDS = compileCommands();
 
-    /** Liste des directions valides reconnues par le jeu. */
-    private final String[] aValidDirection = {
-        "nord", 
-        "est", 
-        "sud", 
-        "ouest", 
-        "haut", 
-        "bas"
-    };
+    /** Le vocabulaire des directions. */
+    private static final Vocabulary<Direction> DIRECTIONS = compileDirections();
 
     /**
      * Crée un nouvel objet CommandWords.
-     * Les tableaux de commandes et de directions valides sont initialisés directement.
+     * Les vocabulaires sont compilés une seule fois, au chargement de la classe.
      */
     public CommandWords()
     {
-        // rien à faire : les tableaux sont initialisés directement comme constantes
+        // rien à faire : les vocabulaires sont des constantes partagées
     } // constructeur
 
     /**
@@ -59,19 +38,7 @@ public class CommandWords
      */
     public boolean isCommand( final String pString )
     {
-        // for validCommands
-        for (String aValidCommand : this.aValidCommands) {
-            if (aValidCommand.equals(pString)) {
-                return true;
-            }
-        }
-        // for debugCommands
-        for (String aDebugCommand1 : this.aDebugCommands) {
-            if (aDebugCommand1.equals(pString)) {
-                return true;
-            }
-        }
-        return false;
+        return COMMANDS.find( pString ) != null;
     } // isCommand(*)
 
     /**
@@ -82,14 +49,74 @@ public class CommandWords
      */
     public boolean isDirection( final String pString )
     {
-        for ( int vI=0; vI<this.aValidDirection.length; vI++ ) {
-            if ( this.aValidDirection[vI].equals( pString ) )
-                return true;
-        } // for
-        // si on arrive ici, la chaîne de caractères n'a pas été trouvée parmi les directions :
-        return false;
+        return DIRECTIONS.find( pString ) != null;
     } // isDirection(*)
 
+    /**
+     * Renvoie la direction désignée par un mot (complet, ou abrégé sans ambiguïté).
+     *
+     * @param pString le mot à chercher
+     * @return la direction, ou null si le mot n'est pas une direction
+     */
+    public Direction getDirection( final String pString )
+    {
+        return DIRECTIONS.find( pString );
+    } // getDirection(*)
+
+    /**
+     * Retrouve le mot de commande écrit entre deux positions d'une suite de caractères.
+     *
+     * @param pText le texte contenant le mot
+     * @param pStart la position du premier caractère du mot
+     * @param pEnd la position qui suit le dernier caractère du mot
+     * @return la commande, ou null si ce n'est pas une commande
+     */
+    public CommandWord findCommand( final CharSequence pText, final int pStart, final int pEnd )
+    {
+        return COMMANDS.find( pText, pStart, pEnd );
+    } // findCommand(*,*,*)
+
+    /**
+     * Retrouve la direction écrite entre deux positions d'une suite de caractères.
+     *
+     * @param pText le texte contenant le mot
+     * @param pStart la position du premier caractère du mot
+     * @param pEnd la position qui suit le dernier caractère du mot
+     * @return la direction, ou null si ce n'est pas une direction
+     */
+    public Direction findDirection( final CharSequence pText, final int pStart, final int pEnd )
+    {
+        return DIRECTIONS.find( pText, pStart, pEnd );
+    } // findDirection(*,*,*)
+
+    /**
+     * Retrouve le mot de commande écrit (en UTF-8) entre deux positions d'un tampon d'octets.
+     * La position du tampon n'est pas modifiée.
+     *
+     * @param pBuffer le tampon contenant le mot
+     * @param pStart la position du premier octet du mot
+     * @param pEnd la position qui suit le dernier octet du mot
+     * @return la commande, ou null si ce n'est pas une commande
+     */
+    public CommandWord findCommand( final ByteBuffer pBuffer, final int pStart, final int pEnd )
+    {
+        return COMMANDS.find( pBuffer, pStart, pEnd );
+    } // findCommand(*,*,*)
+
+    /**
+     * Retrouve la direction écrite (en UTF-8) entre deux positions d'un tampon d'octets.
+     * La position du tampon n'est pas modifiée.
+     *
+     * @param pBuffer le tampon contenant le mot
+     * @param pStart la position du premier octet du mot
+     * @param pEnd la position qui suit le dernier octet du mot
+     * @return la direction, ou null si ce n'est pas une direction
+     */
+    public Direction findDirection( final ByteBuffer pBuffer, final int pStart, final int pEnd )
+    {
+        return DIRECTIONS.find( pBuffer, pStart, pEnd );
+    } // findDirection(*,*,*)
+
     /**
      * Renvoie une chaîne de caractères contenant toutes les commandes valides hors debug.
      *
@@ -97,9 +124,42 @@ public class CommandWords
      */
     public String getValidCommandsString() {
         StringBuilder commands = new StringBuilder();
-        for(String command : this.aValidCommands) {
-            commands.append("\n -> ").append(command);
+        for(CommandWord command : CommandWord.values()) {
+            if ( ! command.isDebug() ) {
+                commands.append("\n -> ").append(command.getWord());
+            }
         }
         return commands.toString();
     } // getValidCommandsString
-} // CommandWords
\ No newline at end of file
+
+    /**
+     * Compile le vocabulaire des commandes : mots principaux et alias.
+     *
+     * @return le vocabulaire des commandes
+     */
+    private static Vocabulary<CommandWord> compileCommands()
+    {
+        Vocabulary<CommandWord> vVocabulary = new Vocabulary<CommandWord>( CommandWord.class );
+        for ( CommandWord vCommand : CommandWord.values() ) {
+            vVocabulary.add( vCommand.getWord(), vCommand, vCommand.isAbbreviable() );
+            for ( String vAlias : vCommand.getAliases() ) {
+                vVocabulary.add( vAlias, vCommand, vCommand.isAbbreviable() );
+            }
+        }
+        return vVocabulary;
+    } // compileCommands()
+
+    /**
+     * Compile le vocabulaire des directions.
+     *
+     * @return le vocabulaire des directions
+     */
+    private static Vocabulary<Direction> compileDirections()
+    {
+        Vocabulary<Direction> vVocabulary = new Vocabulary<Direction>( Direction.class );
+        for ( Direction vDirection : Direction.values() ) {
+            vVocabulary.add( vDirection.getWord(), vDirection );
+        }
+        return vVocabulary;
+    } // compileDirections()
+} // CommandWords
@@ -0,0 +1,58 @@
+/**
+ * Enumération Direction - les directions du jeu "le mystère des ruines Sheikah".
+ * Une direction peut être abrégée tant que l'abréviation n'en désigne qu'une seule (ex : "n" pour "nord").
+ *
+ * @author  Benoît de Keyn
+ * @version 2026.02.04
+ */
+public enum Direction
+{
+    NORD( "nord" ),
+    EST( "est" ),
+    SUD( "sud" ),
+    OUEST( "ouest" ),
+    HAUT( "haut" ),
+    BAS( "bas" );
+
+    /** Les directions, par numéro d'ordre. */
+    private static final Direction[] VALUES = values();
+
+    /** Le mot de la direction. */
+    private final String aWord;
+
+    /**
+     * Crée une direction.
+     *
+     * @param pWord le mot de la direction
+     */
+    Direction( final String pWord )
+    {
+        this.aWord = pWord;
+    } // Direction(*)
+
+    /**
+     * Renvoie le mot de la direction.
+     *
+     * @return le mot de la direction
+     */
+    public String getWord()
+    {
+        return this.aWord;
+    } // getWord()
+
+    /**
+     * Renvoie la direction désignée par son mot complet (sans abréviation, voir CommandWords).
+     *
+     * @param pWord le mot de la direction
+     * @return la direction, ou null si le mot n'est pas une direction
+     */
+    public static Direction fromWord( final String pWord )
+    {
+        for ( Direction vDirection : VALUES ) {
+            if ( vDirection.aWord.equals( pWord ) ) {
+                return vDirection;
+            }
+        }
+        return null;
+    } // fromWord(*)
+} // Direction
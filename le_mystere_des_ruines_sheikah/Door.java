@@ -1,6 +1,8 @@
 /**
  * Classe Door - représente une porte entre deux salles dans le jeu "le mystère des ruines Sheikah".
  * Une porte peut être ouverte ou verrouillée. Passer d'un état à l'autre nécessite une clé spécifique.
+ * La porte elle-même fait partie du monde partagé et ne change jamais :
+ * son état au cours d'une partie est gardé dans le WorldState de la partie.
  *
  * @author  Benoît de Keyn
  * @version 2026.01.12
@@ -8,10 +10,10 @@
 public class Door
 {
     /** La clé nécessaire pour déverrouiller cette porte (null si porte non verrouillable). */
-    private Item aKey;
+    private final Item aKey;
     
-    /** État de la porte : true = ouverte, false = verrouillée. */
-    private boolean aIsLocked;
+    /** État de la porte au lancement du jeu : true = verrouillée, false = ouverte. */
+    private final boolean aIsLockedAtStart;
 
     /**
      * Constructeur : crée une porte verrouillée avec une clé spécifique.
@@ -22,44 +24,40 @@ public class Door
     public Door( final Item pKey )
     {
         this.aKey = pKey;
-        this.aIsLocked = true;
+        this.aIsLockedAtStart = true;
     } // Door(*,*)
     
     /**
-     * Vérifie si la porte est verrouillée.
+     * Vérifie si la porte est verrouillée au lancement du jeu.
      *
-     * @return true si la porte est verrouillée, false sinon
-     */
-    public boolean isLocked()
-    {
-        return this.aIsLocked;
-    } // isLocked()
-    
-    /**
-     * Permet d'ouvrir/déverrouiller la porte.
+     * @return true si la porte est verrouillée au départ, false sinon
      */
-    public void unlock()
+    public boolean isLockedAtStart()
     {
-        this.aIsLocked = false;
-    } // unlock()
-    
+        return this.aIsLockedAtStart;
+    } // isLockedAtStart()
+
     /**
-     * Permet de fermer/verrouiller la porte.
+     * Vérifie si la porte est verrouillée dans une partie.
+     *
+     * @param pState l'état de la partie
+     * @return true si la porte est verrouillée, false sinon
      */
-    public void lock()
+    public boolean isLocked( final WorldState pState )
     {
-        this.aIsLocked = true;
-    } // lock()
+        return pState.isLocked( this );
+    } // isLocked(*)
     
     /**
-     * Renvoie une description de l'état de la porte.
+     * Renvoie une description de l'état de la porte dans une partie.
      *
+     * @param pState l'état de la partie
      * @return "ouverte" ou "verrouillée"
      */
-    public String getStateDescription()
+    public String getStateDescription( final WorldState pState )
     {
-        return this.aIsLocked ? "verrouillée" : "ouverte";
-    } // getStateDescription()
+        return this.isLocked( pState ) ? "verrouillée" : "ouverte";
+    } // getStateDescription(*)
 
     /**
      * Renvoie la clé associée à cette porte.
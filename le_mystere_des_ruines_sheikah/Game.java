@@ -1,33 +1,91 @@
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+
 /**
  * Classe Game - représente la boucle principale du jeu "le mystère des ruines Sheikah".
  * Cette classe initialise le moteur du jeu et l'interface utilisateur.
+ * Le démarrage est fait en parallèle : le monde est chargé puis l'image de la salle de départ décodée
+ * en arrière-plan, pendant que la fenêtre est construite et que le prénom est demandé sur le thread
+ * de l'interface (EDT). Les temps du démarrage sont affichés dans la console (voir StartupTimer) :
+ * "prêt sans le prénom" quand la fenêtre, le monde et l'image sont prêts, la durée de la saisie du prénom
+ * à part (le temps de réaction du joueur), puis la fenêtre prête à recevoir des commandes.
  *
  * @author  Benoît de Keyn
- * @version 2025.12.25
+ * @version 2026.02.04
  */
 
 public class Game
 {
     /** L'interface utilisateur graphique du jeu. */
     private final UserInterface aGui;
-    
+
     /** Le moteur de jeu qui gère la logique. */
     private final GameEngine aEngine;
-    
+
     /** Le joueur du jeu. */
     private final Player aPlayer;
 
     /**
      * Crée et initialise le jeu.
-     * Demande le nom du joueur, instancie le joueur, le moteur de jeu et l'interface utilisateur,
-     * puis les lie ensemble.
+     * Lance la construction de la fenêtre, le chargement du monde et la demande du prénom,
+     * attend le monde et le prénom, puis lie le joueur, le moteur de jeu et l'interface utilisateur.
+     * Appelé depuis le thread de l'interface (EDT), le prénom est demandé directement sur ce thread,
+     * qu'on ne peut pas bloquer en attendant une tâche qu'il devrait lui-même exécuter.
      */
-    public Game() 
+    public Game()
     {
-        this.aEngine = new GameEngine();
-        this.aPlayer = new Player();
+        StartupTimer vTimer = new StartupTimer();
+        this.aGui = new UserInterface();
+        CompletableFuture<Void> vWindow = new CompletableFuture<Void>();
+        SwingUtilities.invokeLater( () -> { // après la construction de la fenêtre
+            vTimer.mark( "fenêtre" );
+            vWindow.complete( null );
+        } );
+
+        CompletableFuture<GameEngine> vEngine = CompletableFuture.supplyAsync( () -> {
+            GameEngine vLoaded = new GameEngine();
+            vTimer.mark( "monde" );
+            return vLoaded;
+        } );
+        CompletableFuture<Void> vImage = vEngine.thenAcceptAsync( pEngine -> {
+            this.aGui.preloadImage( pEngine.getStartImage() );
+            vTimer.mark( "image de départ" );
+        } );
+        CompletableFuture.allOf( vWindow, vImage ).thenRun( () -> vTimer.mark( "prêt sans le prénom" ) );
+        CompletableFuture<String> vName = SwingUtilities.isEventDispatchThread()
+            ? CompletableFuture.completedFuture( askName( vTimer ) )
+            : CompletableFuture.supplyAsync( () -> askName( vTimer ), SwingUtilities::invokeLater );
+
+        this.aPlayer = new Player( vName.join() );
+        vTimer.mark( "prénom" );
+        try {
+            this.aEngine = vEngine.join();
+        }
+        catch ( final CompletionException pCE ) {
+            throw pCE.getCause() instanceof RuntimeException vCause ? vCause : pCE;
+        }
         this.aEngine.setPlayer( this.aPlayer );
-        this.aGui = new UserInterface( this.aEngine );
         this.aEngine.setGUI( this.aGui );
+        this.aGui.setEngine( this.aEngine ); // la saisie n'est activée qu'une fois le moteur relié à la fenêtre
+        SwingUtilities.invokeLater( () -> { // après l'affichage du message de bienvenue et de la première image
+            vTimer.mark( "fenêtre interactive" );
+            System.out.println( vTimer.getReport() );
+        } );
     }
+
+    /**
+     * Demande son prénom au joueur, et note la durée de la saisie à part.
+     *
+     * @param pTimer le chronomètre du démarrage
+     * @return le prénom saisi (null si la fenêtre a été fermée)
+     */
+    private static String askName( final StartupTimer pTimer )
+    {
+        long vAsked = System.nanoTime();
+        String vName = JOptionPane.showInputDialog( "Quel est votre prénom ?" );
+        pTimer.markWait( "saisie du prénom", vAsked );
+        return vName;
+    } // askName(*)
 }
@@ -1,12 +1,20 @@
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.util.HashMap;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.List;
 import java.util.Scanner;
 
 /**
  * Classe GameEngine - le moteur du jeu "le mystère des ruines Sheikah".
- * Cette classe gère la logique principale du jeu, y compris la création des salles,
- * le traitement des commandes et l'affichage des informations dans l'interface utilisateur.
+ * Cette classe gère la logique principale du jeu, y compris le traitement des commandes
+ * et l'affichage des informations dans l'interface utilisateur.
+ * Les salles viennent d'un monde (World) partagé par toutes les parties ; ce que la partie
+ * y change est gardé dans son propre état (WorldState).
  *
  * @author  Michael Kolling, David J. Barnes, Benoît de Keyn
  * @version 2026.01.13
@@ -15,18 +23,27 @@ public class GameEngine
 {
     /** Le parseur de commandes du jeu. */
     private final Parser aParser;
+
+    /** La commande remplie par le parseur, réutilisée d'une ligne à l'autre. */
+    private final Command aCommand;
     
     /** Le joueur du jeu. */
     private Player aPlayer;
     
-    /** L'interface utilisateur graphique. */
-    private UserInterface aGui;
+    /** La sortie du jeu (interface graphique, ou sortie sans affichage). */
+    private OutputSink aGui;
     
+    /** Le dossier par défaut dans lequel les commandes "sauver" et "charger-partie" rangent les sauvegardes. */
+    private static final String SAVES_FOLDER = "sauvegardes";
+
     /** Le chemin du dossier contenant les images du jeu. */
     private final String aImagesFolder = "Images/";
     
-    /** La salle de départ du jeu. */
-    private Room aStartRoom;
+    /** Le monde du jeu, partagé avec les autres parties. */
+    private final World aWorld;
+
+    /** Ce que cette partie a changé dans le monde (objets, portes, téléporteurs). */
+    private final WorldState aState;
 
     /** Compteur de déplacements. */
     private int aMovesCount;
@@ -34,28 +51,75 @@ public class GameEngine
     /** Nombre total de déplacements autorisés avant le Game Over. */
     private final int aMaxMoves = 100;
     
-    /** Collection de toutes les salles du jeu */
-    private HashMap<String, Room> aRooms;
-
     /** Debug mode pour truquer le hasard avec la commande alea dans les tests */
     private boolean aDebugMode;
 
     /** Etat du jeux (en cours ou finit) */
     private boolean aGameOver;
 
+    /** Indique si la partie s'est terminée par une victoire (le Pyrotaris a été trouvé). */
+    private boolean aWon;
+
+    /** Indique si la commande "test" peut lire des fichiers de test (désactivée pour les joueurs à distance). */
+    private boolean aTestsAllowed;
+
+    /** Le dossier des sauvegardes, qui contient un sous-dossier par joueur (null si les sauvegardes sont interdites). */
+    private Path aSavesFolder;
+
+    /** Le tampon réutilisé pour encoder les sauvegardes de la partie. */
+    private ByteBuffer aSnapshot;
+
+    /** Profondeur d'imbrication des commandes en cours (un fichier de test exécute des commandes imbriquées). */
+    private int aCommandDepth;
+
+    /** Le journal des commandes de la partie, pour la reprendre après un arrêt (null si aucun). */
+    private Journal aJournal;
+
+    /** Indique si la partie est en train d'être rejouée depuis son journal (aucun fichier n'est alors lu ni écrit). */
+    private boolean aReplaying;
+
+    /** Les sauvegardes reprises par "charger-partie", lues dans le journal en cours de rejeu. */
+    private final ArrayDeque<ByteBuffer> aReplaySnapshots;
+
+    /** Les mesures des commandes (partagées par toutes les parties). */
+    private final CommandMetrics aMetrics;
+
+    /** L'erreur rencontrée par la commande en cours (null si aucune), pour les événements JFR. */
+    private CommandMetrics.ErrorKind aError;
+
     /**
-     * Crée un nouveau moteur de jeu.
-     * Initialise le parseur et crée toutes les salles.
+     * Crée un nouveau moteur de jeu dans le monde des ruines Sheikah.
      */
     public GameEngine()
+    {
+        this( World.getDefault() );
+    }
+
+    /**
+     * Crée un nouveau moteur de jeu dans un monde donné.
+     * Initialise le parseur et l'état de la partie ; le monde n'est pas recopié.
+     *
+     * @param pWorld le monde (figé) dans lequel se déroule la partie
+     */
+    public GameEngine( final World pWorld )
     {
         this.aParser = new Parser();
-        this.aRooms = new HashMap<String, Room>();
+        this.aCommand = new Command( null, null );
+        this.aWorld = pWorld;
+        this.aState = new WorldState( pWorld );
         this.aMovesCount = 0;
         this.aDebugMode = false;
         this.aGameOver = false;
-        this.createRooms();
-    }
+        this.aWon = false;
+        this.aTestsAllowed = true;
+        this.aSavesFolder = Path.of( SAVES_FOLDER );
+        this.aCommandDepth = 0;
+        this.aJournal = null;
+        this.aReplaying = false;
+        this.aReplaySnapshots = new ArrayDeque<ByteBuffer>();
+        this.aMetrics = CommandMetrics.getDefault();
+        this.aError = null;
+    } // GameEngine(*)
 
     /**
      * Définit le joueur du jeu et l'initialise dans la salle de départ.
@@ -65,121 +129,221 @@ public class GameEngine
     public void setPlayer( final Player pPlayer )
     {
         this.aPlayer = pPlayer;
-        this.aPlayer.setCurrentRoom( this.aStartRoom );
+        this.aPlayer.setCurrentRoom( this.aWorld.getStartRoom() );
     }
 
     /**
-     * Définit l'interface utilisateur graphique et affiche le message de bienvenue.
+     * Renvoie le chemin de l'image de la salle de départ, pour la décoder à l'avance.
+     *
+     * @return le chemin de l'image (dossier compris)
+     */
+    public String getStartImage()
+    {
+        return this.aImagesFolder + this.aWorld.getStartRoom().getImageName();
+    } // getStartImage()
+
+    /**
+     * Définit la sortie du jeu et affiche le message de bienvenue.
+     * La sortie peut être l'interface graphique ou une sortie sans affichage (TextOutput, ...).
      *
-     * @param pUserInterface l'interface utilisateur à utiliser pour les affichages
+     * @param pUserInterface la sortie à utiliser pour les affichages
      */
-    public void setGUI( final UserInterface pUserInterface )
+    public void setGUI( final OutputSink pUserInterface )
     {
         this.aGui = pUserInterface;
         this.aGui.setImagesFolder( this.aImagesFolder );
         this.printWelcome();
+        this.aGui.flush();
     }
 
     /**
-     * Crée toutes les salles (rooms) du jeu et configure leurs sorties.
-     * La méthode instancie les objets Room et définit la salle de départ.
-     */
-    private void createRooms()
-    {
-        // Création des Items
-        Item vTeleporteur   = new Beamer();
-        Item vOiseau        = new Item("oiseau", "un oiseau qui a fait son nid", 0.1);
-        Item vPoussin       = new Item("poussin", "un poussin tout juste éclos", 0.2);
-        Item vLezard        = new Item("lézard", "un lézard qui prend le soleil", 0.5);
-        Item vPapillon      = new Item("papillon", "un papillon coloré", 0.1);
-        Item vCoccinelle    = new Item("coccinelle", "une coccinelle porte-bonheur", 0.1);
-        Item vLapin         = new Item("lapin", "un lapin qui se promène", 1.5);
-        Item vCle           = new Item("clé", "une clé ancienne", 0.3);
-        Item vTorche        = new Item("torche", "une torche enflammée", 0.7);
-        Item vRocher        = new Item("rocher", "un gros rocher bien lourd", 12.0);
-        Item vFiole         = new Item("fiole", "une fiole d'eau oxygénée", 0.5);
-        Item vPyrotaris     = new Item("pyrotaris", "le fameux bijou de technologie sheikah", 3.0);
-
-        // Création des salles
-        Room vNord        = this.createRoom("zone_nord",        "dans la zone au NORD des ruines",               "zone nord.png");
-        Room vOuest       = this.createRoom("zone_ouest",       "dans la zone à l'OUEST des ruines",             "zone ouest.png");
-        Room vSud         = this.createRoom("zone_sud",         "dans la zone au SUD des ruines",                "zone sud.png");
-        Room vEst         = this.createRoom("zone_est",         "dans la zone à l'EST des ruines",               "zone est.png");
-        Room vMurNord     = this.createRoom("mur_nord",         "devant le mur NORD des ruines",                 "mur nord.png");
-        Room vMurOuest    = this.createRoom("mur_ouest",        "devant le mur OUEST des ruines",                "mur ouest.png");
-        Room vPorte       = this.createRoom("porte_sud",        "à la porte scellée du mur SUD des ruines",      "porte sud.png");
-        Room vEscaliers   = this.createRoom("escaliers_est",    "aux escaliers du mur EST des ruines",           "escaliers est.png");
-        Room vToitRuines  = this.createRoom("toit_ruines",      "sur le dessus des ruines",                      "toit ruines.png");
-        Room vArbre       = this.createRoom("arbre",            "en hauteur, dans l'arbre au-dessus des ruines", "arbre.png");
-        Room vInterieur   = this.createRoom("interieur_ruines", "à l'intérieur des ruines Sheikah",              "interieur ruines.png");
-        Room vSalleFinale = this.createRoom("salle_finale",     "dans la salle qui renferme le trésor ultime",   "salle finale.png");
-
-        // Salle spéciale TransporterRoom
-        Room vTransporter = new TransporterRoom(
-            "dans une salle mystérieuse qui vous aspire \nsans que vous puissiez vous en extraire...",
-            "tunnel infini.png",
-            new RoomRandomizer( this.aRooms )
-        );
-        this.aRooms.put( "teleporteur_aleatoire", vTransporter );
-
-        // Création des passages bidirectionnels entre les salles
-        Room.connectRooms(vNord, "sud", vMurNord, "nord");
-        Room.connectRooms(vNord, "ouest", vOuest, "nord");
-        Room.connectRooms(vNord, "est", vEst, "nord");
-        Room.connectRooms(vEst, "sud", vSud, "est");
-        Room.connectRooms(vEst, "ouest", vEscaliers, "est");
-        Room.connectRooms(vSud, "nord", vPorte, "sud");
-        Room.connectRooms(vSud, "ouest", vOuest, "sud");
-        Room.connectRooms(vOuest, "est", vMurOuest, "ouest");
-        Room.connectRooms(vEscaliers, "haut", vToitRuines, "bas");
-        Room.connectRooms(vToitRuines, "haut", vArbre, "bas");
-        Room.connectRooms(vPorte, "nord", vInterieur, "sud", vCle); // porte verrouillée avec la clé
-        // Connexions trap-door
-        Room.connectRooms(vToitRuines, "nord", vMurNord);
-        Room.connectRooms(vToitRuines, "est", vEscaliers);
-        Room.connectRooms(vToitRuines, "sud", vPorte);
-        Room.connectRooms(vToitRuines, "ouest", vMurOuest);
-        Room.connectRooms(vInterieur, "ouest", vSalleFinale, vRocher); // porte verrouillée avec le rocher
-
-        // On peut accéder à vTransporter depuis vInterieur par le nord,
-        // En revanche, toute sortie de vTransporter mène à une salle aléatoire.
-        Room.connectRooms(vTransporter, "sud", vInterieur, "nord");
-        Room.connectRooms(vTransporter, "nord", vInterieur);
-        Room.connectRooms(vTransporter, "est", vInterieur);
-        Room.connectRooms(vTransporter, "ouest", vInterieur);
-
-        // Placement des Items dans les salles
-        vSud.addItem(vTorche);
-        vToitRuines.addItem(vLapin);
-        vToitRuines.addItem(vTeleporteur);
-        vArbre.addItem(vOiseau);
-        vArbre.addItem(vPoussin);
-        vArbre.addItem(vCle);
-        vMurNord.addItem(vFiole);
-        vMurNord.addItem(vLezard);
-        vMurOuest.addItem(vCoccinelle);
-        vMurOuest.addItem(vRocher);
-        vEscaliers.addItem(vPapillon);
-        vSalleFinale.addItem(vPyrotaris);
-        
-        // Salle de départ (sera assignée au joueur quand il sera créé)
-        this.aStartRoom = vSud;
-    } // createRooms
- 
+     * Indique si la partie est terminée (victoire, game over ou "quitter").
+     *
+     * @return true si la partie est terminée, false sinon
+     */
+    public boolean isGameOver()
+    {
+        return this.aGameOver;
+    } // isGameOver
+
+    /**
+     * Indique si la partie a été gagnée (le Pyrotaris a été trouvé).
+     *
+     * @return true si la partie est gagnée, false sinon
+     */
+    public boolean isWon()
+    {
+        return this.aWon;
+    } // isWon()
+
+    /**
+     * Renvoie le nombre de déplacements effectués depuis le début de la partie.
+     *
+     * @return le nombre de déplacements
+     */
+    public int getMovesCount()
+    {
+        return this.aMovesCount;
+    } // getMovesCount()
+
+    /**
+     * Renvoie le nombre de déplacements qui met fin à la partie (Game Over).
+     *
+     * @return le nombre maximum de déplacements
+     */
+    public int getMaxMoves()
+    {
+        return this.aMaxMoves;
+    } // getMaxMoves()
+
+    /**
+     * Renvoie l'état du monde propre à cette partie.
+     *
+     * @return l'état de la partie
+     */
+    public WorldState getWorldState()
+    {
+        return this.aState;
+    } // getWorldState
+
+    /**
+     * Encode l'état de la partie dans une sauvegarde binaire (voir GameSnapshot).
+     * Le tampon est réutilisé d'un appel à l'autre : la sauvegarde renvoyée n'est valable
+     * que jusqu'au prochain appel, il faut la recopier pour la garder.
+     *
+     * @return la sauvegarde, prête à être lue ou écrite
+     */
+    public ByteBuffer saveSnapshot()
+    {
+        this.aSnapshot = GameSnapshot.encode( this.aSnapshot, this.aState, this.aPlayer, this.aMovesCount );
+        return this.aSnapshot;
+    } // saveSnapshot()
+
+    /**
+     * Remet la partie dans l'état d'une sauvegarde binaire.
+     *
+     * @param pSnapshot la sauvegarde (de sa position à sa limite)
+     * @throws IOException si la sauvegarde est corrompue ou ne correspond pas au monde de la partie
+     */
+    public void restoreSnapshot( final ByteBuffer pSnapshot ) throws IOException
+    {
+        this.aMovesCount = GameSnapshot.decode( pSnapshot, this.aState, this.aPlayer );
+    } // restoreSnapshot(*)
+
+    /**
+     * Sauvegarde la partie dans un fichier (écrit à côté puis renommé d'un seul coup).
+     *
+     * @param pFile le fichier de sauvegarde
+     * @throws IOException si le fichier ne peut pas être écrit
+     */
+    public void saveGame( final Path pFile ) throws IOException
+    {
+        GameSnapshot.write( pFile, this.saveSnapshot() );
+    } // saveGame(*)
+
+    /**
+     * Reprend une partie sauvegardée dans un fichier.
+     *
+     * @param pFile le fichier de sauvegarde
+     * @throws IOException si le fichier est illisible, corrompu ou d'un autre monde
+     */
+    public void loadGame( final Path pFile ) throws IOException
+    {
+        this.restoreSnapshot( GameSnapshot.read( pFile ) );
+    } // loadGame(*)
+
+    /**
+     * Autorise ou interdit la commande "test", qui lit des fichiers sur la machine du moteur.
+     *
+     * @param pAllowed true pour autoriser les fichiers de test, false pour les interdire
+     */
+    public void setTestsAllowed( final boolean pAllowed )
+    {
+        this.aTestsAllowed = pAllowed;
+    } // setTestsAllowed(*)
+
+    /**
+     * Active ou désactive le mode debug (commandes "alea", "stats" et "chrono") hors d'un fichier de test,
+     * pour les mesures JMH (voir benchmarks/EngineBenchmark). Un "test" le désactive en se terminant.
+     *
+     * @param pDebugMode true pour autoriser les commandes de debug
+     */
+    void setDebugMode( final boolean pDebugMode )
+    {
+        this.aDebugMode = pDebugMode;
+    } // setDebugMode(*)
+
+    /**
+     * Définit le dossier des sauvegardes des commandes "sauver" et "charger-partie" ;
+     * chaque joueur y a son propre sous-dossier, nommé d'après son prénom.
+     *
+     * @param pFolder le dossier des sauvegardes, ou null pour interdire les sauvegardes (joueurs à distance)
+     */
+    public void setSavesFolder( final Path pFolder )
+    {
+        this.aSavesFolder = pFolder;
+    } // setSavesFolder(*)
+
+    /**
+     * Définit le journal dans lequel noter les commandes et les tirages au sort de la partie.
+     * Chaque commande est notée avant d'être exécutée, et ce qu'elle affiche n'est envoyé
+     * à la sortie qu'une fois le journal écrit sur le disque.
+     *
+     * @param pJournal le journal de la partie (null pour ne plus rien noter)
+     */
+    public void setJournal( final Journal pJournal )
+    {
+        this.aJournal = pJournal;
+        this.aState.setJournal( pJournal );
+    } // setJournal(*)
+
+    /**
+     * Indique si la partie est rejouée depuis son journal (voir Journal.replay).
+     * Pendant le rejeu, "sauver" n'écrit aucun fichier et "charger-partie" reprend la sauvegarde
+     * notée dans le journal (voir queueSnapshot) au lieu de relire un fichier qui a pu changer depuis.
+     *
+     * @param pReplaying true au début du rejeu, false à la fin
+     */
+    public void setReplaying( final boolean pReplaying )
+    {
+        this.aReplaying = pReplaying;
+        if ( ! pReplaying ) {
+            this.aReplaySnapshots.clear();
+        }
+    } // setReplaying(*)
+
+    /**
+     * Impose la sauvegarde reprise par le prochain "charger-partie" rejoué.
+     *
+     * @param pSnapshot la sauvegarde reprise la première fois, telle que notée dans le journal
+     */
+    public void queueSnapshot( final ByteBuffer pSnapshot )
+    {
+        this.aReplaySnapshots.add( pSnapshot );
+    } // queueSnapshot(*)
+
+    /**
+     * Renvoie le plus court itinéraire de la salle courante du joueur jusqu'à une salle,
+     * en respectant les passages à sens unique et les portes verrouillées de la partie.
+     *
+     * @param pTarget la salle à atteindre
+     * @return les directions à prendre (vide si le joueur y est déjà), ou null si la salle est inaccessible
+     */
+    public List<String> getRoute( final Room pTarget )
+    {
+        return this.aState.getRoute( this.aPlayer.getCurrentRoom(), pTarget );
+    } // getRoute(*)
+
     /**
-     * Crée une nouvelle salle, l'ajoute à la HashMap des salles et la retourne.
+     * Rend les tirages de la salle de téléportation aléatoire reproductibles,
+     * en utilisant un SplittableRandom initialisé avec la graine donnée.
      *
-     * @param pName le nom unique de la salle pour la HashMap
-     * @param pDescription la description textuelle de la salle
-     * @param pImage le nom du fichier image représentant la salle
-     * @return la salle nouvellement créée
+     * @param pSeed la graine du générateur aléatoire
      */
-    private Room createRoom(final String pName, final String pDescription, final String pImage )
+    public void setRandomSeed( final long pSeed )
     {
-        Room vRoom = new Room( pDescription, pImage );
-        this.aRooms.put( pName, vRoom );
-        return vRoom;
-    } // createRoom(*,*,*)
+        this.aState.setRandomSeed( pSeed );
+    } // setRandomSeed(*)
 
     /**
      * Affiche le message de bienvenue et les informations de localisation initiales.
@@ -198,44 +362,138 @@ public class GameEngine
 
     /**
      * Interprète et exécute une commande donnée sous forme de chaîne de caractères.
+     * Tout ce que la commande affiche est envoyé à la sortie en une seule fois, à la fin
+     * de la commande (ou à la fin du fichier de test pour les commandes d'un test).
+     * Si la partie a un journal, la commande y est notée, et la sortie attend qu'il soit écrit.
      *
      * @param pCommandLine la ligne de commande saisie par l'utilisateur
      */
     public void interpretCommand( final String pCommandLine ) 
+    {
+        this.aCommandDepth++;
+        try {
+            if ( this.aJournal != null && this.aCommandDepth == 1 ) {
+                this.aJournal.recordCommand( pCommandLine );
+            }
+            this.processCommand( pCommandLine );
+        }
+        finally {
+            this.aCommandDepth--;
+            if ( this.aCommandDepth == 0 ) {
+                this.syncJournal();
+                this.aGui.flush();
+            }
+        }
+    } // interpretCommand(*)
+
+    /**
+     * Attend que le journal de la partie soit écrit sur le disque.
+     * Si l'écriture échoue, la partie continue sans journal et le joueur en est averti.
+     */
+    private void syncJournal()
+    {
+        if ( this.aJournal == null ) {
+            return;
+        }
+        try {
+            this.aJournal.sync();
+        }
+        catch ( final IOException pIOE ) {
+            this.setJournal( null );
+            this.aGui.println( "Attention : la partie ne peut plus être enregistrée, elle ne pourra pas être reprise." );
+        }
+    } // syncJournal()
+
+    /**
+     * Analyse une ligne de commande et exécute la commande correspondante.
+     * Le temps d'exécution est ajouté aux mesures de la commande (voir CommandMetrics) ;
+     * celui d'un "test" comprend les commandes du fichier, mesurées aussi chacune de leur côté.
+     * La commande est aussi émise comme événement JFR (voir GameEvents), avec son résultat.
+     *
+     * @param pCommandLine la ligne de commande à exécuter
+     */
+    private void processCommand( final String pCommandLine )
     {
         if (this.aGameOver) {
             return;
         }
 
+        long vStart = System.nanoTime();
+        GameEvents.CommandEvent vEvent = GameEvents.commandStarted(); // null sans enregistrement JFR
+        this.aError = null;
         this.aGui.println( "\n> " + pCommandLine );
-        Command vCommand = this.aParser.getCommand( pCommandLine );
+        // la commande est réutilisée : les commandes imbriquées d'un test l'écrasent,
+        // mais executeTest a déjà lu son second mot avant de les lancer.
+        long vParse = Tracer.begin();
+        Command vCommand = this.aParser.getCommand( pCommandLine, this.aCommand );
+        Tracer.end( Tracer.Span.PARSE, vParse );
 
         if ( vCommand.isUnknown() ) {
             this.aGui.println("Cette commande n'existe pas.");
+            this.recordError( CommandMetrics.ErrorKind.UNKNOWN_COMMAND );
+            this.aMetrics.record( null, System.nanoTime() - vStart );
+            GameEvents.commandExecuted( vEvent, CommandMetrics.UNKNOWN_WORD, this.getOutcome() );
             return;
         }
 
-        switch (vCommand.getCommandWord()) {
-            case "quitter"       -> quit(vCommand);
-            case "aller"         -> goRoom(vCommand);
-            case "retour"        -> goBack(vCommand);
-            case "aide"          -> printHelp();
-            case "respirer"      -> breathe();
-            case "regarder"      -> look();
-            case "test"          -> executeTest(vCommand);
-            case "prendre"       -> take(vCommand);
-            case "poser"         -> drop(vCommand);
-            case "inventaire"    -> showInventory();
-            case "ingérer"       -> ingest(vCommand);
-            case "charger"       -> chargeBeamer();
-            case "déclencher"    -> triggerBeamer();
-            case "déverrouiller" -> unlockDoor(vCommand);
-            case "verrouiller"   -> lockDoor(vCommand);
-            case "alea"          -> bypassRandom(vCommand);
-            default              -> System.out.println("Cette commande n'a pas encore d'effet associé.");
+        CommandWord vWord = vCommand.getCommandWord();
+        long vDispatch = Tracer.begin();
+        switch (vWord) {
+            case QUITTER       -> quit(vCommand);
+            case ALLER         -> goRoom(vCommand);
+            case RETOUR        -> goBack(vCommand);
+            case AIDE          -> printHelp();
+            case RESPIRER      -> breathe();
+            case REGARDER      -> look();
+            case TEST          -> executeTest(vCommand);
+            case PRENDRE       -> take(vCommand);
+            case POSER         -> drop(vCommand);
+            case INVENTAIRE    -> showInventory();
+            case INGERER       -> ingest(vCommand);
+            case CHARGER       -> chargeBeamer();
+            case DECLENCHER    -> triggerBeamer();
+            case DEVERROUILLER -> unlockDoor(vCommand);
+            case VERROUILLER   -> lockDoor(vCommand);
+            case SAUVER        -> save(vCommand);
+            case CHARGER_PARTIE -> load(vCommand);
+            case ITINERAIRE    -> showRoute(vCommand);
+            case ALEA          -> bypassRandom(vCommand);
+            case STATS         -> showStats();
+            case CHRONO        -> trace(vCommand);
+            default            -> System.out.println("Cette commande n'a pas encore d'effet associé.");
         }
+        Tracer.end( Tracer.Span.DISPATCH, vDispatch, vWord.getWord() );
+        this.aMetrics.record( vWord, System.nanoTime() - vStart );
+        GameEvents.commandExecuted( vEvent, vWord.getWord(), this.getOutcome() );
+        this.aError = null;
+    } // processCommand(*)
 
-    } // interpretCommand(*)
+    /**
+     * Note une erreur de la commande en cours dans les mesures.
+     *
+     * @param pError l'erreur
+     */
+    private void recordError( final CommandMetrics.ErrorKind pError )
+    {
+        this.aMetrics.recordError( pError );
+        this.aError = pError;
+    } // recordError(*)
+
+    /**
+     * Renvoie le résultat de la commande qui vient d'être exécutée.
+     *
+     * @return le libellé de son erreur, "victoire" ou "game over" si elle a terminé la partie, "ok" sinon
+     */
+    private String getOutcome()
+    {
+        if ( this.aError != null ) {
+            return this.aError.getLabel();
+        }
+        if ( this.aGameOver ) {
+            return this.aWon ? "victoire" : "game over";
+        }
+        return "ok";
+    } // getOutcome()
 
     /**
      * Incrémente le compteur de déplacements et vérifie si le joueur a atteint la limite.
@@ -284,15 +542,17 @@ public class GameEngine
             return;
         }
 
-        String vDirection = pCommand.getSecondWord();
+        String vWord = pCommand.getSecondWord();
+        Direction vDirection = Direction.fromWord( vWord );
 
-        if ( ! pCommand.isDirection( vDirection ) ) {
+        if ( ! pCommand.isDirection( vWord ) || vDirection == null ) {
             this.aGui.println("Cette direction n'existe pas.");
+            this.recordError( CommandMetrics.ErrorKind.INVALID_DIRECTION );
             return;
         }
         
         Room vCurrentRoom = this.aPlayer.getCurrentRoom();
-        Room vNextRoom = vCurrentRoom.getExit( vDirection );
+        Room vNextRoom = vCurrentRoom.getExit( vDirection, this.aState );
 
         if ( vNextRoom == null ) {
             this.aGui.println("Vous ne pouvez pas aller dans cette direction !");
@@ -301,20 +561,28 @@ public class GameEngine
         
         // Vérification de la porte
         Door vDoor = vCurrentRoom.getDoor( vDirection );
-        if ( vDoor != null && vDoor.isLocked() ) {
+        if ( vDoor != null && vDoor.isLocked( this.aState ) ) {
             this.aGui.println("Cette porte est fermée à clé. Vous devez la déverrouiller d'abord.");
+            this.recordError( CommandMetrics.ErrorKind.LOCKED_DOOR );
             return;
         }
 
+        long vTransition = Tracer.begin();
         this.aPlayer.goRoom( vNextRoom );
 
-        if (! vNextRoom.hasExitTo( vCurrentRoom )) {
+        boolean vTrapDoor = ! vCurrentRoom.hasReturn( vDirection, vNextRoom );
+        if ( vTrapDoor ) {
             this.aPlayer.clearHistory();
         }
+        GameEvents.roomEntered( this.aWorld.getRoomName( vCurrentRoom ), this.aWorld.getRoomName( vNextRoom ), vTrapDoor );
+        if ( vCurrentRoom instanceof TransporterRoom ) {
+            GameEvents.teleport( "TransporterRoom", this.aWorld.getRoomName( vCurrentRoom ), this.aWorld.getRoomName( vNextRoom ) );
+        }
         
         printLocationInfo();
         displayLocationImage();
         countMoves();
+        Tracer.end( Tracer.Span.ROOM_TRANSITION, vTransition, vNextRoom.getDescription() );
     } // goRoom(*)
 
     /**
@@ -329,10 +597,12 @@ public class GameEngine
             this.aGui.println("tapez seulement \"retour\" si vous voulez revenir à la salle précédente.");
             return;
         }
+        Room vPreviousRoom = this.aPlayer.getCurrentRoom();
         if ( ! this.aPlayer.goBack() ) {
             this.aGui.println("Vous ne pouvez pas revenir en arrière.");
             return;
         }
+        GameEvents.roomEntered( this.aWorld.getRoomName( vPreviousRoom ), this.aWorld.getRoomName( this.aPlayer.getCurrentRoom() ), false );
         printLocationInfo();
         displayLocationImage();
         countMoves();
@@ -374,16 +644,18 @@ public class GameEngine
      */
     private void printLocationInfo()
     {
-        this.aGui.println(this.aPlayer.getCurrentRoom().getLongDescription());
+        this.aGui.println(this.aPlayer.getCurrentRoom().getLongDescription( this.aState ));
     } // printLocationInfo
 
     /**
-     * Affiche l'image de la salle courante dans l'interface graphique.
+     * Affiche l'image de la salle courante dans l'interface graphique,
+     * puis demande le préchargement des images des salles voisines.
      */
     private void displayLocationImage()
     {
         if ( this.aPlayer.getCurrentRoom().getImageName() != null )
             this.aGui.showImage( this.aPlayer.getCurrentRoom().getImageName() );
+        this.aGui.prefetchExitImages( this.aPlayer.getCurrentRoom(), this.aState );
     } // displayLocationImage
 
     /**
@@ -402,7 +674,7 @@ public class GameEngine
         }
 
         String vItemName = pCommand.getSecondWord();
-        Item vItem = this.aPlayer.getCurrentRoom().getItem( vItemName );
+        Item vItem = this.aState.getItem( this.aPlayer.getCurrentRoom(), vItemName );
 
         if ( vItem == null ) {
             this.aGui.println("Il n'y a pas de tel objet ici.\n Attention aux accents et à la casse ...");
@@ -416,7 +688,8 @@ public class GameEngine
                 "Or cet objet pèse " + vItem.getWeight() + " kg.");
         } else {
             this.aPlayer.addItem( vItem );
-            this.aPlayer.getCurrentRoom().removeItem( vItemName );
+            this.aState.removeItem( this.aPlayer.getCurrentRoom(), vItemName );
+            GameEvents.inventoryChanged( vItem.getName(), "prendre", this.aPlayer.getInventoryWeight() );
             this.aGui.println("Vous avez ajouté \"" + vItem.getName() + "\" à votre inventaire.");
         }
         if (vItem.getName().equals("pyrotaris")) {
@@ -429,6 +702,7 @@ public class GameEngine
                 "=============================================\n");
             this.aGui.showImage("victoire.png");
             this.aGameOver = true;
+            this.aWon = true;
             this.aGui.enable( false );
         }
     } // take(*)
@@ -456,8 +730,9 @@ public class GameEngine
         }
 
         Item vItem = this.aPlayer.getItem( vItemName );
-        this.aPlayer.getCurrentRoom().addItem( vItem );
+        this.aState.addItem( this.aPlayer.getCurrentRoom(), vItem );
         this.aPlayer.removeItem( vItemName );
+        GameEvents.inventoryChanged( vItem.getName(), "poser", this.aPlayer.getInventoryWeight() );
         this.aGui.println("Vous avez bien posé : " + vItem.getName());
     } // drop(*)
 
@@ -494,6 +769,7 @@ public class GameEngine
             default -> { this.aGui.println("Mais ti'es complètment fadaaaa !!!"); return;}
         }
         this.aPlayer.removeItem( vItemName );
+        GameEvents.inventoryChanged( vItem.getName(), "ingérer", this.aPlayer.getInventoryWeight() );
     } // ingest(*)
 
     /**
@@ -519,7 +795,7 @@ public class GameEngine
             this.aGui.println("Vous ne possédez pas de Téléporteur.");
             return;
         }
-        ((Beamer)this.aPlayer.getItem("téléporteur")).charge(this.aPlayer.getCurrentRoom());
+        this.aState.charge( (Beamer)this.aPlayer.getItem("téléporteur"), this.aPlayer.getCurrentRoom() );
         this.aGui.println("Vous avez chargé le Téléporteur dans cette salle.");
     } // chargeBeamer
 
@@ -532,12 +808,13 @@ public class GameEngine
             this.aGui.println("Vous ne possédez pas de Téléporteur.");
             return;
         }
-        Room vTargetRoom = ((Beamer)this.aPlayer.getItem("téléporteur")).trigger();
+        Room vTargetRoom = this.aState.trigger( (Beamer)this.aPlayer.getItem("téléporteur") );
         if ( vTargetRoom == null ) {
             this.aGui.println("Le Téléporteur n'est pas chargé.");
             return;
         }
         this.aGui.println("Vous avez utilisé le Téléporteur pour vous téléporter !");
+        GameEvents.teleport( "Beamer", this.aWorld.getRoomName( this.aPlayer.getCurrentRoom() ), this.aWorld.getRoomName( vTargetRoom ) );
         this.aPlayer.goRoom(vTargetRoom);
         this.aPlayer.clearHistory();
         printLocationInfo();
@@ -560,6 +837,7 @@ public class GameEngine
         
         if ( ! pCommand.isDirection( vDirection ) ) {
             this.aGui.println("Cette direction n'existe pas.");
+            this.recordError( CommandMetrics.ErrorKind.INVALID_DIRECTION );
             return;
         }
         
@@ -570,13 +848,13 @@ public class GameEngine
             return;
         }
         
-        if ( ! vDoor.isLocked() ) {
+        if ( ! vDoor.isLocked( this.aState ) ) {
             this.aGui.println("Cette porte est déjà ouverte.");
             return;
         }
         
         if ( this.aPlayer.hasItem(vDoor.getKey().getName()) ) {
-            vDoor.unlock();
+            this.aState.setLocked( vDoor, false );
             this.aGui.println("Vous avez déverrouillé la porte " + vDirection + ".");
         } else {
             this.aGui.println("Vous n'avez pas la clé pour déverrouiller cette porte.");
@@ -598,6 +876,7 @@ public class GameEngine
         
         if ( ! pCommand.isDirection( vDirection ) ) {
             this.aGui.println("Cette direction n'existe pas.");
+            this.recordError( CommandMetrics.ErrorKind.INVALID_DIRECTION );
             return;
         }
         
@@ -608,19 +887,148 @@ public class GameEngine
             return;
         }
         
-        if ( vDoor.isLocked() ) {
+        if ( vDoor.isLocked( this.aState ) ) {
             this.aGui.println("Cette porte est déjà fermée.");
             return;
         }
         
         if ( this.aPlayer.hasItem(vDoor.getKey().getName()) ) {
-            vDoor.lock();
+            this.aState.setLocked( vDoor, true );
             this.aGui.println("Vous avez verrouillé la porte " + vDirection + ".");
         } else {
             this.aGui.println("Vous n'avez pas la clé pour verrouiller cette porte.");
         }
     } // lockDoor(*)    
 
+    /**
+     * Exécute la commande "sauver" pour sauvegarder la partie sous un nom.
+     *
+     * @param pCommand la commande reçue (doit contenir le nom de la sauvegarde)
+     */
+    private void save(final Command pCommand)
+    {
+        Path vFile = this.getSaveFile( pCommand );
+        if ( vFile == null ) {
+            return;
+        }
+        try {
+            if ( ! this.aReplaying ) { // le fichier a déjà été écrit la première fois
+                Files.createDirectories( vFile.getParent() );
+                this.saveGame( vFile );
+            }
+            this.aGui.println("Partie sauvegardée sous le nom \"" + pCommand.getSecondWord() + "\".");
+        } catch ( final IOException pIOE ) {
+            this.aGui.println("Impossible de sauvegarder la partie : " + pIOE.getMessage());
+        }
+    } // save(*)
+
+    /**
+     * Exécute la commande "charger-partie" pour reprendre une partie sauvegardée.
+     *
+     * @param pCommand la commande reçue (doit contenir le nom de la sauvegarde)
+     */
+    private void load(final Command pCommand)
+    {
+        Path vFile = this.getSaveFile( pCommand );
+        if ( vFile == null ) {
+            return;
+        }
+        ByteBuffer vSnapshot;
+        if ( this.aReplaying ) {
+            vSnapshot = this.aReplaySnapshots.poll();
+            if ( vSnapshot == null ) { // la sauvegarde n'avait pas pu être reprise la première fois
+                this.aGui.println("Impossible de reprendre la partie \"" + pCommand.getSecondWord() + "\".");
+                return;
+            }
+        }
+        else if ( ! Files.exists( vFile ) ) {
+            this.aGui.println("Aucune sauvegarde ne porte le nom \"" + pCommand.getSecondWord() + "\".");
+            return;
+        }
+        else {
+            try {
+                vSnapshot = GameSnapshot.read( vFile );
+            } catch ( final IOException pIOE ) {
+                this.aGui.println("Impossible de reprendre la partie : " + pIOE.getMessage());
+                return;
+            }
+        }
+        try {
+            this.restoreSnapshot( vSnapshot.duplicate() );
+        } catch ( final IOException pIOE ) {
+            this.aGui.println("Impossible de reprendre la partie : " + pIOE.getMessage());
+            return;
+        }
+        if ( this.aJournal != null ) { // le rejeu reprendra exactement cette sauvegarde
+            this.aJournal.recordSnapshot( vSnapshot );
+        }
+        this.aGui.println("Vous reprenez la partie \"" + pCommand.getSecondWord() + "\".");
+        printLocationInfo();
+        displayLocationImage();
+    } // load(*)
+
+    /**
+     * Renvoie le fichier d'une sauvegarde à partir du second mot d'une commande,
+     * dans le sous-dossier du joueur (son prénom, où tout sauf les lettres, les chiffres et '-' devient '_').
+     * Le nom ne peut contenir que des lettres, des chiffres, '-' et '_'.
+     *
+     * @param pCommand la commande reçue (doit contenir le nom de la sauvegarde)
+     * @return le fichier de la sauvegarde, ou null (après un message) si le nom est absent ou invalide
+     */
+    private Path getSaveFile(final Command pCommand)
+    {
+        if ( this.aSavesFolder == null ) {
+            this.aGui.println("Les sauvegardes ne sont pas disponibles dans cette partie.");
+            return null;
+        }
+        if ( ! pCommand.hasSecondWord() ) {
+            this.aGui.println("Veuillez préciser un nom de sauvegarde (ex: \"sauver partie1\").");
+            return null;
+        }
+        String vName = pCommand.getSecondWord();
+        for ( int vI = 0; vI < vName.length(); vI++ ) {
+            char vChar = vName.charAt( vI );
+            if ( ! Character.isLetterOrDigit( vChar ) && vChar != '-' && vChar != '_' ) {
+                this.aGui.println("Un nom de sauvegarde ne peut contenir que des lettres, des chiffres, '-' et '_'.");
+                return null;
+            }
+        }
+        StringBuilder vPlayerFolder = new StringBuilder();
+        for ( char vC : this.aPlayer.getName().toCharArray() ) {
+            vPlayerFolder.append( Character.isLetterOrDigit( vC ) || vC == '-' ? vC : '_' );
+        }
+        return this.aSavesFolder.resolve( vPlayerFolder.toString() ).resolve( vName + ".sav" );
+    } // getSaveFile(*)
+
+    /**
+     * Exécute la commande "itinéraire" : affiche le plus court chemin de la salle courante
+     * jusqu'à une salle, sans passer par les portes verrouillées.
+     *
+     * @param pCommand la commande reçue (doit contenir le nom de la salle)
+     */
+    private void showRoute(final Command pCommand)
+    {
+        if ( ! pCommand.hasSecondWord() ) {
+            this.aGui.println("Itinéraire vers quelle salle ? Spécifiez un nom de salle (ex: itinéraire zone_nord).");
+            return;
+        }
+        Room vTarget = this.aWorld.getRoom( pCommand.getSecondWord() );
+        if ( vTarget == null ) {
+            this.aGui.println("Cette salle n'existe pas.");
+            return;
+        }
+        List<String> vRoute = this.getRoute( vTarget );
+        if ( vRoute == null ) {
+            this.aGui.println("Aucun chemin ne mène à cette salle pour l'instant.");
+        }
+        else if ( vRoute.isEmpty() ) {
+            this.aGui.println("Vous y êtes déjà.");
+        }
+        else {
+            this.aGui.println("Itinéraire (" + vRoute.size() + ( vRoute.size() > 1 ? " déplacements" : " déplacement" ) + ") : " + String.join( ", ", vRoute ));
+        }
+    } // showRoute(*)
+
     /**
      * Impose une valeur fixe pour les prochains choix aléatoires de RoomRandomizer dans les tests.
      * 
@@ -639,14 +1047,55 @@ public class GameEngine
         }
 
         String vRoomName = pCommand.getSecondWord();
-        Room vRoom = this.aRooms.get( vRoomName );
+        Room vRoom = this.aWorld.getRoom( vRoomName );
         if ( vRoom == null ) {
             this.aGui.println("Cette salle n'existe pas.");
             return;
         }
-        ( (TransporterRoom) this.aRooms.get("teleporteur_aleatoire") ).setForcedRoom( vRoom );
+        this.aState.setForcedRoom( vRoom );
     } // bypassRandom(*)
 
+    /**
+     * Affiche les mesures des commandes de toutes les parties (commande de debug "stats").
+     */
+    private void showStats()
+    {
+        if ( ! this.aDebugMode ) {
+            this.aGui.println("La commande 'stats' ne peut être utilisée que dans un fichier test.");
+            return;
+        }
+        this.aGui.println( this.aMetrics.getReport() );
+    } // showStats()
+
+    /**
+     * Démarre le traceur des commandes, ou écrit la trace (commande de debug "chrono").
+     * Sans second mot, le traceur est démarré ; avec un nom de fichier (sans extension .json),
+     * il est arrêté et la trace est écrite dans ce fichier, à ouvrir dans chrome://tracing ou ui.perfetto.dev.
+     *
+     * @param pCommand la commande reçue (avec éventuellement le nom du fichier de la trace)
+     */
+    private void trace( final Command pCommand )
+    {
+        if ( ! this.aDebugMode ) {
+            this.aGui.println("La commande 'chrono' ne peut être utilisée que dans un fichier test.");
+            return;
+        }
+        if ( ! pCommand.hasSecondWord() ) {
+            Tracer.start();
+            this.aGui.println("Traceur démarré.");
+            return;
+        }
+        Tracer.stop();
+        String vFile = pCommand.getSecondWord() + ".json";
+        try {
+            Tracer.write( Path.of( vFile ) );
+            this.aGui.println( Tracer.getSpanCount() + " étape(s) écrite(s) dans " + vFile + "." );
+        }
+        catch ( final IOException pIOE ) {
+            this.aGui.println( pIOE.getMessage() );
+        }
+    } // trace(*)
+
     /**
      * Exécute la commande "test" pour lire et exécuter des commandes depuis un fichier.
      * Le fichier doit contenir une commande par ligne et se trouver à la racine du projet.
@@ -655,6 +1104,10 @@ public class GameEngine
      */
     private void executeTest(final Command pCommand)
     {
+        if (!this.aTestsAllowed) {
+            this.aGui.println("La commande 'test' n'est pas disponible dans cette partie.");
+            return;
+        }
         if (!pCommand.hasSecondWord()) {
             this.aGui.println("Test quel fichier ? Spécifiez un nom de fichier.");
             return;
@@ -662,7 +1115,7 @@ public class GameEngine
         String pNomFichier = pCommand.getSecondWord() + ".txt";
         Scanner vScanner;
         try { // pour "essayer" les instructions suivantes :
-            vScanner = new Scanner( new File( pNomFichier ) ); // ouverture du fichier s'il existe
+            vScanner = new Scanner( new File( pNomFichier ), StandardCharsets.UTF_8 ); // ouverture du fichier s'il existe
             this.aGui.println("\n============= Exécution TEST =============\n");
             this.aDebugMode = true;
             while ( vScanner.hasNextLine() ) { // tant qu'il y a encore une ligne à lire dans le fichier
@@ -673,11 +1126,15 @@ public class GameEngine
                 }
                 this.interpretCommand( vLigne );
             } // while
+            vScanner.close();
             this.aDebugMode = false;
             this.aGui.println("\n============= TEST terminé =============\n");
         } // try
         catch ( final FileNotFoundException pFNFE ) { // si le fichier n'existe pas
             this.aGui.println("Le fichier '" + pNomFichier + "' est introuvable.");
         } // catch
+        catch ( final IOException pIOE ) { // si le fichier existe mais ne peut pas être lu
+            this.aGui.println("Le fichier '" + pNomFichier + "' est illisible.");
+        } // catch
     } // executeTest(*)
 }
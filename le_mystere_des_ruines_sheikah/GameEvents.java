@@ -0,0 +1,240 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Classe GameEvents - les événements Java Flight Recorder (JFR) du jeu "le mystère des ruines Sheikah".
+ * Une commande exécutée, une salle atteinte, une téléportation, un changement d'inventaire
+ * ou une image décodée apparaissent ainsi dans les enregistrements JFR habituels
+ * (jcmd PID JFR.start, -XX:StartFlightRecording), à côté du ramasse-miettes et du processeur,
+ * dans la catégorie "Ruines Sheikah" de JDK Mission Control ou de "jfr print".
+ * Les événements sont tous activés par défaut dès qu'un enregistrement est démarré.
+ * Les méthodes de cette classe ne créent un événement (commande, salle, téléportation, inventaire)
+ * que si son type est activé par un enregistrement en cours : sans enregistrement, une commande
+ * ne crée aucun objet pour JFR. L'événement n'est rempli que si shouldCommit le demande.
+ *
+ * @author  Benoît de Keyn
+ * @version 2026.02.04
+ */
+public class GameEvents
+{
+    /** Une commande exécutée : sa durée est le temps d'exécution de la commande. */
+    @Name( "ruines_sheikah.Command" )
+    @Label( "Commande" )
+    @Category( { "Ruines Sheikah", "Moteur" } )
+    @Description( "Une commande interprétée par le moteur du jeu" )
+    @StackTrace( false )
+    public static final class CommandEvent extends Event
+    {
+        /** Le mot principal de la commande. */
+        @Label( "Commande" )
+        String verb;
+
+        /** Le résultat de la commande. */
+        @Label( "Résultat" )
+        @Description( "ok, victoire, game over, ou l'erreur rencontrée (voir CommandMetrics)" )
+        String outcome;
+    } // CommandEvent
+
+    /** Un joueur qui entre dans une salle. */
+    @Name( "ruines_sheikah.RoomEntered" )
+    @Label( "Salle atteinte" )
+    @Category( { "Ruines Sheikah", "Monde" } )
+    @StackTrace( false )
+    public static final class RoomEnteredEvent extends Event
+    {
+        /** La salle quittée. */
+        @Label( "Depuis" )
+        String from;
+
+        /** La salle atteinte. */
+        @Label( "Vers" )
+        String to;
+
+        /** Indique si le passage est une trappe (sans retour possible). */
+        @Label( "Trappe" )
+        boolean trapDoor;
+    } // RoomEnteredEvent
+
+    /** Une téléportation, par le Beamer ou par une salle de téléportation. */
+    @Name( "ruines_sheikah.Teleport" )
+    @Label( "Téléportation" )
+    @Category( { "Ruines Sheikah", "Monde" } )
+    @StackTrace( false )
+    public static final class TeleportEvent extends Event
+    {
+        /** Ce qui a téléporté le joueur : "Beamer" ou "TransporterRoom". */
+        @Label( "Source" )
+        String source;
+
+        /** La salle quittée. */
+        @Label( "Depuis" )
+        String from;
+
+        /** La salle atteinte. */
+        @Label( "Vers" )
+        String to;
+    } // TeleportEvent
+
+    /** Un objet qui entre dans l'inventaire ou en sort. */
+    @Name( "ruines_sheikah.InventoryChange" )
+    @Label( "Changement d'inventaire" )
+    @Category( { "Ruines Sheikah", "Monde" } )
+    @StackTrace( false )
+    public static final class InventoryEvent extends Event
+    {
+        /** L'objet. */
+        @Label( "Objet" )
+        String item;
+
+        /** La commande qui a changé l'inventaire (prendre, poser, ingérer). */
+        @Label( "Action" )
+        String action;
+
+        /** Le poids de l'inventaire après le changement, en kilogrammes. */
+        @Label( "Poids après (kg)" )
+        double weightAfter;
+    } // InventoryEvent
+
+    /** Une image décodée et redimensionnée : sa durée est le temps de décodage. */
+    @Name( "ruines_sheikah.ImageLoad" )
+    @Label( "Chargement d'image" )
+    @Category( { "Ruines Sheikah", "Affichage" } )
+    @StackTrace( false )
+    public static final class ImageLoadEvent extends Event
+    {
+        /** Le chemin de l'image. */
+        @Label( "Image" )
+        String name;
+
+        /** La taille du fichier de l'image. */
+        @Label( "Taille du fichier" )
+        @DataAmount( DataAmount.BYTES )
+        long bytes;
+
+        /** La mémoire occupée par l'image redimensionnée dans le cache. */
+        @Label( "Taille en cache" )
+        @DataAmount( DataAmount.BYTES )
+        long cacheBytes;
+    } // ImageLoadEvent
+
+    /** Le type des événements de commande (activé ou non par les enregistrements en cours). */
+    private static final EventType COMMAND_TYPE = EventType.getEventType( CommandEvent.class );
+
+    /** Le type des événements de salle atteinte. */
+    private static final EventType ROOM_ENTERED_TYPE = EventType.getEventType( RoomEnteredEvent.class );
+
+    /** Le type des événements de téléportation. */
+    private static final EventType TELEPORT_TYPE = EventType.getEventType( TeleportEvent.class );
+
+    /** Le type des événements de changement d'inventaire. */
+    private static final EventType INVENTORY_TYPE = EventType.getEventType( InventoryEvent.class );
+
+    /**
+     * Constructeur privé : cette classe ne contient que des méthodes de classe.
+     */
+    private GameEvents() {}
+
+    /**
+     * Commence l'événement d'une commande, si un enregistrement en cours le demande.
+     *
+     * @return l'événement commencé (begin), ou null si aucun enregistrement ne l'attend
+     */
+    public static CommandEvent commandStarted()
+    {
+        if ( ! COMMAND_TYPE.isEnabled() ) {
+            return null;
+        }
+        CommandEvent vEvent = new CommandEvent();
+        vEvent.begin();
+        return vEvent;
+    } // commandStarted()
+
+    /**
+     * Termine l'événement d'une commande.
+     *
+     * @param pEvent l'événement renvoyé par commandStarted avant l'analyse de la commande (null s'il n'y en a pas)
+     * @param pVerb le mot principal de la commande (CommandMetrics.UNKNOWN_WORD si elle est inconnue)
+     * @param pOutcome le résultat de la commande
+     */
+    public static void commandExecuted( final CommandEvent pEvent, final String pVerb, final String pOutcome )
+    {
+        if ( pEvent == null ) {
+            return;
+        }
+        pEvent.end();
+        if ( pEvent.shouldCommit() ) {
+            pEvent.verb = pVerb;
+            pEvent.outcome = pOutcome;
+            pEvent.commit();
+        }
+    } // commandExecuted(*,*,*)
+
+    /**
+     * Émet l'événement d'un passage d'une salle à une autre.
+     *
+     * @param pFrom le nom de la salle quittée
+     * @param pTo le nom de la salle atteinte
+     * @param pTrapDoor true si le passage est une trappe
+     */
+    public static void roomEntered( final String pFrom, final String pTo, final boolean pTrapDoor )
+    {
+        if ( ! ROOM_ENTERED_TYPE.isEnabled() ) {
+            return;
+        }
+        RoomEnteredEvent vEvent = new RoomEnteredEvent();
+        if ( vEvent.shouldCommit() ) {
+            vEvent.from = pFrom;
+            vEvent.to = pTo;
+            vEvent.trapDoor = pTrapDoor;
+            vEvent.commit();
+        }
+    } // roomEntered(*,*,*)
+
+    /**
+     * Émet l'événement d'une téléportation.
+     *
+     * @param pSource ce qui a téléporté le joueur ("Beamer" ou "TransporterRoom")
+     * @param pFrom le nom de la salle quittée
+     * @param pTo le nom de la salle atteinte
+     */
+    public static void teleport( final String pSource, final String pFrom, final String pTo )
+    {
+        if ( ! TELEPORT_TYPE.isEnabled() ) {
+            return;
+        }
+        TeleportEvent vEvent = new TeleportEvent();
+        if ( vEvent.shouldCommit() ) {
+            vEvent.source = pSource;
+            vEvent.from = pFrom;
+            vEvent.to = pTo;
+            vEvent.commit();
+        }
+    } // teleport(*,*,*)
+
+    /**
+     * Émet l'événement d'un changement d'inventaire.
+     *
+     * @param pItem le nom de l'objet
+     * @param pAction la commande qui a changé l'inventaire
+     * @param pWeightAfter le poids de l'inventaire après le changement, en kilogrammes
+     */
+    public static void inventoryChanged( final String pItem, final String pAction, final double pWeightAfter )
+    {
+        if ( ! INVENTORY_TYPE.isEnabled() ) {
+            return;
+        }
+        InventoryEvent vEvent = new InventoryEvent();
+        if ( vEvent.shouldCommit() ) {
+            vEvent.item = pItem;
+            vEvent.action = pAction;
+            vEvent.weightAfter = pWeightAfter;
+            vEvent.commit();
+        }
+    } // inventoryChanged(*,*,*)
+} // GameEvents
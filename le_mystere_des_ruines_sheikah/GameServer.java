@@ -0,0 +1,405 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Classe GameServer - un serveur TCP local pour jouer au jeu "le mystère des ruines Sheikah" à plusieurs.
+ * Chaque connexion (par exemple avec telnet) ouvre une session indépendante, avec son propre moteur
+ * et son propre joueur, qui échange avec le joueur ligne par ligne.
+ * Chaque session tourne sur son propre thread ; quand la machine virtuelle les propose (Java 21+),
+ * ce sont des threads virtuels, ce qui permet de garder des milliers de sessions inactives ouvertes.
+ * Le serveur limite le nombre de connexions simultanées et ferme les sessions inactives trop longtemps.
+ * Avec un dossier de journaux, chaque partie est notée dans un journal (voir Journal) et reçoit un code
+ * de reprise tiré au hasard : un joueur qui se reconnecte avec son prénom et ce code, même après
+ * un arrêt brutal du serveur, reprend sa partie. Le prénom seul ne suffit pas, pour qu'un autre joueur
+ * qui prend le même prénom ne puisse pas s'emparer de sa partie.
+ * Les mesures des commandes de toutes les sessions sont publiées par JMX (voir CommandMetrics).
+ *
+ * Lancement : java GameServer [port] [sessions max] [délai d'inactivité en secondes] [dossier des journaux]
+ *
+ * @author  Benoît de Keyn
+ * @version 2026.01.31
+ */
+public class GameServer
+{
+    /** Le temps laissé aux sessions pour se terminer à l'arrêt du serveur, en secondes. */
+    private static final int SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    /** Les caractères des codes de reprise (sans 0/O ni 1/I/L, faciles à confondre). */
+    private static final String CODE_CHARS = "23456789ABCDEFGHJKMNPQRSTUVWXYZ";
+
+    /** La longueur des codes de reprise (31^10, soit environ 2^49 codes possibles par prénom). */
+    private static final int CODE_LENGTH = 10;
+
+    /** Le port d'écoute. */
+    private final int aPort;
+
+    /** Le nombre maximum de sessions simultanées. */
+    private final int aMaxSessions;
+
+    /** Le délai d'inactivité après lequel une session est fermée, en millisecondes. */
+    private final int aIdleTimeoutMillis;
+
+    /** Les threads des sessions. */
+    private final ExecutorService aExecutor;
+
+    /** Les sessions en cours (numéro -> session). */
+    private final ConcurrentHashMap<Long, GameSession> aSessions;
+
+    /** Le nombre de sessions en cours. */
+    private final AtomicInteger aActiveSessions;
+
+    /** Le numéro de la prochaine session. */
+    private final AtomicLong aNextId;
+
+    /** Le nombre total de connexions acceptées. */
+    private final LongAdder aAccepted;
+
+    /** Le nombre de connexions refusées car le serveur était plein. */
+    private final LongAdder aRejected;
+
+    /** Le nombre total de commandes interprétées, toutes sessions confondues. */
+    private final LongAdder aCommands;
+
+    /** La socket d'écoute (null tant que le serveur n'est pas lancé). */
+    private volatile ServerSocket aServerSocket;
+
+    /** Le dossier des journaux des parties (null si les parties ne sont pas notées). */
+    private Path aJournalFolder;
+
+    /** L'écrivain partagé par les journaux de toutes les sessions (null si aucun dossier). */
+    private GroupCommitWriter aCommitWriter;
+
+    /** Les journaux utilisés par les sessions en cours (un même joueur ne peut pas jouer deux fois la même partie). */
+    private final Set<Path> aOpenJournals;
+
+    /** Le générateur des codes de reprise. */
+    private final SecureRandom aCodeRandom;
+
+    /**
+     * Crée un serveur de jeu.
+     *
+     * @param pPort le port d'écoute (0 pour un port libre choisi par le système)
+     * @param pMaxSessions le nombre maximum de sessions simultanées
+     * @param pIdleTimeoutMillis le délai d'inactivité après lequel une session est fermée, en millisecondes
+     */
+    public GameServer( final int pPort, final int pMaxSessions, final int pIdleTimeoutMillis )
+    {
+        this.aPort = pPort;
+        this.aMaxSessions = pMaxSessions;
+        this.aIdleTimeoutMillis = pIdleTimeoutMillis;
+        this.aExecutor = newSessionExecutor();
+        this.aSessions = new ConcurrentHashMap<Long, GameSession>();
+        this.aActiveSessions = new AtomicInteger();
+        this.aNextId = new AtomicLong();
+        this.aAccepted = new LongAdder();
+        this.aRejected = new LongAdder();
+        this.aCommands = new LongAdder();
+        this.aJournalFolder = null;
+        this.aCommitWriter = null;
+        this.aOpenJournals = ConcurrentHashMap.newKeySet();
+        this.aCodeRandom = new SecureRandom();
+    } // GameServer(*,*,*)
+
+    /**
+     * Lance le serveur avec les paramètres de la ligne de commande.
+     *
+     * @param pArgs [port (4000)] [sessions max (10000)] [délai d'inactivité en secondes (600)] [dossier des journaux (aucun)]
+     * @throws IOException si le port ou le dossier des journaux ne peut pas être ouvert
+     */
+    public static void main( final String[] pArgs ) throws IOException
+    {
+        int vPort = pArgs.length > 0 ? Integer.parseInt( pArgs[0] ) : 4000;
+        int vMaxSessions = pArgs.length > 1 ? Integer.parseInt( pArgs[1] ) : 10_000;
+        int vIdleSeconds = pArgs.length > 2 ? Integer.parseInt( pArgs[2] ) : 600;
+        GameServer vServer = new GameServer( vPort, vMaxSessions, vIdleSeconds * 1000 );
+        CommandMetrics.registerMBean();
+        if ( pArgs.length > 3 ) {
+            vServer.setJournalFolder( Path.of( pArgs[3] ) );
+        }
+        vServer.serve();
+    } // main(*)
+
+    /**
+     * Active les journaux des parties, écrits dans un dossier (créé s'il n'existe pas).
+     * À appeler avant serve().
+     *
+     * @param pFolder le dossier des journaux
+     * @throws IOException si le dossier ne peut pas être créé
+     */
+    public void setJournalFolder( final Path pFolder ) throws IOException
+    {
+        Files.createDirectories( pFolder );
+        this.aJournalFolder = pFolder;
+        if ( this.aCommitWriter == null ) {
+            this.aCommitWriter = new GroupCommitWriter();
+        }
+    } // setJournalFolder(*)
+
+    /**
+     * Ouvre le port d'écoute et accepte les connexions jusqu'à l'arrêt du serveur.
+     *
+     * @throws IOException si le port ne peut pas être ouvert
+     */
+    public void serve() throws IOException
+    {
+        try ( ServerSocket vServerSocket = new ServerSocket( this.aPort, 1024 ) ) {
+            this.aServerSocket = vServerSocket;
+            System.out.println( "Serveur des ruines Sheikah à l'écoute sur le port " + vServerSocket.getLocalPort() );
+            while ( ! vServerSocket.isClosed() ) {
+                Socket vSocket;
+                try {
+                    vSocket = vServerSocket.accept();
+                }
+                catch ( final IOException pIOE ) {
+                    break; // socket d'écoute fermée par stop()
+                }
+                this.accept( vSocket );
+            }
+        }
+        finally {
+            this.aExecutor.shutdown();
+            for ( GameSession vSession : this.aSessions.values() ) {
+                vSession.close();
+            }
+            try {
+                // les sessions écrivent la fin de leur journal en se terminant : l'écrivain doit encore tourner
+                if ( ! this.aExecutor.awaitTermination( SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS ) ) {
+                    System.err.println( "Sessions encore actives après " + SHUTDOWN_TIMEOUT_SECONDS + " s, journaux fermés quand même." );
+                }
+            }
+            catch ( final InterruptedException pIE ) {
+                Thread.currentThread().interrupt();
+            }
+            if ( this.aCommitWriter != null ) {
+                this.aCommitWriter.close();
+            }
+        }
+    } // serve()
+
+    /**
+     * Arrête le serveur : plus aucune connexion n'est acceptée et les sessions en cours sont fermées.
+     */
+    public void stop()
+    {
+        ServerSocket vServerSocket = this.aServerSocket;
+        if ( vServerSocket != null ) {
+            try {
+                vServerSocket.close();
+            }
+            catch ( final IOException pIOE ) {
+                // déjà fermée
+            }
+        }
+        for ( GameSession vSession : this.aSessions.values() ) {
+            vSession.close();
+        }
+    } // stop()
+
+    /**
+     * Démarre une session pour une nouvelle connexion, ou la refuse si le serveur est plein.
+     *
+     * @param pSocket la connexion acceptée
+     */
+    private void accept( final Socket pSocket )
+    {
+        if ( this.aActiveSessions.incrementAndGet() > this.aMaxSessions ) {
+            this.aActiveSessions.decrementAndGet();
+            this.aRejected.increment();
+            reject( pSocket );
+            return;
+        }
+        this.aAccepted.increment();
+        GameSession vSession = new GameSession( this.aNextId.incrementAndGet(), pSocket, this );
+        this.aSessions.put( vSession.getId(), vSession );
+        this.aExecutor.execute( vSession );
+    } // accept(*)
+
+    /**
+     * Appelée par une session qui se termine.
+     *
+     * @param pSession la session terminée
+     */
+    void sessionClosed( final GameSession pSession )
+    {
+        this.aSessions.remove( pSession.getId() );
+        this.aActiveSessions.decrementAndGet();
+        System.out.println( pSession.getMetricsString() );
+    } // sessionClosed(*)
+
+    /**
+     * Indique si les parties sont notées dans des journaux (et peuvent donc être reprises).
+     *
+     * @return true si le serveur a un dossier de journaux
+     */
+    boolean hasJournals()
+    {
+        return this.aJournalFolder != null;
+    } // hasJournals()
+
+    /**
+     * Tire au sort un nouveau code de reprise.
+     *
+     * @return un code de CODE_LENGTH caractères pris dans CODE_CHARS
+     */
+    String newResumeCode()
+    {
+        StringBuilder vCode = new StringBuilder( CODE_LENGTH );
+        for ( int vI = 0; vI < CODE_LENGTH; vI++ ) {
+            vCode.append( CODE_CHARS.charAt( this.aCodeRandom.nextInt( CODE_CHARS.length() ) ) );
+        }
+        return vCode.toString();
+    } // newResumeCode()
+
+    /**
+     * Réserve le journal de la partie d'un joueur, pour une session.
+     * Le fichier est nommé d'après le prénom du joueur, en ne gardant que les lettres et les chiffres,
+     * suivi du code de reprise de la partie.
+     *
+     * @param pPlayerName le prénom du joueur
+     * @param pCode le code de reprise de la partie (majuscules ou minuscules)
+     * @return le fichier du journal, ou null si les journaux sont désactivés, si le code n'est pas un code
+     *         de reprise ou si la partie est déjà jouée par une autre session
+     */
+    Path reserveJournal( final String pPlayerName, final String pCode )
+    {
+        String vCode = pCode.toUpperCase( Locale.ROOT );
+        if ( this.aJournalFolder == null || vCode.length() != CODE_LENGTH
+            || ! vCode.chars().allMatch( pC -> CODE_CHARS.indexOf( pC ) >= 0 ) ) {
+            return null;
+        }
+        StringBuilder vName = new StringBuilder();
+        for ( char vC : pPlayerName.toCharArray() ) {
+            vName.append( Character.isLetterOrDigit( vC ) || vC == '-' ? vC : '_' );
+        }
+        if ( vName.length() == 0 ) {
+            vName.append( "joueur" );
+        }
+        Path vFile = this.aJournalFolder.resolve( vName + "-" + vCode + ".journal" );
+        return this.aOpenJournals.add( vFile ) ? vFile : null;
+    } // reserveJournal(*)
+
+    /**
+     * Libère le journal réservé par une session qui se termine.
+     *
+     * @param pFile le fichier du journal
+     */
+    void releaseJournal( final Path pFile )
+    {
+        this.aOpenJournals.remove( pFile );
+    } // releaseJournal(*)
+
+    /**
+     * Renvoie l'écrivain partagé par les journaux des sessions.
+     *
+     * @return l'écrivain, ou null si les journaux sont désactivés
+     */
+    GroupCommitWriter getCommitWriter()
+    {
+        return this.aCommitWriter;
+    } // getCommitWriter()
+
+    /**
+     * Appelée par une session après chaque commande interprétée.
+     */
+    void commandExecuted()
+    {
+        this.aCommands.increment();
+    } // commandExecuted()
+
+    /**
+     * Renvoie le délai d'inactivité après lequel une session est fermée.
+     *
+     * @return le délai en millisecondes
+     */
+    public int getIdleTimeoutMillis()
+    {
+        return this.aIdleTimeoutMillis;
+    } // getIdleTimeoutMillis()
+
+    /**
+     * Renvoie le port d'écoute réel (utile si le serveur a été créé avec le port 0).
+     *
+     * @return le port d'écoute, ou -1 si le serveur n'est pas lancé
+     */
+    public int getLocalPort()
+    {
+        ServerSocket vServerSocket = this.aServerSocket;
+        return vServerSocket == null ? -1 : vServerSocket.getLocalPort();
+    } // getLocalPort()
+
+    /**
+     * Renvoie le nombre de sessions en cours.
+     *
+     * @return le nombre de sessions ouvertes
+     */
+    public int getActiveSessions()
+    {
+        return this.aActiveSessions.get();
+    } // getActiveSessions()
+
+    /**
+     * Renvoie un résumé des mesures du serveur.
+     *
+     * @return une ligne décrivant l'activité du serveur
+     */
+    public String getMetricsString()
+    {
+        return "sessions=" + this.aActiveSessions.get()
+            + " acceptées=" + this.aAccepted.sum()
+            + " refusées=" + this.aRejected.sum()
+            + " commandes=" + this.aCommands.sum()
+            + ( this.aCommitWriter == null ? "" : " " + this.aCommitWriter.getMetricsString() );
+    } // getMetricsString()
+
+    /**
+     * Prévient un joueur que le serveur est plein puis ferme sa connexion.
+     *
+     * @param pSocket la connexion refusée
+     */
+    private static void reject( final Socket pSocket )
+    {
+        try ( Socket vSocket = pSocket ) {
+            OutputStream vOut = vSocket.getOutputStream();
+            vOut.write( "Le serveur est complet, réessayez plus tard.\n".getBytes( StandardCharsets.UTF_8 ) );
+            vOut.flush();
+        }
+        catch ( final IOException pIOE ) {
+            // le joueur est déjà parti
+        }
+    } // reject(*)
+
+    /**
+     * Crée l'exécuteur des sessions : un thread virtuel par session si la machine virtuelle
+     * le permet (Java 21+), sinon un thread classique (démon) par session.
+     *
+     * @return l'exécuteur des sessions
+     */
+    private static ExecutorService newSessionExecutor()
+    {
+        try {
+            return (ExecutorService) Executors.class.getMethod( "newVirtualThreadPerTaskExecutor" ).invoke( null );
+        }
+        catch ( final ReflectiveOperationException pROE ) {
+            return Executors.newCachedThreadPool( pTask -> {
+                Thread vThread = new Thread( null, pTask, "session", 256 * 1024 ); // petite pile : beaucoup de sessions
+                vThread.setDaemon( true );
+                return vThread;
+            } );
+        }
+    } // newSessionExecutor()
+} // GameServer
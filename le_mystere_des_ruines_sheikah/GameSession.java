@@ -0,0 +1,342 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Classe GameSession - une partie jouée par un joueur connecté au serveur du jeu "le mystère des ruines Sheikah".
+ * Chaque session a son propre moteur (GameEngine) et son propre joueur (Player) ; les lignes reçues
+ * sur la connexion sont interprétées une par une et les réponses renvoyées sur la même connexion.
+ * La session mesure le nombre de commandes, leur durée et le volume échangé.
+ * Si le serveur tient des journaux, la partie est notée au fur et à mesure et le joueur reçoit un code
+ * de reprise ; un joueur qui revient sous le même prénom avec ce code reprend sa partie là où elle
+ * s'était arrêtée. Le journal est effacé à la fin de la partie.
+ *
+ * @author  Benoît de Keyn
+ * @version 2026.01.31
+ */
+public class GameSession implements Runnable
+{
+    /** Le numéro unique de la session. */
+    private final long aId;
+
+    /** La connexion du joueur. */
+    private final Socket aSocket;
+
+    /** Le serveur qui a créé la session. */
+    private final GameServer aServer;
+
+    /** L'instant de création de la session (en millisecondes). */
+    private final long aStartMillis;
+
+    /** Le nombre de commandes interprétées. */
+    private volatile long aCommandCount;
+
+    /** Le temps total passé à interpréter les commandes, en nanosecondes. */
+    private volatile long aCommandNanos;
+
+    /** Le plus long temps d'interprétation d'une commande, en nanosecondes. */
+    private volatile long aMaxCommandNanos;
+
+    /** Le nombre de caractères reçus du joueur. */
+    private volatile long aCharsRead;
+
+    /** La sortie vers le joueur (null tant que la partie n'a pas commencé). */
+    private volatile SocketOutput aOutput;
+
+    /**
+     * Crée une session pour une connexion acceptée.
+     *
+     * @param pId le numéro unique de la session
+     * @param pSocket la connexion du joueur
+     * @param pServer le serveur qui a créé la session
+     */
+    public GameSession( final long pId, final Socket pSocket, final GameServer pServer )
+    {
+        this.aId = pId;
+        this.aSocket = pSocket;
+        this.aServer = pServer;
+        this.aStartMillis = System.currentTimeMillis();
+        this.aCommandCount = 0;
+        this.aCommandNanos = 0;
+        this.aMaxCommandNanos = 0;
+        this.aCharsRead = 0;
+        this.aOutput = null;
+    } // GameSession(*,*,*)
+
+    /**
+     * Joue la partie : demande le nom du joueur puis interprète ses commandes
+     * jusqu'à la fin de la partie, la déconnexion ou le dépassement du délai d'inactivité.
+     */
+    @Override public void run()
+    {
+        try ( Socket vSocket = this.aSocket ) {
+            vSocket.setSoTimeout( this.aServer.getIdleTimeoutMillis() );
+            BufferedReader vReader = new BufferedReader(
+                new InputStreamReader( vSocket.getInputStream(), StandardCharsets.UTF_8 ) );
+            PrintWriter vWriter = new PrintWriter(
+                new OutputStreamWriter( vSocket.getOutputStream(), StandardCharsets.UTF_8 ), false );
+            try {
+                this.play( vReader, vWriter );
+            }
+            catch ( final SocketTimeoutException pSTE ) {
+                vWriter.println( "\nDélai d'inactivité dépassé, au revoir." );
+                vWriter.flush();
+            }
+        }
+        catch ( final IOException pIOE ) {
+            // connexion coupée par le joueur : rien d'autre à faire
+        }
+        finally {
+            this.aServer.sessionClosed( this );
+        }
+    } // run()
+
+    /**
+     * Déroule la partie sur une connexion ouverte.
+     *
+     * @param pReader la lecture des lignes envoyées par le joueur
+     * @param pWriter l'écriture vers le joueur
+     * @throws IOException si la connexion est coupée ou inactive trop longtemps
+     */
+    private void play( final BufferedReader pReader, final PrintWriter pWriter ) throws IOException
+    {
+        pWriter.print( "Quel est votre prénom ? " );
+        pWriter.flush();
+        String vName = pReader.readLine();
+        if ( vName == null ) {
+            return;
+        }
+        this.aCharsRead += vName.length();
+
+        String vPlayerName = vName.trim();
+        String vCode = null;
+        Path vJournalFile = null;
+        if ( this.aServer.hasJournals() ) {
+            pWriter.print( "Code de reprise de votre partie (Entrée pour une nouvelle partie) ? " );
+            pWriter.flush();
+            String vAnswer = pReader.readLine();
+            if ( vAnswer == null ) {
+                return;
+            }
+            this.aCharsRead += vAnswer.length();
+            vCode = vAnswer.trim();
+            if ( ! vCode.isEmpty() ) {
+                vJournalFile = this.reserveExistingJournal( vPlayerName, vCode );
+                if ( vJournalFile == null ) {
+                    pWriter.println( "Aucune partie à reprendre sous ce prénom avec ce code : nouvelle partie." );
+                }
+            }
+            while ( vJournalFile == null ) {
+                vCode = this.aServer.newResumeCode();
+                vJournalFile = this.reserveNewJournal( vPlayerName, vCode );
+            }
+        }
+        Journal vJournal = null;
+        GameEngine vEngine = null;
+        try {
+            int vReplayed = 0;
+            if ( vJournalFile != null && Files.exists( vJournalFile ) ) {
+                vEngine = this.newEngine( vPlayerName );
+                vEngine.setGUI( new NullOutput() );
+                try {
+                    vReplayed = Journal.replay( vJournalFile, vEngine );
+                }
+                catch ( final IOException pIOE ) {
+                    System.err.println( "Journal illisible, partie recommencée : " + pIOE.getMessage() );
+                    vReplayed = -1;
+                }
+                if ( vReplayed < 0 || vEngine.isGameOver() ) {
+                    Files.delete( vJournalFile ); // partie terminée ou journal inutilisable
+                    vEngine = null;
+                    vReplayed = 0;
+                }
+            }
+            if ( vEngine == null ) {
+                vEngine = this.newEngine( vPlayerName );
+            }
+            if ( vJournalFile != null ) {
+                vJournal = new Journal( vJournalFile, this.aServer.getCommitWriter() );
+                vEngine.setJournal( vJournal );
+            }
+
+            this.aOutput = new SocketOutput( pWriter );
+            if ( vReplayed > 0 ) {
+                pWriter.println( "Votre partie a été reprise (" + vReplayed + " commandes)." );
+            }
+            else if ( vJournalFile != null ) {
+                pWriter.println( "Code de reprise de cette partie : " + vCode
+                    + " (à redonner avec votre prénom pour la reprendre)." );
+            }
+            vEngine.setGUI( this.aOutput );
+
+            String vLine;
+            while ( ! vEngine.isGameOver() && ( vLine = pReader.readLine() ) != null ) {
+                this.aCharsRead += vLine.length();
+                long vStart = System.nanoTime();
+                vEngine.interpretCommand( vLine );
+                long vDuration = System.nanoTime() - vStart;
+                this.aCommandCount++;
+                this.aCommandNanos += vDuration;
+                this.aMaxCommandNanos = Math.max( this.aMaxCommandNanos, vDuration );
+                this.aServer.commandExecuted();
+            }
+        }
+        finally {
+            try {
+                if ( vJournal != null ) {
+                    closeJournal( vJournal, vEngine.isGameOver() );
+                }
+            }
+            finally {
+                if ( vJournalFile != null ) {
+                    this.aServer.releaseJournal( vJournalFile );
+                }
+            }
+        }
+    } // play(*,*)
+
+    /**
+     * Réserve le journal d'une partie à reprendre.
+     *
+     * @param pPlayerName le prénom du joueur
+     * @param pCode le code de reprise donné par le joueur
+     * @return le fichier du journal, ou null si aucune partie en cours n'a ce prénom et ce code
+     *         (ou si elle est déjà jouée par une autre session)
+     */
+    private Path reserveExistingJournal( final String pPlayerName, final String pCode )
+    {
+        Path vFile = this.aServer.reserveJournal( pPlayerName, pCode );
+        if ( vFile != null && ! Files.exists( vFile ) ) {
+            this.aServer.releaseJournal( vFile );
+            return null;
+        }
+        return vFile;
+    } // reserveExistingJournal(*,*)
+
+    /**
+     * Réserve le journal d'une nouvelle partie.
+     *
+     * @param pPlayerName le prénom du joueur
+     * @param pCode le code de reprise tiré au sort pour la partie
+     * @return le fichier du journal, ou null si ce code est déjà pris par une autre partie de ce prénom
+     */
+    private Path reserveNewJournal( final String pPlayerName, final String pCode )
+    {
+        Path vFile = this.aServer.reserveJournal( pPlayerName, pCode );
+        if ( vFile != null && Files.exists( vFile ) ) {
+            this.aServer.releaseJournal( vFile );
+            return null;
+        }
+        return vFile;
+    } // reserveNewJournal(*,*)
+
+    /**
+     * Ferme le journal d'une partie qui se termine. Le journal d'une partie finie est effacé ;
+     * celui d'une partie dont une écriture a échoué est mis de côté (extension ".corrompu"),
+     * pour qu'une reconnexion ne rejoue pas en silence une partie incomplète.
+     *
+     * @param pJournal le journal de la partie
+     * @param pGameOver true si la partie est finie
+     * @throws IOException si une écriture du journal a échoué (après l'avoir effacé ou mis de côté)
+     */
+    private static void closeJournal( final Journal pJournal, final boolean pGameOver ) throws IOException
+    {
+        Path vFile = pJournal.getFile();
+        try {
+            pJournal.close();
+        }
+        catch ( final IOException pIOE ) {
+            if ( ! pGameOver ) {
+                Path vAside = vFile.resolveSibling( vFile.getFileName() + ".corrompu" );
+                try {
+                    Files.move( vFile, vAside, StandardCopyOption.REPLACE_EXISTING );
+                    System.err.println( "Journal incomplet mis de côté : " + vAside );
+                }
+                catch ( final IOException pMoveIOE ) {
+                    pIOE.addSuppressed( pMoveIOE );
+                    Files.deleteIfExists( vFile ); // plutôt perdre la partie que la rejouer à moitié
+                }
+            }
+            throw pIOE;
+        }
+        finally {
+            if ( pGameOver ) {
+                Files.deleteIfExists( vFile );
+            }
+        }
+    } // closeJournal(*,*)
+
+    /**
+     * Crée le moteur d'une partie pour un joueur à distance.
+     *
+     * @param pPlayerName le prénom du joueur
+     * @return le moteur, avec son joueur dans la salle de départ
+     */
+    private GameEngine newEngine( final String pPlayerName )
+    {
+        GameEngine vEngine = new GameEngine();
+        vEngine.setTestsAllowed( false ); // les fichiers de test sont ceux du serveur
+        vEngine.setSavesFolder( null ); // les prénoms ne sont pas vérifiés : un joueur pourrait lire ou écraser les sauvegardes d'un autre
+        vEngine.setPlayer( new Player( pPlayerName ) );
+        return vEngine;
+    } // newEngine(*)
+
+    /**
+     * Ferme la connexion du joueur (arrêt du serveur).
+     */
+    public void close()
+    {
+        try {
+            this.aSocket.close();
+        }
+        catch ( final IOException pIOE ) {
+            // déjà fermée
+        }
+    } // close()
+
+    /**
+     * Renvoie le numéro unique de la session.
+     *
+     * @return le numéro de la session
+     */
+    public long getId()
+    {
+        return this.aId;
+    } // getId()
+
+    /**
+     * Renvoie le nombre de commandes interprétées.
+     *
+     * @return le nombre de commandes
+     */
+    public long getCommandCount()
+    {
+        return this.aCommandCount;
+    } // getCommandCount()
+
+    /**
+     * Renvoie un résumé des mesures de la session.
+     *
+     * @return une ligne décrivant la session
+     */
+    public String getMetricsString()
+    {
+        long vCount = this.aCommandCount;
+        SocketOutput vOutput = this.aOutput;
+        return "session " + this.aId
+            + " durée=" + ( System.currentTimeMillis() - this.aStartMillis ) + "ms"
+            + " commandes=" + vCount
+            + " moyenne=" + ( vCount == 0 ? 0 : this.aCommandNanos / vCount / 1000 ) + "µs"
+            + " max=" + this.aMaxCommandNanos / 1000 + "µs"
+            + " reçus=" + this.aCharsRead
+            + " envoyés=" + ( vOutput == null ? 0 : vOutput.getCharsWritten() );
+    } // getMetricsString()
+} // GameSession
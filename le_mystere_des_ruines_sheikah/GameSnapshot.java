@@ -0,0 +1,279 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Classe GameSnapshot - la sauvegarde binaire d'une partie du jeu "le mystère des ruines Sheikah".
+ * Le monde étant partagé et figé, une sauvegarde ne contient que ce qui change pendant une partie :
+ * la salle courante et l'historique du joueur, son inventaire et sa capacité, le nombre de
+ * déplacements, et les différences du WorldState (objets des salles, portes, téléporteurs).
+ * Salles, objets et portes y sont désignés par leur numéro dans le monde.
+ *
+ * Format (entiers en gros-boutiste) :
+ *   "SHKS", version (short), nombre de salles, d'objets et de portes du monde (int)
+ *   salle courante (int), déplacements (int), capacité (double)
+ *   historique : nombre (int) puis salles (int), de la plus ancienne à la plus récente
+ *   inventaire : nombre (int) puis objets (int)
+ *   salles modifiées : nombre (int) puis pour chacune : salle (int), nombre d'objets (int), objets (int)
+ *   portes modifiées : nombre (int) puis pour chacune : porte (int), verrouillée (byte)
+ *   téléporteurs chargés : nombre (int) puis pour chacun : objet (int), salle (int)
+ *   salle forcée par alea (int, -1 si aucune)
+ *   somme de contrôle CRC32 de tout ce qui précède (int)
+ *
+ * L'encodage se fait dans un tampon réutilisé, sans aucun objet intermédiaire ; un fichier
+ * de sauvegarde est d'abord écrit à côté puis renommé, pour ne jamais laisser de sauvegarde à moitié écrite.
+ *
+ * @author  Benoît de Keyn
+ * @version 2026.01.30
+ */
+public class GameSnapshot
+{
+    /** Les premiers octets d'une sauvegarde. */
+    private static final byte[] MAGIC = { 'S', 'H', 'K', 'S' };
+
+    /** La version du format des sauvegardes. */
+    private static final short VERSION = 1;
+
+    /** Constructeur privé : cette classe ne contient que des méthodes de classe. */
+    private GameSnapshot()
+    {
+    } // GameSnapshot()
+
+    /**
+     * Encode l'état d'une partie dans un tampon.
+     * Si le tampon donné est trop petit (ou null), un nouveau tampon est alloué.
+     *
+     * @param pBuffer le tampon à réutiliser (peut être null)
+     * @param pState l'état du monde de la partie
+     * @param pPlayer le joueur
+     * @param pMovesCount le nombre de déplacements déjà effectués
+     * @return le tampon contenant la sauvegarde, prêt à être lu (position 0, limite à la fin)
+     */
+    public static ByteBuffer encode( final ByteBuffer pBuffer, final WorldState pState, final Player pPlayer, final int pMovesCount )
+    {
+        int vSize = size( pState, pPlayer );
+        ByteBuffer vOut = pBuffer != null && pBuffer.capacity() >= vSize ? pBuffer : ByteBuffer.allocate( Math.max( vSize, 256 ) * 2 );
+        vOut.clear();
+
+        World vWorld = pState.getWorld();
+        vOut.put( MAGIC ).putShort( VERSION );
+        vOut.putInt( vWorld.getRoomCount() ).putInt( vWorld.getItemCount() ).putInt( vWorld.getDoorCount() );
+
+        vOut.putInt( pPlayer.getCurrentRoom().getId() ).putInt( pMovesCount ).putDouble( pPlayer.getInventoryCapacity() );
+        List<Room> vHistory = pPlayer.getHistory();
+        vOut.putInt( vHistory.size() );
+        for ( int vI = 0; vI < vHistory.size(); vI++ ) {
+            vOut.putInt( vHistory.get( vI ).getId() );
+        }
+        vOut.putInt( pPlayer.getInventoryItems().size() );
+        for ( Item vItem : pPlayer.getInventoryItems() ) {
+            vOut.putInt( vItem.getId() );
+        }
+
+        vOut.putInt( pState.getModifiedRooms().size() );
+        for ( Map.Entry<Room, ItemList> vEntry : pState.getModifiedRooms().entrySet() ) {
+            vOut.putInt( vEntry.getKey().getId() ).putInt( vEntry.getValue().getItems().size() );
+            for ( Item vItem : vEntry.getValue().getItems() ) {
+                vOut.putInt( vItem.getId() );
+            }
+        }
+        vOut.putInt( pState.getModifiedDoors().size() );
+        for ( Map.Entry<Door, Boolean> vEntry : pState.getModifiedDoors().entrySet() ) {
+            vOut.putInt( vWorld.getDoorId( vEntry.getKey() ) ).put( (byte) ( vEntry.getValue() ? 1 : 0 ) );
+        }
+        vOut.putInt( pState.getBeamerCharges().size() );
+        for ( Map.Entry<Beamer, Room> vEntry : pState.getBeamerCharges().entrySet() ) {
+            vOut.putInt( vEntry.getKey().getId() ).putInt( vEntry.getValue().getId() );
+        }
+        vOut.putInt( pState.getForcedRoom() == null ? -1 : pState.getForcedRoom().getId() );
+
+        CRC32 vCrc = new CRC32();
+        vCrc.update( vOut.duplicate().flip() );
+        vOut.putInt( (int) vCrc.getValue() );
+        vOut.flip();
+        return vOut;
+    } // encode(*,*,*,*)
+
+    /**
+     * Remet une partie dans l'état d'une sauvegarde.
+     * La sauvegarde est entièrement vérifiée avant que la partie ne soit modifiée :
+     * en cas d'erreur, la partie reste telle qu'elle était.
+     *
+     * @param pBuffer la sauvegarde (de sa position à sa limite)
+     * @param pState l'état du monde de la partie, remplacé
+     * @param pPlayer le joueur, remis dans l'état sauvegardé
+     * @return le nombre de déplacements sauvegardé
+     * @throws IOException si la sauvegarde est corrompue, d'une autre version ou d'un autre monde
+     */
+    public static int decode( final ByteBuffer pBuffer, final WorldState pState, final Player pPlayer ) throws IOException
+    {
+        ByteBuffer vIn = pBuffer.slice();
+        if ( vIn.remaining() < MAGIC.length + 2 + 4 ) {
+            throw new IOException( "Sauvegarde tronquée." );
+        }
+        for ( int vI = 0; vI < MAGIC.length; vI++ ) {
+            if ( vIn.get( vI ) != MAGIC[vI] ) {
+                throw new IOException( "Ce fichier n'est pas une sauvegarde." );
+            }
+        }
+        if ( vIn.getShort( MAGIC.length ) != VERSION ) {
+            throw new IOException( "Version de sauvegarde non prise en charge : " + vIn.getShort( MAGIC.length ) );
+        }
+        int vEnd = vIn.limit() - 4;
+        CRC32 vCrc = new CRC32();
+        vCrc.update( vIn.duplicate().limit( vEnd ) );
+        if ( (int) vCrc.getValue() != vIn.getInt( vEnd ) ) {
+            throw new IOException( "Sauvegarde corrompue (somme de contrôle incorrecte)." );
+        }
+        vIn.limit( vEnd ).position( MAGIC.length + 2 );
+
+        World vWorld = pState.getWorld();
+        try {
+            if ( vIn.getInt() != vWorld.getRoomCount() || vIn.getInt() != vWorld.getItemCount() || vIn.getInt() != vWorld.getDoorCount() ) {
+                throw new IOException( "Cette sauvegarde a été faite dans un autre monde." );
+            }
+            Room vCurrentRoom = vWorld.getRoom( vIn.getInt() );
+            int vMovesCount = vIn.getInt();
+            double vCapacity = vIn.getDouble();
+            List<Room> vHistory = new ArrayList<Room>();
+            for ( int vI = vIn.getInt(); vI > 0; vI-- ) {
+                vHistory.add( vWorld.getRoom( vIn.getInt() ) );
+            }
+            List<Item> vInventory = readItems( vIn, vWorld );
+
+            List<Room> vModifiedRooms = new ArrayList<Room>();
+            List<List<Item>> vModifiedItems = new ArrayList<List<Item>>();
+            for ( int vI = vIn.getInt(); vI > 0; vI-- ) {
+                vModifiedRooms.add( vWorld.getRoom( vIn.getInt() ) );
+                vModifiedItems.add( readItems( vIn, vWorld ) );
+            }
+            int vDoorCount = vIn.getInt();
+            Door[] vDoors = new Door[ vDoorCount ];
+            boolean[] vLocked = new boolean[ vDoorCount ];
+            for ( int vI = 0; vI < vDoorCount; vI++ ) {
+                vDoors[vI] = vWorld.getDoor( vIn.getInt() );
+                vLocked[vI] = vIn.get() != 0;
+            }
+            int vBeamerCount = vIn.getInt();
+            Beamer[] vBeamers = new Beamer[ vBeamerCount ];
+            Room[] vCharges = new Room[ vBeamerCount ];
+            for ( int vI = 0; vI < vBeamerCount; vI++ ) {
+                Item vItem = vWorld.getItem( vIn.getInt() );
+                if ( ! ( vItem instanceof Beamer ) ) {
+                    throw new IOException( "Sauvegarde corrompue (téléporteur inconnu)." );
+                }
+                vBeamers[vI] = (Beamer) vItem;
+                vCharges[vI] = vWorld.getRoom( vIn.getInt() );
+            }
+            int vForced = vIn.getInt();
+            Room vForcedRoom = vForced < 0 ? null : vWorld.getRoom( vForced );
+
+            // tout est lu et vérifié : on peut modifier la partie
+            pState.reset();
+            for ( int vI = 0; vI < vModifiedRooms.size(); vI++ ) {
+                pState.setItems( vModifiedRooms.get( vI ), vModifiedItems.get( vI ) );
+            }
+            for ( int vI = 0; vI < vDoorCount; vI++ ) {
+                pState.setLocked( vDoors[vI], vLocked[vI] );
+            }
+            for ( int vI = 0; vI < vBeamerCount; vI++ ) {
+                pState.charge( vBeamers[vI], vCharges[vI] );
+            }
+            pState.setForcedRoom( vForcedRoom );
+            pPlayer.restore( vCurrentRoom, vHistory, vInventory, vCapacity );
+            return vMovesCount;
+        }
+        catch ( final BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException | NegativeArraySizeException pE ) {
+            throw new IOException( "Sauvegarde corrompue." );
+        }
+    } // decode(*,*,*)
+
+    /**
+     * Écrit une sauvegarde dans un fichier : d'abord dans un fichier temporaire du même dossier,
+     * forcé sur le disque, puis en le renommant d'un seul coup (le fichier de destination est soit
+     * l'ancien, soit le nouveau, complet, même après un arrêt brutal).
+     * Le fichier temporaire a un nom unique : deux parties qui sauvegardent sous le même nom
+     * ne se mélangent pas, la dernière renommée l'emporte.
+     *
+     * @param pFile le fichier de sauvegarde
+     * @param pSnapshot la sauvegarde (de sa position à sa limite)
+     * @throws IOException si le fichier ne peut pas être écrit
+     */
+    public static void write( final Path pFile, final ByteBuffer pSnapshot ) throws IOException
+    {
+        Path vFile = pFile.toAbsolutePath();
+        Path vTemp = Files.createTempFile( vFile.getParent(), vFile.getFileName().toString(), ".tmp" );
+        try {
+            try ( FileChannel vChannel = FileChannel.open( vTemp, StandardOpenOption.WRITE ) ) {
+                ByteBuffer vData = pSnapshot.duplicate();
+                while ( vData.hasRemaining() ) {
+                    vChannel.write( vData );
+                }
+                vChannel.force( true );
+            }
+            Files.move( vTemp, vFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING );
+        }
+        finally {
+            Files.deleteIfExists( vTemp ); // déjà renommé si tout s'est bien passé
+        }
+    } // write(*,*)
+
+    /**
+     * Lit un fichier de sauvegarde.
+     *
+     * @param pFile le fichier de sauvegarde
+     * @return le contenu du fichier
+     * @throws IOException si le fichier est illisible
+     */
+    public static ByteBuffer read( final Path pFile ) throws IOException
+    {
+        return ByteBuffer.wrap( Files.readAllBytes( pFile ) );
+    } // read(*)
+
+    /**
+     * Calcule la taille exacte de la sauvegarde d'une partie.
+     *
+     * @param pState l'état du monde de la partie
+     * @param pPlayer le joueur
+     * @return la taille en octets
+     */
+    private static int size( final WorldState pState, final Player pPlayer )
+    {
+        int vSize = MAGIC.length + 2 + 3 * 4 + 4 + 4 + 8;
+        vSize += 4 + 4 * pPlayer.getHistory().size();
+        vSize += 4 + 4 * pPlayer.getInventoryItems().size();
+        vSize += 4;
+        for ( ItemList vItems : pState.getModifiedRooms().values() ) {
+            vSize += 8 + 4 * vItems.getItems().size();
+        }
+        vSize += 4 + 5 * pState.getModifiedDoors().size();
+        vSize += 4 + 8 * pState.getBeamerCharges().size();
+        return vSize + 4 + 4;
+    } // size(*,*)
+
+    /**
+     * Lit une liste d'objets : leur nombre puis leurs numéros.
+     *
+     * @param pIn la sauvegarde
+     * @param pWorld le monde
+     * @return les objets lus
+     */
+    private static List<Item> readItems( final ByteBuffer pIn, final World pWorld )
+    {
+        int vCount = pIn.getInt();
+        List<Item> vItems = new ArrayList<Item>( Math.min( vCount, pIn.remaining() / 4 ) );
+        for ( int vI = 0; vI < vCount; vI++ ) {
+            vItems.add( pWorld.getItem( pIn.getInt() ) );
+        }
+        return vItems;
+    } // readItems(*,*)
+} // GameSnapshot
@@ -0,0 +1,979 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Classe GameSolver - cherche la partie gagnante la plus courte du jeu "le mystère des ruines Sheikah",
+ * en explorant tous les états de jeu possibles.
+ * Un état est codé sur un seul long : la salle du joueur, l'emplacement de chaque objet utile
+ * (dans l'inventaire, posé dans une salle ou consommé), les portes verrouillées, la salle chargée
+ * dans le téléporteur et le nombre de fioles bues (qui double la capacité de l'inventaire).
+ * Les objets sans effet (lapin, papillon, ...) ne sont jamais ramassés : ils ne feraient qu'alourdir le joueur.
+ *
+ * Seuls les déplacements comptent ("aller", "déclencher") : l'exploration se fait en largeur,
+ * déplacement par déplacement, et à chaque niveau les actions gratuites (prendre, poser, ingérer,
+ * charger, déverrouiller) sont appliquées jusqu'à ce qu'elles ne donnent plus d'état nouveau.
+ * Chaque niveau est réparti entre les threads d'un ForkJoinPool ; les états déjà vus sont écartés
+ * grâce à une table découpée en morceaux qui ont chacun leur verrou (StateTable) et qui garde aussi,
+ * pour chaque état, l'état précédent et l'action jouée, ce qui permet de réécrire la partie trouvée.
+ * Les sorties d'une salle de téléportation aléatoire ne sont pas empruntées (on ne peut pas compter
+ * sur le hasard) et "retour" n'est pas essayé : il ne fait jamais mieux qu'un "aller" par le même passage.
+ *
+ * La partie trouvée est rejouée dans un vrai moteur, puis comparée à un script
+ * (optimal.txt par défaut, une partie trouvée par ce programme et écrite avec --ecrire).
+ * Ce script n'est pas réécrit à chaque lancement : si le monde change, la comparaison échoue
+ * jusqu'à ce qu'on le régénère (et son résultat attendu, avec ScriptRunner --update optimal).
+ * Le programme termine avec le code 1 si le monde n'est pas gagnable avant le Game Over,
+ * si le script comparé ne gagne pas, ou s'il ne gagne pas en exactement autant de déplacements
+ * que la partie trouvée : plus, le script n'est pas minimal ; moins, c'est l'exploration qui se trompe.
+ *
+ * Lancement : java GameSolver [--monde fichier] [--verifier script.txt (optimal.txt)] [--ecrire solution.txt]
+ *
+ * @author  Benoît de Keyn
+ * @version 2026.02.03
+ */
+public class GameSolver
+{
+    /** Nom de l'objet à trouver pour gagner (comme dans GameEngine). */
+    static final String GOAL_ITEM = "pyrotaris";
+
+    /** Nom du téléporteur portable utilisé par "charger" et "déclencher" (comme dans GameEngine). */
+    static final String BEAMER_ITEM = "téléporteur";
+
+    /** Nom de l'objet qui double la capacité de l'inventaire quand on l'ingère (comme dans GameEngine). */
+    static final String POTION_ITEM = "fiole";
+
+    /** Emplacement d'un objet : dans l'inventaire. */
+    private static final int IN_INVENTORY = 0;
+
+    /** Emplacement d'un objet : consommé ou absent du monde. */
+    private static final int GONE = 1;
+
+    /** Les emplacements suivants sont les salles : salle n -> ROOM_BASE + n. */
+    private static final int ROOM_BASE = 2;
+
+    /** Codes des actions mémorisées avec chaque état (le paramètre est dans les 16 bits de poids faible). */
+    private static final int ALLER = 1;
+    private static final int PRENDRE = 2;
+    private static final int POSER = 3;
+    private static final int INGERER = 4;
+    private static final int CHARGER = 5;
+    private static final int DECLENCHER = 6;
+    private static final int DEVERROUILLER = 7;
+
+    /** En dessous de ce nombre d'états, un morceau de niveau est traité sans être redécoupé. */
+    private static final int SPLIT_THRESHOLD = 512;
+
+    /** Marque d'une case vide de la table (aucun état n'utilise le bit de signe). */
+    private static final long EMPTY = -1L;
+
+    /** Une liste de long extensible, sans boîte autour de chaque valeur. */
+    private static class LongList
+    {
+        /** Les valeurs. */
+        private long[] aValues;
+
+        /** Le nombre de valeurs. */
+        private int aSize;
+
+        /**
+         * Crée une liste vide.
+         */
+        private LongList()
+        {
+            this.aValues = new long[ 16 ];
+            this.aSize = 0;
+        } // LongList()
+
+        /**
+         * Ajoute une valeur.
+         *
+         * @param pValue la valeur
+         */
+        private void add( final long pValue )
+        {
+            if ( this.aSize == this.aValues.length ) {
+                this.aValues = Arrays.copyOf( this.aValues, this.aSize * 2 );
+            }
+            this.aValues[ this.aSize++ ] = pValue;
+        } // add(*)
+
+        /**
+         * Ajoute des valeurs.
+         *
+         * @param pValues les valeurs
+         * @param pCount le nombre de valeurs à prendre au début du tableau
+         */
+        private void addAll( final long[] pValues, final int pCount )
+        {
+            if ( this.aSize + pCount > this.aValues.length ) {
+                this.aValues = Arrays.copyOf( this.aValues, Math.max( this.aSize + pCount, this.aSize * 2 ) );
+            }
+            System.arraycopy( pValues, 0, this.aValues, this.aSize, pCount );
+            this.aSize += pCount;
+        } // addAll(*,*)
+
+        /**
+         * Renvoie les valeurs dans un tableau à leur taille.
+         *
+         * @return les valeurs
+         */
+        private long[] toArray()
+        {
+            return Arrays.copyOf( this.aValues, this.aSize );
+        } // toArray()
+    } // LongList
+
+    /**
+     * La table des états déjà vus, répartie en SEGMENTS morceaux selon le code de hachage de l'état :
+     * chaque morceau a son propre verrou, que deux threads ne demandent presque jamais en même temps.
+     * Un morceau range ses états à la suite, chacun avec son lien (voir link), et les retrouve par une table
+     * d'adressage ouvert qui ne garde que leur numéro ; il s'agrandit de lui-même quand elle est remplie
+     * aux trois quarts, même au milieu d'une étape. Un état coûte ainsi 16 octets, plus 5 à 11 octets
+     * de table et la marge des tableaux qui s'agrandissent.
+     * Un état de la table est désigné par sa référence : le numéro de son morceau, puis sa place dans le morceau.
+     */
+    private static class StateTable
+    {
+        /** Le nombre de bits du numéro d'un morceau. */
+        private static final int SEGMENT_BITS = 6;
+
+        /** Le nombre de morceaux. */
+        private static final int SEGMENTS = 1 << SEGMENT_BITS;
+
+        /** Le nombre de bits de la place d'un état dans son morceau. */
+        private static final int INDEX_BITS = 31;
+
+        /** Le nombre de bits de l'action dans un lien (code de l'action sur 3 bits, paramètre sur 16 bits). */
+        private static final int ACTION_BITS = 19;
+
+        /** La plus grande table d'adressage d'un morceau. */
+        private static final int MAX_SLOTS = 1 << 30;
+
+        /** Les morceaux de la table. */
+        private final Segment[] aSegments;
+
+        /** Un morceau de la table, dont toutes les méthodes prennent le verrou. */
+        private static class Segment
+        {
+            /** Pour chaque case de la table d'adressage : la place de l'état + 1 (0 pour une case vide). */
+            private int[] aSlots;
+
+            /** Les états, dans l'ordre où ils ont été ajoutés. */
+            private long[] aStates;
+
+            /** Le lien de chaque état. */
+            private long[] aLinks;
+
+            /** Le nombre d'états. */
+            private int aSize;
+
+            /**
+             * Crée un morceau vide.
+             *
+             * @param pSlots le nombre de cases de la table d'adressage (une puissance de deux)
+             */
+            private Segment( final int pSlots )
+            {
+                this.aSlots = new int[ pSlots ];
+                this.aStates = new long[ pSlots / 2 ];
+                this.aLinks = new long[ pSlots / 2 ];
+                this.aSize = 0;
+            } // Segment(*)
+
+            /**
+             * Ajoute un état s'il n'a jamais été vu.
+             *
+             * @param pState l'état
+             * @param pHash son code de hachage
+             * @param pLink son lien
+             * @return la place du nouvel état, ou -1 s'il était déjà dans le morceau
+             */
+            private synchronized int add( final long pState, final long pHash, final long pLink )
+            {
+                int vSlot = this.find( pState, pHash );
+                if ( this.aSlots[vSlot] != 0 ) {
+                    return -1;
+                }
+                if ( this.aSize == this.aStates.length ) {
+                    int vLength = (int) Math.min( (long) this.aSize * 2, MAX_SLOTS );
+                    this.aStates = Arrays.copyOf( this.aStates, vLength );
+                    this.aLinks = Arrays.copyOf( this.aLinks, vLength );
+                }
+                int vIndex = this.aSize++;
+                this.aStates[vIndex] = pState;
+                this.aLinks[vIndex] = pLink;
+                this.aSlots[vSlot] = vIndex + 1;
+                if ( this.aSize > this.aSlots.length - this.aSlots.length / 4 ) {
+                    this.grow();
+                }
+                return vIndex;
+            } // add(*,*,*)
+
+            /**
+             * Renvoie la place d'un état dans le morceau.
+             *
+             * @param pState l'état
+             * @param pHash son code de hachage
+             * @return sa place, ou -1 s'il n'est pas dans le morceau
+             */
+            private synchronized int indexOf( final long pState, final long pHash )
+            {
+                return this.aSlots[ this.find( pState, pHash ) ] - 1;
+            } // indexOf(*,*)
+
+            /**
+             * Renvoie le lien d'un état.
+             *
+             * @param pIndex la place de l'état
+             * @return son lien
+             */
+            private synchronized long getLink( final int pIndex )
+            {
+                return this.aLinks[pIndex];
+            } // getLink(*)
+
+            /**
+             * Renvoie le nombre d'états du morceau.
+             *
+             * @return le nombre d'états
+             */
+            private synchronized int size()
+            {
+                return this.aSize;
+            } // size()
+
+            /**
+             * Cherche la case d'un état dans la table d'adressage.
+             *
+             * @param pState l'état
+             * @param pHash son code de hachage
+             * @return la case de l'état, ou la case vide où l'ajouter
+             */
+            private int find( final long pState, final long pHash )
+            {
+                int vMask = this.aSlots.length - 1;
+                int vSlot = (int) pHash & vMask;
+                while ( this.aSlots[vSlot] != 0 && this.aStates[ this.aSlots[vSlot] - 1 ] != pState ) {
+                    vSlot = ( vSlot + 1 ) & vMask;
+                }
+                return vSlot;
+            } // find(*,*)
+
+            /**
+             * Double la table d'adressage et y range à nouveau tous les états.
+             *
+             * @throws IllegalStateException si la table a déjà sa taille maximale
+             */
+            private void grow()
+            {
+                if ( this.aSlots.length == MAX_SLOTS ) {
+                    throw new IllegalStateException( "Table des états pleine : plus de "
+                        + (long) this.aSize * SEGMENTS + " états." );
+                }
+                this.aSlots = new int[ this.aSlots.length * 2 ];
+                for ( int vI = 0; vI < this.aSize; vI++ ) {
+                    this.aSlots[ this.find( this.aStates[vI], hash( this.aStates[vI] ) ) ] = vI + 1;
+                }
+            } // grow()
+        } // Segment
+
+        /**
+         * Crée une table vide.
+         *
+         * @param pCapacity le nombre de cases de départ (une puissance de deux, réparties entre les morceaux)
+         */
+        private StateTable( final int pCapacity )
+        {
+            this.aSegments = new Segment[ SEGMENTS ];
+            for ( int vI = 0; vI < SEGMENTS; vI++ ) {
+                this.aSegments[vI] = new Segment( Math.max( 16, pCapacity / SEGMENTS ) );
+            }
+        } // StateTable(*)
+
+        /**
+         * Ajoute un état s'il n'a jamais été vu.
+         *
+         * @param pState l'état
+         * @param pParent la référence de l'état précédent (EMPTY pour l'état de départ)
+         * @param pAction l'action qui mène de l'état précédent à cet état
+         * @return true si l'état est nouveau, false s'il était déjà dans la table
+         */
+        private boolean add( final long pState, final long pParent, final int pAction )
+        {
+            long vHash = hash( pState );
+            long vLink = pParent == EMPTY ? EMPTY : pParent << ACTION_BITS | pAction;
+            return this.segment( vHash ).add( pState, vHash, vLink ) >= 0;
+        } // add(*,*,*)
+
+        /**
+         * Renvoie la référence d'un état présent dans la table.
+         *
+         * @param pState l'état
+         * @return sa référence
+         */
+        private long find( final long pState )
+        {
+            long vHash = hash( pState );
+            int vSegment = (int) ( vHash >>> ( Long.SIZE - SEGMENT_BITS ) );
+            return (long) vSegment << INDEX_BITS | this.aSegments[vSegment].indexOf( pState, vHash );
+        } // find(*)
+
+        /**
+         * Renvoie le lien d'un état : la référence de l'état précédent, suivie de l'action
+         * sur ACTION_BITS bits (EMPTY pour l'état de départ).
+         *
+         * @param pReference la référence de l'état
+         * @return son lien
+         */
+        private long link( final long pReference )
+        {
+            return this.aSegments[ (int) ( pReference >>> INDEX_BITS ) ].getLink( (int) pReference & Integer.MAX_VALUE );
+        } // link(*)
+
+        /**
+         * Renvoie le nombre d'états de la table.
+         *
+         * @return le nombre d'états
+         */
+        private long size()
+        {
+            long vSize = 0;
+            for ( Segment vSegment : this.aSegments ) {
+                vSize += vSegment.size();
+            }
+            return vSize;
+        } // size()
+
+        /**
+         * Renvoie le morceau d'un état.
+         *
+         * @param pHash le code de hachage de l'état
+         * @return son morceau (choisi par les bits de poids fort, les autres servent dans le morceau)
+         */
+        private Segment segment( final long pHash )
+        {
+            return this.aSegments[ (int) ( pHash >>> ( Long.SIZE - SEGMENT_BITS ) ) ];
+        } // segment(*)
+
+        /**
+         * Mélange les bits d'un état pour répartir les états dans la table.
+         *
+         * @param pState l'état
+         * @return le code de hachage
+         */
+        private static long hash( final long pState )
+        {
+            long vH = pState;
+            vH ^= vH >>> 33;
+            vH *= 0xff51afd7ed558ccdL;
+            vH ^= vH >>> 33;
+            vH *= 0xc4ceb9fe1a85ec53L;
+            vH ^= vH >>> 33;
+            return vH;
+        } // hash(*)
+    } // StateTable
+
+    /**
+     * Traite un morceau d'étape : chaque état reçoit ses actions gratuites, ou ses déplacements.
+     * Renvoie les états nouveaux.
+     */
+    private class Expand extends RecursiveTask<LongList>
+    {
+        private static final long serialVersionUID = 1L;
+
+        /** Les états de l'étape. */
+        private final long[] aStates;
+
+        /** Le premier état du morceau. */
+        private final int aFrom;
+
+        /** L'indice qui suit le dernier état du morceau. */
+        private final int aTo;
+
+        /** true pour les déplacements, false pour les actions gratuites. */
+        private final boolean aMoves;
+
+        /**
+         * Crée le traitement d'un morceau d'étape.
+         *
+         * @param pStates les états de l'étape
+         * @param pFrom le premier état du morceau
+         * @param pTo l'indice qui suit le dernier état du morceau
+         * @param pMoves true pour les déplacements, false pour les actions gratuites
+         */
+        private Expand( final long[] pStates, final int pFrom, final int pTo, final boolean pMoves )
+        {
+            this.aStates = pStates;
+            this.aFrom = pFrom;
+            this.aTo = pTo;
+            this.aMoves = pMoves;
+        } // Expand(*,*,*,*)
+
+        @Override protected LongList compute()
+        {
+            if ( this.aTo - this.aFrom > SPLIT_THRESHOLD ) {
+                int vMiddle = ( this.aFrom + this.aTo ) >>> 1;
+                Expand vLeft = new Expand( this.aStates, this.aFrom, vMiddle, this.aMoves );
+                vLeft.fork();
+                LongList vRight = new Expand( this.aStates, vMiddle, this.aTo, this.aMoves ).compute();
+                LongList vResult = vLeft.join();
+                vResult.addAll( vRight.aValues, vRight.aSize );
+                return vResult;
+            }
+            LongList vNew = new LongList();
+            for ( int vI = this.aFrom; vI < this.aTo; vI++ ) {
+                if ( this.aMoves ) {
+                    GameSolver.this.expandMoves( this.aStates[vI], vNew );
+                }
+                else {
+                    GameSolver.this.expandFreeActions( this.aStates[vI], vNew );
+                }
+            }
+            return vNew;
+        } // compute()
+    } // Expand
+
+    /** Le monde exploré. */
+    private final World aWorld;
+
+    /** Le nombre de déplacements qui met fin à la partie. */
+    private final int aMaxMoves;
+
+    /** La capacité de l'inventaire au début de la partie. */
+    private final double aBaseCapacity;
+
+    /** Indique pour chaque salle si c'est une salle de téléportation aléatoire. */
+    private final boolean[] aTransporter;
+
+    /** Les sorties de chaque salle : salle d'arrivée. */
+    private final int[][] aExitTarget;
+
+    /** Les sorties de chaque salle : numéro de porte (-1 si aucune). */
+    private final int[][] aExitDoor;
+
+    /** Les sorties de chaque salle : numéro du mot de direction dans aWords. */
+    private final int[][] aExitWord;
+
+    /** Les mots de direction rencontrés. */
+    private final List<String> aWords;
+
+    /** Les objets utiles (objet à trouver, téléporteur, fiole, clés). */
+    private final Item[] aItems;
+
+    /** Le numéro de l'objet à trouver dans aItems. */
+    private final int aGoal;
+
+    /** Le numéro du téléporteur dans aItems (-1 si aucun). */
+    private final int aBeamer;
+
+    /** Le numéro de la fiole dans aItems (-1 si aucune). */
+    private final int aPotion;
+
+    /** Le numéro, dans aItems, de la clé de chaque porte. */
+    private final int[] aDoorKey;
+
+    /** Le nombre de bits d'un emplacement d'objet. */
+    private final int aLocationBits;
+
+    /** La position de l'emplacement du premier objet (les suivants sont à la suite). */
+    private final int aItemShift;
+
+    /** La position des bits de portes verrouillées. */
+    private final int aDoorShift;
+
+    /** La position de la salle chargée dans le téléporteur (0 si non chargé, salle + 1 sinon). */
+    private final int aChargeShift;
+
+    /** La position du nombre de fioles bues. */
+    private final int aPotionShift;
+
+    /** Le nombre de bits d'une salle (et de la salle de chargement). */
+    private final int aRoomBits;
+
+    /** Le nombre total de bits d'un état. */
+    private final int aStateBits;
+
+    /** La table des états vus. */
+    private StateTable aTable;
+
+    /** Le plus petit état gagnant trouvé dans l'étape en cours (EMPTY si aucun). */
+    private final AtomicLong aWinner;
+
+    /**
+     * Prépare l'exploration d'un monde.
+     *
+     * @param pWorld le monde (figé)
+     * @param pMaxMoves le nombre de déplacements qui met fin à la partie
+     * @param pBaseCapacity la capacité de l'inventaire au début de la partie
+     * @throws IllegalStateException si le monde n'a pas d'objet à trouver ou si un état ne tient pas sur un long
+     */
+    public GameSolver( final World pWorld, final int pMaxMoves, final double pBaseCapacity )
+    {
+        this.aWorld = pWorld;
+        this.aMaxMoves = pMaxMoves;
+        this.aBaseCapacity = pBaseCapacity;
+
+        // objets utiles, dans un ordre fixe
+        Map<Item, Integer> vUseful = new LinkedHashMap<Item, Integer>();
+        Item vGoal = pWorld.getItem( GOAL_ITEM );
+        if ( vGoal == null ) {
+            throw new IllegalStateException( "Le monde ne contient pas l'objet à trouver (" + GOAL_ITEM + ")." );
+        }
+        vUseful.put( vGoal, 0 );
+        Item vBeamer = pWorld.getItem( BEAMER_ITEM );
+        if ( vBeamer instanceof Beamer ) {
+            vUseful.putIfAbsent( vBeamer, vUseful.size() );
+        }
+        Item vPotion = pWorld.getItem( POTION_ITEM );
+        if ( vPotion != null ) {
+            vUseful.putIfAbsent( vPotion, vUseful.size() );
+        }
+        for ( int vD = 0; vD < pWorld.getDoorCount(); vD++ ) {
+            vUseful.putIfAbsent( pWorld.getDoor( vD ).getKey(), vUseful.size() );
+        }
+        this.aItems = vUseful.keySet().toArray( new Item[ vUseful.size() ] );
+        this.aGoal = 0;
+        this.aBeamer = vBeamer instanceof Beamer ? vUseful.get( vBeamer ) : -1;
+        this.aPotion = vPotion != null ? vUseful.get( vPotion ) : -1;
+        this.aDoorKey = new int[ pWorld.getDoorCount() ];
+        for ( int vD = 0; vD < this.aDoorKey.length; vD++ ) {
+            this.aDoorKey[vD] = vUseful.get( pWorld.getDoor( vD ).getKey() );
+        }
+
+        // sorties de chaque salle
+        int vRoomCount = pWorld.getRoomCount();
+        this.aTransporter = new boolean[ vRoomCount ];
+        this.aExitTarget = new int[ vRoomCount ][];
+        this.aExitDoor = new int[ vRoomCount ][];
+        this.aExitWord = new int[ vRoomCount ][];
+        this.aWords = new ArrayList<String>();
+        for ( Room vRoom : pWorld.getRoomList() ) {
+            int vId = vRoom.getId();
+            List<String> vDirections = new ArrayList<String>( vRoom.getExitDirections() );
+            this.aTransporter[vId] = vRoom instanceof TransporterRoom;
+            this.aExitTarget[vId] = new int[ vDirections.size() ];
+            this.aExitDoor[vId] = new int[ vDirections.size() ];
+            this.aExitWord[vId] = new int[ vDirections.size() ];
+            for ( int vE = 0; vE < vDirections.size(); vE++ ) {
+                String vDirection = vDirections.get( vE );
+                Door vDoor = vRoom.getDoor( vDirection );
+                if ( ! this.aWords.contains( vDirection ) ) {
+                    this.aWords.add( vDirection );
+                }
+                this.aExitTarget[vId][vE] = vRoom.getExit( vDirection ).getId();
+                this.aExitDoor[vId][vE] = vDoor == null ? -1 : pWorld.getDoorId( vDoor );
+                this.aExitWord[vId][vE] = this.aWords.indexOf( vDirection );
+            }
+        }
+
+        // disposition des bits : salle, emplacements des objets, portes, téléporteur, fioles bues
+        this.aRoomBits = bitsFor( vRoomCount + 1 );
+        this.aLocationBits = bitsFor( vRoomCount + ROOM_BASE );
+        this.aItemShift = this.aRoomBits;
+        this.aDoorShift = this.aItemShift + this.aItems.length * this.aLocationBits;
+        this.aChargeShift = this.aDoorShift + pWorld.getDoorCount();
+        this.aPotionShift = this.aChargeShift + ( this.aBeamer < 0 ? 0 : this.aRoomBits );
+        this.aStateBits = this.aPotionShift + ( this.aPotion < 0 ? 0 : 1 );
+        if ( this.aStateBits > 63 ) {
+            throw new IllegalStateException( "Un état de ce monde demande " + this.aStateBits + " bits : plus qu'un long." );
+        }
+        this.aWinner = new AtomicLong( EMPTY );
+    } // GameSolver(*,*,*)
+
+    /**
+     * Cherche, vérifie et compare la partie gagnante la plus courte.
+     *
+     * @param pArgs les options (voir la description de la classe)
+     * @throws IOException si le monde ou un script ne peut pas être lu, ou la solution écrite
+     */
+    public static void main( final String[] pArgs ) throws IOException
+    {
+        World vWorld = World.getDefault();
+        Path vCheck = Path.of( "optimal.txt" );
+        Path vOutput = null;
+        for ( int vI = 0; vI + 1 < pArgs.length; vI += 2 ) {
+            switch ( pArgs[vI] ) {
+                case "--monde"    -> vWorld = WorldLoader.load( Path.of( pArgs[ vI + 1 ] ) );
+                case "--verifier" -> vCheck = Path.of( pArgs[ vI + 1 ] );
+                case "--ecrire"   -> vOutput = Path.of( pArgs[ vI + 1 ] );
+                default           -> throw new IllegalArgumentException( "Option inconnue : " + pArgs[vI] );
+            }
+        }
+
+        GameEngine vReference = new GameEngine( vWorld );
+        vReference.setPlayer( new Player( "Solveur" ) );
+        GameSolver vSolver = new GameSolver( vWorld, vReference.getMaxMoves(), new Player( "Solveur" ).getInventoryCapacity() );
+        System.out.println( "Monde : " + vWorld.getRoomCount() + " salles, " + vSolver.aItems.length
+            + " objets utiles, " + vWorld.getDoorCount() + " portes, état sur " + vSolver.aStateBits + " bits" );
+
+        long vStart = System.nanoTime();
+        List<String> vSolution = vSolver.solve();
+        long vNanos = System.nanoTime() - vStart;
+        long vStates = vSolver.aTable.size();
+        System.out.printf( "%d états explorés en %.1f ms (%.0f états/s, %d threads)%n",
+            vStates, vNanos / 1e6, vStates * 1e9 / Math.max( 1, vNanos ), ForkJoinPool.getCommonPoolParallelism() );
+        if ( vSolution == null ) {
+            System.out.println( "ÉCHEC : le monde n'est pas gagnable en moins de " + vSolver.aMaxMoves + " déplacements." );
+            System.exit( 1 );
+        }
+
+        int vMoves = play( vWorld, vSolution );
+        System.out.println( "Partie la plus courte : " + vMoves + " déplacements, " + vSolution.size() + " commandes"
+            + " (Game Over à " + vSolver.aMaxMoves + " déplacements)" );
+        for ( String vCommand : vSolution ) {
+            System.out.println( "  " + vCommand );
+        }
+        if ( vOutput != null ) {
+            Files.write( vOutput, vSolution, StandardCharsets.UTF_8 );
+        }
+        if ( vMoves < 0 ) {
+            System.out.println( "ÉCHEC : la partie trouvée ne gagne pas dans le moteur." );
+            System.exit( 1 );
+        }
+
+        if ( Files.exists( vCheck ) ) {
+            List<String> vScript = new ArrayList<String>();
+            for ( String vLine : Files.readAllLines( vCheck, StandardCharsets.UTF_8 ) ) {
+                if ( ! vLine.startsWith( "#" ) && ! vLine.trim().isEmpty() ) {
+                    vScript.add( vLine );
+                }
+            }
+            int vScriptMoves = play( vWorld, vScript );
+            if ( vScriptMoves < 0 ) {
+                System.out.println( "ÉCHEC : " + vCheck + " ne gagne pas la partie." );
+                System.exit( 1 );
+            }
+            if ( vScriptMoves < vMoves ) {
+                System.out.println( "ÉCHEC : " + vCheck + " gagne en " + vScriptMoves + " déplacements, moins que les "
+                    + vMoves + " de la partie trouvée : l'exploration a manqué une partie plus courte." );
+                System.exit( 1 );
+            }
+            if ( vScriptMoves > vMoves ) {
+                System.out.println( "ÉCHEC : " + vCheck + " gagne en " + vScriptMoves + " déplacements, le minimum est " + vMoves + "." );
+                System.exit( 1 );
+            }
+            System.out.println( vCheck + " : gagne en " + vScriptMoves + " déplacements, c'est le minimum." );
+        }
+    } // main(*)
+
+    /**
+     * Explore les états niveau par niveau (un niveau = un déplacement de plus)
+     * et renvoie la partie gagnante la plus courte.
+     *
+     * @return les commandes de la partie, ou null si aucune partie ne gagne avant le Game Over
+     */
+    public List<String> solve()
+    {
+        this.aTable = new StateTable( 1 << 12 );
+        this.aWinner.set( EMPTY );
+        long vStart = this.initialState();
+        this.aTable.add( vStart, EMPTY, 0 );
+        ForkJoinPool vPool = ForkJoinPool.commonPool();
+
+        long[] vLevel = { vStart };
+        for ( int vMoves = 0; vMoves < this.aMaxMoves && vLevel.length > 0; vMoves++ ) {
+            // actions gratuites jusqu'à ce qu'il n'y ait plus d'état nouveau
+            LongList vAll = new LongList();
+            long[] vWave = vLevel;
+            while ( vWave.length > 0 ) {
+                vAll.addAll( vWave, vWave.length );
+                vWave = vPool.invoke( new Expand( vWave, 0, vWave.length, false ) ).toArray();
+            }
+            if ( this.aWinner.get() != EMPTY ) {
+                return this.pathTo( this.aWinner.get() );
+            }
+            // puis un déplacement
+            long[] vStates = vAll.toArray();
+            vLevel = vPool.invoke( new Expand( vStates, 0, vStates.length, true ) ).toArray();
+        }
+        return null;
+    } // solve()
+
+    /**
+     * Rejoue des commandes dans un moteur neuf.
+     *
+     * @param pWorld le monde
+     * @param pCommands les commandes
+     * @return le nombre de déplacements si la partie est gagnée, -1 sinon
+     */
+    static int play( final World pWorld, final List<String> pCommands )
+    {
+        GameEngine vEngine = new GameEngine( pWorld );
+        vEngine.setPlayer( new Player( "Solveur" ) );
+        vEngine.setGUI( new NullOutput() );
+        for ( String vCommand : pCommands ) {
+            if ( vEngine.isGameOver() ) {
+                break;
+            }
+            vEngine.interpretCommand( vCommand );
+        }
+        return vEngine.isWon() ? vEngine.getMovesCount() : -1;
+    } // play(*,*)
+
+    /**
+     * Applique à un état toutes les actions gratuites possibles et note s'il permet de gagner.
+     *
+     * @param pState l'état
+     * @param pNew reçoit les états nouveaux
+     */
+    private void expandFreeActions( final long pState, final LongList pNew )
+    {
+        int vRoom = this.room( pState );
+        int vHere = ROOM_BASE + vRoom;
+        if ( this.location( pState, this.aGoal ) == vHere ) {
+            this.aWinner.accumulateAndGet( pState, ( pA, pB ) -> pA == EMPTY ? pB : Math.min( pA, pB ) );
+            return; // "prendre pyrotaris" gagne, même si l'objet est trop lourd
+        }
+        long vParent = this.aTable.find( pState );
+        double vWeight = 0.0;
+        for ( int vI = 0; vI < this.aItems.length; vI++ ) {
+            if ( this.location( pState, vI ) == IN_INVENTORY ) {
+                vWeight += this.aItems[vI].getWeight();
+            }
+        }
+        double vCapacity = this.aBaseCapacity;
+        if ( this.aPotion >= 0 && ( pState >>> this.aPotionShift & 1 ) != 0 ) {
+            vCapacity *= 2;
+        }
+
+        for ( int vI = 0; vI < this.aItems.length; vI++ ) {
+            int vLocation = this.location( pState, vI );
+            if ( vLocation == vHere && vWeight + this.aItems[vI].getWeight() <= vCapacity ) {
+                this.offer( vParent, this.withLocation( pState, vI, IN_INVENTORY ), PRENDRE, vI, pNew );
+            }
+            else if ( vLocation == IN_INVENTORY ) {
+                this.offer( vParent, this.withLocation( pState, vI, vHere ), POSER, vI, pNew );
+                if ( vI == this.aPotion ) {
+                    long vDrunk = this.withLocation( pState, vI, GONE ) | 1L << this.aPotionShift;
+                    this.offer( vParent, vDrunk, INGERER, vI, pNew );
+                }
+            }
+        }
+        if ( this.aBeamer >= 0 && this.location( pState, this.aBeamer ) == IN_INVENTORY && this.charge( pState ) != vRoom + 1 ) {
+            this.offer( vParent, this.withCharge( pState, vRoom + 1 ), CHARGER, 0, pNew );
+        }
+        for ( int vE = 0; vE < this.aExitDoor[vRoom].length; vE++ ) {
+            int vDoor = this.aExitDoor[vRoom][vE];
+            if ( vDoor >= 0 && this.isLocked( pState, vDoor )
+                    && this.location( pState, this.aDoorKey[vDoor] ) == IN_INVENTORY ) {
+                this.offer( vParent, pState ^ 1L << ( this.aDoorShift + vDoor ), DEVERROUILLER, this.aExitWord[vRoom][vE], pNew );
+            }
+        }
+    } // expandFreeActions(*,*)
+
+    /**
+     * Applique à un état tous les déplacements possibles.
+     *
+     * @param pState l'état
+     * @param pNew reçoit les états nouveaux
+     */
+    private void expandMoves( final long pState, final LongList pNew )
+    {
+        int vRoom = this.room( pState );
+        long vParent = this.aTable.find( pState );
+        if ( ! this.aTransporter[vRoom] ) { // les sorties d'une salle de téléportation sont tirées au sort
+            for ( int vE = 0; vE < this.aExitTarget[vRoom].length; vE++ ) {
+                int vDoor = this.aExitDoor[vRoom][vE];
+                if ( vDoor < 0 || ! this.isLocked( pState, vDoor ) ) {
+                    this.offer( vParent, this.withRoom( pState, this.aExitTarget[vRoom][vE] ), ALLER, this.aExitWord[vRoom][vE], pNew );
+                }
+            }
+        }
+        if ( this.aBeamer >= 0 && this.location( pState, this.aBeamer ) == IN_INVENTORY && this.charge( pState ) != 0 ) {
+            long vNext = this.withCharge( this.withRoom( pState, this.charge( pState ) - 1 ), 0 );
+            this.offer( vParent, vNext, DECLENCHER, 0, pNew );
+        }
+    } // expandMoves(*,*)
+
+    /**
+     * Ajoute un état à la table s'il est nouveau.
+     *
+     * @param pParent la référence, dans la table, de l'état de départ de l'action
+     * @param pState l'état obtenu
+     * @param pAction le code de l'action
+     * @param pParameter le paramètre de l'action (objet ou mot de direction)
+     * @param pNew reçoit l'état s'il est nouveau
+     */
+    private void offer( final long pParent, final long pState, final int pAction, final int pParameter, final LongList pNew )
+    {
+        if ( this.aTable.add( pState, pParent, pAction << 16 | pParameter ) ) {
+            pNew.add( pState );
+        }
+    } // offer(*,*,*,*,*)
+
+    /**
+     * Réécrit les commandes qui mènent de l'état de départ à un état gagnant.
+     *
+     * @param pWinner l'état gagnant (l'objet à trouver est dans la salle du joueur)
+     * @return les commandes de la partie
+     */
+    private List<String> pathTo( final long pWinner )
+    {
+        List<String> vCommands = new ArrayList<String>();
+        vCommands.add( "prendre " + this.aItems[ this.aGoal ].getName() );
+        long vLink = this.aTable.link( this.aTable.find( pWinner ) );
+        while ( vLink != EMPTY ) {
+            vCommands.add( this.commandText( (int) vLink & ( 1 << StateTable.ACTION_BITS ) - 1 ) );
+            vLink = this.aTable.link( vLink >>> StateTable.ACTION_BITS );
+        }
+        Collections.reverse( vCommands );
+        return vCommands;
+    } // pathTo(*)
+
+    /**
+     * Renvoie le texte de la commande correspondant à une action.
+     *
+     * @param pAction le code de l'action
+     * @return la commande à taper
+     */
+    private String commandText( final int pAction )
+    {
+        int vParameter = pAction & 0xFFFF;
+        return switch ( pAction >>> 16 ) {
+            case ALLER         -> "aller " + this.aWords.get( vParameter );
+            case PRENDRE       -> "prendre " + this.aItems[vParameter].getName();
+            case POSER         -> "poser " + this.aItems[vParameter].getName();
+            case INGERER       -> "ingérer " + this.aItems[vParameter].getName();
+            case CHARGER       -> "charger";
+            case DECLENCHER    -> "déclencher";
+            case DEVERROUILLER -> "déverrouiller " + this.aWords.get( vParameter );
+            default            -> throw new IllegalStateException( "Action inconnue : " + pAction );
+        };
+    } // commandText(*)
+
+    /**
+     * Code l'état du début de la partie.
+     *
+     * @return l'état de départ
+     */
+    private long initialState()
+    {
+        long vState = this.withRoom( 0L, this.aWorld.getStartRoom().getId() );
+        for ( int vI = 0; vI < this.aItems.length; vI++ ) {
+            vState = this.withLocation( vState, vI, GONE );
+        }
+        for ( Room vRoom : this.aWorld.getRoomList() ) {
+            for ( Item vItem : vRoom.getInitialItems().getItems() ) {
+                for ( int vI = 0; vI < this.aItems.length; vI++ ) {
+                    if ( this.aItems[vI] == vItem ) {
+                        vState = this.withLocation( vState, vI, ROOM_BASE + vRoom.getId() );
+                    }
+                }
+            }
+        }
+        for ( int vD = 0; vD < this.aWorld.getDoorCount(); vD++ ) {
+            if ( this.aWorld.getDoor( vD ).isLockedAtStart() ) {
+                vState |= 1L << ( this.aDoorShift + vD );
+            }
+        }
+        return vState;
+    } // initialState()
+
+    /**
+     * Renvoie la salle du joueur dans un état.
+     *
+     * @param pState un état
+     * @return la salle du joueur
+     */
+    private int room( final long pState )
+    {
+        return (int) ( pState & ( ( 1L << this.aRoomBits ) - 1 ) );
+    } // room(*)
+
+    /**
+     * Renvoie un état dont seule la salle du joueur change.
+     *
+     * @param pState un état
+     * @param pRoom la nouvelle salle du joueur
+     * @return l'état avec cette salle
+     */
+    private long withRoom( final long pState, final int pRoom )
+    {
+        return pState & ~( ( 1L << this.aRoomBits ) - 1 ) | pRoom;
+    } // withRoom(*,*)
+
+    /**
+     * Renvoie l'emplacement d'un objet utile dans un état.
+     *
+     * @param pState un état
+     * @param pItem le numéro d'un objet utile
+     * @return l'emplacement de l'objet (IN_INVENTORY, GONE ou ROOM_BASE + salle)
+     */
+    private int location( final long pState, final int pItem )
+    {
+        return (int) ( pState >>> ( this.aItemShift + pItem * this.aLocationBits ) & ( ( 1L << this.aLocationBits ) - 1 ) );
+    } // location(*,*)
+
+    /**
+     * Renvoie un état dont seul l'emplacement d'un objet utile change.
+     *
+     * @param pState un état
+     * @param pItem le numéro d'un objet utile
+     * @param pLocation le nouvel emplacement de l'objet
+     * @return l'état avec cet emplacement
+     */
+    private long withLocation( final long pState, final int pItem, final int pLocation )
+    {
+        int vShift = this.aItemShift + pItem * this.aLocationBits;
+        long vMask = ( ( 1L << this.aLocationBits ) - 1 ) << vShift;
+        return pState & ~vMask | (long) pLocation << vShift;
+    } // withLocation(*,*,*)
+
+    /**
+     * Indique si une porte est verrouillée dans un état.
+     *
+     * @param pState un état
+     * @param pDoor le numéro d'une porte
+     * @return true si la porte est verrouillée
+     */
+    private boolean isLocked( final long pState, final int pDoor )
+    {
+        return ( pState >>> ( this.aDoorShift + pDoor ) & 1 ) != 0;
+    } // isLocked(*,*)
+
+    /**
+     * Renvoie la salle chargée dans le téléporteur dans un état.
+     *
+     * @param pState un état
+     * @return 0 si le téléporteur n'est pas chargé, sinon la salle chargée + 1
+     */
+    private int charge( final long pState )
+    {
+        return (int) ( pState >>> this.aChargeShift & ( ( 1L << this.aRoomBits ) - 1 ) );
+    } // charge(*)
+
+    /**
+     * Renvoie un état dont seule la charge du téléporteur change.
+     *
+     * @param pState un état
+     * @param pCharge 0 pour décharger le téléporteur, sinon la salle chargée + 1
+     * @return l'état avec cette charge
+     */
+    private long withCharge( final long pState, final int pCharge )
+    {
+        long vMask = ( ( 1L << this.aRoomBits ) - 1 ) << this.aChargeShift;
+        return pState & ~vMask | (long) pCharge << this.aChargeShift;
+    } // withCharge(*,*)
+
+    /**
+     * Renvoie le nombre de bits nécessaires pour coder les valeurs de 0 à pCount - 1.
+     *
+     * @param pCount le nombre de valeurs
+     * @return le nombre de bits
+     */
+    private static int bitsFor( final int pCount )
+    {
+        return pCount <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros( pCount - 1 );
+    } // bitsFor(*)
+} // GameSolver
@@ -0,0 +1,192 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Classe GroupCommitWriter - écrit sur le disque les journaux de toutes les parties
+ * du jeu "le mystère des ruines Sheikah" (voir Journal), avec un seul thread.
+ * Forcer l'écriture physique (fsync) coûte cher : plutôt qu'un fsync par ligne et par partie,
+ * le thread prend d'un coup toutes les lignes en attente, de toutes les parties, les écrit,
+ * puis fait un seul fsync par journal touché (validation groupée, "group commit").
+ * Plus le serveur est chargé, plus chaque groupe contient de lignes, et une partie qui écrit
+ * plusieurs lignes pour une même commande (commande puis tirage au sort) n'attend qu'un fsync.
+ *
+ * @author  Benoît de Keyn
+ * @version 2026.01.31
+ */
+public class GroupCommitWriter implements AutoCloseable
+{
+    /** Une ligne de journal en attente d'écriture. */
+    private static class Entry
+    {
+        /** Le journal auquel la ligne appartient (null pour arrêter le thread). */
+        private final Journal aJournal;
+
+        /** Le contenu de la ligne, déjà encodé. */
+        private final byte[] aData;
+
+        /** Le numéro de la ligne dans son journal. */
+        private final long aSequence;
+
+        /**
+         * Crée une ligne en attente.
+         *
+         * @param pJournal le journal
+         * @param pData le contenu encodé
+         * @param pSequence le numéro de la ligne dans son journal
+         */
+        private Entry( final Journal pJournal, final byte[] pData, final long pSequence )
+        {
+            this.aJournal = pJournal;
+            this.aData = pData;
+            this.aSequence = pSequence;
+        } // Entry(*,*,*)
+    } // Entry
+
+    /** Les lignes en attente, toutes parties confondues. */
+    private final LinkedBlockingQueue<Entry> aQueue;
+
+    /** Le thread d'écriture. */
+    private final Thread aThread;
+
+    /** Le nombre de groupes écrits. */
+    private volatile long aBatches;
+
+    /** Le nombre de lignes écrites. */
+    private volatile long aEntries;
+
+    /** Le nombre de fsync effectués. */
+    private volatile long aSyncs;
+
+    /** Indique si l'écrivain a été fermé (lu et modifié sous le verrou de l'écrivain). */
+    private boolean aClosed;
+
+    /**
+     * Crée un écrivain et démarre son thread.
+     */
+    public GroupCommitWriter()
+    {
+        this.aQueue = new LinkedBlockingQueue<Entry>();
+        this.aThread = new Thread( this::run, "journal-commit" );
+        this.aThread.setDaemon( true );
+        this.aThread.start();
+    } // GroupCommitWriter()
+
+    /**
+     * Confie une ligne à écrire au thread d'écriture.
+     * Le verrou de l'écrivain garantit qu'aucune ligne n'est mise en attente derrière l'arrêt du thread.
+     *
+     * @param pJournal le journal de la ligne
+     * @param pData le contenu encodé de la ligne
+     * @param pSequence le numéro de la ligne dans son journal
+     * @return true si la ligne sera écrite, false si l'écrivain est déjà fermé
+     */
+    synchronized boolean submit( final Journal pJournal, final byte[] pData, final long pSequence )
+    {
+        if ( this.aClosed ) {
+            return false;
+        }
+        this.aQueue.add( new Entry( pJournal, pData, pSequence ) );
+        return true;
+    } // submit(*,*,*)
+
+    /**
+     * Écrit les lignes restantes puis arrête le thread d'écriture.
+     * Une ligne qui n'a pas pu être écrite (thread interrompu pendant l'attente) met son journal en échec,
+     * pour que personne n'attende indéfiniment dans Journal.sync.
+     */
+    @Override public void close()
+    {
+        synchronized ( this ) {
+            if ( this.aClosed ) {
+                return;
+            }
+            this.aClosed = true;
+            this.aQueue.add( new Entry( null, null, 0 ) );
+        }
+        try {
+            this.aThread.join();
+        }
+        catch ( final InterruptedException pIE ) {
+            Thread.currentThread().interrupt();
+        }
+        List<Entry> vPending = new ArrayList<Entry>();
+        this.aQueue.drainTo( vPending );
+        for ( Entry vEntry : vPending ) {
+            if ( vEntry.aJournal != null ) {
+                vEntry.aJournal.failed( new IOException( "L'écrivain des journaux est fermé." ) );
+            }
+        }
+    } // close()
+
+    /**
+     * Renvoie un résumé de l'activité de l'écrivain.
+     *
+     * @return une ligne décrivant les écritures groupées
+     */
+    public String getMetricsString()
+    {
+        long vBatches = this.aBatches;
+        long vEntries = this.aEntries;
+        return "journal groupes=" + vBatches
+            + " lignes=" + vEntries
+            + " fsync=" + this.aSyncs
+            + " lignes/groupe=" + ( vBatches == 0 ? 0 : vEntries / vBatches );
+    } // getMetricsString()
+
+    /**
+     * La boucle du thread d'écriture : attend des lignes, prend toutes celles en attente,
+     * les écrit journal par journal puis fait un fsync par journal touché.
+     */
+    private void run()
+    {
+        List<Entry> vBatch = new ArrayList<Entry>();
+        Map<Journal, Long> vTouched = new IdentityHashMap<Journal, Long>();
+        boolean vRunning = true;
+        while ( vRunning ) {
+            try {
+                vBatch.add( this.aQueue.take() );
+            }
+            catch ( final InterruptedException pIE ) {
+                continue; // seul close() arrête le thread
+            }
+            this.aQueue.drainTo( vBatch );
+
+            for ( Entry vEntry : vBatch ) {
+                if ( vEntry.aJournal == null ) {
+                    vRunning = false;
+                    continue;
+                }
+                try {
+                    ByteBuffer vData = ByteBuffer.wrap( vEntry.aData );
+                    while ( vData.hasRemaining() ) {
+                        vEntry.aJournal.getChannel().write( vData );
+                    }
+                    vTouched.put( vEntry.aJournal, vEntry.aSequence );
+                    this.aEntries++;
+                }
+                catch ( final IOException pIOE ) {
+                    vEntry.aJournal.failed( pIOE );
+                }
+            }
+            for ( Map.Entry<Journal, Long> vTouchedEntry : vTouched.entrySet() ) {
+                Journal vJournal = vTouchedEntry.getKey();
+                try {
+                    vJournal.getChannel().force( false );
+                    this.aSyncs++;
+                    vJournal.committed( vTouchedEntry.getValue() );
+                }
+                catch ( final IOException pIOE ) {
+                    vJournal.failed( pIOE );
+                }
+            }
+            this.aBatches++;
+            vBatch.clear();
+            vTouched.clear();
+        }
+    } // run()
+} // GroupCommitWriter
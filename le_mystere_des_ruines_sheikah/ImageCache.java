@@ -0,0 +1,304 @@
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import javax.imageio.ImageIO;
+
+/**
+ * Classe ImageCache - garde en mémoire les images des salles du jeu "le mystère des ruines Sheikah",
+ * déjà décodées et redimensionnées à la taille d'affichage.
+ * Le cache a un budget mémoire (en octets) : quand il est dépassé, les images utilisées
+ * le moins récemment sont oubliées (LRU). Des compteurs de succès/échecs permettent
+ * de vérifier qu'une même image n'est jamais décodée deux fois tant qu'elle est en cache.
+ * Le cache peut être utilisé depuis plusieurs threads : une image en cours de décodage
+ * (par exemple par le préchargement) est attendue au lieu d'être décodée une seconde fois.
+ *
+ * @author  Benoît de Keyn
+ * @version 2026.01.22
+ */
+public class ImageCache
+{
+    /** La largeur des images mises en cache, en pixels. */
+    private final int aWidth;
+
+    /** La hauteur des images mises en cache, en pixels. */
+    private final int aHeight;
+
+    /** Le budget mémoire maximum du cache, en octets. */
+    private final long aMaxBytes;
+
+    /** Les images en cache (chemin -> image), de la moins récemment utilisée à la plus récente. */
+    private final LinkedHashMap<String, BufferedImage> aImages;
+
+    /** Les décodages en cours (chemin -> tâche de décodage). */
+    private final HashMap<String, FutureTask<BufferedImage>> aLoading;
+
+    /** La mémoire occupée par les images en cache, en octets. */
+    private long aUsedBytes;
+
+    /** Nombre de demandes servies directement par le cache. */
+    private long aHits;
+
+    /** Nombre de demandes qui ont nécessité un décodage. */
+    private long aMisses;
+
+    /**
+     * Crée un cache vide d'images redimensionnées.
+     *
+     * @param pWidth la largeur d'affichage des images, en pixels
+     * @param pHeight la hauteur d'affichage des images, en pixels
+     * @param pMaxBytes le budget mémoire maximum du cache, en octets
+     */
+    public ImageCache( final int pWidth, final int pHeight, final long pMaxBytes )
+    {
+        this.aWidth = pWidth;
+        this.aHeight = pHeight;
+        this.aMaxBytes = pMaxBytes;
+        this.aImages = new LinkedHashMap<String, BufferedImage>( 16, 0.75f, true ); // ordre d'accès
+        this.aLoading = new HashMap<String, FutureTask<BufferedImage>>();
+        this.aUsedBytes = 0;
+        this.aHits = 0;
+        this.aMisses = 0;
+    } // ImageCache(*,*,*)
+
+    /**
+     * Renvoie l'image redimensionnée correspondant à un chemin de ressource.
+     * L'image est décodée et redimensionnée seulement si elle n'est pas déjà en cache
+     * (si un autre thread est en train de la décoder, on attend son résultat).
+     *
+     * @param pImagePath le chemin de l'image (dossier compris) dans les ressources du jeu
+     * @return l'image redimensionnée, ou null si l'image est introuvable ou illisible
+     */
+    public BufferedImage getImage( final String pImagePath )
+    {
+        return this.fetch( pImagePath, true );
+    } // getImage(*)
+
+    /**
+     * Décode et met en cache une image qui n'y est pas encore, sans compter de succès
+     * ni modifier l'ordre LRU si elle y est déjà. Destinée au préchargement en arrière-plan.
+     *
+     * @param pImagePath le chemin de l'image (dossier compris) dans les ressources du jeu
+     */
+    public void prefetch( final String pImagePath )
+    {
+        this.fetch( pImagePath, false );
+    } // prefetch(*)
+
+    /**
+     * Indique si une image est actuellement en cache (sans modifier l'ordre LRU ni les compteurs).
+     *
+     * @param pImagePath le chemin de l'image
+     * @return true si l'image est en cache, false sinon
+     */
+    public synchronized boolean contains( final String pImagePath )
+    {
+        return this.aImages.containsKey( pImagePath );
+    } // contains(*)
+
+    /**
+     * Renvoie le nombre de demandes servies directement par le cache.
+     *
+     * @return le nombre de succès
+     */
+    public synchronized long getHitCount()
+    {
+        return this.aHits;
+    } // getHitCount()
+
+    /**
+     * Renvoie le nombre de demandes qui ont nécessité un décodage.
+     *
+     * @return le nombre d'échecs
+     */
+    public synchronized long getMissCount()
+    {
+        return this.aMisses;
+    } // getMissCount()
+
+    /**
+     * Renvoie la mémoire occupée par les images en cache.
+     *
+     * @return la taille du cache en octets
+     */
+    public synchronized long getUsedBytes()
+    {
+        return this.aUsedBytes;
+    } // getUsedBytes()
+
+    /**
+     * Renvoie une image du cache, ou la décode si elle n'y est pas encore.
+     * Le décodage se fait hors du verrou du cache, pour ne pas bloquer les autres images.
+     *
+     * @param pImagePath le chemin de l'image
+     * @param pIsDisplay true pour un affichage (compte les succès, met à jour l'ordre LRU),
+     *                   false pour un préchargement
+     * @return l'image redimensionnée, ou null si l'image est introuvable ou illisible
+     */
+    private BufferedImage fetch( final String pImagePath, final boolean pIsDisplay )
+    {
+        FutureTask<BufferedImage> vTask;
+        boolean vIsOwner = false;
+        synchronized ( this ) {
+            BufferedImage vImage = pIsDisplay ? this.aImages.get( pImagePath ) : null;
+            if ( vImage != null || ( ! pIsDisplay && this.aImages.containsKey( pImagePath ) ) ) {
+                if ( pIsDisplay ) {
+                    this.aHits++;
+                }
+                return vImage;
+            }
+            vTask = this.aLoading.get( pImagePath );
+            if ( vTask == null ) {
+                this.aMisses++;
+                vTask = new FutureTask<BufferedImage>( () -> this.load( pImagePath ) );
+                this.aLoading.put( pImagePath, vTask );
+                vIsOwner = true;
+            }
+            else if ( pIsDisplay ) {
+                this.aHits++; // déjà en cours de décodage : pas de second décodage
+            }
+        }
+        if ( vIsOwner ) {
+            vTask.run();
+        }
+        BufferedImage vImage;
+        try {
+            vImage = vTask.get();
+        }
+        catch ( final InterruptedException pIE ) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        catch ( final ExecutionException pEE ) {
+            vImage = null;
+        }
+        if ( vIsOwner ) {
+            synchronized ( this ) {
+                this.aLoading.remove( pImagePath );
+                if ( vImage != null ) {
+                    this.put( pImagePath, vImage );
+                }
+            }
+        }
+        return vImage;
+    } // fetch(*,*)
+
+    /**
+     * Ajoute une image au cache puis oublie les plus anciennes tant que le budget est dépassé.
+     * L'image qui vient d'être ajoutée est toujours conservée.
+     *
+     * @param pImagePath le chemin de l'image
+     * @param pImage l'image redimensionnée
+     */
+    private void put( final String pImagePath, final BufferedImage pImage )
+    {
+        this.aImages.put( pImagePath, pImage );
+        this.aUsedBytes += sizeOf( pImage );
+        Iterator<Map.Entry<String, BufferedImage>> vEldest = this.aImages.entrySet().iterator();
+        while ( this.aUsedBytes > this.aMaxBytes && this.aImages.size() > 1 ) {
+            BufferedImage vRemoved = vEldest.next().getValue();
+            vEldest.remove();
+            this.aUsedBytes -= sizeOf( vRemoved );
+        }
+    } // put(*,*)
+
+    /**
+     * Décode une image depuis les ressources et la redimensionne à la taille d'affichage.
+     * Le décodage est émis comme événement JFR (voir GameEvents).
+     *
+     * @param pImagePath le chemin de l'image
+     * @return l'image redimensionnée, ou null si l'image est introuvable ou illisible
+     */
+    private BufferedImage load( final String pImagePath )
+    {
+        URL vImageURL = this.getClass().getClassLoader().getResource( pImagePath );
+        if ( vImageURL == null ) {
+            return null;
+        }
+        GameEvents.ImageLoadEvent vEvent = new GameEvents.ImageLoadEvent();
+        vEvent.begin();
+        try {
+            BufferedImage vSource = ImageIO.read( vImageURL );
+            BufferedImage vImage = vSource == null ? null : this.scale( vSource );
+            vEvent.end();
+            if ( vImage != null && vEvent.shouldCommit() ) {
+                vEvent.name = pImagePath;
+                vEvent.bytes = fileSize( vImageURL );
+                vEvent.cacheBytes = sizeOf( vImage );
+                vEvent.commit();
+            }
+            return vImage;
+        }
+        catch ( final IOException pIOE ) {
+            System.out.println( "Image illisible : " + pImagePath );
+            return null;
+        }
+    } // load(*)
+
+    /**
+     * Renvoie la taille du fichier d'une image.
+     *
+     * @param pImageURL l'adresse de l'image
+     * @return la taille en octets, ou -1 si elle est inconnue
+     */
+    private static long fileSize( final URL pImageURL )
+    {
+        try {
+            return pImageURL.openConnection().getContentLengthLong();
+        }
+        catch ( final IOException pIOE ) {
+            return -1;
+        }
+    } // fileSize(*)
+
+    /**
+     * Redimensionne une image à la taille d'affichage.
+     * Les grandes images sont d'abord divisées par deux plusieurs fois,
+     * ce qui donne un résultat lisse comparable à Image.SCALE_SMOOTH.
+     *
+     * @param pSource l'image décodée
+     * @return une nouvelle image à la taille d'affichage
+     */
+    private BufferedImage scale( final BufferedImage pSource )
+    {
+        BufferedImage vImage = pSource;
+        int vWidth = vImage.getWidth();
+        int vHeight = vImage.getHeight();
+        do {
+            if ( vWidth / 2 >= this.aWidth && vHeight / 2 >= this.aHeight ) {
+                vWidth /= 2;
+                vHeight /= 2;
+            }
+            else { // dernière étape
+                vWidth = this.aWidth;
+                vHeight = this.aHeight;
+            }
+            BufferedImage vStep = new BufferedImage( vWidth, vHeight, BufferedImage.TYPE_INT_ARGB );
+            Graphics2D vGraphics = vStep.createGraphics();
+            vGraphics.setRenderingHint( RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR );
+            vGraphics.setRenderingHint( RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY );
+            vGraphics.drawImage( vImage, 0, 0, vWidth, vHeight, null );
+            vGraphics.dispose();
+            vImage = vStep;
+        } while ( vWidth != this.aWidth || vHeight != this.aHeight );
+        return vImage;
+    } // scale(*)
+
+    /**
+     * Renvoie la mémoire occupée par une image en cache (4 octets par pixel).
+     *
+     * @param pImage l'image
+     * @return la taille de l'image en octets
+     */
+    private static long sizeOf( final BufferedImage pImage )
+    {
+        return 4L * pImage.getWidth() * pImage.getHeight();
+    } // sizeOf(*)
+} // ImageCache
@@ -0,0 +1,100 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Classe ImagePrefetcher - précharge en arrière-plan les images des salles voisines
+ * dans le jeu "le mystère des ruines Sheikah".
+ * Quand le joueur entre dans une salle, les images de toutes les salles accessibles
+ * depuis ses sorties sont décodées et redimensionnées par un petit groupe de threads,
+ * pour que le déplacement suivant affiche son image sans attendre le décodage.
+ *
+ * @author  Benoît de Keyn
+ * @version 2026.01.22
+ */
+public class ImagePrefetcher
+{
+    /** Le nombre de threads de préchargement. */
+    private static final int THREADS = 2;
+
+    /** Le cache dans lequel les images préchargées sont rangées. */
+    private final ImageCache aCache;
+
+    /** Les threads de préchargement. */
+    private final ThreadPoolExecutor aExecutor;
+
+    /** Le chemin du dossier contenant les images. */
+    private String aImagesFolder;
+
+    /**
+     * Crée un préchargeur qui remplit le cache donné.
+     *
+     * @param pCache le cache d'images à remplir
+     */
+    public ImagePrefetcher( final ImageCache pCache )
+    {
+        this.aCache = pCache;
+        this.aImagesFolder = "";
+        this.aExecutor = new ThreadPoolExecutor( THREADS, THREADS, 30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(),
+            pTask -> {
+                Thread vThread = new Thread( pTask, "image-prefetch" );
+                vThread.setDaemon( true ); // ne doit pas empêcher la fin du programme
+                vThread.setPriority( Thread.MIN_PRIORITY );
+                return vThread;
+            } );
+        this.aExecutor.allowCoreThreadTimeOut( true );
+    } // ImagePrefetcher(*)
+
+    /**
+     * Définit le dossier où sont stockées les images.
+     *
+     * @param pFolder le chemin du dossier contenant les images
+     */
+    public void setImagesFolder( final String pFolder )
+    {
+        this.aImagesFolder = pFolder;
+    } // setImagesFolder(*)
+
+    /**
+     * Lance le préchargement des images des salles accessibles depuis une salle.
+     * Les préchargements encore en attente pour la salle précédente sont abandonnés.
+     * Les sorties fermées par une porte verrouillée passent en dernier,
+     * et une TransporterRoom est ignorée car ses sorties sont aléatoires.
+     *
+     * @param pRoom la salle dans laquelle le joueur vient d'entrer
+     * @param pState l'état de la partie (pour savoir quelles portes sont verrouillées)
+     */
+    public void prefetchExits( final Room pRoom, final WorldState pState )
+    {
+        this.aExecutor.getQueue().clear();
+        if ( pRoom instanceof TransporterRoom ) {
+            return;
+        }
+        List<String> vOpen = new ArrayList<String>();
+        List<String> vLocked = new ArrayList<String>();
+        for ( String vDirection : pRoom.getExitDirections() ) {
+            Room vNeighbor = pRoom.getExit( vDirection );
+            if ( vNeighbor == null || vNeighbor.getImageName() == null ) {
+                continue;
+            }
+            String vImagePath = this.aImagesFolder + vNeighbor.getImageName();
+            if ( this.aCache.contains( vImagePath ) || vOpen.contains( vImagePath ) || vLocked.contains( vImagePath ) ) {
+                continue;
+            }
+            Door vDoor = pRoom.getDoor( vDirection );
+            if ( vDoor != null && vDoor.isLocked( pState ) ) {
+                vLocked.add( vImagePath );
+            }
+            else {
+                vOpen.add( vImagePath );
+            }
+        }
+        vOpen.addAll( vLocked );
+        for ( String vImagePath : vOpen ) {
+            this.aExecutor.execute( () -> this.aCache.prefetch( vImagePath ) );
+        }
+    } // prefetchExits(*,*)
+} // ImagePrefetcher
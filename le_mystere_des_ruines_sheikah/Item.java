@@ -17,6 +17,9 @@ public class Item
     /** Le poids de l'objet en kilogrammes. */
     private double aWeight;
 
+    /** Le numéro de l'objet dans son monde (-1 tant qu'il n'y a pas été ajouté). */
+    private int aId;
+
     /**
      * Crée un nouvel objet avec un nom, une description et un poids.
      *
@@ -29,6 +32,27 @@ public class Item
         this.aDescription = pDescription;
         this.aWeight      = pWeight;
         this.aName        = pName;
+        this.aId          = -1;
+    }
+
+    /**
+     * Renvoie le numéro de l'objet dans son monde (dans l'ordre où les objets y ont été déclarés).
+     *
+     * @return le numéro de l'objet, ou -1 s'il ne fait partie d'aucun monde
+     */
+    public int getId()
+    {
+        return this.aId;
+    }
+
+    /**
+     * Définit le numéro de l'objet dans son monde (voir World).
+     *
+     * @param pId le numéro de l'objet
+     */
+    void setId( final int pId )
+    {
+        this.aId = pId;
     }
 
     /**
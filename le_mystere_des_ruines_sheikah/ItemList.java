@@ -1,42 +1,128 @@
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 
 /**
  * Classe ItemList - gère une collection d'objets (Item) dans le jeu "le mystère des ruines Sheikah".
  * Permet d'ajouter, retirer, rechercher et lister des objets.
+ * Les objets sont énumérés dans l'ordre où ils ont été ajoutés.
+ * La plupart des listes (salles, inventaire) ne contiennent que quelques objets : ils sont rangés
+ * dans un simple tableau, parcouru pour les recherches ; un index par nom n'est construit
+ * qu'au-delà de HASH_THRESHOLD objets.
+ * Le poids total des objets est tenu à jour à chaque ajout et retrait, et le texte de getItemsString
+ * n'est recalculé qu'après un changement.
  *
  * @author  Benoît de Keyn
- * @version 2026.01.10
+ * @version 2026.02.04
  */
 public class ItemList
 {
-    /** La collection des objets indexés par leur nom. */
-    private HashMap<String, Item> aItems;
+    /** Nombre d'objets au-delà duquel un index par nom est construit. */
+    private static final int HASH_THRESHOLD = 8;
+
+    /** Tableau vide partagé par toutes les listes vides. */
+    private static final Item[] NO_ITEMS = new Item[0];
+
+    /** Les objets de la liste, dans l'ordre d'ajout (les aSize premières cases). */
+    private Item[] aItems;
+
+    /** Le nombre d'objets de la liste. */
+    private int aSize;
+
+    /** L'index des objets par nom (null tant que la liste a au plus HASH_THRESHOLD objets). */
+    private HashMap<String, Item> aIndex;
+
+    /** Le poids total des objets, en kilogrammes. */
+    private double aWeight;
+
+    /** Le texte de getItemsString (null s'il doit être recalculé). */
+    private String aRendering;
+
+    /** La vue non modifiable renvoyée par getItems (recréée à chaque changement). */
+    private Collection<Item> aView;
 
     /**
      * Crée une nouvelle liste d'objets vide.
      */
     public ItemList(){
-        this.aItems = new HashMap<>();
+        this.aItems = NO_ITEMS;
+        this.aSize = 0;
+        this.aIndex = null;
+        this.aWeight = 0.0;
+        this.aRendering = null;
+        this.aView = Collections.emptyList();
     } // ItemList
 
     /**
-     * Ajoute un objet à la liste.
+     * Crée une copie d'une liste d'objets (les objets eux-mêmes ne sont pas copiés).
+     * La copie énumère les objets dans le même ordre que l'original.
+     *
+     * @param pOther la liste à copier
+     */
+    public ItemList( final ItemList pOther )
+    {
+        this.aItems = pOther.aSize == 0 ? NO_ITEMS : Arrays.copyOf( pOther.aItems, pOther.aSize );
+        this.aSize = pOther.aSize;
+        this.aIndex = pOther.aIndex == null ? null : new HashMap<String, Item>( pOther.aIndex );
+        this.aWeight = pOther.aWeight;
+        this.aRendering = pOther.aRendering;
+        this.aView = this.newView();
+    } // ItemList(*)
+
+    /**
+     * Ajoute un objet à la liste (à la fin).
+     * Un objet de même nom déjà présent est remplacé, à sa place.
      *
      * @param pItem l'objet à ajouter
      */
     public void add( final Item pItem )
     {
-        this.aItems.put( pItem.getName(), pItem );
+        int vPosition = this.aIndex != null && ! this.aIndex.containsKey( pItem.getName() ) ? -1 : this.indexOf( pItem.getName() );
+        if ( vPosition >= 0 ) {
+            this.aWeight -= this.aItems[vPosition].getWeight();
+            this.aItems[vPosition] = pItem;
+        }
+        else {
+            if ( this.aSize == this.aItems.length ) {
+                this.aItems = Arrays.copyOf( this.aItems, Math.max( 4, this.aSize * 2 ) );
+            }
+            this.aItems[ this.aSize++ ] = pItem;
+        }
+        if ( this.aIndex != null ) {
+            this.aIndex.put( pItem.getName(), pItem );
+        }
+        else if ( this.aSize > HASH_THRESHOLD ) {
+            this.aIndex = new HashMap<String, Item>();
+            for ( int vI = 0; vI < this.aSize; vI++ ) {
+                this.aIndex.put( this.aItems[vI].getName(), this.aItems[vI] );
+            }
+        }
+        this.aWeight += pItem.getWeight();
+        this.changed();
     } // add
 
     /**
-     * Retire un objet de la liste.
+     * Retire un objet de la liste (les suivants gardent leur ordre).
      *
      * @param pItemName le nom de l'objet à retirer
      */
     public void remove( final String pItemName )
     {
-        this.aItems.remove( pItemName );
+        if ( this.aIndex != null && ! this.aIndex.containsKey( pItemName ) ) {
+            return;
+        }
+        int vPosition = this.indexOf( pItemName );
+        if ( vPosition < 0 ) {
+            return;
+        }
+        this.aWeight -= this.aItems[vPosition].getWeight();
+        System.arraycopy( this.aItems, vPosition + 1, this.aItems, vPosition, this.aSize - vPosition - 1 );
+        this.aItems[ --this.aSize ] = null;
+        if ( this.aIndex != null ) {
+            this.aIndex.remove( pItemName );
+        }
+        this.changed();
     } // remove
 
     /**
@@ -47,7 +133,11 @@ public class ItemList
      */
     public Item get( final String pItemName )
     {
-        return this.aItems.get( pItemName );
+        if ( this.aIndex != null ) {
+            return this.aIndex.get( pItemName );
+        }
+        int vPosition = this.indexOf( pItemName );
+        return vPosition < 0 ? null : this.aItems[vPosition];
     } // get
 
     /**
@@ -58,9 +148,39 @@ public class ItemList
      */
     public boolean has( final String pItemName )
     {
-        return this.aItems.containsKey( pItemName );
+        return this.get( pItemName ) != null;
     } // has
 
+    /**
+     * Renvoie les objets de la liste, dans l'ordre où ils ont été ajoutés.
+     *
+     * @return les objets (non modifiables)
+     */
+    public Collection<Item> getItems()
+    {
+        return this.aView;
+    } // getItems
+
+    /**
+     * Renvoie le nombre d'objets de la liste.
+     *
+     * @return le nombre d'objets
+     */
+    public int size()
+    {
+        return this.aSize;
+    } // size
+
+    /**
+     * Renvoie le poids total des objets de la liste.
+     *
+     * @return le poids total en kilogrammes
+     */
+    public double getTotalWeight()
+    {
+        return this.aWeight;
+    } // getTotalWeight
+
     /**
      * Vérifie si la liste d'objets est vide.
      *
@@ -68,25 +188,68 @@ public class ItemList
      */
     public boolean isEmpty()
     {
-        return this.aItems.isEmpty();
+        return this.aSize == 0;
     } // isEmpty
 
     /**
      * Construit une chaîne de caractères décrivant les objets présents dans la liste.
+     * Le texte est gardé jusqu'au prochain ajout ou retrait.
      *
      * @return une description des objets ou un message indiquant l'absence d'objets
      */
     public String getItemsString()
     {
-        if ( !this.aItems.isEmpty() ) {
-            StringBuilder vItemString = new StringBuilder("");
-            for ( Item vItem : this.aItems.values() ) {
-                vItemString.append("\n - ").append(vItem.getLongDescription());
+        String vRendering = this.aRendering;
+        if ( vRendering == null ) {
+            if ( this.aSize > 0 ) {
+                StringBuilder vItemString = new StringBuilder("");
+                for ( int vI = 0; vI < this.aSize; vI++ ) {
+                    vItemString.append("\n - ").append(this.aItems[vI].getLongDescription());
+                }
+                vRendering = vItemString.toString();
             }
-            return vItemString.toString();
-        }
-        else {
-            return "aucun objet.";
+            else {
+                vRendering = "aucun objet.";
+            }
+            this.aRendering = vRendering;
         }
+        return vRendering;
     } // getItemsString
+
+    /**
+     * Cherche la place d'un objet dans le tableau.
+     *
+     * @param pItemName le nom de l'objet
+     * @return sa place, ou -1 s'il n'est pas dans la liste
+     */
+    private int indexOf( final String pItemName )
+    {
+        for ( int vI = 0; vI < this.aSize; vI++ ) {
+            if ( this.aItems[vI].getName().equals( pItemName ) ) {
+                return vI;
+            }
+        }
+        return -1;
+    } // indexOf
+
+    /**
+     * Oublie le texte calculé et recrée la vue : la liste vient de changer.
+     * La vue est recréée tout de suite (et non à la demande) pour que les listes de départ
+     * des salles, partagées entre les parties, ne soient plus jamais modifiées une fois le monde figé.
+     */
+    private void changed()
+    {
+        this.aRendering = null;
+        this.aView = this.newView();
+    } // changed
+
+    /**
+     * Crée la vue non modifiable des objets de la liste.
+     *
+     * @return la vue des aSize premiers objets du tableau
+     */
+    private Collection<Item> newView()
+    {
+        return Collections.unmodifiableList( Arrays.asList( this.aItems ).subList( 0, this.aSize ) );
+    } // newView
 } // ItemList
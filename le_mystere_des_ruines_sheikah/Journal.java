@@ -0,0 +1,283 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Base64;
+
+/**
+ * Classe Journal - le journal d'une partie du jeu "le mystère des ruines Sheikah",
+ * pour pouvoir la reprendre après un arrêt brutal du serveur.
+ * Le fichier est écrit uniquement à la fin, une ligne par événement :
+ *   "C commande" pour chaque commande reçue,
+ *   "R salle" pour chaque salle tirée au sort par une salle de téléportation aléatoire,
+ *   "S sauvegarde" pour chaque sauvegarde reprise par "charger-partie" (son contenu, en Base64).
+ * Les écritures passent par un GroupCommitWriter partagé par toutes les parties ;
+ * sync() attend qu'elles soient physiquement sur le disque.
+ * Pour reprendre la partie, replay() rejoue les commandes dans un moteur sans affichage,
+ * en imposant les salles tirées au sort et les sauvegardes reprises la première fois :
+ * le rejeu ne lit ni n'écrit aucun fichier de sauvegarde, et redonne toujours la même partie.
+ *
+ * @author  Benoît de Keyn
+ * @version 2026.01.31
+ */
+public class Journal implements AutoCloseable
+{
+    /** Le fichier du journal. */
+    private final Path aFile;
+
+    /** Le canal d'écriture du fichier. */
+    private final FileChannel aChannel;
+
+    /** L'écrivain partagé qui écrit les lignes. */
+    private final GroupCommitWriter aWriter;
+
+    /** Le numéro de la dernière ligne confiée à l'écrivain. */
+    private long aAppended;
+
+    /** Le numéro de la dernière ligne écrite sur le disque. */
+    private long aCommitted;
+
+    /** La première erreur d'écriture (null si aucune) : le journal n'est alors plus fiable. */
+    private IOException aFailure;
+
+    /**
+     * Ouvre un journal (créé s'il n'existe pas, complété s'il existe).
+     *
+     * @param pFile le fichier du journal
+     * @param pWriter l'écrivain partagé
+     * @throws IOException si le fichier ne peut pas être ouvert
+     */
+    public Journal( final Path pFile, final GroupCommitWriter pWriter ) throws IOException
+    {
+        this.aFile = pFile;
+        this.aChannel = FileChannel.open( pFile,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND );
+        this.aWriter = pWriter;
+        this.aAppended = 0;
+        this.aCommitted = 0;
+        this.aFailure = null;
+    } // Journal(*,*)
+
+    /**
+     * Ajoute une commande reçue au journal.
+     *
+     * @param pCommandLine la ligne de commande
+     */
+    public void recordCommand( final String pCommandLine )
+    {
+        this.append( 'C', pCommandLine );
+    } // recordCommand(*)
+
+    /**
+     * Ajoute au journal une salle tirée au sort.
+     *
+     * @param pRoomName le nom de la salle
+     */
+    public void recordRoom( final String pRoomName )
+    {
+        this.append( 'R', pRoomName );
+    } // recordRoom(*)
+
+    /**
+     * Ajoute au journal une sauvegarde reprise par "charger-partie".
+     *
+     * @param pSnapshot la sauvegarde (de sa position à sa limite, qui ne sont pas modifiées)
+     */
+    public void recordSnapshot( final ByteBuffer pSnapshot )
+    {
+        ByteBuffer vSnapshot = pSnapshot.duplicate();
+        byte[] vBytes = new byte[ vSnapshot.remaining() ];
+        vSnapshot.get( vBytes );
+        this.append( 'S', Base64.getEncoder().encodeToString( vBytes ) );
+    } // recordSnapshot(*)
+
+    /**
+     * Attend que toutes les lignes ajoutées soient écrites sur le disque.
+     *
+     * @throws IOException si une écriture a échoué
+     */
+    public synchronized void sync() throws IOException
+    {
+        boolean vInterrupted = false;
+        while ( this.aCommitted < this.aAppended && this.aFailure == null ) {
+            try {
+                this.wait();
+            }
+            catch ( final InterruptedException pIE ) {
+                vInterrupted = true;
+            }
+        }
+        if ( vInterrupted ) {
+            Thread.currentThread().interrupt();
+        }
+        if ( this.aFailure != null ) {
+            throw new IOException( "Écriture du journal " + this.aFile + " impossible", this.aFailure );
+        }
+    } // sync()
+
+    /**
+     * Attend l'écriture des lignes en attente puis ferme le fichier.
+     *
+     * @throws IOException si une écriture a échoué ou si le fichier ne peut pas être fermé
+     */
+    @Override public void close() throws IOException
+    {
+        try {
+            this.sync();
+        }
+        finally {
+            this.aChannel.close();
+        }
+    } // close()
+
+    /**
+     * Renvoie le fichier du journal.
+     *
+     * @return le fichier
+     */
+    public Path getFile()
+    {
+        return this.aFile;
+    } // getFile()
+
+    /**
+     * Rejoue un journal dans un moteur de jeu : chaque commande est réinterprétée, et les
+     * salles tirées au sort et les sauvegardes reprises pendant cette commande lui sont imposées
+     * (le moteur est en mode rejeu : aucun fichier de sauvegarde n'est lu ni écrit).
+     * Le moteur doit avoir son joueur et une sortie (en général NullOutput), mais pas encore de journal.
+     * Une dernière ligne incomplète (arrêt pendant l'écriture) est ignorée et retirée du fichier.
+     *
+     * @param pFile le fichier du journal
+     * @param pEngine le moteur dans lequel rejouer la partie
+     * @return le nombre de commandes rejouées
+     * @throws IOException si le fichier est illisible ou contient une ligne inconnue
+     */
+    public static int replay( final Path pFile, final GameEngine pEngine ) throws IOException
+    {
+        byte[] vBytes = Files.readAllBytes( pFile );
+        int vEnd = vBytes.length;
+        while ( vEnd > 0 && vBytes[ vEnd - 1 ] != '\n' ) {
+            vEnd--;
+        }
+        if ( vEnd < vBytes.length ) {
+            try ( FileChannel vChannel = FileChannel.open( pFile, StandardOpenOption.WRITE ) ) {
+                vChannel.truncate( vEnd );
+            }
+        }
+
+        String vText = new String( vBytes, 0, vEnd, StandardCharsets.UTF_8 );
+        WorldState vState = pEngine.getWorldState();
+        World vWorld = vState.getWorld();
+        String vPending = null; // commande lue dont on cherche encore les tirages
+        int vCount = 0;
+        int vLineNumber = 0;
+        int vStart = 0;
+        pEngine.setReplaying( true );
+        try {
+            while ( vStart < vText.length() ) {
+                int vNewLine = vText.indexOf( '\n', vStart );
+                vLineNumber++;
+                if ( vNewLine - vStart < 2 || vText.charAt( vStart + 1 ) != ' ' ) {
+                    throw new IOException( pFile + ", ligne " + vLineNumber + " : ligne de journal invalide" );
+                }
+                char vKind = vText.charAt( vStart );
+                String vValue = vText.substring( vStart + 2, vNewLine );
+                if ( vKind == 'C' ) {
+                    if ( vPending != null ) {
+                        pEngine.interpretCommand( vPending );
+                        vCount++;
+                    }
+                    vPending = vValue;
+                }
+                else if ( vKind == 'R' ) {
+                    Room vRoom = vWorld.getRoom( vValue );
+                    if ( vRoom == null ) {
+                        throw new IOException( pFile + ", ligne " + vLineNumber + " : salle inconnue " + vValue );
+                    }
+                    vState.queueRandomRoom( vRoom );
+                }
+                else if ( vKind == 'S' ) {
+                    try {
+                        pEngine.queueSnapshot( ByteBuffer.wrap( Base64.getDecoder().decode( vValue ) ) );
+                    }
+                    catch ( final IllegalArgumentException pIAE ) {
+                        throw new IOException( pFile + ", ligne " + vLineNumber + " : sauvegarde illisible" );
+                    }
+                }
+                else {
+                    throw new IOException( pFile + ", ligne " + vLineNumber + " : ligne de journal invalide" );
+                }
+                vStart = vNewLine + 1;
+            }
+            if ( vPending != null ) {
+                pEngine.interpretCommand( vPending );
+                vCount++;
+            }
+        }
+        finally {
+            pEngine.setReplaying( false );
+        }
+        return vCount;
+    } // replay(*,*)
+
+    /**
+     * Renvoie le canal d'écriture du fichier (pour l'écrivain partagé).
+     *
+     * @return le canal du fichier
+     */
+    FileChannel getChannel()
+    {
+        return this.aChannel;
+    } // getChannel()
+
+    /**
+     * Note que les lignes jusqu'à un numéro donné sont sur le disque (appelé par l'écrivain).
+     *
+     * @param pSequence le numéro de la dernière ligne écrite
+     */
+    synchronized void committed( final long pSequence )
+    {
+        if ( pSequence > this.aCommitted ) {
+            this.aCommitted = pSequence;
+        }
+        this.notifyAll();
+    } // committed(*)
+
+    /**
+     * Note qu'une écriture a échoué (appelé par l'écrivain).
+     *
+     * @param pFailure l'erreur d'écriture
+     */
+    synchronized void failed( final IOException pFailure )
+    {
+        if ( this.aFailure == null ) {
+            this.aFailure = pFailure;
+            System.err.println( "Journal " + this.aFile + " : " + pFailure.getMessage() );
+        }
+        this.notifyAll();
+    } // failed(*)
+
+    /**
+     * Confie une ligne à l'écrivain partagé. Les retours à la ligne de la valeur sont remplacés
+     * par des espaces pour qu'un événement tienne toujours sur une seule ligne.
+     *
+     * @param pKind la lettre du type de ligne
+     * @param pValue la valeur de la ligne
+     */
+    private synchronized void append( final char pKind, final String pValue )
+    {
+        if ( this.aFailure != null ) {
+            return; // déjà signalé, sync() le rappellera
+        }
+        String vLine = pKind + " " + pValue.replace( '\n', ' ' ).replace( '\r', ' ' ) + "\n";
+        long vSequence = this.aAppended + 1;
+        if ( ! this.aWriter.submit( this, vLine.getBytes( StandardCharsets.UTF_8 ), vSequence ) ) {
+            this.failed( new IOException( "L'écrivain des journaux est fermé (arrêt du serveur)." ) );
+            return;
+        }
+        this.aAppended = vSequence; // compté seulement une fois accepté : sync() n'attend jamais une ligne perdue
+    } // append(*,*)
+} // Journal
@@ -0,0 +1,59 @@
+/**
+ * Classe NullOutput - une sortie qui ignore tout ce que le moteur du jeu "le mystère des ruines Sheikah" affiche.
+ * Utilisée pour les mesures de performance et les simulations, où seul le coût du moteur compte.
+ *
+ * @author  Benoît de Keyn
+ * @version 2026.01.20
+ */
+public class NullOutput implements OutputSink
+{
+    /**
+     * Ignore le texte.
+     *
+     * @param pText le texte à afficher
+     */
+    @Override public void print( final String pText )
+    {
+        // rien à afficher
+    } // print(.)
+
+    /**
+     * Ignore le texte et son retour à la ligne.
+     *
+     * @param pText le texte à afficher
+     */
+    @Override public void println( final String pText )
+    {
+        // rien à afficher
+    } // println(.)
+
+    /**
+     * Ignore le dossier des images.
+     *
+     * @param pFolder le chemin du dossier contenant les images
+     */
+    @Override public void setImagesFolder( final String pFolder )
+    {
+        // pas d'images
+    } // setImagesFolder(.)
+
+    /**
+     * Ignore l'image.
+     *
+     * @param pImageName le nom du fichier image à afficher
+     */
+    @Override public void showImage( final String pImageName )
+    {
+        // pas d'images
+    } // showImage(.)
+
+    /**
+     * Ignore l'activation de la saisie.
+     *
+     * @param pOnOff true pour activer la saisie, false pour la désactiver
+     */
+    @Override public void enable( final boolean pOnOff )
+    {
+        // pas de saisie
+    } // enable(.)
+} // NullOutput
@@ -0,0 +1,66 @@
+/**
+ * Interface OutputSink - représente la sortie sur laquelle le moteur du jeu "le mystère des ruines Sheikah" écrit.
+ * L'interface graphique (UserInterface) en est une implémentation, mais le moteur peut aussi
+ * fonctionner sans affichage (mode headless) avec une sortie texte, réseau ou vide.
+ *
+ * @author  Benoît de Keyn
+ * @version 2026.01.20
+ */
+public interface OutputSink
+{
+    /**
+     * Affiche du texte sur la sortie.
+     *
+     * @param pText le texte à afficher
+     */
+    void print( final String pText );
+
+    /**
+     * Affiche du texte sur la sortie suivi d'un retour à la ligne.
+     *
+     * @param pText le texte à afficher
+     */
+    void println( final String pText );
+
+    /**
+     * Définit le dossier où sont stockées les images.
+     *
+     * @param pFolder le chemin du dossier contenant les images
+     */
+    void setImagesFolder( final String pFolder );
+
+    /**
+     * Affiche l'image portant le nom donné (ignoré par les sorties sans affichage).
+     *
+     * @param pImageName le nom du fichier image à afficher
+     */
+    void showImage( final String pImageName );
+
+    /**
+     * Prévient la sortie que le joueur vient d'entrer dans une salle, pour qu'elle puisse
+     * préparer à l'avance les images des salles voisines. Ne fait rien par défaut.
+     *
+     * @param pRoom la salle dans laquelle le joueur vient d'entrer
+     * @param pState l'état de la partie (pour savoir quelles portes sont verrouillées)
+     */
+    default void prefetchExitImages( final Room pRoom, final WorldState pState )
+    {
+        // rien à préparer par défaut
+    } // prefetchExitImages(.,.)
+
+    /**
+     * Indique que le moteur a fini de traiter une commande (ou tout un fichier de test) :
+     * une sortie qui regroupe ses affichages doit les envoyer maintenant. Ne fait rien par défaut.
+     */
+    default void flush()
+    {
+        // rien en attente par défaut
+    } // flush()
+
+    /**
+     * Active ou désactive la saisie de nouvelles commandes.
+     *
+     * @param pOnOff true pour activer la saisie, false pour la désactiver
+     */
+    void enable( final boolean pOnOff );
+} // OutputSink
@@ -1,8 +1,13 @@
-import java.util.StringTokenizer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Classe Parser - interprète les commandes saisies par l'utilisateur dans le jeu "le mystère des ruines Sheikah".
  * Cette classe analyse les chaînes de caractères entrées et les convertit en objets Command.
+ * Le découpage se fait directement dans le texte (ou dans un tampon d'octets UTF-8) et les mots
+ * reconnus sont remplacés par les constantes du vocabulaire (CommandWord, Direction) : en réutilisant
+ * le même objet Command, l'analyse d'une commande ou d'une direction ne crée aucun objet.
+ * Les commandes et les directions peuvent être abrégées ("all n" pour "aller nord").
  *
  * @author  Michael Kolling, David J. Barnes, D. Bureau, Benoît de Keyn
  * @version 2025.12.15
@@ -27,8 +32,9 @@ public class Parser
      *  Règles :
      * - Si le premier mot n'est pas une commande connue, retourne Command(null, null).
      * - Si la commande accepte une direction et qu'un second mot est fourni :
-     *     - retourne Command(mot, direction) si la direction est valide,
-     *     - retourne Command(mot, "invalid") si la direction est invalide.
+     *     - retourne Command(mot, direction) avec le mot complet de la direction si elle est valide
+     *       (ou abrégée sans ambiguïté),
+     *     - retourne Command(mot, second mot tel que saisi) sinon : l'appelant le vérifie avec isDirection.
      * - Si aucun second mot n'est fourni, retourne Command(mot, null).
      *
      * @param pInputLine la ligne de commande saisie par l'utilisateur
@@ -36,36 +42,160 @@ public class Parser
      */
     public Command getCommand( final String pInputLine) 
     {
+        return this.getCommand( pInputLine, new Command( null, null ) );
+    } // getCommand()
 
-        StringTokenizer vTokenizer = new StringTokenizer( pInputLine );
-        
-        String vWord1;
-        String vWord2;
+    /**
+     * Analyse une ligne de commande en remplissant un objet Command existant (voir getCommand(String)).
+     * Le premier mot est remplacé par la constante CommandWord correspondante ; pour une commande
+     * qui attend une direction, le second mot est remplacé par le mot complet de la direction.
+     * Seul un autre second mot (un nom d'objet, ...) est copié dans une nouvelle chaîne.
+     *
+     * @param pInputLine la ligne de commande
+     * @param pCommand la commande à remplir
+     * @return pCommand, rempli avec la commande analysée
+     */
+    public Command getCommand( final CharSequence pInputLine, final Command pCommand )
+    {
+        int vLength = pInputLine.length();
+        int vStart1 = skipSpaces( pInputLine, 0, vLength );
+        int vEnd1 = skipWord( pInputLine, vStart1, vLength );
+        int vStart2 = skipSpaces( pInputLine, vEnd1, vLength );
+        int vEnd2 = skipWord( pInputLine, vStart2, vLength );
+        // On ignore le reste de la ligne saisie.
 
-        if ( vTokenizer.hasMoreTokens() )
-            vWord1 = vTokenizer.nextToken();      // on extrait le premier mot
-        else
-            vWord1 = null;
+        CommandWord vWord1 = this.aValidCommands.findCommand( pInputLine, vStart1, vEnd1 );
+        if ( vWord1 == null ) {
+            pCommand.set( null, null ); // commande inconnue
+            return pCommand;
+        }
+        String vWord2 = null;
+        if ( vStart2 < vEnd2 ) {
+            Direction vDirection = vWord1.takesDirection()
+                ? this.aValidCommands.findDirection( pInputLine, vStart2, vEnd2 ) : null;
+            if ( vDirection != null ) {
+                vWord2 = vDirection.getWord();
+            }
+            else {
+                vWord2 = pInputLine.subSequence( vStart2, vEnd2 ).toString();
+            }
+        }
+        pCommand.set( vWord1, vWord2 );
+        return pCommand;
+    } // getCommand(*,*)
 
-        if ( vTokenizer.hasMoreTokens() )
-            vWord2 = vTokenizer.nextToken();      // on extrait le deuxième mot
-        else
-            vWord2 = null;
-        // On ignore le reste de la ligne saisie.
+    /**
+     * Analyse une ligne de commande encodée en UTF-8, entre la position et la limite d'un tampon,
+     * en remplissant un objet Command existant. La position du tampon n'est pas modifiée.
+     *
+     * @param pInput le tampon contenant la ligne de commande
+     * @param pCommand la commande à remplir
+     * @return pCommand, rempli avec la commande analysée
+     */
+    public Command getCommand( final ByteBuffer pInput, final Command pCommand )
+    {
+        int vLimit = pInput.limit();
+        int vStart1 = skipSpaces( pInput, pInput.position(), vLimit );
+        int vEnd1 = skipWord( pInput, vStart1, vLimit );
+        int vStart2 = skipSpaces( pInput, vEnd1, vLimit );
+        int vEnd2 = skipWord( pInput, vStart2, vLimit );
 
-        // Verifie si le premier mot est une commande connue.
-        // Si non, cree une commande vide avec "null" (pour dire 'commande inconnue').
-        // Si oui, cree une commande avec le deuxieme mot qui sera soit :
-        // - null si pas de deuxieme mot
-        // - un String contenant la direction si la direction est valide
-        // - un String "invalid" si la direction est invalide
-        if ( this.aValidCommands.isCommand( vWord1 ) ) {
-            return new Command( vWord1, vWord2 );
-        } 
-        else {
-            return new Command( null, null ); 
+        CommandWord vWord1 = this.aValidCommands.findCommand( pInput, vStart1, vEnd1 );
+        if ( vWord1 == null ) {
+            pCommand.set( null, null );
+            return pCommand;
         }
-    } // getCommand()
+        String vWord2 = null;
+        if ( vStart2 < vEnd2 ) {
+            Direction vDirection = vWord1.takesDirection()
+                ? this.aValidCommands.findDirection( pInput, vStart2, vEnd2 ) : null;
+            if ( vDirection != null ) {
+                vWord2 = vDirection.getWord();
+            }
+            else {
+                byte[] vBytes = new byte[ vEnd2 - vStart2 ];
+                pInput.get( vStart2, vBytes );
+                vWord2 = new String( vBytes, StandardCharsets.UTF_8 );
+            }
+        }
+        pCommand.set( vWord1, vWord2 );
+        return pCommand;
+    } // getCommand(*,*)
+
+    /**
+     * Indique si un caractère sépare deux mots (mêmes séparateurs que StringTokenizer).
+     *
+     * @param pChar le caractère à tester
+     * @return true si c'est un séparateur, false sinon
+     */
+    private static boolean isSpace( final int pChar )
+    {
+        return pChar == ' ' || pChar == '\t' || pChar == '\n' || pChar == '\r' || pChar == '\f';
+    } // isSpace(*)
+
+    /**
+     * Renvoie la position du premier caractère qui n'est pas un séparateur.
+     *
+     * @param pText le texte
+     * @param pFrom la position de départ
+     * @param pEnd la fin du texte
+     * @return la position trouvée (pEnd s'il n'y en a pas)
+     */
+    private static int skipSpaces( final CharSequence pText, final int pFrom, final int pEnd )
+    {
+        int vI = pFrom;
+        while ( vI < pEnd && isSpace( pText.charAt( vI ) ) )
+            vI++;
+        return vI;
+    } // skipSpaces(*,*,*)
+
+    /**
+     * Renvoie la position du premier séparateur.
+     *
+     * @param pText le texte
+     * @param pFrom la position de départ
+     * @param pEnd la fin du texte
+     * @return la position trouvée (pEnd s'il n'y en a pas)
+     */
+    private static int skipWord( final CharSequence pText, final int pFrom, final int pEnd )
+    {
+        int vI = pFrom;
+        while ( vI < pEnd && ! isSpace( pText.charAt( vI ) ) )
+            vI++;
+        return vI;
+    } // skipWord(*,*,*)
+
+    /**
+     * Renvoie la position du premier octet qui n'est pas un séparateur.
+     *
+     * @param pBuffer le tampon
+     * @param pFrom la position de départ
+     * @param pEnd la fin des données
+     * @return la position trouvée (pEnd s'il n'y en a pas)
+     */
+    private static int skipSpaces( final ByteBuffer pBuffer, final int pFrom, final int pEnd )
+    {
+        int vI = pFrom;
+        while ( vI < pEnd && isSpace( pBuffer.get( vI ) ) )
+            vI++;
+        return vI;
+    } // skipSpaces(*,*,*)
+
+    /**
+     * Renvoie la position du premier octet séparateur.
+     *
+     * @param pBuffer le tampon
+     * @param pFrom la position de départ
+     * @param pEnd la fin des données
+     * @return la position trouvée (pEnd s'il n'y en a pas)
+     */
+    private static int skipWord( final ByteBuffer pBuffer, final int pFrom, final int pEnd )
+    {
+        int vI = pFrom;
+        while ( vI < pEnd && ! isSpace( pBuffer.get( vI ) ) )
+            vI++;
+        return vI;
+    } // skipWord(*,*,*)
 
     /**
      * Renvoie une chaîne de caractères contenant toutes les commandes valides.
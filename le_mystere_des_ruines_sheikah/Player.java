@@ -1,3 +1,6 @@
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Stack;
 
 /**
@@ -24,26 +27,33 @@ public class Player
     /** Le poids maximum que le joueur peut porter en kilogrammes. */
     private double aInventoryCapacity;
 
-    /** Le poids total actuel des objets portés par le joueur en kilogrammes. */
-    private double aInventoryWeight;
-
     /**
      * Crée un nouveau joueur en demandant son nom via une boîte de dialogue.
      * Si aucun nom n'est fourni, le nom par défaut est utilisé.
      */
     public Player()
     {
-        String vPlayerName = javax.swing.JOptionPane.showInputDialog( "Quel est votre prénom ?" );
-        if ( vPlayerName == null || vPlayerName.trim().isEmpty() ) {
+        this( javax.swing.JOptionPane.showInputDialog( "Quel est votre prénom ?" ) );
+    } // Player
+
+    /**
+     * Crée un nouveau joueur avec un nom donné, sans aucune boîte de dialogue.
+     * Utilisé par les parties sans affichage (headless).
+     * Si aucun nom n'est fourni, le nom par défaut est utilisé.
+     *
+     * @param pName le nom du joueur (peut être null ou vide)
+     */
+    public Player( final String pName )
+    {
+        if ( pName == null || pName.trim().isEmpty() ) {
             this.aName = "Link";
         } else {
-            this.aName = vPlayerName;
+            this.aName = pName;
         }
         this.aPreviousRooms = new Stack<>();
         this.aInventory = new ItemList();
         this.aInventoryCapacity = 10.0;
-        this.aInventoryWeight = 0.0;
-    } // Player
+    } // Player(*)
 
     /**
      * Renvoie le nom du joueur.
@@ -105,13 +115,12 @@ public class Player
 
     /**
      * Ajoute un objet à l'inventaire du joueur.
-     * Le poids de l'objet est automatiquement ajouté au poids total porté.
+     * Le poids de l'objet est automatiquement ajouté au poids total porté (tenu par l'inventaire).
      *
      * @param pItem l'objet à ajouter à l'inventaire
      */
     public void addItem( final Item pItem )
     {
-        this.aInventoryWeight += pItem.getWeight();
         this.aInventory.add( pItem );
     } // addItem
 
@@ -123,7 +132,6 @@ public class Player
      */
     public void removeItem( final String pItemName )
     {
-        this.aInventoryWeight -= this.aInventory.get( pItemName ).getWeight();
         this.aInventory.remove( pItemName );
     } // removeItem
 
@@ -166,7 +174,7 @@ public class Player
      */
     public double getInventoryWeight() 
     {
-        return this.aInventoryWeight;
+        return this.aInventory.getTotalWeight();
     } // getInventoryWeight
 
     /**
@@ -187,6 +195,47 @@ public class Player
         this.aInventoryCapacity *= 2;
     } // doubleInventoryCapacity
 
+    /**
+     * Renvoie l'historique des salles visitées, de la plus ancienne à la plus récente.
+     *
+     * @return l'historique (non modifiable)
+     */
+    public List<Room> getHistory()
+    {
+        return Collections.unmodifiableList( this.aPreviousRooms );
+    } // getHistory
+
+    /**
+     * Renvoie les objets de l'inventaire du joueur.
+     *
+     * @return les objets portés (non modifiables)
+     */
+    public Collection<Item> getInventoryItems()
+    {
+        return this.aInventory.getItems();
+    } // getInventoryItems
+
+    /**
+     * Remet le joueur dans un état sauvegardé : salle courante, historique, inventaire et capacité.
+     * Le poids porté est recalculé à partir de l'inventaire.
+     *
+     * @param pCurrentRoom la salle courante
+     * @param pHistory l'historique des salles visitées, de la plus ancienne à la plus récente
+     * @param pInventory les objets portés
+     * @param pCapacity la capacité maximale de l'inventaire en kilogrammes
+     */
+    public void restore( final Room pCurrentRoom, final List<Room> pHistory, final List<Item> pInventory, final double pCapacity )
+    {
+        this.aCurrentRoom = pCurrentRoom;
+        this.aPreviousRooms.clear();
+        this.aPreviousRooms.addAll( pHistory );
+        this.aInventory = new ItemList();
+        for ( Item vItem : pInventory ) {
+            this.addItem( vItem );
+        }
+        this.aInventoryCapacity = pCapacity;
+    } // restore
+
     /**
      * Vide l'historique des salles visitées.
      * Cette méthode est appelée lorsqu'un déplacement irréversible est effectué (Trap Door).
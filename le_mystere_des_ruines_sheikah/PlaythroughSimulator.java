@@ -0,0 +1,430 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Classe PlaythroughSimulator - joue un très grand nombre de parties au hasard du jeu
+ * "le mystère des ruines Sheikah" pour mesurer le comportement du jeu sur des données réelles :
+ * où mènent les salles de téléportation aléatoire, combien de parties finissent en Game Over,
+ * et en combien de déplacements on trouve le Pyrotaris.
+ * Chaque partie est jouée par un moteur sans affichage (NullOutput). Les parties sont réparties
+ * sur tous les cœurs par un ForkJoinPool ; chaque morceau du travail a son propre SplittableRandom,
+ * obtenu par split() depuis la graine de départ, si bien qu'une même graine redonne exactement
+ * les mêmes résultats quel que soit le nombre de threads. Chaque morceau compte dans ses propres
+ * tableaux puis ajoute ses totaux à des compteurs LongAdder, sans verrou partagé.
+ *
+ * Deux façons de jouer :
+ *   hasard  : à chaque tour, une commande possible tirée au sort (aller, retour, prendre, poser, ...)
+ *   prudent : ramasse les objets utiles, boit la fiole, ouvre les portes dont il a la clé,
+ *             et sinon part dans une direction tirée au sort
+ *
+ * Lancement : java PlaythroughSimulator [--parties n] [--politique hasard|prudent] [--graine g]
+ *
+ * @author  Benoît de Keyn
+ * @version 2026.02.04
+ */
+public class PlaythroughSimulator
+{
+    /** Nombre de parties jouées par un morceau de travail avant de l'ajouter aux compteurs. */
+    private static final int BATCH_SIZE = 256;
+
+    /** Nombre maximum de commandes d'une partie, en multiple de la limite de déplacements (évite les parties sans fin). */
+    private static final int COMMANDS_PER_MOVE = 10;
+
+    /** La sortie partagée par tous les moteurs (elle ne garde rien). */
+    private static final NullOutput NULL_OUTPUT = new NullOutput();
+
+    /** Les comptes d'un morceau de travail, ajoutés aux compteurs partagés à la fin du morceau. */
+    private static class Counts
+    {
+        /** Nombre de parties gagnées, puis perdues par Game Over, puis abandonnées. */
+        private long aWins;
+        private long aGameOvers;
+        private long aAbandoned;
+
+        /** Nombre de commandes jouées. */
+        private long aCommands;
+
+        /** Nombre de parties gagnées en n déplacements. */
+        private final long[] aWinMoves;
+
+        /** Nombre d'arrivées dans chaque salle en sortant d'une salle de téléportation aléatoire. */
+        private final long[] aDestinations;
+
+        /**
+         * Crée des comptes à zéro.
+         *
+         * @param pMaxMoves la limite de déplacements
+         * @param pRoomCount le nombre de salles
+         */
+        private Counts( final int pMaxMoves, final int pRoomCount )
+        {
+            this.aWinMoves = new long[ pMaxMoves + 1 ];
+            this.aDestinations = new long[ pRoomCount ];
+        } // Counts(*,*)
+    } // Counts
+
+    /** Un morceau de travail : un nombre de parties et son propre générateur aléatoire. */
+    private class Batch extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        /** Le nombre de parties à jouer. */
+        private final long aCount;
+
+        /** Le générateur de ce morceau (il n'est jamais partagé entre deux threads). */
+        private final SplittableRandom aRandom;
+
+        /**
+         * Crée un morceau de travail.
+         *
+         * @param pCount le nombre de parties à jouer
+         * @param pRandom le générateur de ce morceau
+         */
+        private Batch( final long pCount, final SplittableRandom pRandom )
+        {
+            this.aCount = pCount;
+            this.aRandom = pRandom;
+        } // Batch(*,*)
+
+        @Override protected void compute()
+        {
+            if ( this.aCount > BATCH_SIZE ) {
+                long vHalf = this.aCount / 2;
+                SplittableRandom vLeft = this.aRandom.split(); // avant de partager le travail
+                invokeAll( new Batch( vHalf, vLeft ), new Batch( this.aCount - vHalf, this.aRandom ) );
+                return;
+            }
+            Counts vCounts = new Counts( PlaythroughSimulator.this.aMaxMoves, PlaythroughSimulator.this.aWorld.getRoomCount() );
+            for ( long vI = 0; vI < this.aCount; vI++ ) {
+                PlaythroughSimulator.this.playOnce( this.aRandom, vCounts );
+            }
+            PlaythroughSimulator.this.add( vCounts );
+        } // compute()
+    } // Batch
+
+    /** Le monde des parties. */
+    private final World aWorld;
+
+    /** true pour jouer "prudent", false pour jouer au hasard. */
+    private final boolean aCareful;
+
+    /** La limite de déplacements du moteur (Game Over). */
+    private final int aMaxMoves;
+
+    /** Les objets utiles que le joueur prudent ramasse (objet à trouver, téléporteur, fiole, clés). */
+    private final List<Item> aUsefulItems;
+
+    /** Nombre de parties gagnées. */
+    private final LongAdder aWins;
+
+    /** Nombre de parties perdues par Game Over (limite de déplacements atteinte). */
+    private final LongAdder aGameOvers;
+
+    /** Nombre de parties arrêtées après trop de commandes sans fin de partie. */
+    private final LongAdder aAbandoned;
+
+    /** Nombre total de commandes jouées. */
+    private final LongAdder aCommands;
+
+    /** Nombre de parties gagnées en n déplacements (indice n). */
+    private final LongAdder[] aWinMoves;
+
+    /** Nombre d'arrivées dans chaque salle (indice : numéro de salle) en sortant d'une salle de téléportation aléatoire. */
+    private final LongAdder[] aDestinations;
+
+    /**
+     * Prépare une simulation.
+     *
+     * @param pWorld le monde des parties
+     * @param pCareful true pour jouer "prudent", false pour jouer au hasard
+     */
+    public PlaythroughSimulator( final World pWorld, final boolean pCareful )
+    {
+        this.aWorld = pWorld;
+        this.aCareful = pCareful;
+        this.aMaxMoves = new GameEngine( pWorld ).getMaxMoves();
+        this.aUsefulItems = new ArrayList<Item>();
+        for ( String vName : new String[] { GameSolver.GOAL_ITEM, GameSolver.BEAMER_ITEM, GameSolver.POTION_ITEM } ) {
+            if ( pWorld.getItem( vName ) != null ) {
+                this.aUsefulItems.add( pWorld.getItem( vName ) );
+            }
+        }
+        for ( int vD = 0; vD < pWorld.getDoorCount(); vD++ ) {
+            if ( ! this.aUsefulItems.contains( pWorld.getDoor( vD ).getKey() ) ) {
+                this.aUsefulItems.add( pWorld.getDoor( vD ).getKey() );
+            }
+        }
+        this.aWins = new LongAdder();
+        this.aGameOvers = new LongAdder();
+        this.aAbandoned = new LongAdder();
+        this.aCommands = new LongAdder();
+        this.aWinMoves = newAdders( this.aMaxMoves + 1 );
+        this.aDestinations = newAdders( pWorld.getRoomCount() );
+    } // PlaythroughSimulator(*,*)
+
+    /**
+     * Lance une simulation et affiche ses résultats.
+     *
+     * @param pArgs les options (voir la description de la classe)
+     */
+    public static void main( final String[] pArgs )
+    {
+        long vCount = 100_000;
+        boolean vCareful = true;
+        long vSeed = 0L;
+        for ( int vI = 0; vI + 1 < pArgs.length; vI += 2 ) {
+            switch ( pArgs[vI] ) {
+                case "--parties"   -> vCount = Long.parseLong( pArgs[ vI + 1 ] );
+                case "--politique" -> vCareful = ! pArgs[ vI + 1 ].equals( "hasard" );
+                case "--graine"    -> vSeed = Long.parseLong( pArgs[ vI + 1 ] );
+                default            -> throw new IllegalArgumentException( "Option inconnue : " + pArgs[vI] );
+            }
+        }
+        PlaythroughSimulator vSimulator = new PlaythroughSimulator( World.getDefault(), vCareful );
+        long vStart = System.nanoTime();
+        vSimulator.run( vCount, vSeed );
+        long vNanos = System.nanoTime() - vStart;
+        System.out.printf( "%d parties (%s, graine %d) en %.2f s sur %d threads : %.0f parties/s, %.0f commandes/s%n",
+            vCount, vCareful ? "prudent" : "hasard", vSeed, vNanos / 1e9, ForkJoinPool.getCommonPoolParallelism(),
+            vCount * 1e9 / vNanos, vSimulator.aCommands.sum() * 1e9 / vNanos );
+        System.out.print( vSimulator.getReport() );
+    } // main(*)
+
+    /**
+     * Joue des parties en parallèle et ajoute leurs résultats aux compteurs.
+     *
+     * @param pCount le nombre de parties
+     * @param pSeed la graine de départ (mêmes graine et nombre de parties : mêmes résultats)
+     */
+    public void run( final long pCount, final long pSeed )
+    {
+        ForkJoinPool.commonPool().invoke( new Batch( pCount, new SplittableRandom( pSeed ) ) );
+    } // run(*,*)
+
+    /**
+     * Renvoie le bilan des parties jouées : fins de partie, déplacements jusqu'au Pyrotaris,
+     * taux de victoire selon la limite de déplacements et destinations des téléportations aléatoires.
+     *
+     * @return le bilan, sur plusieurs lignes
+     */
+    public String getReport()
+    {
+        long vWins = this.aWins.sum();
+        long vTotal = vWins + this.aGameOvers.sum() + this.aAbandoned.sum();
+        StringBuilder vReport = new StringBuilder();
+        vReport.append( String.format( "victoires : %d (%.2f %%)%n", vWins, percent( vWins, vTotal ) ) );
+        vReport.append( String.format( "Game Over à %d déplacements : %d (%.2f %%)%n",
+            this.aMaxMoves, this.aGameOvers.sum(), percent( this.aGameOvers.sum(), vTotal ) ) );
+        vReport.append( String.format( "abandonnées après %d commandes : %d (%.2f %%)%n",
+            this.aMaxMoves * COMMANDS_PER_MOVE, this.aAbandoned.sum(), percent( this.aAbandoned.sum(), vTotal ) ) );
+
+        if ( vWins > 0 ) {
+            long vSum = 0;
+            long vSeen = 0;
+            int vMedian = -1;
+            int vNinetieth = -1;
+            for ( int vMoves = 0; vMoves <= this.aMaxMoves; vMoves++ ) {
+                long vCount = this.aWinMoves[vMoves].sum();
+                vSum += vCount * vMoves;
+                vSeen += vCount;
+                if ( vMedian < 0 && vSeen * 2 >= vWins ) {
+                    vMedian = vMoves;
+                }
+                if ( vNinetieth < 0 && vSeen * 10 >= vWins * 9 ) {
+                    vNinetieth = vMoves;
+                }
+            }
+            vReport.append( String.format( "déplacements jusqu'au Pyrotaris : moyenne %.1f, médiane %d, 90 %% en %d ou moins%n",
+                (double) vSum / vWins, vMedian, vNinetieth ) );
+            vReport.append( "parties gagnées si la limite était de :\n" );
+            long vCumulative = 0;
+            for ( int vMoves = 0; vMoves <= this.aMaxMoves; vMoves++ ) {
+                vCumulative += this.aWinMoves[vMoves].sum();
+                if ( vMoves > 0 && vMoves % 10 == 0 ) {
+                    vReport.append( String.format( "  %3d déplacements : %.2f %%%n", vMoves, percent( vCumulative, vTotal ) ) );
+                }
+            }
+        }
+
+        long vTransports = 0;
+        int vEligible = 0;
+        for ( Room vRoom : this.aWorld.getRoomList() ) {
+            vTransports += this.aDestinations[ vRoom.getId() ].sum();
+            if ( ! ( vRoom instanceof TransporterRoom ) ) {
+                vEligible++;
+            }
+        }
+        vReport.append( String.format( "destinations des téléportations aléatoires (%d, attendu %.2f %% par salle) :%n",
+            vTransports, percent( 1, vEligible ) ) );
+        for ( Room vRoom : this.aWorld.getRoomList() ) {
+            long vCount = this.aDestinations[ vRoom.getId() ].sum();
+            if ( vCount > 0 ) {
+                vReport.append( String.format( "  %-24s %10d  %6.2f %%%n",
+                    this.aWorld.getRoomName( vRoom ), vCount, percent( vCount, vTransports ) ) );
+            }
+        }
+        return vReport.toString();
+    } // getReport()
+
+    /**
+     * Joue une partie complète et la compte.
+     *
+     * @param pRandom le générateur du morceau de travail
+     * @param pCounts les comptes du morceau de travail
+     */
+    private void playOnce( final SplittableRandom pRandom, final Counts pCounts )
+    {
+        GameEngine vEngine = new GameEngine( this.aWorld );
+        vEngine.setRandomSeed( pRandom.nextLong() );
+        Player vPlayer = new Player( "Simulateur" );
+        vEngine.setPlayer( vPlayer );
+        vEngine.setGUI( NULL_OUTPUT );
+        WorldState vState = vEngine.getWorldState();
+        List<String> vChoices = new ArrayList<String>();
+
+        int vMaxCommands = this.aMaxMoves * COMMANDS_PER_MOVE;
+        for ( int vI = 0; vI < vMaxCommands && ! vEngine.isGameOver(); vI++ ) {
+            Room vRoom = vPlayer.getCurrentRoom();
+            String vCommand = this.aCareful
+                ? this.carefulCommand( vPlayer, vState, pRandom )
+                : this.randomCommand( vPlayer, vState, pRandom, vChoices );
+            vEngine.interpretCommand( vCommand );
+            pCounts.aCommands++;
+            if ( vRoom instanceof TransporterRoom && vCommand.startsWith( "aller " ) && vPlayer.getCurrentRoom() != vRoom ) {
+                pCounts.aDestinations[ vPlayer.getCurrentRoom().getId() ]++;
+            }
+        }
+
+        if ( vEngine.isWon() ) {
+            pCounts.aWins++;
+            pCounts.aWinMoves[ vEngine.getMovesCount() ]++;
+        }
+        else if ( vEngine.isGameOver() ) {
+            pCounts.aGameOvers++;
+        }
+        else {
+            pCounts.aAbandoned++;
+        }
+    } // playOnce(*,*)
+
+    /**
+     * Choisit la commande du joueur prudent : ramasser un objet utile, boire la fiole,
+     * ouvrir une porte dont il a la clé, sinon partir dans une direction tirée au sort.
+     *
+     * @param pPlayer le joueur
+     * @param pState l'état de la partie
+     * @param pRandom le générateur
+     * @return la commande à jouer
+     */
+    private String carefulCommand( final Player pPlayer, final WorldState pState, final SplittableRandom pRandom )
+    {
+        Room vRoom = pPlayer.getCurrentRoom();
+        for ( Item vItem : this.aUsefulItems ) {
+            if ( pState.getItem( vRoom, vItem.getName() ) != null
+                    && ( vItem.getName().equals( GameSolver.GOAL_ITEM )
+                         || pPlayer.getInventoryWeight() + vItem.getWeight() <= pPlayer.getInventoryCapacity() ) ) {
+                return "prendre " + vItem.getName();
+            }
+        }
+        if ( pPlayer.hasItem( GameSolver.POTION_ITEM ) ) {
+            return "ingérer " + GameSolver.POTION_ITEM;
+        }
+        List<String> vDirections = new ArrayList<String>( vRoom.getExitDirections() );
+        for ( String vDirection : vDirections ) {
+            Door vDoor = vRoom.getDoor( vDirection );
+            if ( vDoor != null && vDoor.isLocked( pState ) && pPlayer.hasItem( vDoor.getKey().getName() ) ) {
+                return "déverrouiller " + vDirection;
+            }
+        }
+        return "aller " + vDirections.get( pRandom.nextInt( vDirections.size() ) );
+    } // carefulCommand(*,*,*)
+
+    /**
+     * Tire au sort une commande parmi celles qui ont un sens dans la situation du joueur.
+     *
+     * @param pPlayer le joueur
+     * @param pState l'état de la partie
+     * @param pRandom le générateur
+     * @param pChoices une liste réutilisée pour les commandes possibles
+     * @return la commande à jouer
+     */
+    private String randomCommand( final Player pPlayer, final WorldState pState, final SplittableRandom pRandom, final List<String> pChoices )
+    {
+        Room vRoom = pPlayer.getCurrentRoom();
+        pChoices.clear();
+        for ( String vDirection : vRoom.getExitDirections() ) {
+            pChoices.add( "aller " + vDirection );
+            Door vDoor = vRoom.getDoor( vDirection );
+            if ( vDoor != null ) {
+                pChoices.add( ( vDoor.isLocked( pState ) ? "déverrouiller " : "verrouiller " ) + vDirection );
+            }
+        }
+        pChoices.add( "retour" );
+        for ( Item vItem : pState.getItems( vRoom ).getItems() ) {
+            pChoices.add( "prendre " + vItem.getName() );
+        }
+        for ( Item vItem : pPlayer.getInventoryItems() ) {
+            pChoices.add( "poser " + vItem.getName() );
+            pChoices.add( "ingérer " + vItem.getName() );
+        }
+        if ( pPlayer.hasItem( GameSolver.BEAMER_ITEM ) ) {
+            pChoices.add( "charger" );
+            pChoices.add( "déclencher" );
+        }
+        return pChoices.get( pRandom.nextInt( pChoices.size() ) );
+    } // randomCommand(*,*,*,*)
+
+    /**
+     * Ajoute les comptes d'un morceau de travail aux compteurs partagés.
+     *
+     * @param pCounts les comptes du morceau
+     */
+    private void add( final Counts pCounts )
+    {
+        this.aWins.add( pCounts.aWins );
+        this.aGameOvers.add( pCounts.aGameOvers );
+        this.aAbandoned.add( pCounts.aAbandoned );
+        this.aCommands.add( pCounts.aCommands );
+        for ( int vI = 0; vI < pCounts.aWinMoves.length; vI++ ) {
+            if ( pCounts.aWinMoves[vI] != 0 ) {
+                this.aWinMoves[vI].add( pCounts.aWinMoves[vI] );
+            }
+        }
+        for ( int vI = 0; vI < pCounts.aDestinations.length; vI++ ) {
+            if ( pCounts.aDestinations[vI] != 0 ) {
+                this.aDestinations[vI].add( pCounts.aDestinations[vI] );
+            }
+        }
+    } // add(*)
+
+    /**
+     * Crée un tableau de compteurs à zéro.
+     *
+     * @param pLength le nombre de compteurs
+     * @return les compteurs
+     */
+    private static LongAdder[] newAdders( final int pLength )
+    {
+        LongAdder[] vAdders = new LongAdder[ pLength ];
+        for ( int vI = 0; vI < pLength; vI++ ) {
+            vAdders[vI] = new LongAdder();
+        }
+        return vAdders;
+    } // newAdders(*)
+
+    /**
+     * Calcule un pourcentage.
+     *
+     * @param pPart la partie
+     * @param pTotal le total
+     * @return le pourcentage (0 si le total est nul)
+     */
+    private static double percent( final long pPart, final long pTotal )
+    {
+        return pTotal == 0 ? 0.0 : 100.0 * pPart / pTotal;
+    } // percent(*,*)
+} // PlaythroughSimulator
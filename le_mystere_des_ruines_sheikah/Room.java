@@ -1,28 +1,49 @@
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Classe Room - représente une salle ou un lieu dans le jeu "le mystère des ruines Sheikah".
  * Une salle peut contenir des objets et avoir des sorties vers d'autres salles.
+ * Les salles font partie du monde (World), partagé par toutes les parties : une fois le monde
+ * construit, une salle n'est plus modifiée. Les objets qu'elle contient au cours d'une partie,
+ * et l'état de ses portes, sont donnés par le WorldState de la partie.
+ * Quand le monde est figé, les sorties et les portes de toutes ses salles sont rangées dans
+ * le graphe du monde (RoomGraph) : la salle n'en garde alors que son numéro.
  *
  * @author  Benoît de Keyn
- * @version 2026.01.10
+ * @version 2026.02.04
  */
 public class Room
 {
+    /** Les directions, par numéro d'ordre. */
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /** Les mots des directions de sortie, pour chaque masque de directions (bit n : direction de numéro d'ordre n). */
+    private static final List<Set<String>> EXIT_WORDS = exitWords();
+
     /** La description textuelle de la salle. */
     private String aDescription;
     
-    /** Les sorties de la salle (direction -> salle voisine). */
-    private HashMap<String, Room> aExits;
+    /** Les sorties de la salle pendant la construction du monde (par numéro d'ordre de direction ; null ensuite). */
+    private Room[] aPendingExits;
     
-    /** Les portes de la salle (direction -> porte). */
-    private HashMap<String, Door> aDoors;
+    /** Les portes de la salle pendant la construction du monde (par numéro d'ordre de direction ; null ensuite). */
+    private Door[] aPendingDoors;
+
+    /** Le graphe du monde, qui range les sorties et les portes une fois le monde figé (null avant). */
+    private RoomGraph aGraph;
     
     /** Le nom du fichier image représentant la salle. */
     private String aImageName;
     
-    /** Les objets présents dans la salle (nom -> objet). */
+    /** Les objets présents dans la salle au lancement du jeu (nom -> objet). */
     private ItemList aItems;
+
+    /** Le numéro de la salle dans son monde (-1 tant qu'elle n'y a pas été ajoutée). */
+    private int aId;
     
     /**
      * Crée une nouvelle salle avec une description et une image associée.
@@ -33,12 +54,46 @@ public class Room
     public Room(final String pDescription, final String pImage )
     {
         this.aDescription = pDescription;
-        this.aExits = new HashMap<String, Room>();
-        this.aDoors = new HashMap<String, Door>();
+        this.aPendingExits = new Room[ DIRECTIONS.length ];
+        this.aPendingDoors = new Door[ DIRECTIONS.length ];
+        this.aGraph = null;
         this.aImageName = pImage;
         this.aItems = new ItemList();
+        this.aId = -1;
     } // constructeur
 
+    /**
+     * Renvoie le numéro de la salle dans son monde (dans l'ordre où les salles y ont été déclarées).
+     *
+     * @return le numéro de la salle, ou -1 si elle ne fait partie d'aucun monde
+     */
+    public int getId()
+    {
+        return this.aId;
+    } // getId()
+
+    /**
+     * Définit le numéro de la salle dans son monde (voir World).
+     *
+     * @param pId le numéro de la salle
+     */
+    void setId( final int pId )
+    {
+        this.aId = pId;
+    } // setId(*)
+
+    /**
+     * Range les sorties et les portes de la salle dans le graphe du monde figé (voir World.freeze).
+     *
+     * @param pGraph le graphe du monde, qui contient déjà les sorties de cette salle
+     */
+    void setGraph( final RoomGraph pGraph )
+    {
+        this.aGraph = pGraph;
+        this.aPendingExits = null;
+        this.aPendingDoors = null;
+    } // setGraph(*)
+
     /**
      * Renvoie la description textuelle de la salle.
      *
@@ -57,7 +112,8 @@ public class Room
      */
     private void setExit(final String pDirection, final Room pNeighbor)
     {
-        this.aExits.put(pDirection, pNeighbor);
+        this.checkNotFrozen();
+        this.aPendingExits[ direction( pDirection ).ordinal() ] = pNeighbor;
     } // setExit(*,*)
 
     /**
@@ -68,9 +124,63 @@ public class Room
      */
     public Room getExit(final String pDirection)
     {
-         return this.aExits.get(pDirection);
+        Direction vDirection = Direction.fromWord( pDirection );
+        return vDirection == null ? null : this.getExit( vDirection );
+    } // getExit(*)
+
+    /**
+     * Renvoie la salle à laquelle mène la sortie dans une direction.
+     *
+     * @param pDirection la direction demandée
+     * @return la Room voisine pour cette direction, ou null si aucune sortie dans cette direction
+     */
+    public Room getExit( final Direction pDirection )
+    {
+        if ( this.aGraph == null ) {
+            return this.aPendingExits[ pDirection.ordinal() ];
+        }
+        int vEdge = this.aGraph.getEdge( this.aId, pDirection );
+        return vEdge < 0 ? null : this.aGraph.getRoom( this.aGraph.getTo( vEdge ) );
     } // getExit(*)
 
+    /**
+     * Renvoie la salle à laquelle mène la sortie donnée dans une partie.
+     * Une salle ordinaire mène toujours au même endroit ; une TransporterRoom tire sa destination au sort.
+     *
+     * @param pDirection la direction demandée
+     * @param pState l'état de la partie
+     * @return la Room voisine pour cette direction, ou null si aucune sortie dans cette direction
+     */
+    public Room getExit( final String pDirection, final WorldState pState )
+    {
+        Direction vDirection = Direction.fromWord( pDirection );
+        return vDirection == null ? null : this.getExit( vDirection, pState );
+    } // getExit(*,*)
+
+    /**
+     * Renvoie la salle à laquelle mène la sortie dans une direction, dans une partie.
+     * Une salle ordinaire mène toujours au même endroit ; une TransporterRoom tire sa destination au sort.
+     *
+     * @param pDirection la direction demandée
+     * @param pState l'état de la partie
+     * @return la Room voisine pour cette direction, ou null si aucune sortie dans cette direction
+     */
+    public Room getExit( final Direction pDirection, final WorldState pState )
+    {
+        return this.getExit( pDirection );
+    } // getExit(*,*)
+
+    /**
+     * Renvoie les directions dans lesquelles cette salle a une sortie, dans l'ordre des directions
+     * (nord, est, sud, ouest, haut, bas).
+     *
+     * @return l'ensemble (non modifiable) des directions de sortie
+     */
+    public Set<String> getExitDirections()
+    {
+        return EXIT_WORDS.get( this.getExitMask() );
+    } // getExitDirections()
+
     /**
      * Définit une porte dans une direction donnée.
      *
@@ -79,7 +189,8 @@ public class Room
      */
     public void setDoor(final String pDirection, final Door pDoor)
     {
-        this.aDoors.put(pDirection, pDoor);
+        this.checkNotFrozen();
+        this.aPendingDoors[ direction( pDirection ).ordinal() ] = pDoor;
     } // setDoor(*,*)
 
     /**
@@ -90,24 +201,45 @@ public class Room
      */
     public Door getDoor(final String pDirection)
     {
-        return this.aDoors.get(pDirection);
+        Direction vDirection = Direction.fromWord( pDirection );
+        return vDirection == null ? null : this.getDoor( vDirection );
+    } // getDoor(*)
+
+    /**
+     * Renvoie la porte dans une direction donnée.
+     *
+     * @param pDirection la direction demandée
+     * @return la Door pour cette direction, ou null s'il n'y a pas de porte
+     */
+    public Door getDoor( final Direction pDirection )
+    {
+        if ( this.aGraph == null ) {
+            return this.aPendingExits[ pDirection.ordinal() ] == null ? null : this.aPendingDoors[ pDirection.ordinal() ];
+        }
+        int vEdge = this.aGraph.getEdge( this.aId, pDirection );
+        return vEdge < 0 ? null : this.aGraph.getDoor( vEdge );
     } // getDoor(*)
 
     /**
      * Construit une chaîne de caractères listant les sorties disponibles depuis cette salle.
      *
+     * @param pState l'état de la partie (pour l'état des portes)
      * @return une chaîne de caractères contenant les directions possibles
      */
-    public String getExitString() 
+    public String getExitString( final WorldState pState )
     {
         StringBuilder vExitString = new StringBuilder("Les directions possibles sont :");
-        for ( String vDirection : this.aExits.keySet() ) {
-            vExitString.append("\n -> ").append(vDirection);
+        int vMask = this.getExitMask();
+        for ( Direction vDirection : DIRECTIONS ) {
+            if ( ( vMask & 1 << vDirection.ordinal() ) == 0 ) {
+                continue;
+            }
+            vExitString.append("\n -> ").append(vDirection.getWord());
             
             // Afficher l'état de la porte si elle existe
-            Door vDoor = this.aDoors.get(vDirection);
+            Door vDoor = this.getDoor(vDirection);
             if ( vDoor != null) {
-                vExitString.append(" [porte ").append(vDoor.getStateDescription()).append("]");
+                vExitString.append(" [porte ").append(vDoor.getStateDescription(pState)).append("]");
             }
         }
         return vExitString.toString();
@@ -121,62 +253,86 @@ public class Room
      */
     public boolean hasExitTo( final Room pRoom )
     {
-        return this.aExits.containsValue( pRoom );
+        if ( this.aGraph == null ) {
+            for ( Room vExit : this.aPendingExits ) {
+                if ( vExit != null && vExit == pRoom ) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        for ( int vEdge = this.aGraph.getFirstEdge( this.aId ); vEdge < this.aGraph.getEndEdge( this.aId ); vEdge++ ) {
+            if ( this.aGraph.getTo( vEdge ) == pRoom.getId() ) {
+                return true;
+            }
+        }
+        return false;
     } // hasExitTo(*)
 
-
     /**
-     * Ajoute un objet dans la liste des objets présents dans cette salle.
+     * Vérifie qu'après être sorti dans une direction, on peut revenir dans cette salle
+     * (sinon la sortie était une trappe).
+     * Pour la sortie habituelle de cette direction, la réponse est lue dans le graphe du monde ;
+     * sinon (destination tirée au sort), on cherche une sortie de la salle d'arrivée vers celle-ci.
      *
-     * @param pItem l'objet à ajouter dans la salle
+     * @param pDirection la direction de la sortie empruntée
+     * @param pDestination la salle où la sortie a mené
+     * @return true si la salle d'arrivée a une sortie vers cette salle
      */
-    public void addItem( final Item pItem )
+    public boolean hasReturn( final Direction pDirection, final Room pDestination )
     {
-        this.aItems.add(pItem);
-    }
+        if ( this.aGraph != null ) {
+            int vEdge = this.aGraph.getEdge( this.aId, pDirection );
+            if ( vEdge >= 0 && this.aGraph.getTo( vEdge ) == pDestination.getId() ) {
+                return this.aGraph.hasReverse( vEdge );
+            }
+        }
+        return pDestination.hasExitTo( this );
+    } // hasReturn(*,*)
 
-    /**
-     * Retire un objet de la liste des objets présents dans cette salle.
-     * Si l'objet n'existe pas dans la salle, aucune action n'est effectuée.
-     *
-     * @param pItemName le nom de l'objet à retirer de la salle
-     */
-    public void removeItem( final String pItemName )
-    {
-        this.aItems.remove(pItemName);
-    } // removeItem
 
     /**
-     * Renvoie un objet de la liste des objets présents dans cette salle.
+     * Ajoute un objet dans la salle au lancement du jeu.
+     * Réservé à la construction du monde (voir World.placeItem) ; pendant une partie,
+     * les objets sont posés et ramassés dans le WorldState de la partie.
      *
-     * @param pItemName le nom de l'objet recherché dans la salle
-     * @return l'objet correspondant, ou null si l'objet n'est pas présent dans la salle
+     * @param pItem l'objet à ajouter dans la salle
      */
-    public Item getItem( final String pItemName )
+    void addItem( final Item pItem )
     {
-        return this.aItems.get(pItemName);
-    } // getItem
+        this.aItems.add(pItem);
+    }
 
     /**
-     * Renvoie une chaîne de caractères listant tous les objets présents dans cette salle.
+     * Renvoie les objets présents dans cette salle au lancement du jeu (à ne pas modifier).
      *
-     * @return une description textuelle des objets présents dans la salle
+     * @return la liste des objets de départ de la salle
      */
-    public String getItemsString() {
-        return this.aItems.getItemsString();
-    } // getItemsString
+    ItemList getInitialItems()
+    {
+        return this.aItems;
+    } // getInitialItems
 
     /**
-     * Renvoie une description complète de la salle.
+     * Renvoie une description complète de la salle dans une partie.
      * Inclut la description de la salle, les objets présents et les sorties disponibles.
+     * La partie garde le texte tant que les objets de la salle et les portes ne changent pas.
      *
+     * @param pState l'état de la partie
      * @return une description détaillée de la salle
      */
-    public String getLongDescription()
+    public String getLongDescription( final WorldState pState )
     {
-        // On ajoute getItemsString() à la description affichée
-        return "Vous êtes " + this.aDescription + ".\n" + "La pièce contient : " + this.getItemsString() + "\n" + this.getExitString();
-    } // getLongDescription
+        long vStart = Tracer.begin();
+        String vDescription = pState.getCachedDescription( this );
+        if ( vDescription == null ) {
+            // On ajoute getItemsString() à la description affichée
+            vDescription = "Vous êtes " + this.aDescription + ".\n" + "La pièce contient : " + pState.getItems( this ).getItemsString() + "\n" + this.getExitString( pState );
+            pState.cacheDescription( this, vDescription );
+        }
+        Tracer.end( Tracer.Span.DESCRIPTION, vStart, this.aDescription );
+        return vDescription;
+    } // getLongDescription(*)
 
     /**
      * Renvoie le nom du fichier image associé à la salle.
@@ -247,4 +403,69 @@ public class Room
         pRoom2.setDoor(pDirection2, vDoor);
     } // connectRooms(*,*,*,*,*)
 
+    /**
+     * Renvoie les directions dans lesquelles cette salle a une sortie.
+     *
+     * @return le masque des directions (bit n : direction de numéro d'ordre n)
+     */
+    private int getExitMask()
+    {
+        if ( this.aGraph != null ) {
+            return this.aGraph.getExitMask( this.aId );
+        }
+        int vMask = 0;
+        for ( int vD = 0; vD < this.aPendingExits.length; vD++ ) {
+            if ( this.aPendingExits[vD] != null ) {
+                vMask |= 1 << vD;
+            }
+        }
+        return vMask;
+    } // getExitMask()
+
+    /**
+     * Vérifie que les sorties de la salle peuvent encore être modifiées.
+     */
+    private void checkNotFrozen()
+    {
+        if ( this.aGraph != null ) {
+            throw new IllegalStateException( "Le monde est figé et partagé entre les parties." );
+        }
+    } // checkNotFrozen()
+
+    /**
+     * Renvoie la direction désignée par un mot, pour la construction du monde.
+     *
+     * @param pWord le mot de la direction
+     * @return la direction
+     * @throws IllegalArgumentException si le mot n'est pas une direction
+     */
+    private static Direction direction( final String pWord )
+    {
+        Direction vDirection = Direction.fromWord( pWord );
+        if ( vDirection == null ) {
+            throw new IllegalArgumentException( "direction inconnue '" + pWord + "'" );
+        }
+        return vDirection;
+    } // direction(*)
+
+    /**
+     * Calcule les mots des directions de sortie pour chacun des masques de directions possibles.
+     *
+     * @return les ensembles (non modifiables) de mots, par masque
+     */
+    private static List<Set<String>> exitWords()
+    {
+        List<Set<String>> vWords = new ArrayList<Set<String>>();
+        for ( int vMask = 0; vMask < 1 << DIRECTIONS.length; vMask++ ) {
+            Set<String> vSet = new LinkedHashSet<String>();
+            for ( Direction vDirection : DIRECTIONS ) {
+                if ( ( vMask & 1 << vDirection.ordinal() ) != 0 ) {
+                    vSet.add( vDirection.getWord() );
+                }
+            }
+            vWords.add( Collections.unmodifiableSet( vSet ) );
+        }
+        return vWords;
+    } // exitWords()
+
 } // Room
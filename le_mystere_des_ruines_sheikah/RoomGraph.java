@@ -0,0 +1,429 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Classe RoomGraph - les sorties de toutes les salles d'un monde du jeu "le mystère des ruines Sheikah",
+ * rangées dans quelques tableaux d'entiers.
+ * Calculé une fois quand le monde est figé, puis partagé par toutes les parties (il ne change jamais).
+ *
+ * Les sorties sont numérotées et rangées par salle de départ (numéro de salle), puis par direction
+ * (dans l'ordre de l'énumération Direction) : les sorties de la salle r sont les numéros
+ * aOutStart[r] à aOutStart[r+1] - 1. Pour chaque salle, un masque indique dans quelles directions
+ * elle a une sortie ; le numéro de la sortie dans une direction est donc aOutStart[r] plus le nombre
+ * de directions précédentes présentes dans le masque, sans aucune recherche.
+ * Un bit par sortie indique si la salle d'arrivée a une sortie qui revient à la salle de départ
+ * (sinon c'est une trappe : on ne peut pas revenir en arrière).
+ *
+ * Pour les itinéraires (RouteIndex), on retrouve aussi les sorties qui arrivent dans une salle
+ * et celles qui passent par une porte donnée. Les sorties d'une salle de téléportation aléatoire
+ * n'y figurent pas : elles ne mènent nulle part de sûr.
+ * Pour les descriptions (WorldState), on retrouve enfin les salles dont une sortie, quelle qu'elle soit,
+ * passe par une porte donnée : ce sont celles dont la description change quand la porte change.
+ *
+ * @author  Benoît de Keyn
+ * @version 2026.02.04
+ */
+public class RoomGraph
+{
+    /** Les directions, par numéro d'ordre. */
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /** Les salles, par numéro de salle. */
+    private final Room[] aRooms;
+
+    /** Les portes, par numéro de porte. */
+    private final Door[] aDoors;
+
+    /** Les sorties de la salle r sont les numéros aOutStart[r] à aOutStart[r+1] - 1. */
+    private final int[] aOutStart;
+
+    /** Les directions dans lesquelles chaque salle a une sortie (bit n : direction de numéro d'ordre n). */
+    private final byte[] aMask;
+
+    /** La salle de départ de chaque sortie. */
+    private final int[] aFrom;
+
+    /** La salle d'arrivée de chaque sortie. */
+    private final int[] aTo;
+
+    /** Le numéro de la porte de chaque sortie (-1 si aucune). */
+    private final int[] aDoor;
+
+    /** Le numéro d'ordre de la direction de chaque sortie. */
+    private final byte[] aDirection;
+
+    /** Un bit par sortie : la salle d'arrivée a une sortie qui revient à la salle de départ. */
+    private final long[] aReverse;
+
+    /** Les sorties sûres qui arrivent dans la salle r : aInEdges[ aInStart[r] ] à aInEdges[ aInStart[r+1] - 1 ]. */
+    private final int[] aInStart;
+
+    /** Les numéros des sorties sûres, rangés par salle d'arrivée. */
+    private final int[] aInEdges;
+
+    /** Les sorties sûres qui passent par la porte d : aDoorEdges[ aDoorStart[d] ] à aDoorEdges[ aDoorStart[d+1] - 1 ]. */
+    private final int[] aDoorStart;
+
+    /** Les numéros des sorties sûres, rangés par porte. */
+    private final int[] aDoorEdges;
+
+    /** Les salles dont une sortie passe par la porte d : aDoorRooms[ aDoorRoomStart[d] ] à aDoorRooms[ aDoorRoomStart[d+1] - 1 ]. */
+    private final int[] aDoorRoomStart;
+
+    /** Les numéros des salles de départ des sorties qui ont une porte, rangés par porte. */
+    private final int[] aDoorRooms;
+
+    /**
+     * Calcule le graphe des sorties d'un monde dont les portes sont déjà numérotées (voir World.freeze).
+     *
+     * @param pWorld le monde
+     */
+    RoomGraph( final World pWorld )
+    {
+        List<Room> vRooms = pWorld.getRoomList();
+        int vRoomCount = vRooms.size();
+        this.aRooms = vRooms.toArray( new Room[ vRoomCount ] );
+        this.aDoors = new Door[ pWorld.getDoorCount() ];
+        for ( int vD = 0; vD < this.aDoors.length; vD++ ) {
+            this.aDoors[vD] = pWorld.getDoor( vD );
+        }
+
+        this.aOutStart = new int[ vRoomCount + 1 ];
+        this.aMask = new byte[ vRoomCount ];
+        int vEdgeCount = 0;
+        for ( Room vRoom : this.aRooms ) {
+            int vMask = 0;
+            for ( Direction vDirection : DIRECTIONS ) {
+                if ( vRoom.getExit( vDirection ) != null ) {
+                    vMask |= 1 << vDirection.ordinal();
+                }
+            }
+            this.aMask[ vRoom.getId() ] = (byte) vMask;
+            vEdgeCount += Integer.bitCount( vMask );
+        }
+
+        this.aFrom = new int[ vEdgeCount ];
+        this.aTo = new int[ vEdgeCount ];
+        this.aDoor = new int[ vEdgeCount ];
+        this.aDirection = new byte[ vEdgeCount ];
+        int[] vSafe = new int[ vEdgeCount ]; // salle d'arrivée des sorties sûres, -1 pour les autres
+        int[] vSafeDoor = new int[ vEdgeCount ];
+        int vEdge = 0;
+        for ( Room vRoom : this.aRooms ) {
+            this.aOutStart[ vRoom.getId() ] = vEdge;
+            boolean vRandom = vRoom instanceof TransporterRoom;
+            for ( Direction vDirection : DIRECTIONS ) {
+                Room vTo = vRoom.getExit( vDirection );
+                if ( vTo == null ) {
+                    continue;
+                }
+                Door vDoor = vRoom.getDoor( vDirection );
+                this.aFrom[vEdge] = vRoom.getId();
+                this.aTo[vEdge] = vTo.getId();
+                this.aDoor[vEdge] = vDoor == null ? -1 : pWorld.getDoorId( vDoor );
+                this.aDirection[vEdge] = (byte) vDirection.ordinal();
+                vSafe[vEdge] = vRandom ? -1 : this.aTo[vEdge];
+                vSafeDoor[vEdge] = vRandom ? -1 : this.aDoor[vEdge];
+                vEdge++;
+            }
+        }
+        this.aOutStart[ vRoomCount ] = vEdge;
+
+        this.aReverse = new long[ ( vEdgeCount + 63 ) >>> 6 ];
+        for ( int vE = 0; vE < vEdgeCount; vE++ ) {
+            int vTo = this.aTo[vE];
+            for ( int vBack = this.aOutStart[vTo]; vBack < this.aOutStart[ vTo + 1 ]; vBack++ ) {
+                if ( this.aTo[vBack] == this.aFrom[vE] ) {
+                    this.aReverse[ vE >>> 6 ] |= 1L << vE;
+                    break;
+                }
+            }
+        }
+
+        this.aInStart = new int[ vRoomCount + 1 ];
+        this.aInEdges = groupBy( vSafe, vRoomCount, this.aInStart );
+        this.aDoorStart = new int[ this.aDoors.length + 1 ];
+        this.aDoorEdges = groupBy( vSafeDoor, this.aDoors.length, this.aDoorStart );
+        this.aDoorRoomStart = new int[ this.aDoors.length + 1 ];
+        this.aDoorRooms = groupBy( this.aDoor, this.aDoors.length, this.aDoorRoomStart );
+        for ( int vI = 0; vI < this.aDoorRooms.length; vI++ ) {
+            this.aDoorRooms[vI] = this.aFrom[ this.aDoorRooms[vI] ];
+        }
+    } // RoomGraph(*)
+
+    /**
+     * Renvoie le nombre de salles.
+     *
+     * @return le nombre de salles
+     */
+    public int getRoomCount()
+    {
+        return this.aRooms.length;
+    } // getRoomCount()
+
+    /**
+     * Renvoie le nombre de sorties de toutes les salles.
+     *
+     * @return le nombre de sorties
+     */
+    public int getEdgeCount()
+    {
+        return this.aTo.length;
+    } // getEdgeCount()
+
+    /**
+     * Renvoie une salle à partir de son numéro.
+     *
+     * @param pRoom le numéro de la salle
+     * @return la salle
+     */
+    public Room getRoom( final int pRoom )
+    {
+        return this.aRooms[pRoom];
+    } // getRoom(*)
+
+    /**
+     * Renvoie les directions dans lesquelles une salle a une sortie.
+     *
+     * @param pRoom le numéro de la salle
+     * @return le masque des directions (bit n : direction de numéro d'ordre n)
+     */
+    public int getExitMask( final int pRoom )
+    {
+        return this.aMask[pRoom];
+    } // getExitMask(*)
+
+    /**
+     * Renvoie le numéro de la sortie d'une salle dans une direction.
+     *
+     * @param pRoom le numéro de la salle
+     * @param pDirection la direction
+     * @return le numéro de la sortie, ou -1 si la salle n'a pas de sortie dans cette direction
+     */
+    public int getEdge( final int pRoom, final Direction pDirection )
+    {
+        int vBit = 1 << pDirection.ordinal();
+        int vMask = this.aMask[pRoom];
+        if ( ( vMask & vBit ) == 0 ) {
+            return -1;
+        }
+        return this.aOutStart[pRoom] + Integer.bitCount( vMask & ( vBit - 1 ) );
+    } // getEdge(*,*)
+
+    /**
+     * Renvoie le numéro de la première sortie d'une salle.
+     *
+     * @param pRoom le numéro de la salle
+     * @return le numéro de sa première sortie
+     */
+    public int getFirstEdge( final int pRoom )
+    {
+        return this.aOutStart[pRoom];
+    } // getFirstEdge(*)
+
+    /**
+     * Renvoie le numéro qui suit la dernière sortie d'une salle.
+     *
+     * @param pRoom le numéro de la salle
+     * @return le numéro de sa dernière sortie plus un
+     */
+    public int getEndEdge( final int pRoom )
+    {
+        return this.aOutStart[ pRoom + 1 ];
+    } // getEndEdge(*)
+
+    /**
+     * Renvoie la salle de départ d'une sortie.
+     *
+     * @param pEdge le numéro de la sortie
+     * @return le numéro de la salle de départ
+     */
+    public int getFrom( final int pEdge )
+    {
+        return this.aFrom[pEdge];
+    } // getFrom(*)
+
+    /**
+     * Renvoie la salle d'arrivée d'une sortie.
+     *
+     * @param pEdge le numéro de la sortie
+     * @return le numéro de la salle d'arrivée
+     */
+    public int getTo( final int pEdge )
+    {
+        return this.aTo[pEdge];
+    } // getTo(*)
+
+    /**
+     * Renvoie la direction d'une sortie.
+     *
+     * @param pEdge le numéro de la sortie
+     * @return la direction
+     */
+    public Direction getDirection( final int pEdge )
+    {
+        return DIRECTIONS[ this.aDirection[pEdge] ];
+    } // getDirection(*)
+
+    /**
+     * Renvoie le numéro de la porte d'une sortie.
+     *
+     * @param pEdge le numéro de la sortie
+     * @return le numéro de la porte, ou -1 si la sortie n'a pas de porte
+     */
+    public int getDoorId( final int pEdge )
+    {
+        return this.aDoor[pEdge];
+    } // getDoorId(*)
+
+    /**
+     * Renvoie la porte d'une sortie.
+     *
+     * @param pEdge le numéro de la sortie
+     * @return la porte, ou null si la sortie n'a pas de porte
+     */
+    public Door getDoor( final int pEdge )
+    {
+        int vDoor = this.aDoor[pEdge];
+        return vDoor < 0 ? null : this.aDoors[vDoor];
+    } // getDoor(*)
+
+    /**
+     * Indique si la salle d'arrivée d'une sortie a une sortie qui revient à la salle de départ.
+     *
+     * @param pEdge le numéro de la sortie
+     * @return true si on peut revenir, false si la sortie est une trappe
+     */
+    public boolean hasReverse( final int pEdge )
+    {
+        return ( this.aReverse[ pEdge >>> 6 ] & 1L << pEdge ) != 0;
+    } // hasReverse(*)
+
+    /**
+     * Renvoie le début des sorties sûres qui arrivent dans une salle (voir getInEdge).
+     *
+     * @param pRoom le numéro de la salle
+     * @return l'indice de la première de ces sorties
+     */
+    public int getInStart( final int pRoom )
+    {
+        return this.aInStart[pRoom];
+    } // getInStart(*)
+
+    /**
+     * Renvoie la fin des sorties sûres qui arrivent dans une salle (voir getInEdge).
+     *
+     * @param pRoom le numéro de la salle
+     * @return l'indice qui suit la dernière de ces sorties
+     */
+    public int getInEnd( final int pRoom )
+    {
+        return this.aInStart[ pRoom + 1 ];
+    } // getInEnd(*)
+
+    /**
+     * Renvoie une sortie sûre, rangée par salle d'arrivée.
+     *
+     * @param pIndex l'indice, entre getInStart(r) et getInEnd(r) - 1 pour les sorties qui arrivent dans r
+     * @return le numéro de la sortie
+     */
+    public int getInEdge( final int pIndex )
+    {
+        return this.aInEdges[pIndex];
+    } // getInEdge(*)
+
+    /**
+     * Renvoie le début des sorties sûres qui passent par une porte (voir getDoorEdge).
+     *
+     * @param pDoor le numéro de la porte
+     * @return l'indice de la première de ces sorties
+     */
+    public int getDoorStart( final int pDoor )
+    {
+        return this.aDoorStart[pDoor];
+    } // getDoorStart(*)
+
+    /**
+     * Renvoie la fin des sorties sûres qui passent par une porte (voir getDoorEdge).
+     *
+     * @param pDoor le numéro de la porte
+     * @return l'indice qui suit la dernière de ces sorties
+     */
+    public int getDoorEnd( final int pDoor )
+    {
+        return this.aDoorStart[ pDoor + 1 ];
+    } // getDoorEnd(*)
+
+    /**
+     * Renvoie une sortie sûre, rangée par porte.
+     *
+     * @param pIndex l'indice, entre getDoorStart(d) et getDoorEnd(d) - 1 pour les sorties qui passent par d
+     * @return le numéro de la sortie
+     */
+    public int getDoorEdge( final int pIndex )
+    {
+        return this.aDoorEdges[pIndex];
+    } // getDoorEdge(*)
+
+    /**
+     * Renvoie le début des salles dont une sortie passe par une porte (voir getDoorRoom).
+     *
+     * @param pDoor le numéro de la porte
+     * @return l'indice de la première de ces salles
+     */
+    public int getDoorRoomStart( final int pDoor )
+    {
+        return this.aDoorRoomStart[pDoor];
+    } // getDoorRoomStart(*)
+
+    /**
+     * Renvoie la fin des salles dont une sortie passe par une porte (voir getDoorRoom).
+     *
+     * @param pDoor le numéro de la porte
+     * @return l'indice qui suit la dernière de ces salles
+     */
+    public int getDoorRoomEnd( final int pDoor )
+    {
+        return this.aDoorRoomStart[ pDoor + 1 ];
+    } // getDoorRoomEnd(*)
+
+    /**
+     * Renvoie une salle dont une sortie passe par une porte, y compris une salle de téléportation aléatoire
+     * (une salle qui a deux sorties par la même porte y figure deux fois).
+     *
+     * @param pIndex l'indice, entre getDoorRoomStart(d) et getDoorRoomEnd(d) - 1 pour les salles de la porte d
+     * @return le numéro de la salle
+     */
+    public int getDoorRoom( final int pIndex )
+    {
+        return this.aDoorRooms[pIndex];
+    } // getDoorRoom(*)
+
+    /**
+     * Range les sorties selon une clé (tri par comptage) ; les clés négatives sont ignorées.
+     *
+     * @param pKeys la clé de chaque sortie
+     * @param pKeyCount le nombre de clés possibles
+     * @param pStart rempli avec le début des sorties de chaque clé (taille pKeyCount + 1)
+     * @return les numéros des sorties rangés par clé
+     */
+    private static int[] groupBy( final int[] pKeys, final int pKeyCount, final int[] pStart )
+    {
+        for ( int vKey : pKeys ) {
+            if ( vKey >= 0 ) {
+                pStart[ vKey + 1 ]++;
+            }
+        }
+        for ( int vK = 0; vK < pKeyCount; vK++ ) {
+            pStart[ vK + 1 ] += pStart[vK];
+        }
+        int[] vNext = Arrays.copyOf( pStart, pKeyCount );
+        int[] vEdges = new int[ pStart[ pKeyCount ] ];
+        for ( int vEdge = 0; vEdge < pKeys.length; vEdge++ ) {
+            if ( pKeys[vEdge] >= 0 ) {
+                vEdges[ vNext[ pKeys[vEdge] ]++ ] = vEdge;
+            }
+        }
+        return vEdges;
+    } // groupBy(*,*,*)
+} // RoomGraph
@@ -1,35 +1,71 @@
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * Classe RoomRandomizer - gère la sélection aléatoire d'une pièce.
  * Cette classe est utilisée pour obtenir une pièce au hasard parmi celles du jeu,
  * indépendamment de la structure de stockage (HashMap) utilisée par le moteur.
+ * Les pièces éligibles (toutes sauf les TransporterRoom) sont calculées une seule fois par le monde
+ * (World.getRandomRooms) et partagées par toutes les parties : chaque partie n'a que son générateur.
+ * Le générateur aléatoire peut être remplacé, par exemple par un SplittableRandom
+ * initialisé avec une graine pour rejouer exactement les mêmes tirages.
  *
  * @author  Benoît de Keyn
- * @version 2026.01.14
+ * @version 2026.01.26
  */
 public class RoomRandomizer
 {
-    /** La collection de toutes les salles du jeu (référence vers GameEngine). */
-    private HashMap<String, Room> aRooms;
+    /** Les salles parmi lesquelles tirer au sort (partagées avec le monde). */
+    private final List<Room> aEligibleRooms;
     
     /** Le générateur de nombres aléatoires. */
-    private Random aRandom;
+    private RandomGenerator aRandom;
 
     /**
      * Crée un nouveau générateur de pièces aléatoires.
      *
-     * @param pRooms la collection de toutes les salles du jeu
+     * @param pWorld le monde du jeu (figé)
      */
-    public RoomRandomizer( final HashMap<String, Room> pRooms )
+    public RoomRandomizer( final World pWorld )
     {
-        this.aRooms = pRooms;
-        this.aRandom = new Random();
+        this( pWorld, new Random() );
     } // Constructeur
 
+    /**
+     * Crée un nouveau générateur de pièces aléatoires utilisant un générateur donné.
+     *
+     * @param pWorld le monde du jeu (figé)
+     * @param pRandom le générateur de nombres aléatoires à utiliser
+     */
+    public RoomRandomizer( final World pWorld, final RandomGenerator pRandom )
+    {
+        this.aEligibleRooms = pWorld.getRandomRooms();
+        this.aRandom = pRandom;
+    } // Constructeur(*,*)
+
+    /**
+     * Remplace le générateur de nombres aléatoires.
+     *
+     * @param pRandom le nouveau générateur
+     */
+    public void setRandom( final RandomGenerator pRandom )
+    {
+        this.aRandom = pRandom;
+    } // setRandom(*)
+
+    /**
+     * Remplace le générateur par un SplittableRandom initialisé avec une graine :
+     * la suite des tirages devient reproductible.
+     *
+     * @param pSeed la graine
+     */
+    public void setSeed( final long pSeed )
+    {
+        this.aRandom = new SplittableRandom( pSeed );
+    } // setSeed(*)
+
     /**
      * Choisit et renvoie une pièce au hasard parmi toutes les salles connues.
      *
@@ -37,19 +73,8 @@ public class RoomRandomizer
      */
     public Room findRandomRoom()
     {
-        // Conversion des valeurs de la HashMap en une liste indexée pour le tirage au sort sauf les salles Transporter
-        List<Room> vRoomsList = new ArrayList<Room>();
-        for ( Room vRoom : this.aRooms.values() ) {
-            if ( ! ( vRoom instanceof TransporterRoom ) ) {
-                vRoomsList.add( vRoom );
-            }
-        }
-        
         // Tirage d'un index aléatoire
-        int vRandomIndex = this.aRandom.nextInt( vRoomsList.size() );
-        
-        // Retourne la salle correspondante
-        return vRoomsList.get( vRandomIndex );
+        return this.aEligibleRooms.get( this.aRandom.nextInt( this.aEligibleRooms.size() ) );
     } // findRandomRoom()
 
-} // RoomRandomizer
\ No newline at end of file
+} // RoomRandomizer
@@ -0,0 +1,525 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Classe RouteIndex - les plus courts itinéraires entre les salles d'une partie du jeu
+ * "le mystère des ruines Sheikah", pour la commande "itinéraire".
+ * Les passages à sens unique sont respectés, et les portes verrouillées dans la partie ne sont pas empruntées.
+ * Les sorties d'une salle de téléportation aléatoire ne mènent nulle part de sûr : elles sont ignorées.
+ *
+ * Une table complète de toutes les paires de salles prendrait trop de place sur un monde de plusieurs
+ * dizaines de milliers de salles. On calcule donc, pour une salle demandée comme destination,
+ * une table "distance jusqu'à la destination / sortie à prendre" pour toutes les salles,
+ * par un parcours en largeur à rebours depuis la destination. Un itinéraire se lit alors sortie par sortie,
+ * en un temps proportionnel à sa longueur.
+ * Une table ne dépend que de la destination et des portes verrouillées : les tables sont gardées
+ * par le monde (TableCache), pour toutes les parties, dans la limite d'un budget mémoire, et ne changent
+ * plus une fois gardées. Les parties dont les portes sont dans le même état (au début, toutes) partagent
+ * donc les mêmes tables ; une partie ne garde que l'état de ses portes et ses dernières destinations.
+ * Quand une porte change d'état, la table de chacune de ces destinations sert telle quelle si la porte
+ * ne la change pas ; sinon elle est recopiée puis corrigée : une porte ouverte ne peut que raccourcir
+ * des distances (propagation depuis la porte), une porte fermée ne change que les salles dont l'itinéraire
+ * passait par elle (elles seules sont recalculées).
+ * Les sorties sont lues dans le graphe du monde (RoomGraph), partagé par toutes les parties.
+ *
+ * @author  Benoît de Keyn
+ * @version 2026.02.04
+ */
+public class RouteIndex
+{
+    /** Le nombre de destinations dont une partie corrige les tables quand une porte change d'état. */
+    private static final int MAX_TARGETS = 8;
+
+    /** Distance d'une salle d'où la destination est inaccessible. */
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    /** La table des itinéraires vers une destination. */
+    private static class Table
+    {
+        /** Le nombre de sorties à prendre depuis chaque salle (UNREACHABLE si inaccessible). */
+        private final int[] aDist;
+
+        /** La sortie à prendre depuis chaque salle (-1 pour la destination et les salles inaccessibles). */
+        private final int[] aNext;
+
+        /**
+         * Crée une table vide.
+         *
+         * @param pRoomCount le nombre de salles
+         */
+        private Table( final int pRoomCount )
+        {
+            this.aDist = new int[ pRoomCount ];
+            this.aNext = new int[ pRoomCount ];
+            Arrays.fill( this.aDist, UNREACHABLE );
+            Arrays.fill( this.aNext, -1 );
+        } // Table(*)
+
+        /**
+         * Crée une copie d'une table, à corriger avant de la garder.
+         *
+         * @param pTable la table à recopier
+         */
+        private Table( final Table pTable )
+        {
+            this.aDist = pTable.aDist.clone();
+            this.aNext = pTable.aNext.clone();
+        } // Table(*)
+    } // Table
+
+    /** La clé d'une table : les portes verrouillées et la destination. */
+    private static class TableKey
+    {
+        /** Les portes verrouillées, un bit par numéro de porte (jamais modifié). */
+        private final long[] aLocks;
+
+        /** Le numéro de la salle de destination. */
+        private final int aTarget;
+
+        /**
+         * Crée une clé.
+         *
+         * @param pLocks les portes verrouillées (le tableau ne doit plus être modifié)
+         * @param pTarget le numéro de la salle de destination
+         */
+        private TableKey( final long[] pLocks, final int pTarget )
+        {
+            this.aLocks = pLocks;
+            this.aTarget = pTarget;
+        } // TableKey(*,*)
+
+        @Override public boolean equals( final Object pOther )
+        {
+            return pOther instanceof TableKey vKey && vKey.aTarget == this.aTarget && Arrays.equals( vKey.aLocks, this.aLocks );
+        } // equals(*)
+
+        @Override public int hashCode()
+        {
+            return 31 * Arrays.hashCode( this.aLocks ) + this.aTarget;
+        } // hashCode()
+    } // TableKey
+
+    /**
+     * Les tables d'itinéraires d'un monde, partagées par toutes ses parties : les moins récemment
+     * utilisées sont oubliées au-delà du budget mémoire (propriété sheikah.routeCacheBytes, 32 Mo par défaut).
+     */
+    static class TableCache
+    {
+        /** Le budget mémoire par défaut des tables (32 Mo). */
+        private static final long DEFAULT_BYTES = 32L * 1024 * 1024;
+
+        /** Le nombre maximal de tables gardées, même si elles sont toutes petites. */
+        private static final int MAX_TABLES = 1024;
+
+        /** Les tables gardées, la moins récemment utilisée d'abord. */
+        private final LinkedHashMap<TableKey, Table> aTables;
+
+        /**
+         * Crée un cache vide pour un monde.
+         *
+         * @param pRoomCount le nombre de salles du monde
+         */
+        TableCache( final int pRoomCount )
+        {
+            long vTableBytes = 8L * Math.max( 1, pRoomCount );
+            int vMaxTables = (int) Math.max( 2, Math.min( MAX_TABLES,
+                Long.getLong( "sheikah.routeCacheBytes", DEFAULT_BYTES ) / vTableBytes ) );
+            this.aTables = new LinkedHashMap<TableKey, Table>( 16, 0.75f, true ) {
+                @Override protected boolean removeEldestEntry( final Map.Entry<TableKey, Table> pEldest )
+                {
+                    return this.size() > vMaxTables;
+                } // removeEldestEntry(*)
+            };
+        } // TableCache(*)
+
+        /**
+         * Renvoie une table gardée.
+         *
+         * @param pKey la clé de la table
+         * @return la table, ou null si elle n'est pas (ou plus) gardée
+         */
+        private synchronized Table get( final TableKey pKey )
+        {
+            return this.aTables.get( pKey );
+        } // get(*)
+
+        /**
+         * Garde une table, qui ne doit plus être modifiée.
+         *
+         * @param pKey la clé de la table
+         * @param pTable la table
+         */
+        private synchronized void put( final TableKey pKey, final Table pTable )
+        {
+            this.aTables.put( pKey, pTable );
+        } // put(*,*)
+    } // TableCache
+
+    /**
+     * Un tas de long (le plus petit en tête), sans boîte autour de chaque valeur.
+     */
+    private static class LongHeap
+    {
+        /** Les valeurs, rangées en tas binaire. */
+        private long[] aValues;
+
+        /** Le nombre de valeurs. */
+        private int aSize;
+
+        /**
+         * Crée un tas vide.
+         */
+        private LongHeap()
+        {
+            this.aValues = new long[ 16 ];
+            this.aSize = 0;
+        } // LongHeap()
+
+        /**
+         * Indique si le tas est vide.
+         *
+         * @return true s'il ne contient aucune valeur
+         */
+        private boolean isEmpty()
+        {
+            return this.aSize == 0;
+        } // isEmpty()
+
+        /**
+         * Ajoute une valeur.
+         *
+         * @param pValue la valeur
+         */
+        private void add( final long pValue )
+        {
+            if ( this.aSize == this.aValues.length ) {
+                this.aValues = Arrays.copyOf( this.aValues, this.aSize * 2 );
+            }
+            int vI = this.aSize++;
+            while ( vI > 0 && this.aValues[ ( vI - 1 ) / 2 ] > pValue ) {
+                this.aValues[vI] = this.aValues[ ( vI - 1 ) / 2 ];
+                vI = ( vI - 1 ) / 2;
+            }
+            this.aValues[vI] = pValue;
+        } // add(*)
+
+        /**
+         * Retire et renvoie la plus petite valeur.
+         *
+         * @return la plus petite valeur (le tas ne doit pas être vide)
+         */
+        private long poll()
+        {
+            long vFirst = this.aValues[0];
+            long vLast = this.aValues[ --this.aSize ];
+            int vI = 0;
+            while ( 2 * vI + 1 < this.aSize ) {
+                int vChild = 2 * vI + 1;
+                if ( vChild + 1 < this.aSize && this.aValues[ vChild + 1 ] < this.aValues[vChild] ) {
+                    vChild++;
+                }
+                if ( this.aValues[vChild] >= vLast ) {
+                    break;
+                }
+                this.aValues[vI] = this.aValues[vChild];
+                vI = vChild;
+            }
+            this.aValues[vI] = vLast;
+            return vFirst;
+        } // poll()
+    } // LongHeap
+
+    /** Le monde de la partie. */
+    private final World aWorld;
+
+    /** Le graphe des sorties du monde. */
+    private final RoomGraph aGraph;
+
+    /** Les tables partagées du monde. */
+    private final TableCache aCache;
+
+    /** Les portes verrouillées dans la partie, un bit par numéro de porte (remplacé, jamais modifié). */
+    private long[] aLocks;
+
+    /** Les numéros des dernières salles demandées comme destination, la plus récente d'abord. */
+    private final ArrayDeque<Integer> aTargets;
+
+    /**
+     * Crée l'index des itinéraires d'une partie.
+     *
+     * @param pState l'état de la partie (pour l'état des portes au moment de la création)
+     */
+    public RouteIndex( final WorldState pState )
+    {
+        this.aWorld = pState.getWorld();
+        this.aGraph = this.aWorld.getGraph();
+        this.aCache = this.aWorld.getRouteTables();
+        this.aLocks = new long[ ( this.aWorld.getDoorCount() + 63 ) / 64 ];
+        for ( int vD = 0; vD < this.aWorld.getDoorCount(); vD++ ) {
+            if ( pState.isLocked( this.aWorld.getDoor( vD ) ) ) {
+                this.aLocks[ vD >>> 6 ] |= 1L << vD;
+            }
+        }
+        this.aTargets = new ArrayDeque<Integer>();
+    } // RouteIndex(*)
+
+    /**
+     * Renvoie le plus court itinéraire entre deux salles.
+     *
+     * @param pFrom la salle de départ
+     * @param pTo la salle d'arrivée
+     * @return les directions à prendre (vide si les deux salles sont les mêmes),
+     *         ou null si la salle d'arrivée est inaccessible
+     */
+    public List<String> getRoute( final Room pFrom, final Room pTo )
+    {
+        Table vTable = this.getTable( pTo.getId() );
+        int vRoom = pFrom.getId();
+        if ( vTable.aDist[vRoom] == UNREACHABLE ) {
+            return null;
+        }
+        List<String> vRoute = new ArrayList<String>( vTable.aDist[vRoom] );
+        while ( vTable.aNext[vRoom] >= 0 ) {
+            int vEdge = vTable.aNext[vRoom];
+            vRoute.add( this.aGraph.getDirection( vEdge ).getWord() );
+            vRoom = this.aGraph.getTo( vEdge );
+        }
+        return vRoute;
+    } // getRoute(*,*)
+
+    /**
+     * Note le changement d'état d'une porte, et prépare les tables des dernières destinations
+     * avec le nouvel état des portes, en corrigeant une copie de leurs anciennes tables.
+     *
+     * @param pDoor la porte
+     * @param pLocked true si la porte vient d'être verrouillée, false si elle vient d'être ouverte
+     */
+    public void doorChanged( final Door pDoor, final boolean pLocked )
+    {
+        int vDoor = this.aWorld.getDoorId( pDoor );
+        if ( vDoor < 0 || this.isLocked( vDoor ) == pLocked ) {
+            return;
+        }
+        long[] vOldLocks = this.aLocks;
+        this.aLocks = vOldLocks.clone();
+        this.aLocks[ vDoor >>> 6 ] ^= 1L << vDoor;
+        for ( int vTarget : this.aTargets ) {
+            TableKey vKey = new TableKey( this.aLocks, vTarget );
+            Table vOld = this.aCache.get( new TableKey( vOldLocks, vTarget ) );
+            if ( vOld == null || this.aCache.get( vKey ) != null ) {
+                continue; // oubliée (sera recalculée à la demande) ou déjà préparée par une autre partie
+            }
+            if ( ! this.isAffected( vOld, vDoor, pLocked ) ) {
+                this.aCache.put( vKey, vOld ); // la même table sert pour les deux états de la porte
+                continue;
+            }
+            Table vTable = new Table( vOld );
+            for ( int vI = this.aGraph.getDoorStart( vDoor ); vI < this.aGraph.getDoorEnd( vDoor ); vI++ ) {
+                int vEdge = this.aGraph.getDoorEdge( vI );
+                if ( pLocked ) {
+                    this.edgeRemoved( vTable, vEdge );
+                }
+                else {
+                    this.edgeAdded( vTable, vEdge );
+                }
+            }
+            this.aCache.put( vKey, vTable );
+        }
+    } // doorChanged(*,*)
+
+    /**
+     * Indique si le changement d'état d'une porte change une table : une porte fermée ne la change que si
+     * un itinéraire passait par elle, une porte ouverte que si elle raccourcit un itinéraire.
+     *
+     * @param pTable la table
+     * @param pDoor le numéro de la porte
+     * @param pLocked true si la porte vient d'être verrouillée, false si elle vient d'être ouverte
+     * @return true si la table doit être corrigée
+     */
+    private boolean isAffected( final Table pTable, final int pDoor, final boolean pLocked )
+    {
+        for ( int vI = this.aGraph.getDoorStart( pDoor ); vI < this.aGraph.getDoorEnd( pDoor ); vI++ ) {
+            int vEdge = this.aGraph.getDoorEdge( vI );
+            int vFrom = this.aGraph.getFrom( vEdge );
+            int vTo = this.aGraph.getTo( vEdge );
+            if ( pLocked ? pTable.aNext[vFrom] == vEdge
+                         : pTable.aDist[vTo] != UNREACHABLE && pTable.aDist[vTo] + 1 < pTable.aDist[vFrom] ) {
+                return true;
+            }
+        }
+        return false;
+    } // isAffected(*,*,*)
+
+    /**
+     * Renvoie la table d'une destination dans l'état actuel des portes, en la calculant
+     * si elle n'est pas gardée par le monde.
+     *
+     * @param pTarget le numéro de la salle de destination
+     * @return la table de la destination
+     */
+    private Table getTable( final int pTarget )
+    {
+        this.aTargets.remove( pTarget );
+        this.aTargets.addFirst( pTarget );
+        if ( this.aTargets.size() > MAX_TARGETS ) {
+            this.aTargets.removeLast();
+        }
+        TableKey vKey = new TableKey( this.aLocks, pTarget );
+        Table vTable = this.aCache.get( vKey );
+        if ( vTable == null ) {
+            vTable = new Table( this.aGraph.getRoomCount() );
+            vTable.aDist[pTarget] = 0;
+            this.propagate( vTable, pTarget );
+            this.aCache.put( vKey, vTable );
+        }
+        return vTable;
+    } // getTable(*)
+
+    /**
+     * Parcours en largeur à rebours depuis une salle dont la distance vient de baisser :
+     * les salles qui y mènent sont raccourcies si elles peuvent l'être, et ainsi de suite.
+     *
+     * @param pTable la table à corriger
+     * @param pStart la salle de départ du parcours
+     */
+    private void propagate( final Table pTable, final int pStart )
+    {
+        int[] vQueue = new int[ 16 ];
+        int vHead = 0;
+        int vTail = 0;
+        vQueue[ vTail++ ] = pStart;
+        while ( vHead < vTail ) {
+            int vRoom = vQueue[ vHead++ ];
+            int vDist = pTable.aDist[vRoom] + 1;
+            for ( int vI = this.aGraph.getInStart( vRoom ); vI < this.aGraph.getInEnd( vRoom ); vI++ ) {
+                int vEdge = this.aGraph.getInEdge( vI );
+                int vFrom = this.aGraph.getFrom( vEdge );
+                if ( vDist < pTable.aDist[vFrom] && this.isOpen( vEdge ) ) {
+                    pTable.aDist[vFrom] = vDist;
+                    pTable.aNext[vFrom] = vEdge;
+                    if ( vTail == vQueue.length ) {
+                        vQueue = Arrays.copyOf( vQueue, vTail * 2 );
+                    }
+                    vQueue[ vTail++ ] = vFrom;
+                }
+            }
+        }
+    } // propagate(*,*)
+
+    /**
+     * Corrige une table après l'ouverture d'une sortie : seules des distances peuvent baisser,
+     * à partir de la salle de départ de la sortie.
+     *
+     * @param pTable la table à corriger
+     * @param pEdge la sortie ouverte
+     */
+    private void edgeAdded( final Table pTable, final int pEdge )
+    {
+        int vFrom = this.aGraph.getFrom( pEdge );
+        int vTo = this.aGraph.getTo( pEdge );
+        if ( pTable.aDist[vTo] != UNREACHABLE && pTable.aDist[vTo] + 1 < pTable.aDist[vFrom] ) {
+            pTable.aDist[vFrom] = pTable.aDist[vTo] + 1;
+            pTable.aNext[vFrom] = pEdge;
+            this.propagate( pTable, vFrom );
+        }
+    } // edgeAdded(*,*)
+
+    /**
+     * Corrige une table après la fermeture d'une sortie. Si la table ne l'utilisait pas, rien ne change ;
+     * sinon, seules les salles dont l'itinéraire passait par cette sortie sont recalculées,
+     * à partir des salles voisines dont l'itinéraire n'a pas changé.
+     *
+     * @param pTable la table à corriger
+     * @param pEdge la sortie fermée
+     */
+    private void edgeRemoved( final Table pTable, final int pEdge )
+    {
+        int vStart = this.aGraph.getFrom( pEdge );
+        if ( pTable.aNext[vStart] != pEdge ) {
+            return;
+        }
+        // 1. les salles dont l'itinéraire passe par vStart (sous-arbre de vStart)
+        int[] vTouched = new int[ 16 ];
+        int vCount = 0;
+        vTouched[ vCount++ ] = vStart;
+        pTable.aDist[vStart] = UNREACHABLE;
+        pTable.aNext[vStart] = -1;
+        for ( int vHead = 0; vHead < vCount; vHead++ ) {
+            int vRoom = vTouched[vHead];
+            for ( int vI = this.aGraph.getInStart( vRoom ); vI < this.aGraph.getInEnd( vRoom ); vI++ ) {
+                int vEdge = this.aGraph.getInEdge( vI );
+                int vFrom = this.aGraph.getFrom( vEdge );
+                if ( pTable.aNext[vFrom] == vEdge ) {
+                    pTable.aDist[vFrom] = UNREACHABLE;
+                    pTable.aNext[vFrom] = -1;
+                    if ( vCount == vTouched.length ) {
+                        vTouched = Arrays.copyOf( vTouched, vCount * 2 );
+                    }
+                    vTouched[ vCount++ ] = vFrom;
+                }
+            }
+        }
+
+        // 2. meilleure sortie de chacune vers une salle non touchée
+        LongHeap vPending = new LongHeap();
+        for ( int vI = 0; vI < vCount; vI++ ) {
+            int vRoom = vTouched[vI];
+            for ( int vEdge = this.aGraph.getFirstEdge( vRoom ); vEdge < this.aGraph.getEndEdge( vRoom ); vEdge++ ) {
+                int vTo = this.aGraph.getTo( vEdge );
+                if ( pTable.aDist[vTo] != UNREACHABLE && pTable.aDist[vTo] + 1 < pTable.aDist[vRoom] && this.isOpen( vEdge ) ) {
+                    pTable.aDist[vRoom] = pTable.aDist[vTo] + 1;
+                    pTable.aNext[vRoom] = vEdge;
+                }
+            }
+            if ( pTable.aDist[vRoom] != UNREACHABLE ) {
+                vPending.add( (long) pTable.aDist[vRoom] << 32 | vRoom );
+            }
+        }
+
+        // 3. propagation entre les salles touchées, les plus proches d'abord
+        while ( ! vPending.isEmpty() ) {
+            long vEntry = vPending.poll();
+            int vRoom = (int) vEntry;
+            int vDist = (int) ( vEntry >>> 32 );
+            if ( vDist != pTable.aDist[vRoom] ) {
+                continue; // déjà raccourcie entre-temps
+            }
+            for ( int vI = this.aGraph.getInStart( vRoom ); vI < this.aGraph.getInEnd( vRoom ); vI++ ) {
+                int vEdge = this.aGraph.getInEdge( vI );
+                int vFrom = this.aGraph.getFrom( vEdge );
+                if ( vDist + 1 < pTable.aDist[vFrom] && this.isOpen( vEdge ) ) {
+                    pTable.aDist[vFrom] = vDist + 1;
+                    pTable.aNext[vFrom] = vEdge;
+                    vPending.add( (long) ( vDist + 1 ) << 32 | vFrom );
+                }
+            }
+        }
+    } // edgeRemoved(*,*)
+
+    /**
+     * Indique si une porte est verrouillée dans la partie.
+     *
+     * @param pDoor le numéro de la porte
+     * @return true si la porte est verrouillée
+     */
+    private boolean isLocked( final int pDoor )
+    {
+        return ( this.aLocks[ pDoor >>> 6 ] >>> pDoor & 1 ) != 0;
+    } // isLocked(*)
+
+    /**
+     * Indique si une sortie peut être empruntée (pas de porte, ou porte ouverte).
+     *
+     * @param pEdge la sortie
+     * @return true si la sortie est praticable
+     */
+    private boolean isOpen( final int pEdge )
+    {
+        int vDoor = this.aGraph.getDoorId( pEdge );
+        return vDoor < 0 || ! this.isLocked( vDoor );
+    } // isOpen(*)
+} // RouteIndex
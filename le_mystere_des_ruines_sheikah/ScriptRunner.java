@@ -0,0 +1,286 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Classe ScriptRunner - rejoue les fichiers de test du jeu "le mystère des ruines Sheikah"
+ * (complet.txt, court.txt, ...) sans interface graphique, et compare leur transcription
+ * à une transcription de référence.
+ * Chaque script est joué par son propre moteur (GameEngine) avec une sortie texte (TextOutput),
+ * exactement comme la commande "test" de l'interface ; les scripts sont joués en parallèle
+ * sur un ForkJoinPool. Les références sont dans le dossier golden/ (golden/complet.txt, ...).
+ * Les tirages au sort utilisent une graine fixe pour que la transcription soit reproductible,
+ * et les sauvegardes sont rangées dans un dossier temporaire propre à chaque exécution, effacé ensuite.
+ *
+ * Lancement : java ScriptRunner [--update] [--repetitions n] [script ...]
+ *   --update        réécrit les références avec les transcriptions obtenues
+ *   --repetitions n joue chaque script n fois et garde le meilleur temps (mesures)
+ *   script          nom d'un script sans ".txt" (par défaut : complet court optimal gameover sauvegarde itineraire abreviations)
+ *
+ * @author  Benoît de Keyn
+ * @version 2026.02.01
+ */
+public class ScriptRunner
+{
+    /** Le dossier des transcriptions de référence. */
+    public static final String GOLDEN_FOLDER = "golden";
+
+    /** Les scripts joués quand aucun n'est indiqué. */
+    private static final String[] DEFAULT_SCRIPTS = { "complet", "court", "optimal", "gameover", "sauvegarde", "itineraire", "abreviations" };
+
+    /** Le prénom du joueur des scripts (il apparaît dans la transcription). */
+    private static final String PLAYER_NAME = "Link";
+
+    /** La graine des tirages au sort. */
+    private static final long SEED = 0L;
+
+    /** Le résultat d'un script. */
+    public static class Result
+    {
+        /** Le nom du script. */
+        private final String aScript;
+
+        /** La transcription obtenue. */
+        private final String aTranscript;
+
+        /** Le nombre de commandes du script. */
+        private final int aCommands;
+
+        /** La meilleure durée d'exécution, en nanosecondes. */
+        private final long aNanos;
+
+        /**
+         * Crée le résultat d'un script.
+         *
+         * @param pScript le nom du script
+         * @param pTranscript la transcription obtenue
+         * @param pCommands le nombre de commandes du script
+         * @param pNanos la meilleure durée d'exécution, en nanosecondes
+         */
+        private Result( final String pScript, final String pTranscript, final int pCommands, final long pNanos )
+        {
+            this.aScript = pScript;
+            this.aTranscript = pTranscript;
+            this.aCommands = pCommands;
+            this.aNanos = pNanos;
+        } // Result(*,*,*,*)
+
+        /**
+         * Renvoie le nom du script.
+         *
+         * @return le nom du script
+         */
+        public String getScript()
+        {
+            return this.aScript;
+        } // getScript()
+
+        /**
+         * Renvoie la transcription obtenue.
+         *
+         * @return tout le texte affiché par le script
+         */
+        public String getTranscript()
+        {
+            return this.aTranscript;
+        } // getTranscript()
+
+        /**
+         * Renvoie le nombre de commandes du script.
+         *
+         * @return le nombre de commandes
+         */
+        public int getCommands()
+        {
+            return this.aCommands;
+        } // getCommands()
+
+        /**
+         * Renvoie la meilleure durée d'exécution.
+         *
+         * @return la durée en nanosecondes
+         */
+        public long getNanos()
+        {
+            return this.aNanos;
+        } // getNanos()
+    } // Result
+
+    /** Constructeur privé : cette classe ne contient que des méthodes de classe. */
+    private ScriptRunner()
+    {
+    } // ScriptRunner()
+
+    /**
+     * Joue les scripts, compare leurs transcriptions aux références et affiche un bilan.
+     * Termine avec le code 1 si une transcription diffère de sa référence.
+     *
+     * @param pArgs les options et les scripts (voir la description de la classe)
+     * @throws IOException si une référence ne peut pas être lue ou écrite
+     */
+    public static void main( final String[] pArgs ) throws IOException
+    {
+        boolean vUpdate = false;
+        int vRepetitions = 1;
+        List<String> vScripts = new ArrayList<String>();
+        for ( int vI = 0; vI < pArgs.length; vI++ ) {
+            if ( pArgs[vI].equals( "--update" ) ) {
+                vUpdate = true;
+            }
+            else if ( pArgs[vI].equals( "--repetitions" ) && vI + 1 < pArgs.length ) {
+                vRepetitions = Integer.parseInt( pArgs[++vI] );
+            }
+            else {
+                vScripts.add( pArgs[vI] );
+            }
+        }
+        if ( vScripts.isEmpty() ) {
+            vScripts.addAll( List.of( DEFAULT_SCRIPTS ) );
+        }
+
+        long vStart = System.nanoTime();
+        List<Result> vResults = runAll( vScripts, vRepetitions );
+        long vWallNanos = System.nanoTime() - vStart;
+
+        int vFailures = 0;
+        int vCommands = 0;
+        for ( Result vResult : vResults ) {
+            Path vGolden = Path.of( GOLDEN_FOLDER, vResult.getScript() + ".txt" );
+            String vStatus;
+            if ( vUpdate ) {
+                Files.createDirectories( vGolden.getParent() );
+                Files.writeString( vGolden, vResult.getTranscript(), StandardCharsets.UTF_8 );
+                vStatus = "référence écrite";
+            }
+            else if ( ! Files.exists( vGolden ) ) {
+                vStatus = "ÉCHEC : pas de référence (relancer avec --update)";
+                vFailures++;
+            }
+            else {
+                String vDifference = firstDifference( Files.readString( vGolden, StandardCharsets.UTF_8 ), vResult.getTranscript() );
+                vStatus = vDifference == null ? "ok" : "ÉCHEC : " + vDifference;
+                if ( vDifference != null ) {
+                    vFailures++;
+                }
+            }
+            vCommands += vResult.getCommands();
+            System.out.printf( "%-12s %5d commandes %9.3f ms %12.0f commandes/s  %s%n",
+                vResult.getScript(), vResult.getCommands(), vResult.getNanos() / 1e6,
+                vResult.getCommands() * 1e9 / Math.max( 1, vResult.getNanos() ), vStatus );
+        }
+        System.out.printf( "%d scripts, %d commandes, %d échec(s) en %.3f ms%n",
+            vResults.size(), vCommands, vFailures, vWallNanos / 1e6 );
+        if ( vFailures > 0 ) {
+            System.exit( 1 );
+        }
+    } // main(*)
+
+    /**
+     * Joue des scripts en parallèle, chacun dans son propre moteur.
+     *
+     * @param pScripts les noms des scripts (sans ".txt")
+     * @param pRepetitions le nombre d'exécutions de chaque script (le meilleur temps est gardé)
+     * @return les résultats, dans l'ordre des scripts
+     */
+    public static List<Result> runAll( final List<String> pScripts, final int pRepetitions )
+    {
+        List<ForkJoinTask<Result>> vTasks = new ArrayList<ForkJoinTask<Result>>();
+        ForkJoinPool vPool = ForkJoinPool.commonPool();
+        for ( String vScript : pScripts ) {
+            vTasks.add( vPool.submit( () -> run( vScript, pRepetitions ) ) );
+        }
+        List<Result> vResults = new ArrayList<Result>();
+        for ( ForkJoinTask<Result> vTask : vTasks ) {
+            vResults.add( vTask.join() );
+        }
+        return vResults;
+    } // runAll(*,*)
+
+    /**
+     * Joue un script dans un moteur neuf, comme la commande "test" de l'interface.
+     *
+     * @param pScript le nom du script (sans ".txt")
+     * @param pRepetitions le nombre d'exécutions (le meilleur temps est gardé)
+     * @return le résultat du script
+     * @throws IOException si le script ne peut pas être lu
+     */
+    public static Result run( final String pScript, final int pRepetitions ) throws IOException
+    {
+        int vCommands = 0;
+        for ( String vLine : Files.readAllLines( Path.of( pScript + ".txt" ), StandardCharsets.UTF_8 ) ) {
+            if ( ! vLine.startsWith( "#" ) && ! vLine.trim().isEmpty() ) {
+                vCommands++;
+            }
+        }
+
+        String vTranscript = null;
+        long vBestNanos = Long.MAX_VALUE;
+        for ( int vI = 0; vI < Math.max( 1, pRepetitions ); vI++ ) {
+            Path vSaves = Files.createTempDirectory( "sheikah-sauvegardes" );
+            try {
+                GameEngine vEngine = new GameEngine();
+                vEngine.setRandomSeed( SEED );
+                vEngine.setSavesFolder( vSaves );
+                vEngine.setPlayer( new Player( PLAYER_NAME ) );
+                TextOutput vOutput = new TextOutput();
+                long vStart = System.nanoTime();
+                vEngine.setGUI( vOutput );
+                vEngine.interpretCommand( "test " + pScript );
+                vBestNanos = Math.min( vBestNanos, System.nanoTime() - vStart );
+                vTranscript = vOutput.getTranscript();
+            }
+            finally {
+                deleteFolder( vSaves );
+            }
+        }
+        return new Result( pScript, vTranscript, vCommands, vBestNanos );
+    } // run(*,*)
+
+    /**
+     * Efface un dossier et tout ce qu'il contient.
+     *
+     * @param pFolder le dossier
+     * @throws IOException si un fichier ne peut pas être effacé
+     */
+    static void deleteFolder( final Path pFolder ) throws IOException
+    {
+        List<Path> vPaths;
+        try ( Stream<Path> vWalk = Files.walk( pFolder ) ) {
+            vPaths = vWalk.sorted( Comparator.reverseOrder() ).collect( Collectors.toList() ); // contenu avant dossier
+        }
+        for ( Path vPath : vPaths ) {
+            Files.delete( vPath );
+        }
+    } // deleteFolder(*)
+
+    /**
+     * Décrit la première ligne qui diffère entre deux transcriptions.
+     *
+     * @param pExpected la transcription de référence
+     * @param pActual la transcription obtenue
+     * @return la description de la différence, ou null si les transcriptions sont identiques
+     */
+    private static String firstDifference( final String pExpected, final String pActual )
+    {
+        if ( pExpected.equals( pActual ) ) {
+            return null;
+        }
+        String[] vExpected = pExpected.split( "\n", -1 );
+        String[] vActual = pActual.split( "\n", -1 );
+        int vLine = 0;
+        while ( vLine < vExpected.length && vLine < vActual.length && vExpected[vLine].equals( vActual[vLine] ) ) {
+            vLine++;
+        }
+        return "ligne " + ( vLine + 1 ) + " : attendu \""
+            + ( vLine < vExpected.length ? vExpected[vLine] : "(fin)" ) + "\", obtenu \""
+            + ( vLine < vActual.length ? vActual[vLine] : "(fin)" ) + "\"";
+    } // firstDifference(*,*)
+} // ScriptRunner
@@ -0,0 +1,112 @@
+import java.io.PrintWriter;
+
+/**
+ * Classe SocketOutput - la sortie d'une partie jouée à distance dans le jeu "le mystère des ruines Sheikah".
+ * Le texte produit par le moteur est écrit sur la connexion du joueur (en UTF-8) et envoyé
+ * en une seule fois à la fin de chaque commande. Les images sont ignorées.
+ *
+ * @author  Benoît de Keyn
+ * @version 2026.01.27
+ */
+public class SocketOutput implements OutputSink
+{
+    /** L'écriture vers la connexion du joueur. */
+    private final PrintWriter aWriter;
+
+    /** Le nombre de caractères écrits sur la connexion. */
+    private long aCharsWritten;
+
+    /** Indique si le moteur accepte encore des commandes. */
+    private boolean aEnabled;
+
+    /**
+     * Crée une sortie qui écrit sur une connexion.
+     *
+     * @param pWriter l'écriture vers la connexion (non vidée automatiquement)
+     */
+    public SocketOutput( final PrintWriter pWriter )
+    {
+        this.aWriter = pWriter;
+        this.aCharsWritten = 0;
+        this.aEnabled = true;
+    } // SocketOutput(*)
+
+    /**
+     * Écrit du texte sur la connexion (envoyé au prochain flush).
+     *
+     * @param pText le texte à afficher
+     */
+    @Override public void print( final String pText )
+    {
+        this.aWriter.print( pText );
+        this.aCharsWritten += pText.length();
+    } // print(.)
+
+    /**
+     * Écrit du texte sur la connexion, suivi d'un retour à la ligne (envoyé au prochain flush).
+     *
+     * @param pText le texte à afficher
+     */
+    @Override public void println( final String pText )
+    {
+        this.print( pText + "\n" );
+    } // println(.)
+
+    /**
+     * Ignore le dossier des images : les images ne sont pas envoyées.
+     *
+     * @param pFolder le chemin du dossier contenant les images
+     */
+    @Override public void setImagesFolder( final String pFolder )
+    {
+        // pas d'images à distance
+    } // setImagesFolder(.)
+
+    /**
+     * Ignore l'image : les images ne sont pas envoyées.
+     *
+     * @param pImageName le nom du fichier image à afficher
+     */
+    @Override public void showImage( final String pImageName )
+    {
+        // pas d'images à distance
+    } // showImage(.)
+
+    /**
+     * Envoie au joueur tout le texte écrit depuis le flush précédent.
+     */
+    @Override public void flush()
+    {
+        this.aWriter.flush();
+    } // flush()
+
+    /**
+     * Mémorise si le moteur accepte encore des commandes (voir isEnabled).
+     *
+     * @param pOnOff true pour activer la saisie, false pour la désactiver
+     */
+    @Override public void enable( final boolean pOnOff )
+    {
+        this.aEnabled = pOnOff;
+    } // enable(.)
+
+    /**
+     * Indique si le moteur accepte encore des commandes.
+     *
+     * @return false après un game over, une victoire ou "quitter"
+     */
+    public boolean isEnabled()
+    {
+        return this.aEnabled;
+    } // isEnabled()
+
+    /**
+     * Renvoie le nombre de caractères écrits sur la connexion.
+     *
+     * @return le nombre de caractères envoyés au joueur
+     */
+    public long getCharsWritten()
+    {
+        return this.aCharsWritten;
+    } // getCharsWritten()
+} // SocketOutput
@@ -0,0 +1,71 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Classe StartupTimer - le chronomètre du démarrage du jeu "le mystère des ruines Sheikah".
+ * Chaque étape du démarrage (monde chargé, fenêtre construite, première image décodée, prénom saisi...)
+ * est notée avec le temps écoulé depuis la création du chronomètre, quel que soit le thread qui la termine.
+ * Une attente de l'utilisateur (la saisie du prénom) est notée à part avec sa propre durée, pour qu'on
+ * puisse la retirer des temps des étapes qui l'ont attendue : elle ne mesure pas le jeu, mais le joueur.
+ * Le bilan se termine par l'étape finale (la fenêtre prête à recevoir des commandes) et par le temps
+ * écoulé depuis le lancement de la machine virtuelle, qui comprend son propre démarrage.
+ *
+ * @author  Benoît de Keyn
+ * @version 2026.02.04
+ */
+public class StartupTimer
+{
+    /** Le début du chronomètre (System.nanoTime). */
+    private final long aStart;
+
+    /** Les étapes notées, avec leur temps, dans l'ordre où elles se sont terminées. */
+    private final List<String> aPhases;
+
+    /**
+     * Crée un chronomètre et le démarre.
+     */
+    public StartupTimer()
+    {
+        this.aStart = System.nanoTime();
+        this.aPhases = new ArrayList<String>();
+    } // StartupTimer()
+
+    /**
+     * Note la fin d'une étape du démarrage.
+     *
+     * @param pPhase le nom de l'étape
+     * @return le temps écoulé depuis le démarrage du chronomètre, en millisecondes
+     */
+    public synchronized long mark( final String pPhase )
+    {
+        long vMillis = ( System.nanoTime() - this.aStart ) / 1_000_000;
+        this.aPhases.add( pPhase + " " + vMillis + " ms" );
+        return vMillis;
+    } // mark(*)
+
+    /**
+     * Note une attente de l'utilisateur, avec sa durée seule.
+     *
+     * @param pWait le nom de l'attente
+     * @param pStart le début de l'attente (System.nanoTime)
+     * @return la durée de l'attente, en millisecondes
+     */
+    public synchronized long markWait( final String pWait, final long pStart )
+    {
+        long vMillis = ( System.nanoTime() - pStart ) / 1_000_000;
+        this.aPhases.add( pWait + " pendant " + vMillis + " ms" );
+        return vMillis;
+    } // markWait(*,*)
+
+    /**
+     * Renvoie le bilan du démarrage, sur une ligne.
+     *
+     * @return les étapes notées et le temps écoulé depuis le lancement de la machine virtuelle
+     */
+    public synchronized String getReport()
+    {
+        return "Démarrage : " + String.join( ", ", this.aPhases )
+            + " (machine virtuelle lancée depuis " + ManagementFactory.getRuntimeMXBean().getUptime() + " ms)";
+    } // getReport()
+} // StartupTimer
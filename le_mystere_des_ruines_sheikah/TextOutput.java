@@ -0,0 +1,122 @@
+/**
+ * Classe TextOutput - une sortie sans affichage graphique pour le jeu "le mystère des ruines Sheikah".
+ * Tout le texte produit par le moteur est accumulé en mémoire et les images sont seulement mémorisées
+ * par leur nom. Aucune classe AWT/Swing n'est chargée, ce qui permet de lancer des parties
+ * en grand nombre (tests, robots, intégration continue).
+ *
+ * @author  Benoît de Keyn
+ * @version 2026.01.20
+ */
+public class TextOutput implements OutputSink
+{
+    /** Le texte accumulé depuis la création (ou le dernier clear). */
+    private final StringBuilder aTranscript;
+
+    /** Le nom de la dernière image demandée par le moteur. */
+    private String aLastImage;
+
+    /** Le dossier des images indiqué par le moteur. */
+    private String aImagesFolder;
+
+    /** Indique si la saisie est active. */
+    private boolean aEnabled;
+
+    /**
+     * Crée une sortie texte vide et active.
+     */
+    public TextOutput()
+    {
+        this.aTranscript = new StringBuilder();
+        this.aLastImage = null;
+        this.aImagesFolder = "";
+        this.aEnabled = true;
+    } // TextOutput()
+
+    /**
+     * Ajoute du texte au texte accumulé.
+     *
+     * @param pText le texte à afficher
+     */
+    @Override public void print( final String pText )
+    {
+        this.aTranscript.append( pText );
+    } // print(.)
+
+    /**
+     * Ajoute du texte au texte accumulé, suivi d'un retour à la ligne.
+     *
+     * @param pText le texte à afficher
+     */
+    @Override public void println( final String pText )
+    {
+        this.aTranscript.append( pText ).append( '\n' );
+    } // println(.)
+
+    /**
+     * Mémorise le dossier des images, ajouté devant le nom renvoyé par getLastImage.
+     *
+     * @param pFolder le chemin du dossier contenant les images
+     */
+    @Override public void setImagesFolder( final String pFolder )
+    {
+        this.aImagesFolder = pFolder;
+    } // setImagesFolder(.)
+
+    /**
+     * Mémorise le nom de l'image demandée, sans la charger.
+     *
+     * @param pImageName le nom du fichier image à afficher
+     */
+    @Override public void showImage( final String pImageName )
+    {
+        this.aLastImage = pImageName;
+    } // showImage(.)
+
+    /**
+     * Mémorise si la saisie est active (voir isEnabled).
+     *
+     * @param pOnOff true pour activer la saisie, false pour la désactiver
+     */
+    @Override public void enable( final boolean pOnOff )
+    {
+        this.aEnabled = pOnOff;
+    } // enable(.)
+
+    /**
+     * Renvoie tout le texte affiché depuis la création ou le dernier clear.
+     *
+     * @return le texte accumulé
+     */
+    public String getTranscript()
+    {
+        return this.aTranscript.toString();
+    } // getTranscript()
+
+    /**
+     * Vide le texte accumulé.
+     */
+    public void clear()
+    {
+        this.aTranscript.setLength( 0 );
+    } // clear()
+
+    /**
+     * Renvoie le chemin (dossier compris) de la dernière image demandée.
+     *
+     * @return le chemin de la dernière image, ou null si aucune image n'a été demandée
+     */
+    public String getLastImage()
+    {
+        return this.aLastImage == null ? null : this.aImagesFolder + this.aLastImage;
+    } // getLastImage()
+
+    /**
+     * Indique si la saisie est active (false après un game over, une victoire ou "quitter").
+     *
+     * @return true si la saisie est active, false sinon
+     */
+    public boolean isEnabled()
+    {
+        return this.aEnabled;
+    } // isEnabled()
+} // TextOutput
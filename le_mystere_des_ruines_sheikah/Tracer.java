@@ -0,0 +1,269 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Classe Tracer - le traceur des commandes du jeu "le mystère des ruines Sheikah", pour comprendre
+ * d'où vient la lenteur d'une commande : il note les étapes (analyse, exécution, changement de salle,
+ * description, image, mise en page de la fenêtre) avec leur début, leur durée et leur thread,
+ * et les écrit au format des traces Chrome (à ouvrir dans chrome://tracing ou ui.perfetto.dev),
+ * où les étapes d'une commande apparaissent imbriquées les unes dans les autres.
+ *
+ * Le traceur est arrêté par défaut, et ne coûte alors qu'une lecture de booléen par étape :
+ * begin renvoie OFF sans lire l'horloge, et end ne fait rien pour OFF.
+ * Une fois démarré, les étapes sont rangées dans un tampon circulaire alloué à la première étape notée
+ * (propriété sheikah.traceSpans, 65536 étapes par défaut) : les plus anciennes sont écrasées, et noter
+ * une étape ne prend aucun verrou et ne crée aucun objet. Une étape écrite pendant qu'on écrit la trace,
+ * ou par deux threads à la fois après un tour complet du tampon, peut y apparaître mélangée : c'est le prix
+ * de l'absence de verrou, et sans conséquence pour une trace de mise au point.
+ *
+ * Le traceur se démarre avec la commande de debug "chrono", ou pour toute la partie avec la propriété
+ * sheikah.trace=fichier.json : la trace est alors écrite dans ce fichier à l'arrêt de la machine virtuelle.
+ *
+ * @author  Benoît de Keyn
+ * @version 2026.02.04
+ */
+public class Tracer
+{
+    /** Les étapes tracées. */
+    public enum Span
+    {
+        /** Analyse de la ligne de commande. */
+        PARSE( "Parser.getCommand" ),
+        /** Exécution de la commande (le détail donne la commande). */
+        DISPATCH( "dispatch" ),
+        /** Passage d'une salle à une autre. */
+        ROOM_TRANSITION( "room transition" ),
+        /** Construction (ou reprise du cache) de la description d'une salle (le détail donne la salle). */
+        DESCRIPTION( "Room.getLongDescription" ),
+        /** Décodage et redimensionnement d'une image (le détail donne l'image). */
+        IMAGE( "UserInterface.showImage" ),
+        /** Mise en page de la fenêtre. */
+        PACK( "frame.pack" );
+
+        /** Le nom de l'étape dans la trace. */
+        private final String aName;
+
+        /**
+         * Crée une étape.
+         *
+         * @param pName le nom de l'étape dans la trace
+         */
+        Span( final String pName )
+        {
+            this.aName = pName;
+        } // Span(*)
+    } // Span
+
+    /** Le début renvoyé par begin quand le traceur est arrêté. */
+    public static final long OFF = Long.MIN_VALUE;
+
+    /** Le nombre d'étapes gardées par défaut. */
+    private static final int DEFAULT_CAPACITY = 1 << 16;
+
+    /** Les étapes, par numéro d'ordre. */
+    private static final Span[] SPANS = Span.values();
+
+    /** Indique si le traceur est démarré. */
+    private static final AtomicBoolean ENABLED = new AtomicBoolean( false );
+
+    /** Le nombre d'étapes notées depuis le dernier démarrage (la case suivante du tampon, modulo sa taille). */
+    private static final AtomicLong NEXT = new AtomicLong( 0 );
+
+    /** L'origine des temps de la trace. */
+    private static final long ORIGIN = System.nanoTime();
+
+    static {
+        String vFile = System.getProperty( "sheikah.trace" );
+        if ( vFile != null ) {
+            start();
+            Runtime.getRuntime().addShutdownHook( new Thread( () -> {
+                try {
+                    write( Path.of( vFile ) );
+                }
+                catch ( final IOException pIOE ) {
+                    System.err.println( pIOE.getMessage() );
+                }
+            } ) );
+        }
+    }
+
+    /**
+     * Le tampon circulaire des étapes, rangées colonne par colonne.
+     * Il n'est alloué qu'à la première étape notée (chargement de la classe).
+     */
+    private static final class Ring
+    {
+        /** Le nombre de cases (une puissance de deux). */
+        static final int CAPACITY = Integer.highestOneBit( Math.max( 16, Integer.getInteger( "sheikah.traceSpans", DEFAULT_CAPACITY ) - 1 ) ) << 1;
+
+        /** Le masque qui donne la case d'une étape à partir de son numéro. */
+        static final int MASK = CAPACITY - 1;
+
+        /** Le numéro d'ordre de l'étape (Span) de chaque case. */
+        static final byte[] SPAN = new byte[CAPACITY];
+
+        /** Le début de chaque étape (System.nanoTime). */
+        static final long[] START = new long[CAPACITY];
+
+        /** La durée de chaque étape, en nanosecondes. */
+        static final long[] DURATION = new long[CAPACITY];
+
+        /** Le thread de chaque étape. */
+        static final long[] THREAD = new long[CAPACITY];
+
+        /** Le détail de chaque étape (commande, salle ou image, ou null). */
+        static final String[] DETAIL = new String[CAPACITY];
+
+        /**
+         * Constructeur privé : cette classe ne contient que des méthodes de classe.
+         */
+        private Ring() {}
+    } // Ring
+
+    /**
+     * Constructeur privé : cette classe ne contient que des méthodes de classe.
+     */
+    private Tracer() {}
+
+    /**
+     * Démarre le traceur ; les étapes notées jusque-là sont oubliées.
+     */
+    public static void start()
+    {
+        NEXT.set( 0 );
+        ENABLED.set( true );
+    } // start()
+
+    /**
+     * Arrête le traceur ; les étapes notées restent disponibles pour write.
+     */
+    public static void stop()
+    {
+        ENABLED.set( false );
+    } // stop()
+
+    /**
+     * Indique si le traceur est démarré.
+     *
+     * @return true si les étapes sont notées
+     */
+    public static boolean isEnabled()
+    {
+        return ENABLED.get();
+    } // isEnabled()
+
+    /**
+     * Commence une étape.
+     *
+     * @return le début de l'étape, à passer à end, ou OFF si le traceur est arrêté
+     */
+    public static long begin()
+    {
+        return ENABLED.get() ? System.nanoTime() : OFF;
+    } // begin()
+
+    /**
+     * Termine une étape sans détail.
+     *
+     * @param pSpan l'étape
+     * @param pStart le début renvoyé par begin
+     */
+    public static void end( final Span pSpan, final long pStart )
+    {
+        end( pSpan, pStart, null );
+    } // end(*,*)
+
+    /**
+     * Termine une étape et la note dans le tampon (rien n'est noté si begin a renvoyé OFF).
+     *
+     * @param pSpan l'étape
+     * @param pStart le début renvoyé par begin
+     * @param pDetail le détail de l'étape (une chaîne déjà existante, pour ne créer aucun objet), ou null
+     */
+    public static void end( final Span pSpan, final long pStart, final String pDetail )
+    {
+        if ( pStart == OFF ) {
+            return;
+        }
+        long vEnd = System.nanoTime();
+        int vSlot = (int) NEXT.getAndIncrement() & Ring.MASK;
+        Ring.START[vSlot] = pStart;
+        Ring.DURATION[vSlot] = vEnd - pStart;
+        Ring.THREAD[vSlot] = Thread.currentThread().getId();
+        Ring.DETAIL[vSlot] = pDetail;
+        Ring.SPAN[vSlot] = (byte) pSpan.ordinal();
+    } // end(*,*,*)
+
+    /**
+     * Renvoie le nombre d'étapes gardées dans le tampon.
+     *
+     * @return le nombre d'étapes que write écrirait
+     */
+    public static int getSpanCount()
+    {
+        return (int) Math.min( NEXT.get(), Ring.CAPACITY );
+    } // getSpanCount()
+
+    /**
+     * Écrit les étapes gardées dans un fichier, au format des traces Chrome (JSON, événements complets "X",
+     * temps en microsecondes), de la plus ancienne à la plus récente.
+     *
+     * @param pFile le fichier de la trace
+     * @throws IOException si le fichier ne peut pas être écrit
+     */
+    public static void write( final Path pFile ) throws IOException
+    {
+        long vLast = NEXT.get();
+        long vFirst = Math.max( 0, vLast - Ring.CAPACITY );
+        try ( Writer vOut = Files.newBufferedWriter( pFile, StandardCharsets.UTF_8 ) ) {
+            vOut.write( "{\"displayTimeUnit\":\"ms\",\"traceEvents\":[" );
+            for ( long vI = vFirst; vI < vLast; vI++ ) {
+                int vSlot = (int) vI & Ring.MASK;
+                vOut.write( vI == vFirst ? "\n" : ",\n" );
+                vOut.write( String.format( Locale.ROOT,
+                    "{\"name\":\"%s\",\"cat\":\"sheikah\",\"ph\":\"X\",\"ts\":%.3f,\"dur\":%.3f,\"pid\":1,\"tid\":%d",
+                    SPANS[ Ring.SPAN[vSlot] ].aName, ( Ring.START[vSlot] - ORIGIN ) / 1e3,
+                    Ring.DURATION[vSlot] / 1e3, Ring.THREAD[vSlot] ) );
+                String vDetail = Ring.DETAIL[vSlot];
+                if ( vDetail != null ) {
+                    vOut.write( ",\"args\":{\"detail\":\"" + escape( vDetail ) + "\"}" );
+                }
+                vOut.write( "}" );
+            }
+            vOut.write( "\n]}\n" );
+        }
+        catch ( final IOException pIOE ) {
+            throw new IOException( "Impossible d'écrire la trace dans " + pFile + " : " + pIOE.getMessage(), pIOE );
+        }
+    } // write(*)
+
+    /**
+     * Échappe une chaîne pour l'écrire entre guillemets dans un fichier JSON.
+     *
+     * @param pText la chaîne
+     * @return la chaîne échappée
+     */
+    private static String escape( final String pText )
+    {
+        StringBuilder vEscaped = new StringBuilder( pText.length() );
+        for ( int vI = 0; vI < pText.length(); vI++ ) {
+            char vC = pText.charAt( vI );
+            if ( vC == '"' || vC == '\\' ) {
+                vEscaped.append( '\\' ).append( vC );
+            }
+            else if ( vC < ' ' ) {
+                vEscaped.append( String.format( "\\u%04x", (int) vC ) );
+            }
+            else {
+                vEscaped.append( vC );
+            }
+        }
+        return vEscaped.toString();
+    } // escape(*)
+} // Tracer
@@ -0,0 +1,586 @@
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.Toolkit;
+import java.awt.datatransfer.StringSelection;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import javax.swing.JComponent;
+import javax.swing.Scrollable;
+import javax.swing.SwingConstants;
+import javax.swing.UIManager;
+
+/**
+ * Classe TranscriptView - la zone qui affiche l'historique du jeu "le mystère des ruines Sheikah".
+ * Contrairement à une JTextArea, elle ne garde qu'un nombre limité de lignes (tampon circulaire) :
+ * les plus anciennes sont oubliées, ou recopiées dans un fichier si on le demande.
+ * Seules les lignes visibles sont dessinées, si bien que la mémoire et le coût d'affichage
+ * restent constants même après des heures de jeu.
+ * Comme dans une JTextArea non modifiable, le texte se sélectionne à la souris (ou en entier avec Ctrl+A)
+ * et se copie avec Ctrl+C.
+ *
+ * @author  Benoît de Keyn
+ * @version 2026.02.04
+ */
+public class TranscriptView extends JComponent implements Scrollable
+{
+    /** Numéro de version pour la sérialisation (héritée de JComponent). */
+    private static final long serialVersionUID = 1L;
+
+    /** Marge intérieure autour du texte, en pixels. */
+    private static final int MARGIN = 4;
+
+    /** Les lignes conservées (tampon circulaire). */
+    private final String[] aLines;
+
+    /** L'indice de la plus ancienne ligne conservée dans le tampon. */
+    private int aFirst;
+
+    /** Le nombre de lignes conservées. */
+    private int aCount;
+
+    /** Indique si la dernière ligne est terminée (le prochain texte commence une nouvelle ligne). */
+    private boolean aLastLineClosed;
+
+    /** La largeur de chaque ligne conservée, en pixels (mêmes indices que aLines). */
+    private final int[] aWidths;
+
+    /** La largeur de la plus longue ligne conservée, en pixels. */
+    private int aMaxLineWidth;
+
+    /** Le nombre de lignes sorties du tampon depuis le début (pour numéroter les lignes sans décalage). */
+    private long aDropped;
+
+    /** Le numéro (depuis le début) de la ligne où la sélection a commencé, -1 s'il n'y a pas de sélection. */
+    private long aAnchorLine;
+
+    /** La colonne où la sélection a commencé. */
+    private int aAnchorColumn;
+
+    /** Le numéro (depuis le début) de la ligne où la sélection se termine. */
+    private long aCaretLine;
+
+    /** La colonne où la sélection se termine. */
+    private int aCaretColumn;
+
+    /** Le fichier dans lequel les lignes oubliées sont recopiées (null si aucun). */
+    private Writer aSpill;
+
+    /**
+     * Crée une zone d'historique vide.
+     *
+     * @param pMaxLines le nombre maximum de lignes conservées en mémoire
+     */
+    public TranscriptView( final int pMaxLines )
+    {
+        this.aLines = new String[ pMaxLines ];
+        this.aWidths = new int[ pMaxLines ];
+        this.aFirst = 0;
+        this.aCount = 0;
+        this.aLastLineClosed = true;
+        this.aMaxLineWidth = 0;
+        this.aDropped = 0;
+        this.aAnchorLine = -1;
+        this.aSpill = null;
+        this.setFont( UIManager.getFont( "TextArea.font" ) );
+        this.setBackground( UIManager.getColor( "TextArea.background" ) );
+        this.setForeground( UIManager.getColor( "TextArea.foreground" ) );
+        this.setOpaque( true );
+        this.setFocusable( true );
+
+        MouseAdapter vMouse = new MouseAdapter() { // anonymous class
+            @Override public void mousePressed( final MouseEvent pE )
+            {
+                TranscriptView.this.requestFocusInWindow();
+                TranscriptView.this.startSelection( pE.getPoint() );
+            }
+
+            @Override public void mouseDragged( final MouseEvent pE )
+            {
+                TranscriptView.this.extendSelection( pE.getPoint() );
+            }
+        };
+        this.addMouseListener( vMouse );
+        this.addMouseMotionListener( vMouse );
+        this.addKeyListener( new KeyAdapter() { // anonymous class
+            @Override public void keyPressed( final KeyEvent pE )
+            {
+                if ( ( pE.getModifiersEx() & Toolkit.getDefaultToolkit().getMenuShortcutKeyMaskEx() ) == 0 ) {
+                    return;
+                }
+                if ( pE.getKeyCode() == KeyEvent.VK_C ) {
+                    TranscriptView.this.copySelection();
+                }
+                else if ( pE.getKeyCode() == KeyEvent.VK_A ) {
+                    TranscriptView.this.selectAll();
+                }
+            }
+        } );
+    } // TranscriptView(*)
+
+    /**
+     * Demande que les lignes sorties du tampon soient ajoutées à la fin d'un fichier.
+     *
+     * @param pFile le fichier de débordement
+     * @throws IOException si le fichier ne peut pas être ouvert
+     */
+    public void setSpillFile( final Path pFile ) throws IOException
+    {
+        this.aSpill = Files.newBufferedWriter( pFile, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND );
+    } // setSpillFile(*)
+
+    /**
+     * Ferme le fichier de débordement, s'il y en a un (à appeler quand le jeu s'arrête).
+     * Les lignes qui sortiront ensuite du tampon seront simplement oubliées.
+     */
+    public void closeSpill()
+    {
+        if ( this.aSpill == null ) {
+            return;
+        }
+        try {
+            this.aSpill.close();
+        }
+        catch ( final IOException pIOE ) {
+            System.out.println( "Impossible d'écrire l'historique : " + pIOE.getMessage() );
+        }
+        this.aSpill = null;
+    } // closeSpill()
+
+    /**
+     * Ajoute du texte à la fin de l'historique puis fait défiler jusqu'à la dernière ligne.
+     * Doit être appelée depuis le thread de l'interface graphique (EDT).
+     *
+     * @param pText le texte à ajouter (peut contenir des retours à la ligne)
+     */
+    public void append( final String pText )
+    {
+        if ( pText.isEmpty() ) {
+            return;
+        }
+        FontMetrics vMetrics = this.getFontMetrics( this.getFont() );
+        int vStart = 0;
+        while ( vStart <= pText.length() ) {
+            int vEnd = pText.indexOf( '\n', vStart );
+            String vPiece = pText.substring( vStart, vEnd < 0 ? pText.length() : vEnd );
+            if ( this.aLastLineClosed ) {
+                this.addLine( vPiece );
+            }
+            else {
+                this.setLastLine( this.getLine( this.aCount - 1 ) + vPiece );
+            }
+            int vWidth = vMetrics.stringWidth( this.getLine( this.aCount - 1 ) );
+            this.aWidths[ this.slot( this.aCount - 1 ) ] = vWidth;
+            this.aMaxLineWidth = Math.max( this.aMaxLineWidth, vWidth );
+            this.aLastLineClosed = vEnd >= 0;
+            if ( vEnd < 0 ) {
+                break;
+            }
+            vStart = vEnd + 1;
+            if ( vStart == pText.length() ) {
+                break; // le texte se termine par un retour à la ligne
+            }
+        }
+        this.flushSpill();
+
+        Dimension vSize = this.getPreferredSize();
+        if ( ! vSize.equals( this.getSize() ) ) {
+            this.setSize( Math.max( vSize.width, this.getWidth() ), vSize.height );
+            this.revalidate();
+        }
+        int vLineHeight = vMetrics.getHeight();
+        this.scrollRectToVisible( new Rectangle( 0, vSize.height - vLineHeight - MARGIN, 1, vLineHeight + MARGIN ) );
+        this.repaint();
+    } // append(*)
+
+    /**
+     * Renvoie le nombre de lignes actuellement conservées.
+     *
+     * @return le nombre de lignes en mémoire
+     */
+    public int getLineCount()
+    {
+        return this.aCount;
+    } // getLineCount()
+
+    /**
+     * Renvoie une ligne conservée.
+     *
+     * @param pIndex le numéro de la ligne, 0 étant la plus ancienne encore en mémoire
+     * @return le texte de la ligne
+     */
+    public String getLine( final int pIndex )
+    {
+        return this.aLines[ this.slot( pIndex ) ];
+    } // getLine(*)
+
+    /**
+     * Renvoie le texte sélectionné.
+     *
+     * @return les lignes sélectionnées, séparées par des retours à la ligne ("" s'il n'y a pas de sélection)
+     */
+    public String getSelectedText()
+    {
+        if ( ! this.hasSelection() ) {
+            return "";
+        }
+        int vStartLine = this.selectionStartLine();
+        int vEndLine = this.selectionEndLine();
+        StringBuilder vText = new StringBuilder();
+        for ( int vI = vStartLine; vI <= vEndLine; vI++ ) {
+            String vLine = this.getLine( vI );
+            int vFrom = vI == vStartLine ? this.selectionStartColumn() : 0;
+            int vTo = vI == vEndLine ? this.selectionEndColumn() : vLine.length();
+            if ( vI > vStartLine ) {
+                vText.append( '\n' );
+            }
+            vText.append( vLine, vFrom, vTo );
+        }
+        return vText.toString();
+    } // getSelectedText()
+
+    /**
+     * Sélectionne toutes les lignes conservées.
+     */
+    public void selectAll()
+    {
+        if ( this.aCount == 0 ) {
+            return;
+        }
+        this.aAnchorLine = this.aDropped;
+        this.aAnchorColumn = 0;
+        this.aCaretLine = this.aDropped + this.aCount - 1;
+        this.aCaretColumn = this.getLine( this.aCount - 1 ).length();
+        this.repaint();
+    } // selectAll()
+
+    /**
+     * Copie le texte sélectionné dans le presse-papiers du système (ne fait rien s'il n'y a pas de sélection).
+     */
+    public void copySelection()
+    {
+        String vText = this.getSelectedText();
+        if ( ! vText.isEmpty() ) {
+            StringSelection vSelection = new StringSelection( vText );
+            Toolkit.getDefaultToolkit().getSystemClipboard().setContents( vSelection, vSelection );
+        }
+    } // copySelection()
+
+    /**
+     * Renvoie la case du tampon qui contient une ligne conservée.
+     *
+     * @param pIndex le numéro de la ligne, 0 étant la plus ancienne encore en mémoire
+     * @return l'indice de la ligne dans aLines et aWidths
+     */
+    private int slot( final int pIndex )
+    {
+        return ( this.aFirst + pIndex ) % this.aLines.length;
+    } // slot(*)
+
+    /**
+     * Ajoute une nouvelle ligne, en faisant sortir la plus ancienne si le tampon est plein.
+     * Si la ligne qui sort était la plus longue, la largeur maximale est recalculée
+     * (la largeur de la nouvelle ligne est comptée ensuite par append).
+     *
+     * @param pLine la ligne à ajouter
+     */
+    private void addLine( final String pLine )
+    {
+        if ( this.aCount == this.aLines.length ) {
+            this.spill( this.aLines[ this.aFirst ] );
+            boolean vWasWidest = this.aWidths[ this.aFirst ] == this.aMaxLineWidth;
+            this.aLines[ this.aFirst ] = pLine;
+            this.aWidths[ this.aFirst ] = 0;
+            this.aFirst = ( this.aFirst + 1 ) % this.aLines.length;
+            this.aDropped++;
+            if ( vWasWidest ) {
+                this.aMaxLineWidth = 0;
+                for ( int vWidth : this.aWidths ) {
+                    this.aMaxLineWidth = Math.max( this.aMaxLineWidth, vWidth );
+                }
+            }
+        }
+        else {
+            this.aLines[ this.slot( this.aCount ) ] = pLine;
+            this.aWidths[ this.slot( this.aCount ) ] = 0;
+            this.aCount++;
+        }
+    } // addLine(*)
+
+    /**
+     * Remplace la dernière ligne (encore inachevée).
+     *
+     * @param pLine le nouveau texte de la dernière ligne
+     */
+    private void setLastLine( final String pLine )
+    {
+        this.aLines[ this.slot( this.aCount - 1 ) ] = pLine;
+    } // setLastLine(*)
+
+    /**
+     * Commence une sélection à l'endroit où l'on a cliqué.
+     *
+     * @param pPoint le point cliqué, dans les coordonnées de la zone
+     */
+    private void startSelection( final Point pPoint )
+    {
+        if ( this.aCount == 0 ) {
+            return;
+        }
+        int vLine = this.lineAt( pPoint.y );
+        this.aAnchorLine = this.aDropped + vLine;
+        this.aAnchorColumn = this.columnAt( vLine, pPoint.x );
+        this.aCaretLine = this.aAnchorLine;
+        this.aCaretColumn = this.aAnchorColumn;
+        this.repaint();
+    } // startSelection(*)
+
+    /**
+     * Étend la sélection jusqu'à l'endroit où se trouve la souris, en faisant défiler si besoin.
+     *
+     * @param pPoint la position de la souris, dans les coordonnées de la zone
+     */
+    private void extendSelection( final Point pPoint )
+    {
+        if ( this.aAnchorLine < 0 ) {
+            return;
+        }
+        int vLine = this.lineAt( pPoint.y );
+        this.aCaretLine = this.aDropped + vLine;
+        this.aCaretColumn = this.columnAt( vLine, pPoint.x );
+        this.scrollRectToVisible( new Rectangle( pPoint.x, pPoint.y, 1, 1 ) );
+        this.repaint();
+    } // extendSelection(*)
+
+    /**
+     * Renvoie la ligne conservée qui se trouve à une hauteur donnée.
+     *
+     * @param pY la hauteur, dans les coordonnées de la zone
+     * @return le numéro de la ligne, 0 étant la plus ancienne encore en mémoire
+     */
+    private int lineAt( final int pY )
+    {
+        int vLineHeight = this.getFontMetrics( this.getFont() ).getHeight();
+        return Math.max( 0, Math.min( this.aCount - 1, ( pY - MARGIN ) / vLineHeight ) );
+    } // lineAt(*)
+
+    /**
+     * Renvoie la colonne d'une ligne la plus proche d'une abscisse donnée.
+     *
+     * @param pLine le numéro de la ligne, 0 étant la plus ancienne encore en mémoire
+     * @param pX l'abscisse, dans les coordonnées de la zone
+     * @return le nombre de caractères de la ligne à gauche de cette abscisse
+     */
+    private int columnAt( final int pLine, final int pX )
+    {
+        FontMetrics vMetrics = this.getFontMetrics( this.getFont() );
+        String vLine = this.getLine( pLine );
+        int vX = MARGIN;
+        for ( int vI = 0; vI < vLine.length(); vI++ ) {
+            int vCharWidth = vMetrics.charWidth( vLine.charAt( vI ) );
+            if ( pX < vX + vCharWidth / 2 ) {
+                return vI;
+            }
+            vX += vCharWidth;
+        }
+        return vLine.length();
+    } // columnAt(*)
+
+    /**
+     * Indique s'il y a une sélection non vide dont une partie est encore en mémoire.
+     *
+     * @return true si du texte est sélectionné
+     */
+    private boolean hasSelection()
+    {
+        if ( this.aAnchorLine < 0
+             || ( this.aAnchorLine == this.aCaretLine && this.aAnchorColumn == this.aCaretColumn ) ) {
+            return false;
+        }
+        return Math.max( this.aAnchorLine, this.aCaretLine ) >= this.aDropped;
+    } // hasSelection()
+
+    /**
+     * Indique si la sélection a commencé avant l'endroit où elle se termine.
+     *
+     * @return true si l'ancre de la sélection est avant le curseur
+     */
+    private boolean anchorFirst()
+    {
+        return this.aAnchorLine < this.aCaretLine
+               || ( this.aAnchorLine == this.aCaretLine && this.aAnchorColumn <= this.aCaretColumn );
+    } // anchorFirst()
+
+    /**
+     * Renvoie la première ligne sélectionnée encore en mémoire.
+     *
+     * @return le numéro de la ligne, 0 étant la plus ancienne encore en mémoire
+     */
+    private int selectionStartLine()
+    {
+        long vLine = this.anchorFirst() ? this.aAnchorLine : this.aCaretLine;
+        return (int)Math.max( 0, vLine - this.aDropped );
+    } // selectionStartLine()
+
+    /**
+     * Renvoie la colonne où commence la sélection, dans sa première ligne encore en mémoire.
+     *
+     * @return la colonne de début (0 si le début de la sélection est sorti du tampon)
+     */
+    private int selectionStartColumn()
+    {
+        long vLine = this.anchorFirst() ? this.aAnchorLine : this.aCaretLine;
+        if ( vLine < this.aDropped ) {
+            return 0;
+        }
+        int vColumn = this.anchorFirst() ? this.aAnchorColumn : this.aCaretColumn;
+        return Math.min( vColumn, this.getLine( this.selectionStartLine() ).length() );
+    } // selectionStartColumn()
+
+    /**
+     * Renvoie la dernière ligne sélectionnée.
+     *
+     * @return le numéro de la ligne, 0 étant la plus ancienne encore en mémoire
+     */
+    private int selectionEndLine()
+    {
+        long vLine = this.anchorFirst() ? this.aCaretLine : this.aAnchorLine;
+        return (int)( vLine - this.aDropped );
+    } // selectionEndLine()
+
+    /**
+     * Renvoie la colonne où se termine la sélection, dans sa dernière ligne.
+     *
+     * @return la colonne de fin (exclue)
+     */
+    private int selectionEndColumn()
+    {
+        int vColumn = this.anchorFirst() ? this.aCaretColumn : this.aAnchorColumn;
+        return Math.min( vColumn, this.getLine( this.selectionEndLine() ).length() );
+    } // selectionEndColumn()
+
+    /**
+     * Recopie une ligne oubliée dans le fichier de débordement, s'il y en a un.
+     *
+     * @param pLine la ligne qui sort du tampon
+     */
+    private void spill( final String pLine )
+    {
+        if ( this.aSpill == null ) {
+            return;
+        }
+        try {
+            this.aSpill.write( pLine );
+            this.aSpill.write( '\n' );
+        }
+        catch ( final IOException pIOE ) {
+            System.out.println( "Impossible d'écrire l'historique : " + pIOE.getMessage() );
+            this.aSpill = null;
+        }
+    } // spill(*)
+
+    /**
+     * Envoie vers le disque les lignes en attente dans le fichier de débordement.
+     */
+    private void flushSpill()
+    {
+        if ( this.aSpill == null ) {
+            return;
+        }
+        try {
+            this.aSpill.flush();
+        }
+        catch ( final IOException pIOE ) {
+            System.out.println( "Impossible d'écrire l'historique : " + pIOE.getMessage() );
+            this.aSpill = null;
+        }
+    } // flushSpill()
+
+    /**
+     * Dessine uniquement les lignes qui se trouvent dans la zone à repeindre.
+     *
+     * @param pGraphics le contexte graphique
+     */
+    @Override protected void paintComponent( final Graphics pGraphics )
+    {
+        Rectangle vClip = pGraphics.getClipBounds();
+        if ( vClip == null ) {
+            vClip = new Rectangle( 0, 0, this.getWidth(), this.getHeight() );
+        }
+        pGraphics.setColor( this.getBackground() );
+        pGraphics.fillRect( vClip.x, vClip.y, vClip.width, vClip.height );
+
+        Font vFont = this.getFont();
+        FontMetrics vMetrics = pGraphics.getFontMetrics( vFont );
+        int vLineHeight = vMetrics.getHeight();
+        int vFirstLine = Math.max( 0, ( vClip.y - MARGIN ) / vLineHeight );
+        int vLastLine = Math.min( this.aCount - 1, ( vClip.y + vClip.height - MARGIN ) / vLineHeight );
+
+        if ( this.hasSelection() ) { // le fond des lignes sélectionnées
+            int vStartLine = this.selectionStartLine();
+            int vEndLine = this.selectionEndLine();
+            pGraphics.setColor( UIManager.getColor( "TextArea.selectionBackground" ) );
+            for ( int vI = Math.max( vFirstLine, vStartLine ); vI <= Math.min( vLastLine, vEndLine ); vI++ ) {
+                String vLine = this.getLine( vI );
+                int vFrom = vI == vStartLine ? vMetrics.stringWidth( vLine.substring( 0, this.selectionStartColumn() ) ) : 0;
+                int vTo = vI == vEndLine ? vMetrics.stringWidth( vLine.substring( 0, this.selectionEndColumn() ) )
+                                         : this.aWidths[ this.slot( vI ) ] + vMetrics.charWidth( ' ' );
+                pGraphics.fillRect( MARGIN + vFrom, MARGIN + vI * vLineHeight, vTo - vFrom, vLineHeight );
+            }
+        }
+
+        pGraphics.setFont( vFont );
+        pGraphics.setColor( this.getForeground() );
+        for ( int vI = vFirstLine; vI <= vLastLine; vI++ ) {
+            pGraphics.drawString( this.getLine( vI ), MARGIN, MARGIN + vI * vLineHeight + vMetrics.getAscent() );
+        }
+    } // paintComponent(*)
+
+    /**
+     * Renvoie la taille nécessaire pour afficher toutes les lignes conservées.
+     *
+     * @return la taille préférée de la zone
+     */
+    @Override public Dimension getPreferredSize()
+    {
+        int vLineHeight = this.getFontMetrics( this.getFont() ).getHeight();
+        return new Dimension( this.aMaxLineWidth + 2 * MARGIN, this.aCount * vLineHeight + 2 * MARGIN );
+    } // getPreferredSize()
+
+    @Override public Dimension getPreferredScrollableViewportSize()
+    {
+        return this.getPreferredSize();
+    } // getPreferredScrollableViewportSize()
+
+    @Override public int getScrollableUnitIncrement( final Rectangle pVisibleRect, final int pOrientation, final int pDirection )
+    {
+        return pOrientation == SwingConstants.VERTICAL ? this.getFontMetrics( this.getFont() ).getHeight() : 10;
+    } // getScrollableUnitIncrement(*,*,*)
+
+    @Override public int getScrollableBlockIncrement( final Rectangle pVisibleRect, final int pOrientation, final int pDirection )
+    {
+        return pOrientation == SwingConstants.VERTICAL ? pVisibleRect.height : pVisibleRect.width;
+    } // getScrollableBlockIncrement(*,*,*)
+
+    @Override public boolean getScrollableTracksViewportWidth()
+    {
+        return this.getParent() != null && this.getParent().getWidth() > this.getPreferredSize().width;
+    } // getScrollableTracksViewportWidth()
+
+    @Override public boolean getScrollableTracksViewportHeight()
+    {
+        return this.getParent() != null && this.getParent().getHeight() > this.getPreferredSize().height;
+    } // getScrollableTracksViewportHeight()
+} // TranscriptView
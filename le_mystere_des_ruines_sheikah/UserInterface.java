@@ -1,19 +1,20 @@
 import java.awt.BorderLayout;
 import java.awt.Dimension;
-import java.awt.Image;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
-import java.net.URL;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
 import javax.swing.ImageIcon;
 import javax.swing.JButton;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
-import javax.swing.JTextArea;
 import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
 
 /**
  * Classe UserInterface - l'interface graphique du jeu "le mystère des ruines Sheikah".
@@ -23,10 +24,16 @@ import javax.swing.JTextField;
  * @author Michael Kolling, Benoît de Keyn
  * @version 2025.12.25
  */
-public class UserInterface implements ActionListener
+public class UserInterface implements ActionListener, OutputSink
 {
-    /** Le moteur de jeu qui traite les commandes. */
-    private GameEngine aEngine;
+    /** Le budget mémoire par défaut du cache d'images (32 Mo), modifiable par la propriété sheikah.imageCacheBytes. */
+    private static final long DEFAULT_IMAGE_CACHE_BYTES = 32L * 1024 * 1024;
+
+    /** Le nombre de lignes d'historique gardées à l'écran, modifiable par la propriété sheikah.transcriptLines. */
+    private static final int DEFAULT_TRANSCRIPT_LINES = 2000;
+
+    /** Le moteur de jeu qui traite les commandes (null tant qu'il n'est pas prêt). */
+    private volatile GameEngine aEngine;
     
     /** La fenêtre principale de l'interface graphique. */
     private JFrame     aMyFrame;
@@ -34,14 +41,26 @@ public class UserInterface implements ActionListener
     /** Le champ de saisie pour entrer les commandes. */
     private JTextField aEntryField;
     
-    /** La zone de texte qui affiche l'historique du jeu. */
-    private JTextArea  aLog;
+    /** La zone de texte qui affiche l'historique du jeu (nombre de lignes limité). */
+    private TranscriptView aLog;
     
     /** L'étiquette qui affiche l'image de la salle courante. */
     private JLabel     aImage;
     
     /** Le chemin du dossier contenant les images. */
     private String     aImagesFolder;
+
+    /** Le cache des images déjà décodées et redimensionnées à 600x450. */
+    private final ImageCache aImageCache;
+
+    /** Le préchargeur des images des salles voisines. */
+    private final ImagePrefetcher aPrefetcher;
+
+    /** Le texte affiché par le moteur depuis le dernier flush, pas encore envoyé à l'écran. */
+    private final StringBuilder aPendingText;
+
+    /** La dernière image demandée depuis le dernier flush (null si aucune). */
+    private String aPendingImage;
     
     /** Le bouton pour exécuter la commande "respirer". */
     private JButton    aLoadButton;
@@ -57,20 +76,70 @@ public class UserInterface implements ActionListener
      */
     public UserInterface( final GameEngine pGameEngine )
     {
-        this.aEngine = pGameEngine;
-        this.createGUI();
-        this.aImagesFolder = "";
+        this();
+        this.setEngine( pGameEngine );
     } // UserInterface(.)
 
+    /**
+     * Crée une nouvelle interface utilisateur, avant que le moteur de jeu soit prêt.
+     * La fenêtre est construite sur le thread de l'interface (EDT) : le constructeur rend la main
+     * tout de suite, et le monde peut être chargé pendant ce temps. Le champ de saisie et les boutons
+     * restent désactivés jusqu'à l'appel de setEngine : aucune commande ne peut être tapée puis perdue.
+     */
+    public UserInterface()
+    {
+        this.aEngine = null;
+        this.aImageCache = new ImageCache( 600, 450,
+            Long.getLong( "sheikah.imageCacheBytes", DEFAULT_IMAGE_CACHE_BYTES ) );
+        this.aPrefetcher = new ImagePrefetcher( this.aImageCache );
+        this.aPendingText = new StringBuilder();
+        this.aPendingImage = null;
+        this.aImagesFolder = "";
+        if ( SwingUtilities.isEventDispatchThread() ) {
+            this.createGUI();
+        }
+        else {
+            SwingUtilities.invokeLater( this::createGUI );
+        }
+    } // UserInterface()
+
+    /**
+     * Lie l'interface au moteur de jeu qui traitera les commandes saisies,
+     * puis active la saisie (sur le thread de l'interface, une fois la fenêtre construite).
+     *
+     * @param pGameEngine le moteur de jeu
+     */
+    public void setEngine( final GameEngine pGameEngine )
+    {
+        this.aEngine = pGameEngine;
+        if ( SwingUtilities.isEventDispatchThread() ) {
+            this.setInputEnabled( true );
+        }
+        else {
+            SwingUtilities.invokeLater( () -> this.setInputEnabled( true ) );
+        }
+    } // setEngine(.)
+
+    /**
+     * Décode une image et la garde en cache, sur le thread appelant, pour qu'elle soit prête
+     * quand elle sera affichée (par exemple l'image de la salle de départ, pendant la construction de la fenêtre).
+     *
+     * @param pImagePath le chemin de l'image (dossier compris)
+     */
+    public void preloadImage( final String pImagePath )
+    {
+        this.aImageCache.prefetch( pImagePath );
+    } // preloadImage(.)
+
     /**
      * Affiche du texte dans la zone de texte.
+     * Le texte est mis en attente et n'apparaît à l'écran qu'au prochain flush.
      *
      * @param pText le texte à afficher
      */
-    public void print( final String pText )
+    @Override public synchronized void print( final String pText )
     {
-        this.aLog.append( pText );
-        this.aLog.setCaretPosition( this.aLog.getDocument().getLength() );
+        this.aPendingText.append( pText );
     } // print(.)
 
     /**
@@ -78,7 +147,7 @@ public class UserInterface implements ActionListener
      *
      * @param pText le texte à afficher
      */
-    public void println( final String pText )
+    @Override public void println( final String pText )
     {
         this.print( pText + "\n" );
     } // println(.)
@@ -88,37 +157,105 @@ public class UserInterface implements ActionListener
      *
      * @param pFolder le chemin du dossier contenant les images
      */
-    public void setImagesFolder( final String pFolder )
+    @Override public void setImagesFolder( final String pFolder )
     {
         this.aImagesFolder = pFolder;
+        this.aPrefetcher.setImagesFolder( pFolder );
     } // setImagesFolder(.)
 
     /**
      * Affiche une image dans l'interface graphique.
-     * L'image est redimensionnée automatiquement à 600x450 pixels.
+     * L'image est mise en attente jusqu'au prochain flush : si plusieurs images sont
+     * demandées entre deux flushs, seule la dernière est affichée.
+     *
+     * @param pImageName le nom du fichier image à afficher
+     */
+    @Override public synchronized void showImage( final String pImageName )
+    {
+        this.aPendingImage = pImageName;
+    } // showImage(.)
+
+    /**
+     * Envoie à l'écran, en une seule mise à jour sur le thread de l'interface (EDT),
+     * tout le texte et la dernière image demandés depuis le flush précédent.
+     */
+    @Override public void flush()
+    {
+        String vText;
+        String vImageName;
+        synchronized ( this ) {
+            vText = this.aPendingText.toString();
+            vImageName = this.aPendingImage;
+            this.aPendingText.setLength( 0 );
+            this.aPendingImage = null;
+        }
+        if ( vText.isEmpty() && vImageName == null ) {
+            return;
+        }
+        Runnable vUpdate = () -> {
+            this.aLog.append( vText );
+            if ( vImageName != null ) {
+                this.displayImage( vImageName );
+            }
+        };
+        if ( SwingUtilities.isEventDispatchThread() ) {
+            vUpdate.run();
+        }
+        else {
+            SwingUtilities.invokeLater( vUpdate );
+        }
+    } // flush()
+
+    /**
+     * Affiche réellement une image dans l'interface graphique.
+     * L'image est redimensionnée automatiquement à 600x450 pixels ;
+     * une image déjà affichée est reprise du cache sans être décodée à nouveau.
      *
      * @param pImageName le nom du fichier image à afficher
      */
-    public void showImage( final String pImageName )
+    private void displayImage( final String pImageName )
     {
         String vImagePath = this.aImagesFolder + pImageName; // to change the directory
-        URL vImageURL = this.getClass().getClassLoader().getResource( vImagePath );
-        if ( vImageURL == null )
+        long vDecode = Tracer.begin();
+        BufferedImage vScaledImage = this.aImageCache.getImage( vImagePath );
+        Tracer.end( Tracer.Span.IMAGE, vDecode, pImageName );
+        if ( vScaledImage == null )
             System.out.println( "Image not found : " + vImagePath );
         else {
-            ImageIcon vIcon = new ImageIcon( vImageURL );
-            Image vScaledImage = vIcon.getImage().getScaledInstance( 600, 450, Image.SCALE_SMOOTH );
             this.aImage.setIcon( new ImageIcon( vScaledImage ) );
+            long vPack = Tracer.begin();
             this.aMyFrame.pack();
+            Tracer.end( Tracer.Span.PACK, vPack );
         }
-    } // showImage(.)
+    } // displayImage(.)
+
+    /**
+     * Lance en arrière-plan le décodage des images des salles accessibles depuis la salle donnée.
+     *
+     * @param pRoom la salle dans laquelle le joueur vient d'entrer
+     * @param pState l'état de la partie (pour savoir quelles portes sont verrouillées)
+     */
+    @Override public void prefetchExitImages( final Room pRoom, final WorldState pState )
+    {
+        this.aPrefetcher.prefetchExits( pRoom, pState );
+    } // prefetchExitImages(.,.)
+
+    /**
+     * Renvoie le cache des images affichées (pour consulter ses compteurs de succès/échecs).
+     *
+     * @return le cache d'images de l'interface
+     */
+    public ImageCache getImageCache()
+    {
+        return this.aImageCache;
+    } // getImageCache()
 
     /**
      * Active ou désactive la saisie dans le champ de texte.
      *
      * @param pOnOff true pour activer la saisie, false pour la désactiver
      */
-    public void enable( final boolean pOnOff )
+    @Override public void enable( final boolean pOnOff )
     {
         this.aEntryField.setEditable( pOnOff ); // enable/disable
         if ( pOnOff ) { // enable
@@ -131,6 +268,19 @@ public class UserInterface implements ActionListener
         }
     } // enable(.)
 
+    /**
+     * Active ou désactive le champ de saisie et les boutons, avant que le moteur soit prêt.
+     * Contrairement à enable, les écouteurs restent en place.
+     *
+     * @param pOnOff true pour accepter les commandes, false pour les refuser
+     */
+    private void setInputEnabled( final boolean pOnOff )
+    {
+        this.aEntryField.setEditable( pOnOff );
+        this.aLoadButton.setEnabled( pOnOff );
+        this.aTriggerButton.setEnabled( pOnOff );
+    } // setInputEnabled(.)
+
     /**
      * Configure et crée l'interface utilisateur graphique.
      * Initialise la fenêtre, les panneaux, les boutons et les écouteurs d'événements.
@@ -140,8 +290,16 @@ public class UserInterface implements ActionListener
         this.aMyFrame = new JFrame( "Le mystère des ruines Sheikah" );
         this.aEntryField = new JTextField( 34 );
 
-        this.aLog = new JTextArea();
-        this.aLog.setEditable( false );
+        this.aLog = new TranscriptView( Integer.getInteger( "sheikah.transcriptLines", DEFAULT_TRANSCRIPT_LINES ) );
+        String vSpillFile = System.getProperty( "sheikah.transcriptFile" );
+        if ( vSpillFile != null ) { // les lignes qui sortent de l'écran sont gardées dans ce fichier
+            try {
+                this.aLog.setSpillFile( Path.of( vSpillFile ) );
+            }
+            catch ( final IOException pIOE ) {
+                System.out.println( "Impossible d'ouvrir le fichier d'historique : " + vSpillFile );
+            }
+        }
         JScrollPane vListScroller = new JScrollPane( this.aLog );
         vListScroller.setPreferredSize( new Dimension(200, 300) );
         vListScroller.setMinimumSize( new Dimension(100, 200) );
@@ -164,12 +322,14 @@ public class UserInterface implements ActionListener
         this.aEntryField.addActionListener( this );
         this.aLoadButton.addActionListener( this );
         this.aTriggerButton.addActionListener( this );
+        this.setInputEnabled( this.aEngine != null ); // activée par setEngine
 
         // to end program when window is closed
         this.aMyFrame.addWindowListener(
             new WindowAdapter() { // anonymous class
                 @Override public void windowClosing(final WindowEvent pE)
                 {
+                    UserInterface.this.aLog.closeSpill(); // termine le fichier d'historique avant de quitter
                     System.exit(0);
                 }
         } );
@@ -187,6 +347,9 @@ public class UserInterface implements ActionListener
      */
     @Override public void actionPerformed( final ActionEvent pE ) 
     {
+        if ( this.aEngine == null ) { // le monde n'est pas encore chargé
+            return;
+        }
         // clic du bouton
         if ( pE.getSource() == this.aLoadButton ) {
             this.aEngine.interpretCommand( "charger" );
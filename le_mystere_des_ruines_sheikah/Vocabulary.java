@@ -0,0 +1,218 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Classe Vocabulary - un dictionnaire compilé de mots pour le jeu "le mystère des ruines Sheikah".
+ * Les mots (et leurs alias) sont rangés une fois pour toutes dans un arbre de préfixes (trie),
+ * chaque mot étant associé à une valeur d'une énumération. Une recherche ne dépend que de la
+ * longueur du mot cherché, pas du nombre de mots connus, et ne crée aucun objet.
+ * Un mot incomplet est accepté s'il est le début d'une seule valeur (abréviation sans ambiguïté),
+ * sauf pour les mots ajoutés sans abréviation : leurs débuts ne désignent rien, pas même une autre valeur.
+ *
+ * @param <E> l'énumération associée aux mots
+ *
+ * @author  Benoît de Keyn
+ * @version 2026.02.04
+ */
+public class Vocabulary<E extends Enum<E>>
+{
+    /** Valeur d'un noeud qui ne correspond à aucun mot. */
+    private static final int NONE = -1;
+
+    /** Valeur d'un préfixe commun à des mots de valeurs différentes. */
+    private static final int AMBIGUOUS = -2;
+
+    /** Les valeurs de l'énumération, indexées par leur numéro d'ordre. */
+    private final E[] aValues;
+
+    /** La racine de l'arbre (le mot vide). */
+    private final Node aRoot;
+
+    /**
+     * Un noeud de l'arbre : un préfixe de un ou plusieurs mots.
+     */
+    private static class Node
+    {
+        /** Les caractères qui suivent ce préfixe, triés. */
+        private char[] aKeys = new char[0];
+
+        /** Les noeuds suivants, dans le même ordre que aKeys. */
+        private Node[] aChildren = new Node[0];
+
+        /** Le numéro de la valeur dont ce préfixe est un mot complet, ou NONE. */
+        private int aExact = NONE;
+
+        /** Le numéro de la seule valeur qui commence par ce préfixe, NONE ou AMBIGUOUS. */
+        private int aPrefix = NONE;
+
+        /**
+         * Renvoie le noeud suivant pour un caractère.
+         *
+         * @param pChar le caractère suivant
+         * @return le noeud suivant, ou null s'il n'existe pas
+         */
+        private Node child( final char pChar )
+        {
+            int vIndex = Arrays.binarySearch( this.aKeys, pChar );
+            return vIndex < 0 ? null : this.aChildren[vIndex];
+        } // child(*)
+
+        /**
+         * Renvoie le noeud suivant pour un caractère, en le créant s'il n'existe pas.
+         *
+         * @param pChar le caractère suivant
+         * @return le noeud suivant
+         */
+        private Node getOrAddChild( final char pChar )
+        {
+            int vIndex = Arrays.binarySearch( this.aKeys, pChar );
+            if ( vIndex >= 0 ) {
+                return this.aChildren[vIndex];
+            }
+            int vInsert = -vIndex - 1;
+            char[] vKeys = new char[ this.aKeys.length + 1 ];
+            Node[] vChildren = new Node[ this.aChildren.length + 1 ];
+            System.arraycopy( this.aKeys, 0, vKeys, 0, vInsert );
+            System.arraycopy( this.aChildren, 0, vChildren, 0, vInsert );
+            System.arraycopy( this.aKeys, vInsert, vKeys, vInsert + 1, this.aKeys.length - vInsert );
+            System.arraycopy( this.aChildren, vInsert, vChildren, vInsert + 1, this.aChildren.length - vInsert );
+            vKeys[vInsert] = pChar;
+            vChildren[vInsert] = new Node();
+            this.aKeys = vKeys;
+            this.aChildren = vChildren;
+            return vChildren[vInsert];
+        } // getOrAddChild(*)
+    } // Node
+
+    /**
+     * Crée un vocabulaire vide pour une énumération.
+     *
+     * @param pEnumClass la classe de l'énumération associée aux mots
+     */
+    public Vocabulary( final Class<E> pEnumClass )
+    {
+        this.aValues = pEnumClass.getEnumConstants();
+        this.aRoot = new Node();
+    } // Vocabulary(*)
+
+    /**
+     * Ajoute un mot au vocabulaire, qui pourra être abrégé.
+     *
+     * @param pWord le mot (non vide)
+     * @param pValue la valeur associée au mot
+     */
+    public void add( final String pWord, final E pValue )
+    {
+        this.add( pWord, pValue, true );
+    } // add(*,*)
+
+    /**
+     * Ajoute un mot au vocabulaire.
+     * Un mot sans abréviation rend ambigus tous ses débuts : ils ne désignent ni ce mot,
+     * ni un autre mot qui commencerait de la même façon.
+     *
+     * @param pWord le mot (non vide)
+     * @param pValue la valeur associée au mot
+     * @param pAbbreviable false si le mot ne doit être reconnu qu'en entier
+     */
+    public void add( final String pWord, final E pValue, final boolean pAbbreviable )
+    {
+        int vId = pAbbreviable ? pValue.ordinal() : AMBIGUOUS;
+        Node vNode = this.aRoot;
+        for ( int vI = 0; vI < pWord.length(); vI++ ) {
+            vNode = vNode.getOrAddChild( pWord.charAt( vI ) );
+            if ( vNode.aPrefix == NONE ) {
+                vNode.aPrefix = vId;
+            }
+            else if ( vNode.aPrefix != vId ) {
+                vNode.aPrefix = AMBIGUOUS;
+            }
+        }
+        vNode.aExact = pValue.ordinal();
+    } // add(*,*,*)
+
+    /**
+     * Cherche un mot complet ou une abréviation sans ambiguïté.
+     *
+     * @param pWord le mot cherché (peut être null)
+     * @return la valeur associée, ou null si le mot est inconnu ou ambigu
+     */
+    public E find( final String pWord )
+    {
+        return pWord == null ? null : this.find( pWord, 0, pWord.length() );
+    } // find(*)
+
+    /**
+     * Cherche le mot écrit entre deux positions d'une suite de caractères.
+     *
+     * @param pText le texte contenant le mot
+     * @param pStart la position du premier caractère du mot
+     * @param pEnd la position qui suit le dernier caractère du mot
+     * @return la valeur associée, ou null si le mot est inconnu ou ambigu
+     */
+    public E find( final CharSequence pText, final int pStart, final int pEnd )
+    {
+        Node vNode = this.aRoot;
+        for ( int vI = pStart; vI < pEnd && vNode != null; vI++ ) {
+            vNode = vNode.child( pText.charAt( vI ) );
+        }
+        return this.valueOf( vNode, pStart, pEnd );
+    } // find(*,*,*)
+
+    /**
+     * Cherche le mot écrit en UTF-8 entre deux positions d'un tampon d'octets.
+     * Les caractères sont décodés au fil de la recherche ; la position du tampon n'est pas modifiée.
+     *
+     * @param pBuffer le tampon contenant le mot
+     * @param pStart la position du premier octet du mot
+     * @param pEnd la position qui suit le dernier octet du mot
+     * @return la valeur associée, ou null si le mot est inconnu, ambigu ou mal encodé
+     */
+    public E find( final ByteBuffer pBuffer, final int pStart, final int pEnd )
+    {
+        Node vNode = this.aRoot;
+        int vI = pStart;
+        while ( vI < pEnd && vNode != null ) {
+            int vByte = pBuffer.get( vI ) & 0xFF;
+            int vChar;
+            int vLength;
+            if ( vByte < 0x80 ) {
+                vChar = vByte;
+                vLength = 1;
+            }
+            else if ( ( vByte & 0xE0 ) == 0xC0 && vI + 1 < pEnd ) {
+                vChar = ( ( vByte & 0x1F ) << 6 ) | ( pBuffer.get( vI + 1 ) & 0x3F );
+                vLength = 2;
+            }
+            else if ( ( vByte & 0xF0 ) == 0xE0 && vI + 2 < pEnd ) {
+                vChar = ( ( vByte & 0x0F ) << 12 ) | ( ( pBuffer.get( vI + 1 ) & 0x3F ) << 6 ) | ( pBuffer.get( vI + 2 ) & 0x3F );
+                vLength = 3;
+            }
+            else {
+                return null; // caractère hors du vocabulaire
+            }
+            vNode = vNode.child( (char) vChar );
+            vI += vLength;
+        }
+        return this.valueOf( vNode, pStart, pEnd );
+    } // find(*,*,*)
+
+    /**
+     * Renvoie la valeur désignée par le noeud atteint à la fin d'une recherche.
+     *
+     * @param pNode le noeud atteint (null si le mot n'est pas dans l'arbre)
+     * @param pStart le début du mot
+     * @param pEnd la fin du mot
+     * @return la valeur du mot complet, sinon celle de l'abréviation sans ambiguïté, sinon null
+     */
+    private E valueOf( final Node pNode, final int pStart, final int pEnd )
+    {
+        if ( pNode == null || pStart >= pEnd ) {
+            return null;
+        }
+        if ( pNode.aExact != NONE ) {
+            return this.aValues[ pNode.aExact ];
+        }
+        return pNode.aPrefix >= 0 ? this.aValues[ pNode.aPrefix ] : null;
+    } // valueOf(*,*,*)
+} // Vocabulary
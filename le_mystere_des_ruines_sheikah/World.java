@@ -0,0 +1,476 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Classe World - la carte du jeu "le mystère des ruines Sheikah" : salles, passages, portes
+ * et objets tels qu'ils sont au lancement d'une partie.
+ * Un monde est construit une seule fois puis figé : il est alors partagé, en lecture seule,
+ * par toutes les parties (y compris les sessions du serveur, depuis plusieurs threads).
+ * Ce qui change pendant une partie (objets déplacés, portes, téléporteur) est rangé
+ * dans l'état propre à chaque partie (WorldState).
+ * Le monde du jeu est décrit dans le fichier ruines_sheikah.monde (voir WorldLoader).
+ * Les salles, les objets et les portes y sont numérotés dans l'ordre de leur déclaration,
+ * ce qui permet de les désigner par un simple entier (sauvegardes, journal...).
+ * Une fois figé, le monde range toutes les sorties de ses salles dans un graphe (RoomGraph).
+ * Il garde aussi la description de chaque salle telle qu'elle est au lancement (objets et portes de départ),
+ * calculée à la première demande de n'importe quelle partie puis resservie à toutes,
+ * ainsi que les tables d'itinéraires déjà calculées (voir RouteIndex).
+ *
+ * @author  Benoît de Keyn
+ * @version 2026.02.04
+ */
+public class World
+{
+    /** Les salles du monde (nom -> salle). */
+    private final HashMap<String, Room> aRooms;
+
+    /** Les objets du monde (nom -> objet). */
+    private final HashMap<String, Item> aItems;
+
+    /** Les noms des salles, par numéro de salle. */
+    private final ArrayList<String> aRoomNames;
+
+    /** Les salles, par numéro de salle. */
+    private final ArrayList<Room> aRoomList;
+
+    /** Les objets, par numéro d'objet. */
+    private final ArrayList<Item> aItemList;
+
+    /** Les portes, par numéro de porte (calculé quand le monde est figé). */
+    private Door[] aDoorList;
+
+    /** Les numéros des portes (calculé quand le monde est figé). */
+    private IdentityHashMap<Door, Integer> aDoorIds;
+
+    /** La salle de départ du joueur. */
+    private Room aStartRoom;
+
+    /** Indique si le monde est figé (plus aucune modification possible). */
+    private boolean aFrozen;
+
+    /** Le graphe des sorties de toutes les salles (calculé quand le monde est figé). */
+    private RoomGraph aGraph;
+
+    /** Les salles où une salle de téléportation aléatoire peut envoyer le joueur (calculé quand le monde est figé). */
+    private List<Room> aRandomRooms;
+
+    /** Les tables d'itinéraires partagées par les parties (créées quand le monde est figé). */
+    private RouteIndex.TableCache aRouteTables;
+
+    /** La description de départ de chaque salle, par numéro de salle (null tant qu'elle n'a pas été demandée). */
+    private AtomicReferenceArray<String> aDescriptions;
+
+    /**
+     * Le monde par défaut, construit au premier usage seulement (et une seule fois, même entre threads).
+     */
+    private static class DefaultHolder
+    {
+        /** Le monde des ruines Sheikah. */
+        private static final World DEFAULT = loadDefault();
+
+        /**
+         * Charge le monde par défaut.
+         *
+         * @return le monde chargé
+         */
+        private static World loadDefault()
+        {
+            try {
+                return WorldLoader.loadDefault();
+            }
+            catch ( final IOException pIOE ) {
+                throw new UncheckedIOException( "Impossible de charger le monde du jeu", pIOE );
+            }
+        } // loadDefault()
+    } // DefaultHolder
+
+    /**
+     * Crée un monde vide, à remplir avec createRoom, addItem... puis à figer avec freeze.
+     */
+    public World()
+    {
+        this.aRooms = new HashMap<String, Room>();
+        this.aItems = new HashMap<String, Item>();
+        this.aRoomNames = new ArrayList<String>();
+        this.aRoomList = new ArrayList<Room>();
+        this.aItemList = new ArrayList<Item>();
+        this.aDoorList = new Door[0];
+        this.aDoorIds = new IdentityHashMap<Door, Integer>();
+        this.aStartRoom = null;
+        this.aFrozen = false;
+        this.aGraph = null;
+        this.aRandomRooms = Collections.emptyList();
+        this.aRouteTables = null;
+        this.aDescriptions = new AtomicReferenceArray<String>( 0 );
+    } // World()
+
+    /**
+     * Renvoie le monde des ruines Sheikah, partagé par toutes les parties.
+     *
+     * @return le monde par défaut (figé)
+     */
+    public static World getDefault()
+    {
+        return DefaultHolder.DEFAULT;
+    } // getDefault()
+
+    /**
+     * Crée une salle et l'ajoute au monde.
+     *
+     * @param pName le nom unique de la salle
+     * @param pDescription la description textuelle de la salle
+     * @param pImage le nom du fichier image représentant la salle
+     * @return la salle créée
+     */
+    public Room createRoom( final String pName, final String pDescription, final String pImage )
+    {
+        return this.addRoom( pName, new Room( pDescription, pImage ) );
+    } // createRoom(*,*,*)
+
+    /**
+     * Crée une salle de téléportation aléatoire et l'ajoute au monde.
+     *
+     * @param pName le nom unique de la salle
+     * @param pDescription la description textuelle de la salle
+     * @param pImage le nom du fichier image représentant la salle
+     * @return la salle créée
+     */
+    public Room createTransporterRoom( final String pName, final String pDescription, final String pImage )
+    {
+        return this.addRoom( pName, new TransporterRoom( pDescription, pImage ) );
+    } // createTransporterRoom(*,*,*)
+
+    /**
+     * Ajoute un objet au monde, sans le placer dans une salle.
+     *
+     * @param pItem l'objet à ajouter
+     * @return l'objet ajouté
+     */
+    public Item addItem( final Item pItem )
+    {
+        this.checkNotFrozen();
+        if ( this.aItems.containsKey( pItem.getName() ) ) {
+            throw new IllegalArgumentException( "objet déclaré deux fois '" + pItem.getName() + "'" );
+        }
+        pItem.setId( this.aItemList.size() );
+        this.aItemList.add( pItem );
+        this.aItems.put( pItem.getName(), pItem );
+        return pItem;
+    } // addItem(*)
+
+    /**
+     * Place un objet dans une salle au lancement de la partie.
+     *
+     * @param pRoom la salle
+     * @param pItem l'objet à y placer
+     */
+    public void placeItem( final Room pRoom, final Item pItem )
+    {
+        this.checkNotFrozen();
+        pRoom.addItem( pItem );
+    } // placeItem(*,*)
+
+    /**
+     * Définit la salle de départ du joueur.
+     *
+     * @param pRoom la salle de départ
+     */
+    public void setStartRoom( final Room pRoom )
+    {
+        this.checkNotFrozen();
+        this.aStartRoom = pRoom;
+    } // setStartRoom(*)
+
+    /**
+     * Fige le monde : il peut ensuite être partagé par plusieurs parties.
+     * Les portes sont numérotées à ce moment, en parcourant les salles dans l'ordre,
+     * puis les sorties de toutes les salles sont rangées dans le graphe du monde.
+     *
+     * @return ce monde
+     */
+    public World freeze()
+    {
+        if ( this.aStartRoom == null ) {
+            throw new IllegalStateException( "Le monde n'a pas de salle de départ." );
+        }
+        List<Door> vDoors = new ArrayList<Door>();
+        for ( Room vRoom : this.aRoomList ) {
+            for ( String vDirection : vRoom.getExitDirections() ) {
+                Door vDoor = vRoom.getDoor( vDirection );
+                if ( vDoor != null && ! this.aDoorIds.containsKey( vDoor ) ) {
+                    this.aDoorIds.put( vDoor, vDoors.size() );
+                    vDoors.add( vDoor );
+                }
+            }
+        }
+        this.aDoorList = vDoors.toArray( new Door[ vDoors.size() ] );
+        this.aGraph = new RoomGraph( this );
+        this.aDescriptions = new AtomicReferenceArray<String>( this.aRoomList.size() );
+        this.aRouteTables = new RouteIndex.TableCache( this.aRoomList.size() );
+        List<Room> vRandomRooms = new ArrayList<Room>();
+        for ( Room vRoom : this.aRooms.values() ) {
+            if ( ! ( vRoom instanceof TransporterRoom ) ) {
+                vRandomRooms.add( vRoom );
+            }
+        }
+        this.aRandomRooms = Collections.unmodifiableList( vRandomRooms );
+        for ( Room vRoom : this.aRoomList ) {
+            vRoom.setGraph( this.aGraph );
+        }
+        this.aFrozen = true;
+        return this;
+    } // freeze()
+
+    /**
+     * Renvoie une salle du monde.
+     *
+     * @param pName le nom de la salle
+     * @return la salle, ou null si elle n'existe pas
+     */
+    public Room getRoom( final String pName )
+    {
+        return this.aRooms.get( pName );
+    } // getRoom(*)
+
+    /**
+     * Renvoie une salle à partir de son numéro.
+     *
+     * @param pId le numéro de la salle
+     * @return la salle
+     * @throws IndexOutOfBoundsException si aucune salle ne porte ce numéro
+     */
+    public Room getRoom( final int pId )
+    {
+        return this.aRoomList.get( pId );
+    } // getRoom(*)
+
+    /**
+     * Renvoie le nom d'une salle du monde.
+     *
+     * @param pRoom la salle
+     * @return le nom de la salle
+     */
+    public String getRoomName( final Room pRoom )
+    {
+        return this.aRoomNames.get( pRoom.getId() );
+    } // getRoomName(*)
+
+    /**
+     * Renvoie le nombre de salles du monde.
+     *
+     * @return le nombre de salles
+     */
+    public int getRoomCount()
+    {
+        return this.aRoomList.size();
+    } // getRoomCount()
+
+    /**
+     * Renvoie les salles du monde, dans l'ordre de leurs numéros.
+     *
+     * @return les salles (non modifiables)
+     */
+    public List<Room> getRoomList()
+    {
+        return Collections.unmodifiableList( this.aRoomList );
+    } // getRoomList()
+
+    /**
+     * Renvoie un objet à partir de son numéro.
+     *
+     * @param pId le numéro de l'objet
+     * @return l'objet
+     * @throws IndexOutOfBoundsException si aucun objet ne porte ce numéro
+     */
+    public Item getItem( final int pId )
+    {
+        return this.aItemList.get( pId );
+    } // getItem(*)
+
+    /**
+     * Renvoie le nombre d'objets du monde.
+     *
+     * @return le nombre d'objets
+     */
+    public int getItemCount()
+    {
+        return this.aItemList.size();
+    } // getItemCount()
+
+    /**
+     * Renvoie les objets du monde, dans l'ordre de leurs numéros.
+     *
+     * @return les objets (non modifiables)
+     */
+    public List<Item> getItemList()
+    {
+        return Collections.unmodifiableList( this.aItemList );
+    } // getItemList()
+
+    /**
+     * Renvoie une porte à partir de son numéro (une fois le monde figé).
+     *
+     * @param pId le numéro de la porte
+     * @return la porte
+     * @throws IndexOutOfBoundsException si aucune porte ne porte ce numéro
+     */
+    public Door getDoor( final int pId )
+    {
+        return this.aDoorList[ pId ];
+    } // getDoor(*)
+
+    /**
+     * Renvoie le numéro d'une porte (une fois le monde figé).
+     *
+     * @param pDoor la porte
+     * @return le numéro de la porte, ou -1 si elle ne fait pas partie du monde
+     */
+    public int getDoorId( final Door pDoor )
+    {
+        Integer vId = this.aDoorIds.get( pDoor );
+        return vId == null ? -1 : vId;
+    } // getDoorId(*)
+
+    /**
+     * Renvoie le nombre de portes du monde (une fois le monde figé).
+     *
+     * @return le nombre de portes
+     */
+    public int getDoorCount()
+    {
+        return this.aDoorList.length;
+    } // getDoorCount()
+
+    /**
+     * Renvoie le graphe des sorties de toutes les salles (une fois le monde figé).
+     *
+     * @return le graphe des sorties
+     */
+    public RoomGraph getGraph()
+    {
+        return this.aGraph;
+    } // getGraph()
+
+    /**
+     * Renvoie les salles parmi lesquelles tirer au sort la destination d'une salle de téléportation
+     * aléatoire : toutes sauf les salles de téléportation, calculées une seule fois pour toutes les parties
+     * (une fois le monde figé).
+     *
+     * @return les salles éligibles au tirage, non modifiables
+     */
+    public List<Room> getRandomRooms()
+    {
+        return this.aRandomRooms;
+    } // getRandomRooms()
+
+    /**
+     * Renvoie les tables d'itinéraires partagées par les parties (une fois le monde figé).
+     *
+     * @return le cache des tables d'itinéraires
+     */
+    RouteIndex.TableCache getRouteTables()
+    {
+        return this.aRouteTables;
+    } // getRouteTables()
+
+    /**
+     * Renvoie la description d'une salle au lancement du jeu, si une partie l'a déjà calculée.
+     *
+     * @param pRoom la salle
+     * @return la description de départ, ou null s'il faut la calculer
+     */
+    String getInitialDescription( final Room pRoom )
+    {
+        return this.aDescriptions.get( pRoom.getId() );
+    } // getInitialDescription(*)
+
+    /**
+     * Garde la description d'une salle au lancement du jeu, pour toutes les parties.
+     * Deux parties qui la calculent en même temps obtiennent le même texte : la dernière gagne.
+     *
+     * @param pRoom la salle
+     * @param pDescription sa description, avec ses objets et ses portes de départ
+     */
+    void setInitialDescription( final Room pRoom, final String pDescription )
+    {
+        this.aDescriptions.set( pRoom.getId(), pDescription );
+    } // setInitialDescription(*,*)
+
+    /**
+     * Renvoie toutes les salles du monde.
+     *
+     * @return les salles (nom -> salle), non modifiables
+     */
+    public Map<String, Room> getRooms()
+    {
+        return Collections.unmodifiableMap( this.aRooms );
+    } // getRooms()
+
+    /**
+     * Renvoie tous les objets du monde.
+     *
+     * @return les objets (nom -> objet), non modifiables
+     */
+    public Map<String, Item> getItems()
+    {
+        return Collections.unmodifiableMap( this.aItems );
+    } // getItems()
+
+    /**
+     * Renvoie un objet du monde, où qu'il se trouve.
+     *
+     * @param pName le nom de l'objet
+     * @return l'objet, ou null s'il n'existe pas
+     */
+    public Item getItem( final String pName )
+    {
+        return this.aItems.get( pName );
+    } // getItem(*)
+
+    /**
+     * Renvoie la salle de départ du joueur.
+     *
+     * @return la salle de départ
+     */
+    public Room getStartRoom()
+    {
+        return this.aStartRoom;
+    } // getStartRoom()
+
+    /**
+     * Ajoute une salle au monde.
+     *
+     * @param pName le nom unique de la salle
+     * @param pRoom la salle
+     * @return la salle ajoutée
+     */
+    private Room addRoom( final String pName, final Room pRoom )
+    {
+        this.checkNotFrozen();
+        if ( this.aRooms.containsKey( pName ) ) {
+            throw new IllegalArgumentException( "salle déclarée deux fois '" + pName + "'" );
+        }
+        pRoom.setId( this.aRoomList.size() );
+        this.aRoomList.add( pRoom );
+        this.aRoomNames.add( pName );
+        this.aRooms.put( pName, pRoom );
+        return pRoom;
+    } // addRoom(*,*)
+
+    /**
+     * Vérifie que le monde peut encore être modifié.
+     */
+    private void checkNotFrozen()
+    {
+        if ( this.aFrozen ) {
+            throw new IllegalStateException( "Le monde est figé et partagé entre les parties." );
+        }
+    } // checkNotFrozen()
+} // World
@@ -0,0 +1,466 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Classe WorldLoader - lit un monde du jeu "le mystère des ruines Sheikah" depuis un fichier.
+ * Deux formes sont acceptées :
+ *  - la forme texte (.monde), modifiable à la main, décrite en tête de ruines_sheikah.monde ;
+ *  - la forme binaire compacte écrite par WorldWriter, qui commence par "SHKW".
+ * Dans les deux cas le fichier est lu au fil de l'eau : chaque ligne (ou enregistrement)
+ * est appliquée directement au monde en construction, sans représentation intermédiaire.
+ * Le fichier binaire est projeté en mémoire (memory-mapped) plutôt que lu dans un tampon.
+ *
+ * @author  Benoît de Keyn
+ * @version 2026.01.29
+ */
+public class WorldLoader
+{
+    /** Le fichier du monde par défaut (ressource du jeu, ou fichier du dossier courant). */
+    public static final String DEFAULT_WORLD = "ruines_sheikah.monde";
+
+    /** Les premiers octets d'un monde binaire. */
+    static final byte[] MAGIC = { 'S', 'H', 'K', 'W' };
+
+    /** La version du format binaire. */
+    static final short VERSION = 1;
+
+    /** Le nombre maximum de champs d'une ligne du format texte. */
+    private static final int MAX_FIELDS = 6;
+
+    /** Les tailles minimales, en octets, d'un élément du format binaire : objet (genre, deux chaînes, poids). */
+    private static final int ITEM_BYTES = 1 + 2 + 2 + 8;
+
+    /** Salle (genre, trois chaînes). */
+    private static final int ROOM_BYTES = 1 + 2 + 2 + 2;
+
+    /** Porte (objet clé). */
+    private static final int DOOR_BYTES = 4;
+
+    /** Sortie (salle de départ, direction, salle d'arrivée, porte). */
+    private static final int EXIT_BYTES = 4 + 1 + 4 + 4;
+
+    /** Objet placé (salle, objet). */
+    private static final int PLACE_BYTES = 4 + 4;
+
+    /** Constructeur privé : cette classe ne contient que des méthodes de classe. */
+    private WorldLoader()
+    {
+    } // WorldLoader()
+
+    /**
+     * Charge le monde par défaut : le fichier donné par la propriété système "sheikah.world"
+     * s'il y en a un, sinon la ressource ruines_sheikah.monde, sinon le fichier du même nom
+     * dans le dossier courant.
+     *
+     * @return le monde chargé, figé
+     * @throws IOException si le monde est introuvable ou mal écrit
+     */
+    public static World loadDefault() throws IOException
+    {
+        String vFile = System.getProperty( "sheikah.world" );
+        if ( vFile != null ) {
+            return load( Path.of( vFile ) );
+        }
+        InputStream vStream = WorldLoader.class.getClassLoader().getResourceAsStream( DEFAULT_WORLD );
+        if ( vStream == null ) {
+            return load( Path.of( DEFAULT_WORLD ) );
+        }
+        try ( BufferedReader vReader = new BufferedReader( new InputStreamReader( vStream, StandardCharsets.UTF_8 ) ) ) {
+            return loadText( vReader, DEFAULT_WORLD );
+        }
+    } // loadDefault()
+
+    /**
+     * Charge un monde depuis un fichier, texte ou binaire (reconnu à ses premiers octets).
+     *
+     * @param pFile le fichier du monde
+     * @return le monde chargé, figé
+     * @throws IOException si le fichier est illisible ou mal écrit
+     */
+    public static World load( final Path pFile ) throws IOException
+    {
+        try ( FileChannel vChannel = FileChannel.open( pFile, StandardOpenOption.READ ) ) {
+            if ( isBinary( vChannel ) ) {
+                return loadBinary( vChannel.map( FileChannel.MapMode.READ_ONLY, 0, vChannel.size() ), pFile.toString() );
+            }
+        }
+        try ( BufferedReader vReader = Files.newBufferedReader( pFile, StandardCharsets.UTF_8 ) ) {
+            return loadText( vReader, pFile.toString() );
+        }
+    } // load(*)
+
+    /**
+     * Construit un monde à partir de sa forme texte, ligne par ligne.
+     *
+     * @param pReader le texte du monde
+     * @param pSource le nom du fichier (pour les messages d'erreur)
+     * @return le monde chargé, figé
+     * @throws IOException si le texte est illisible ou mal écrit
+     */
+    public static World loadText( final BufferedReader pReader, final String pSource ) throws IOException
+    {
+        World vWorld = new World();
+        String[] vFields = new String[ MAX_FIELDS + 1 ];
+        StringBuilder vBuffer = new StringBuilder();
+        int vLineNumber = 0;
+        String vLine;
+        while ( ( vLine = pReader.readLine() ) != null ) {
+            vLineNumber++;
+            if ( vLine.isEmpty() || vLine.charAt( 0 ) == '#' || vLine.trim().isEmpty() ) {
+                continue;
+            }
+            try {
+                int vCount = split( vLine, vFields, vBuffer );
+                applyLine( vWorld, vFields, vCount );
+            }
+            catch ( final IllegalArgumentException | IllegalStateException pE ) {
+                throw new IOException( pSource + ", ligne " + vLineNumber + " : " + pE.getMessage() );
+            }
+        }
+        try {
+            return vWorld.freeze();
+        }
+        catch ( final IllegalStateException pISE ) {
+            throw new IOException( pSource + " : " + pISE.getMessage() );
+        }
+    } // loadText(*,*)
+
+    /**
+     * Construit un monde à partir de sa forme binaire (voir WorldWriter).
+     *
+     * @param pBuffer le contenu du fichier binaire
+     * @param pSource le nom du fichier (pour les messages d'erreur)
+     * @return le monde chargé, figé
+     * @throws IOException si le contenu n'est pas un monde binaire valide
+     */
+    public static World loadBinary( final ByteBuffer pBuffer, final String pSource ) throws IOException
+    {
+        try {
+            for ( byte vByte : MAGIC ) {
+                if ( pBuffer.get() != vByte ) {
+                    throw new IOException( pSource + " n'est pas un monde binaire." );
+                }
+            }
+            short vVersion = pBuffer.getShort();
+            if ( vVersion != VERSION ) {
+                throw new IOException( pSource + " : version " + vVersion + " du format binaire non prise en charge." );
+            }
+            World vWorld = new World();
+            Direction[] vDirections = Direction.values();
+            byte[] vScratch = new byte[ 256 ];
+
+            Item[] vItems = new Item[ readCount( pBuffer, ITEM_BYTES, pSource ) ];
+            for ( int vI = 0; vI < vItems.length; vI++ ) {
+                byte vKind = pBuffer.get();
+                String vName = readString( pBuffer, vScratch );
+                String vDescription = readString( pBuffer, vScratch );
+                double vWeight = pBuffer.getDouble();
+                vItems[vI] = vWorld.addItem( vKind == WorldWriter.KIND_BEAMER
+                    ? new Beamer( vName, vDescription, vWeight )
+                    : new Item( vName, vDescription, vWeight ) );
+            }
+
+            Room[] vRooms = new Room[ readCount( pBuffer, ROOM_BYTES, pSource ) ];
+            for ( int vI = 0; vI < vRooms.length; vI++ ) {
+                byte vKind = pBuffer.get();
+                String vName = readString( pBuffer, vScratch );
+                String vDescription = readString( pBuffer, vScratch );
+                String vImage = readString( pBuffer, vScratch );
+                if ( vImage.isEmpty() ) {
+                    vImage = null;
+                }
+                vRooms[vI] = vKind == WorldWriter.KIND_TRANSPORTER
+                    ? vWorld.createTransporterRoom( vName, vDescription, vImage )
+                    : vWorld.createRoom( vName, vDescription, vImage );
+            }
+
+            Door[] vDoors = new Door[ readCount( pBuffer, DOOR_BYTES, pSource ) ];
+            for ( int vI = 0; vI < vDoors.length; vI++ ) {
+                vDoors[vI] = new Door( vItems[ pBuffer.getInt() ] );
+            }
+
+            int vExitCount = readCount( pBuffer, EXIT_BYTES, pSource );
+            for ( int vI = 0; vI < vExitCount; vI++ ) {
+                Room vFrom = vRooms[ pBuffer.getInt() ];
+                String vDirection = vDirections[ pBuffer.get() ].getWord();
+                Room vTo = vRooms[ pBuffer.getInt() ];
+                int vDoor = pBuffer.getInt();
+                Room.connectRooms( vFrom, vDirection, vTo );
+                if ( vDoor >= 0 ) {
+                    vFrom.setDoor( vDirection, vDoors[ vDoor ] );
+                }
+            }
+
+            int vPlaceCount = readCount( pBuffer, PLACE_BYTES, pSource );
+            for ( int vI = 0; vI < vPlaceCount; vI++ ) {
+                Room vRoom = vRooms[ pBuffer.getInt() ];
+                vWorld.placeItem( vRoom, vItems[ pBuffer.getInt() ] );
+            }
+
+            vWorld.setStartRoom( vRooms[ pBuffer.getInt() ] );
+            return vWorld.freeze();
+        }
+        catch ( final BufferUnderflowException | IndexOutOfBoundsException | IllegalStateException pE ) {
+            throw new IOException( pSource + " : monde binaire tronqué ou corrompu." );
+        }
+        catch ( final IllegalArgumentException pIAE ) { // salle ou objet déclaré deux fois...
+            throw new IOException( pSource + " : " + pIAE.getMessage() );
+        }
+    } // loadBinary(*,*)
+
+    /**
+     * Lit un nombre d'éléments du format binaire et vérifie qu'il peut tenir dans ce qui reste à lire,
+     * avant de s'en servir pour allouer un tableau.
+     *
+     * @param pBuffer le contenu du fichier binaire
+     * @param pMinBytes le nombre d'octets minimal d'un élément
+     * @param pSource le nom du fichier (pour les messages d'erreur)
+     * @return le nombre d'éléments
+     * @throws IOException si le nombre est négatif ou trop grand pour le reste du fichier
+     */
+    private static int readCount( final ByteBuffer pBuffer, final int pMinBytes, final String pSource ) throws IOException
+    {
+        int vCount = pBuffer.getInt();
+        if ( vCount < 0 || vCount > pBuffer.remaining() / pMinBytes ) {
+            throw new IOException( pSource + " : monde binaire corrompu (" + vCount + " éléments annoncés)." );
+        }
+        return vCount;
+    } // readCount(*,*,*)
+
+    /**
+     * Indique si un fichier commence par les octets d'un monde binaire.
+     *
+     * @param pChannel le fichier ouvert (sa position n'a pas d'importance)
+     * @return true si c'est un monde binaire, false sinon
+     * @throws IOException si le fichier est illisible
+     */
+    private static boolean isBinary( final FileChannel pChannel ) throws IOException
+    {
+        ByteBuffer vHead = ByteBuffer.allocate( MAGIC.length );
+        while ( vHead.hasRemaining() && pChannel.read( vHead, vHead.position() ) > 0 ) {
+            // lecture des premiers octets
+        }
+        if ( vHead.hasRemaining() ) {
+            return false;
+        }
+        for ( int vI = 0; vI < MAGIC.length; vI++ ) {
+            if ( vHead.get( vI ) != MAGIC[vI] ) {
+                return false;
+            }
+        }
+        return true;
+    } // isBinary(*)
+
+    /**
+     * Applique une ligne du format texte au monde en construction.
+     *
+     * @param pWorld le monde en construction
+     * @param pFields les champs de la ligne
+     * @param pCount le nombre de champs
+     */
+    private static void applyLine( final World pWorld, final String[] pFields, final int pCount )
+    {
+        String vKind = pFields[0];
+        switch ( vKind ) {
+            case "objet" -> {
+                checkCount( vKind, pCount, 4 );
+                pWorld.addItem( new Item( pFields[1], pFields[2], parseWeight( pFields[3] ) ) );
+            }
+            case "teleporteur" -> {
+                checkCount( vKind, pCount, 4 );
+                pWorld.addItem( new Beamer( pFields[1], pFields[2], parseWeight( pFields[3] ) ) );
+            }
+            case "salle" -> {
+                checkCount( vKind, pCount, 4 );
+                pWorld.createRoom( pFields[1], pFields[2], pFields[3].isEmpty() ? null : pFields[3] );
+            }
+            case "transporteur" -> {
+                checkCount( vKind, pCount, 4 );
+                pWorld.createTransporterRoom( pFields[1], pFields[2], pFields[3].isEmpty() ? null : pFields[3] );
+            }
+            case "passage" -> {
+                if ( pCount == 4 ) {
+                    Room.connectRooms( room( pWorld, pFields[1] ), direction( pFields[2] ), room( pWorld, pFields[3] ) );
+                }
+                else {
+                    checkCount( vKind, pCount, 5 );
+                    Room.connectRooms( room( pWorld, pFields[1] ), direction( pFields[2] ),
+                        room( pWorld, pFields[3] ), direction( pFields[4] ) );
+                }
+            }
+            case "porte" -> {
+                if ( pCount == 5 ) {
+                    Room.connectRooms( room( pWorld, pFields[1] ), direction( pFields[2] ),
+                        room( pWorld, pFields[3] ), item( pWorld, pFields[4] ) );
+                }
+                else {
+                    checkCount( vKind, pCount, 6 );
+                    Room.connectRooms( room( pWorld, pFields[1] ), direction( pFields[2] ),
+                        room( pWorld, pFields[3] ), direction( pFields[4] ), item( pWorld, pFields[5] ) );
+                }
+            }
+            case "place" -> {
+                checkCount( vKind, pCount, 3 );
+                pWorld.placeItem( room( pWorld, pFields[1] ), item( pWorld, pFields[2] ) );
+            }
+            case "depart" -> {
+                checkCount( vKind, pCount, 2 );
+                pWorld.setStartRoom( room( pWorld, pFields[1] ) );
+            }
+            default -> throw new IllegalArgumentException( "élément inconnu '" + vKind + "'" );
+        }
+    } // applyLine(*,*,*)
+
+    /**
+     * Découpe une ligne du format texte en champs séparés par '|', en interprétant
+     * les séquences "\n", "\|" et "\\".
+     *
+     * @param pLine la ligne
+     * @param pFields le tableau qui reçoit les champs
+     * @param pBuffer un tampon de travail, réutilisé d'une ligne à l'autre
+     * @return le nombre de champs
+     */
+    private static int split( final String pLine, final String[] pFields, final StringBuilder pBuffer )
+    {
+        int vCount = 0;
+        if ( pLine.indexOf( '\\' ) < 0 ) { // cas courant : aucune séquence à interpréter, pas de copie
+            int vStart = 0;
+            int vEnd;
+            while ( ( vEnd = pLine.indexOf( '|', vStart ) ) >= 0 ) {
+                if ( vCount == MAX_FIELDS ) {
+                    throw new IllegalArgumentException( "trop de champs" );
+                }
+                pFields[ vCount++ ] = pLine.substring( vStart, vEnd );
+                vStart = vEnd + 1;
+            }
+            pFields[ vCount++ ] = pLine.substring( vStart );
+            return vCount;
+        }
+        pBuffer.setLength( 0 );
+        for ( int vI = 0; vI < pLine.length(); vI++ ) {
+            char vChar = pLine.charAt( vI );
+            if ( vChar == '\\' && vI + 1 < pLine.length() ) {
+                char vNext = pLine.charAt( ++vI );
+                pBuffer.append( vNext == 'n' ? '\n' : vNext );
+            }
+            else if ( vChar == '|' ) {
+                if ( vCount == MAX_FIELDS ) {
+                    throw new IllegalArgumentException( "trop de champs" );
+                }
+                pFields[ vCount++ ] = pBuffer.toString();
+                pBuffer.setLength( 0 );
+            }
+            else {
+                pBuffer.append( vChar );
+            }
+        }
+        pFields[ vCount++ ] = pBuffer.toString();
+        return vCount;
+    } // split(*,*,*)
+
+    /**
+     * Vérifie le nombre de champs d'une ligne.
+     *
+     * @param pKind le type de l'élément décrit par la ligne
+     * @param pCount le nombre de champs de la ligne
+     * @param pExpected le nombre de champs attendu
+     */
+    private static void checkCount( final String pKind, final int pCount, final int pExpected )
+    {
+        if ( pCount != pExpected ) {
+            throw new IllegalArgumentException( "'" + pKind + "' attend " + ( pExpected - 1 ) + " champs, pas " + ( pCount - 1 ) );
+        }
+    } // checkCount(*,*,*)
+
+    /**
+     * Renvoie une salle déjà déclarée.
+     *
+     * @param pWorld le monde en construction
+     * @param pName le nom de la salle
+     * @return la salle
+     */
+    private static Room room( final World pWorld, final String pName )
+    {
+        Room vRoom = pWorld.getRoom( pName );
+        if ( vRoom == null ) {
+            throw new IllegalArgumentException( "salle inconnue '" + pName + "'" );
+        }
+        return vRoom;
+    } // room(*,*)
+
+    /**
+     * Renvoie un objet déjà déclaré.
+     *
+     * @param pWorld le monde en construction
+     * @param pName le nom de l'objet
+     * @return l'objet
+     */
+    private static Item item( final World pWorld, final String pName )
+    {
+        Item vItem = pWorld.getItem( pName );
+        if ( vItem == null ) {
+            throw new IllegalArgumentException( "objet inconnu '" + pName + "'" );
+        }
+        return vItem;
+    } // item(*,*)
+
+    /**
+     * Renvoie le mot d'une direction du jeu (toujours la même chaîne pour une même direction).
+     *
+     * @param pWord le mot lu dans le fichier
+     * @return le mot de la direction
+     */
+    private static String direction( final String pWord )
+    {
+        for ( Direction vDirection : Direction.values() ) {
+            if ( vDirection.getWord().equals( pWord ) ) {
+                return vDirection.getWord();
+            }
+        }
+        throw new IllegalArgumentException( "direction inconnue '" + pWord + "'" );
+    } // direction(*)
+
+    /**
+     * Lit un poids en kilogrammes.
+     *
+     * @param pText le poids écrit dans le fichier
+     * @return le poids
+     */
+    private static double parseWeight( final String pText )
+    {
+        try {
+            return Double.parseDouble( pText );
+        }
+        catch ( final NumberFormatException pNFE ) {
+            throw new IllegalArgumentException( "poids invalide '" + pText + "'" );
+        }
+    } // parseWeight(*)
+
+    /**
+     * Lit une chaîne du format binaire : sa longueur en octets (sur deux octets) puis son texte en UTF-8.
+     *
+     * @param pBuffer le contenu du fichier binaire
+     * @param pScratch un tableau de travail, assez grand pour toutes les chaînes
+     * @return la chaîne lue
+     */
+    private static String readString( final ByteBuffer pBuffer, final byte[] pScratch )
+    {
+        int vLength = pBuffer.getShort() & 0xFFFF;
+        if ( vLength > pScratch.length ) {
+            byte[] vBytes = new byte[ vLength ];
+            pBuffer.get( vBytes );
+            return new String( vBytes, StandardCharsets.UTF_8 );
+        }
+        pBuffer.get( pScratch, 0, vLength );
+        return new String( pScratch, 0, vLength, StandardCharsets.UTF_8 );
+    } // readString(*,*)
+} // WorldLoader
@@ -0,0 +1,445 @@
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Classe WorldState - ce qui a changé dans le monde du jeu "le mystère des ruines Sheikah"
+ * pendant une partie : objets posés ou ramassés, portes ouvertes ou fermées, téléporteurs chargés.
+ * Le monde (World) est partagé par toutes les parties et n'est jamais modifié : chaque partie
+ * a son propre WorldState, qui ne garde que les différences avec le monde de départ.
+ * La liste d'objets d'une salle n'est recopiée que la première fois qu'on la modifie
+ * (copie sur écriture) ; une partie qui n'a encore rien touché ne coûte presque rien.
+ * Les salles tirées au sort sont notées dans le journal de la partie s'il y en a un,
+ * et imposées au tirage quand on rejoue ce journal (voir Journal).
+ * Les descriptions des salles sont gardées d'un affichage à l'autre : chaque salle a un numéro de version,
+ * augmenté quand ses objets changent ou quand une de ses portes est ouverte ou fermée.
+ * Une salle encore à la version 0 n'a jamais été modifiée : sa description est celle du lancement,
+ * partagée par toutes les parties dans le monde (World). Sinon la partie garde sa propre description,
+ * qui resservit tant que la version de la salle n'a pas changé. Les versions et les descriptions propres
+ * ne sont allouées qu'à la première modification : une partie qui n'a rien touché ne les paie pas.
+ *
+ * @author  Benoît de Keyn
+ * @version 2026.02.04
+ */
+public class WorldState
+{
+    /** Le monde partagé dont on garde les différences. */
+    private final World aWorld;
+
+    /** Les objets des salles modifiées dans cette partie (salle -> objets). */
+    private final HashMap<Room, ItemList> aRoomItems;
+
+    /** L'état des portes ouvertes ou fermées dans cette partie (porte -> verrouillée). */
+    private final HashMap<Door, Boolean> aDoorLocks;
+
+    /** Les salles dans lesquelles les téléporteurs ont été chargés (téléporteur -> salle). */
+    private final HashMap<Beamer, Room> aBeamerCharges;
+
+    /** Le tirage au sort des salles utilisé par les salles de téléportation aléatoire. */
+    private final RoomRandomizer aRandomizer;
+
+    /** Salle forcée par la commande alea en mode debug (null si aucune). */
+    private Room aForcedRoom;
+
+    /** Les salles à renvoyer aux prochains tirages au sort, pendant qu'on rejoue un journal. */
+    private final ArrayDeque<Room> aReplayRooms;
+
+    /** Le journal dans lequel noter les salles tirées au sort (null si aucun). */
+    private Journal aJournal;
+
+    /** Les itinéraires de la partie (créés à la première demande). */
+    private RouteIndex aRoutes;
+
+    /** La version de chaque salle, par numéro de salle (null tant qu'aucune salle n'a été modifiée). */
+    private int[] aRoomStamps;
+
+    /** La dernière description propre à la partie de chaque salle modifiée, par numéro de salle (null de même). */
+    private String[] aDescriptions;
+
+    /** La version de la salle pour laquelle chaque description a été calculée (null de même). */
+    private int[] aDescriptionStamps;
+
+    /**
+     * Crée l'état d'une nouvelle partie : le monde tel qu'il est au lancement.
+     *
+     * @param pWorld le monde partagé
+     */
+    public WorldState( final World pWorld )
+    {
+        this.aWorld = pWorld;
+        this.aRoomItems = new HashMap<Room, ItemList>();
+        this.aDoorLocks = new HashMap<Door, Boolean>();
+        this.aBeamerCharges = new HashMap<Beamer, Room>();
+        this.aRandomizer = new RoomRandomizer( pWorld );
+        this.aForcedRoom = null;
+        this.aReplayRooms = new ArrayDeque<Room>();
+        this.aJournal = null;
+        this.aRoutes = null;
+        this.aRoomStamps = null;
+        this.aDescriptions = null;
+        this.aDescriptionStamps = null;
+    } // WorldState(*)
+
+    /**
+     * Renvoie le monde partagé.
+     *
+     * @return le monde de cette partie
+     */
+    public World getWorld()
+    {
+        return this.aWorld;
+    } // getWorld()
+
+    /**
+     * Renvoie les objets présents dans une salle (à ne pas modifier directement).
+     *
+     * @param pRoom la salle
+     * @return les objets de la salle dans cette partie
+     */
+    public ItemList getItems( final Room pRoom )
+    {
+        ItemList vItems = this.aRoomItems.get( pRoom );
+        return vItems == null ? pRoom.getInitialItems() : vItems;
+    } // getItems(*)
+
+    /**
+     * Renvoie un objet présent dans une salle.
+     *
+     * @param pRoom la salle
+     * @param pItemName le nom de l'objet
+     * @return l'objet, ou null s'il n'est pas dans la salle
+     */
+    public Item getItem( final Room pRoom, final String pItemName )
+    {
+        return this.getItems( pRoom ).get( pItemName );
+    } // getItem(*,*)
+
+    /**
+     * Pose un objet dans une salle.
+     *
+     * @param pRoom la salle
+     * @param pItem l'objet à poser
+     */
+    public void addItem( final Room pRoom, final Item pItem )
+    {
+        this.getItemsForUpdate( pRoom ).add( pItem );
+        this.touch( pRoom );
+    } // addItem(*,*)
+
+    /**
+     * Retire un objet d'une salle.
+     *
+     * @param pRoom la salle
+     * @param pItemName le nom de l'objet à retirer
+     */
+    public void removeItem( final Room pRoom, final String pItemName )
+    {
+        this.getItemsForUpdate( pRoom ).remove( pItemName );
+        this.touch( pRoom );
+    } // removeItem(*,*)
+
+    /**
+     * Indique si une porte est verrouillée dans cette partie.
+     *
+     * @param pDoor la porte
+     * @return true si la porte est verrouillée, false sinon
+     */
+    public boolean isLocked( final Door pDoor )
+    {
+        Boolean vLocked = this.aDoorLocks.get( pDoor );
+        return vLocked == null ? pDoor.isLockedAtStart() : vLocked;
+    } // isLocked(*)
+
+    /**
+     * Verrouille ou déverrouille une porte dans cette partie.
+     *
+     * @param pDoor la porte
+     * @param pLocked true pour la verrouiller, false pour l'ouvrir
+     */
+    public void setLocked( final Door pDoor, final boolean pLocked )
+    {
+        if ( pLocked == pDoor.isLockedAtStart() ) {
+            this.aDoorLocks.remove( pDoor ); // retour à l'état de départ
+        }
+        else {
+            this.aDoorLocks.put( pDoor, pLocked );
+        }
+        RoomGraph vGraph = this.aWorld.getGraph();
+        int vDoorId = this.aWorld.getDoorId( pDoor );
+        for ( int vI = vGraph.getDoorRoomStart( vDoorId ); vI < vGraph.getDoorRoomEnd( vDoorId ); vI++ ) {
+            this.touch( vGraph.getDoorRoom( vI ) ); // les salles de part et d'autre de la porte
+        }
+        if ( this.aRoutes != null ) {
+            this.aRoutes.doorChanged( pDoor, pLocked );
+        }
+    } // setLocked(*,*)
+
+    /**
+     * Renvoie le plus court itinéraire entre deux salles dans cette partie,
+     * sans passer par les portes verrouillées.
+     *
+     * @param pFrom la salle de départ
+     * @param pTo la salle d'arrivée
+     * @return les directions à prendre (vide si les deux salles sont les mêmes),
+     *         ou null si la salle d'arrivée est inaccessible
+     */
+    public List<String> getRoute( final Room pFrom, final Room pTo )
+    {
+        if ( this.aRoutes == null ) {
+            this.aRoutes = new RouteIndex( this );
+        }
+        return this.aRoutes.getRoute( pFrom, pTo );
+    } // getRoute(*,*)
+
+    /**
+     * Charge un téléporteur avec une salle.
+     *
+     * @param pBeamer le téléporteur
+     * @param pRoom la salle mémorisée
+     */
+    public void charge( final Beamer pBeamer, final Room pRoom )
+    {
+        this.aBeamerCharges.put( pBeamer, pRoom );
+    } // charge(*,*)
+
+    /**
+     * Déclenche un téléporteur : renvoie la salle chargée et décharge le téléporteur.
+     *
+     * @param pBeamer le téléporteur
+     * @return la salle chargée, ou null si le téléporteur n'est pas chargé
+     */
+    public Room trigger( final Beamer pBeamer )
+    {
+        return this.aBeamerCharges.remove( pBeamer );
+    } // trigger(*)
+
+    /**
+     * Renvoie la salle dans laquelle un téléporteur est chargé, sans le décharger.
+     *
+     * @param pBeamer le téléporteur
+     * @return la salle chargée, ou null si le téléporteur n'est pas chargé
+     */
+    public Room getChargedRoom( final Beamer pBeamer )
+    {
+        return this.aBeamerCharges.get( pBeamer );
+    } // getChargedRoom(*)
+
+    /**
+     * Définit une salle forcée pour le prochain passage par une salle de téléportation aléatoire.
+     * Utile pour la commande de debug "alea nom_salle".
+     *
+     * @param pRoom la salle dans laquelle téléporter le joueur
+     */
+    public void setForcedRoom( final Room pRoom )
+    {
+        this.aForcedRoom = pRoom;
+    } // setForcedRoom(*)
+
+    /**
+     * Renvoie la destination d'un passage par une salle de téléportation aléatoire :
+     * la salle forcée s'il y en a une, sinon la prochaine salle d'un journal rejoué,
+     * sinon une salle tirée au sort (notée dans le journal de la partie).
+     *
+     * @return la salle de destination
+     */
+    public Room findRandomRoom()
+    {
+        if ( this.aForcedRoom != null ) {
+            Room vTemp = this.aForcedRoom;
+            this.aForcedRoom = null;
+            return vTemp;
+        }
+        Room vReplayed = this.aReplayRooms.poll();
+        if ( vReplayed != null ) {
+            return vReplayed;
+        }
+        Room vRoom = this.aRandomizer.findRandomRoom();
+        if ( this.aJournal != null ) {
+            this.aJournal.recordRoom( this.aWorld.getRoomName( vRoom ) );
+        }
+        return vRoom;
+    } // findRandomRoom()
+
+    /**
+     * Impose la salle renvoyée par un prochain tirage au sort (pour rejouer un journal).
+     *
+     * @param pRoom la salle tirée au sort la première fois
+     */
+    public void queueRandomRoom( final Room pRoom )
+    {
+        this.aReplayRooms.add( pRoom );
+    } // queueRandomRoom(*)
+
+    /**
+     * Définit le journal dans lequel noter les salles tirées au sort.
+     *
+     * @param pJournal le journal de la partie (null pour ne plus rien noter)
+     */
+    public void setJournal( final Journal pJournal )
+    {
+        this.aJournal = pJournal;
+    } // setJournal(*)
+
+    /**
+     * Rend les tirages au sort de cette partie reproductibles.
+     *
+     * @param pSeed la graine du générateur aléatoire
+     */
+    public void setRandomSeed( final long pSeed )
+    {
+        this.aRandomizer.setSeed( pSeed );
+    } // setRandomSeed(*)
+
+    /**
+     * Renvoie les salles dont les objets ont changé dans cette partie, avec leurs objets.
+     *
+     * @return les listes d'objets modifiées (salle -> objets), non modifiables
+     */
+    Map<Room, ItemList> getModifiedRooms()
+    {
+        return Collections.unmodifiableMap( this.aRoomItems );
+    } // getModifiedRooms()
+
+    /**
+     * Renvoie les portes dont l'état diffère de celui du lancement du jeu.
+     *
+     * @return les portes modifiées (porte -> verrouillée), non modifiables
+     */
+    Map<Door, Boolean> getModifiedDoors()
+    {
+        return Collections.unmodifiableMap( this.aDoorLocks );
+    } // getModifiedDoors()
+
+    /**
+     * Renvoie les téléporteurs chargés.
+     *
+     * @return les téléporteurs chargés (téléporteur -> salle), non modifiables
+     */
+    Map<Beamer, Room> getBeamerCharges()
+    {
+        return Collections.unmodifiableMap( this.aBeamerCharges );
+    } // getBeamerCharges()
+
+    /**
+     * Renvoie la salle forcée pour le prochain passage par une salle de téléportation aléatoire.
+     *
+     * @return la salle forcée, ou null si aucune
+     */
+    Room getForcedRoom()
+    {
+        return this.aForcedRoom;
+    } // getForcedRoom()
+
+    /**
+     * Remet le monde de cette partie dans son état de départ.
+     */
+    void reset()
+    {
+        this.aRoomItems.clear();
+        this.aDoorLocks.clear();
+        this.aBeamerCharges.clear();
+        this.aForcedRoom = null;
+        this.aRoutes = null; // les portes ont changé d'un coup : l'index repartira du nouvel état des portes
+        this.aRoomStamps = null; // toutes les salles sont revenues à leur état de départ
+        this.aDescriptions = null;
+        this.aDescriptionStamps = null;
+    } // reset()
+
+    /**
+     * Renvoie la description gardée d'une salle, si rien n'a changé depuis dans la salle (objets)
+     * ni dans ses portes : celle du monde partagé si la partie n'a pas modifié la salle, sinon la sienne.
+     *
+     * @param pRoom la salle
+     * @return la description gardée, ou null s'il faut la recalculer
+     */
+    String getCachedDescription( final Room pRoom )
+    {
+        int vId = pRoom.getId();
+        if ( this.aRoomStamps == null || this.aRoomStamps[vId] == 0 ) {
+            return this.aWorld.getInitialDescription( pRoom );
+        }
+        return this.aDescriptionStamps[vId] == this.aRoomStamps[vId] ? this.aDescriptions[vId] : null;
+    } // getCachedDescription(*)
+
+    /**
+     * Garde la description d'une salle, calculée dans l'état actuel de la partie.
+     *
+     * @param pRoom la salle
+     * @param pDescription sa description
+     */
+    void cacheDescription( final Room pRoom, final String pDescription )
+    {
+        int vId = pRoom.getId();
+        if ( this.aRoomStamps == null || this.aRoomStamps[vId] == 0 ) {
+            this.aWorld.setInitialDescription( pRoom, pDescription );
+        }
+        else {
+            this.aDescriptions[vId] = pDescription;
+            this.aDescriptionStamps[vId] = this.aRoomStamps[vId];
+        }
+    } // cacheDescription(*,*)
+
+    /**
+     * Remplace les objets d'une salle (pour relire une sauvegarde).
+     *
+     * @param pRoom la salle
+     * @param pItems les objets de la salle
+     */
+    void setItems( final Room pRoom, final List<Item> pItems )
+    {
+        ItemList vItems = new ItemList();
+        for ( Item vItem : pItems ) {
+            vItems.add( vItem );
+        }
+        this.aRoomItems.put( pRoom, vItems );
+        this.touch( pRoom );
+    } // setItems(*,*)
+
+    /**
+     * Renvoie la liste d'objets d'une salle propre à cette partie, en recopiant
+     * celle du monde partagé la première fois.
+     *
+     * @param pRoom la salle
+     * @return la liste d'objets modifiable de la salle
+     */
+    private ItemList getItemsForUpdate( final Room pRoom )
+    {
+        ItemList vItems = this.aRoomItems.get( pRoom );
+        if ( vItems == null ) {
+            vItems = new ItemList( pRoom.getInitialItems() );
+            this.aRoomItems.put( pRoom, vItems );
+        }
+        return vItems;
+    } // getItemsForUpdate(*)
+
+    /**
+     * Note que les objets d'une salle ont changé (sa description gardée n'est plus valable).
+     *
+     * @param pRoom la salle
+     */
+    private void touch( final Room pRoom )
+    {
+        this.touch( pRoom.getId() );
+    } // touch(*)
+
+    /**
+     * Augmente la version d'une salle (sa description gardée n'est plus valable).
+     * La version 0 est réservée aux salles jamais modifiées : on la saute si le compteur fait le tour.
+     *
+     * @param pId le numéro de la salle
+     */
+    private void touch( final int pId )
+    {
+        if ( this.aRoomStamps == null ) {
+            int vRoomCount = this.aWorld.getRoomCount();
+            this.aRoomStamps = new int[ vRoomCount ];
+            this.aDescriptions = new String[ vRoomCount ];
+            this.aDescriptionStamps = new int[ vRoomCount ];
+        }
+        if ( ++this.aRoomStamps[pId] == 0 ) {
+            this.aRoomStamps[pId] = 1;
+        }
+    } // touch(*)
+} // WorldState
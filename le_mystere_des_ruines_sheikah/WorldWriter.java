@@ -0,0 +1,160 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Classe WorldWriter - écrit un monde du jeu "le mystère des ruines Sheikah" sous sa forme binaire compacte.
+ * Les salles, objets et portes y sont désignés par leur numéro et les directions par un octet,
+ * si bien que WorldLoader n'a aucun nom à rechercher en relisant le fichier.
+ *
+ * Format (entiers en gros-boutiste, chaînes = longueur sur deux octets puis texte UTF-8) :
+ *   "SHKW", version (short)
+ *   nombre d'objets (int), puis pour chacun : type (byte), nom, description, poids (double)
+ *   nombre de salles (int), puis pour chacune : type (byte), nom, description, image ("" si aucune)
+ *   nombre de portes (int), puis pour chacune : numéro de l'objet clé (int)
+ *   nombre de sorties (int), puis pour chacune : salle (int), direction (byte), salle voisine (int), porte (int, -1 si aucune)
+ *   nombre d'objets placés (int), puis pour chacun : salle (int), objet (int)
+ *   salle de départ (int)
+ *
+ * Conversion d'un monde texte : java WorldWriter ruines_sheikah.monde ruines_sheikah.shkw
+ *
+ * @author  Benoît de Keyn
+ * @version 2026.01.29
+ */
+public class WorldWriter
+{
+    /** Type d'objet : un objet ordinaire. */
+    static final byte KIND_ITEM = 0;
+
+    /** Type d'objet : un téléporteur portable (Beamer). */
+    static final byte KIND_BEAMER = 1;
+
+    /** Type de salle : une salle ordinaire. */
+    static final byte KIND_ROOM = 0;
+
+    /** Type de salle : une salle de téléportation aléatoire. */
+    static final byte KIND_TRANSPORTER = 1;
+
+    /** Constructeur privé : cette classe ne contient que des méthodes de classe. */
+    private WorldWriter()
+    {
+    } // WorldWriter()
+
+    /**
+     * Convertit un monde (texte ou binaire) en monde binaire.
+     *
+     * @param pArgs le fichier à lire puis le fichier binaire à écrire
+     * @throws IOException si un des fichiers est illisible ou mal écrit
+     */
+    public static void main( final String[] pArgs ) throws IOException
+    {
+        if ( pArgs.length != 2 ) {
+            System.out.println( "Usage : java WorldWriter monde.monde monde.shkw" );
+            return;
+        }
+        World vWorld = WorldLoader.load( Path.of( pArgs[0] ) );
+        write( vWorld, Path.of( pArgs[1] ) );
+        System.out.println( vWorld.getRooms().size() + " salles écrites dans " + pArgs[1] );
+    } // main(*)
+
+    /**
+     * Écrit un monde dans un fichier binaire.
+     * Les salles, les objets et les portes sont écrits dans l'ordre de leurs numéros,
+     * qui est aussi l'ordre de leur déclaration : une fois relu, le monde est numéroté de la même façon.
+     *
+     * @param pWorld le monde à écrire
+     * @param pFile le fichier binaire
+     * @throws IOException si le fichier ne peut pas être écrit
+     */
+    public static void write( final World pWorld, final Path pFile ) throws IOException
+    {
+        try ( DataOutputStream vOut = new DataOutputStream( new BufferedOutputStream( Files.newOutputStream( pFile ), 1 << 16 ) ) ) {
+            vOut.write( WorldLoader.MAGIC );
+            vOut.writeShort( WorldLoader.VERSION );
+
+            vOut.writeInt( pWorld.getItemCount() );
+            for ( Item vItem : pWorld.getItemList() ) {
+                vOut.writeByte( vItem instanceof Beamer ? KIND_BEAMER : KIND_ITEM );
+                writeString( vOut, vItem.getName() );
+                writeString( vOut, vItem.getDescription() );
+                vOut.writeDouble( vItem.getWeight() );
+            }
+
+            vOut.writeInt( pWorld.getRoomCount() );
+            for ( Room vRoom : pWorld.getRoomList() ) {
+                vOut.writeByte( vRoom instanceof TransporterRoom ? KIND_TRANSPORTER : KIND_ROOM );
+                writeString( vOut, pWorld.getRoomName( vRoom ) );
+                writeString( vOut, vRoom.getDescription() );
+                writeString( vOut, vRoom.getImageName() == null ? "" : vRoom.getImageName() );
+            }
+
+            vOut.writeInt( pWorld.getDoorCount() );
+            for ( int vI = 0; vI < pWorld.getDoorCount(); vI++ ) {
+                vOut.writeInt( pWorld.getDoor( vI ).getKey().getId() );
+            }
+
+            int vExitCount = 0;
+            int vPlaceCount = 0;
+            for ( Room vRoom : pWorld.getRoomList() ) {
+                vExitCount += vRoom.getExitDirections().size();
+                vPlaceCount += vRoom.getInitialItems().getItems().size();
+            }
+            vOut.writeInt( vExitCount );
+            for ( Room vRoom : pWorld.getRoomList() ) {
+                for ( String vDirection : vRoom.getExitDirections() ) {
+                    Door vDoor = vRoom.getDoor( vDirection );
+                    vOut.writeInt( vRoom.getId() );
+                    vOut.writeByte( direction( vDirection ).ordinal() );
+                    vOut.writeInt( vRoom.getExit( vDirection ).getId() );
+                    vOut.writeInt( vDoor == null ? -1 : pWorld.getDoorId( vDoor ) );
+                }
+            }
+
+            vOut.writeInt( vPlaceCount );
+            for ( Room vRoom : pWorld.getRoomList() ) {
+                for ( Item vItem : vRoom.getInitialItems().getItems() ) {
+                    vOut.writeInt( vRoom.getId() );
+                    vOut.writeInt( vItem.getId() );
+                }
+            }
+
+            vOut.writeInt( pWorld.getStartRoom().getId() );
+        }
+    } // write(*,*)
+
+    /**
+     * Renvoie la direction correspondant au mot d'une sortie.
+     *
+     * @param pWord le mot de la direction
+     * @return la direction
+     */
+    private static Direction direction( final String pWord )
+    {
+        for ( Direction vDirection : Direction.values() ) {
+            if ( vDirection.getWord().equals( pWord ) ) {
+                return vDirection;
+            }
+        }
+        throw new IllegalStateException( "Direction inconnue : " + pWord );
+    } // direction(*)
+
+    /**
+     * Écrit une chaîne : sa longueur en octets sur deux octets, puis son texte en UTF-8.
+     *
+     * @param pOut le fichier binaire
+     * @param pText la chaîne
+     * @throws IOException si le fichier ne peut pas être écrit
+     */
+    private static void writeString( final DataOutputStream pOut, final String pText ) throws IOException
+    {
+        byte[] vBytes = pText.getBytes( StandardCharsets.UTF_8 );
+        if ( vBytes.length > 0xFFFF ) {
+            throw new IOException( "Texte trop long pour le format binaire : " + pText.substring( 0, 40 ) + "..." );
+        }
+        pOut.writeShort( vBytes.length );
+        pOut.write( vBytes );
+    } // writeString(*,*)
+} // WorldWriter